@@ -20,7 +20,7 @@ import java.nio.file.Paths;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
-import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 
 import io.cryostat.core.log.Logger;
 import io.cryostat.core.sys.Environment;
@@ -73,7 +73,8 @@ public abstract class ConfigurationModule {
 
     @Provides
     @Singleton
-    static StoredCredentialsDao provideStoredCredentialsDao(EntityManager em, Logger logger) {
-        return new StoredCredentialsDao(em, logger);
+    static StoredCredentialsDao provideStoredCredentialsDao(
+            EntityManagerFactory emf, Logger logger) {
+        return new StoredCredentialsDao(emf, logger);
     }
 }
@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.script.ScriptException;
 
@@ -37,6 +38,7 @@ import io.cryostat.core.net.Credentials;
 import io.cryostat.core.sys.FileSystem;
 import io.cryostat.platform.PlatformClient;
 import io.cryostat.platform.ServiceRef;
+import io.cryostat.platform.TargetDiscoveryEvent;
 import io.cryostat.rules.MatchExpressionEvaluator;
 import io.cryostat.rules.MatchExpressionValidationException;
 import io.cryostat.rules.MatchExpressionValidator;
@@ -62,6 +64,10 @@ public class CredentialsManager
     private final Gson gson;
     private final Logger logger;
 
+    // stored credentials are decrypted once per snapshot rather than loaded on every lookup
+    private volatile CredentialsSnapshot snapshot;
+    private final Map<String, ServiceRef> targetsById = new ConcurrentHashMap<>();
+
     CredentialsManager(
             Path credentialsDir,
             MatchExpressionValidator matchExpressionValidator,
@@ -79,6 +85,49 @@ public class CredentialsManager
         this.fs = fs;
         this.gson = gson;
         this.logger = logger;
+
+        this.platformClient.addTargetDiscoveryListener(this::onTargetDiscovery);
+    }
+
+    private void onTargetDiscovery(TargetDiscoveryEvent tde) {
+        switch (tde.getEventKind()) {
+            case LOST:
+            case MODIFIED:
+                // a modified target is a new ServiceRef and is resolved on its next lookup, so
+                // only the stale entries for its previous incarnation need to be dropped
+                URI serviceUri = tde.getServiceRef().getServiceUri();
+                targetsById
+                        .values()
+                        .removeIf(ref -> Objects.equals(ref.getServiceUri(), serviceUri));
+                CredentialsSnapshot current = this.snapshot;
+                if (current != null) {
+                    current.resolved
+                            .keySet()
+                            .removeIf(ref -> Objects.equals(ref.getServiceUri(), serviceUri));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private CredentialsSnapshot snapshot() {
+        CredentialsSnapshot current = this.snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = new CredentialsSnapshot(dao.getAll());
+            }
+            return snapshot;
+        }
+    }
+
+    // called after the stored credentials are changed. A lookup racing with the change can only
+    // populate the discarded snapshot, since it is loaded and discarded under the same lock
+    private synchronized void invalidate() {
+        snapshot = null;
     }
 
     // TODO remove after 2.2 release
@@ -146,6 +195,7 @@ public class CredentialsManager
             throws MatchExpressionValidationException {
         matchExpressionValidator.validate(matchExpression);
         StoredCredentials saved = dao.save(new StoredCredentials(matchExpression, credentials));
+        invalidate();
         emit(CredentialsEvent.ADDED, matchExpression);
         return saved.getId();
     }
@@ -164,6 +214,10 @@ public class CredentialsManager
     }
 
     public Credentials getCredentialsByTargetId(String targetId) throws ScriptException {
+        ServiceRef cached = targetsById.get(targetId);
+        if (cached != null) {
+            return getCredentials(cached);
+        }
         try {
             for (ServiceRef service : this.platformClient.listDiscoverableServices()) {
                 URI uri = service.getServiceUri();
@@ -178,6 +232,7 @@ public class CredentialsManager
                     match |= Objects.equals(userless, in);
                 }
                 if (match) {
+                    targetsById.put(targetId, service);
                     return getCredentials(service);
                 }
             }
@@ -188,12 +243,20 @@ public class CredentialsManager
     }
 
     public Credentials getCredentials(ServiceRef serviceRef) throws ScriptException {
-        for (StoredCredentials sc : dao.getAll()) {
-            if (matchExpressionEvaluator.get().applies(sc.getMatchExpression(), serviceRef)) {
-                return sc.getCredentials();
+        CredentialsSnapshot current = snapshot();
+        Optional<Credentials> resolved = current.resolved.get(serviceRef);
+        if (resolved == null) {
+            resolved = Optional.empty();
+            for (StoredCredentials sc : current.credentials) {
+                if (matchExpressionEvaluator.get().applies(sc.getMatchExpression(), serviceRef)) {
+                    resolved = Optional.of(sc.getCredentials());
+                    break;
+                }
             }
+            // keyed by a copy, since the caller's reference may be mutated after this returns
+            current.resolved.putIfAbsent(new ServiceRef(serviceRef), resolved);
         }
-        return null;
+        return resolved.orElse(null);
     }
 
     public Collection<ServiceRef> getServiceRefsWithCredentials() throws ScriptException {
@@ -242,7 +305,9 @@ public class CredentialsManager
         dao.get(id)
                 .map(StoredCredentials::getMatchExpression)
                 .ifPresent(c -> emit(CredentialsEvent.REMOVED, c));
-        return dao.delete(id);
+        boolean deleted = dao.delete(id);
+        invalidate();
+        return deleted;
     }
 
     public Map<Integer, String> getAll() {
@@ -253,6 +318,16 @@ public class CredentialsManager
         return result;
     }
 
+    private static class CredentialsSnapshot {
+        // in evaluation order
+        private final List<StoredCredentials> credentials;
+        private final Map<ServiceRef, Optional<Credentials>> resolved = new ConcurrentHashMap<>();
+
+        CredentialsSnapshot(List<StoredCredentials> credentials) {
+            this.credentials = List.copyOf(credentials);
+        }
+    }
+
     public static class MatchedCredentials {
         private final String matchExpression;
         private final Collection<ServiceRef> targets;
@@ -15,13 +15,13 @@
  */
 package io.cryostat.configuration;
 
-import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 
 import io.cryostat.core.log.Logger;
 import io.cryostat.storage.AbstractDao;
 
 class StoredCredentialsDao extends AbstractDao<Integer, StoredCredentials> {
-    StoredCredentialsDao(EntityManager em, Logger logger) {
-        super(StoredCredentials.class, em, logger);
+    StoredCredentialsDao(EntityManagerFactory emf, Logger logger) {
+        super(StoredCredentials.class, emf, logger);
     }
 }
@@ -26,6 +26,9 @@ public final class Variables {
     // report generation
     public static final String REPORT_GENERATOR_ENV = "CRYOSTAT_REPORT_GENERATOR";
     public static final String SUBPROCESS_MAX_HEAP_ENV = "CRYOSTAT_REPORT_GENERATION_MAX_HEAP";
+    public static final String REPORT_GENERATION_WORKERS_ENV = "CRYOSTAT_REPORT_GENERATION_WORKERS";
+    public static final String REPORT_GENERATION_WORKER_MAX_JOBS_ENV =
+            "CRYOSTAT_REPORT_GENERATION_WORKER_MAX_JOBS";
     public static final String ACTIVE_REPORTS_CACHE_EXPIRY_ENV =
             "CRYOSTAT_ACTIVE_REPORTS_CACHE_EXPIRY_SECONDS";
     public static final String ACTIVE_REPORTS_CACHE_REFRESH_ENV =
@@ -44,8 +47,13 @@ public final class Variables {
     // platform configuration
     public static final String PLATFORM_STRATEGY_ENV_VAR = "CRYOSTAT_PLATFORM";
     public static final String AUTH_MANAGER_ENV_VAR = "CRYOSTAT_AUTH_MANAGER";
+    public static final String AUTH_REVIEW_THREADS = "CRYOSTAT_AUTH_REVIEW_THREADS";
     public static final String DISABLE_BUILTIN_DISCOVERY = "CRYOSTAT_DISABLE_BUILTIN_DISCOVERY";
     public static final String DISCOVERY_PING_PERIOD_MS = "CRYOSTAT_DISCOVERY_PING_PERIOD";
+    public static final String DISCOVERY_JVM_ID_PARALLELISM =
+            "CRYOSTAT_DISCOVERY_JVM_ID_PARALLELISM";
+    public static final String CONTAINER_EVENTS_ENABLED = "CRYOSTAT_CONTAINER_EVENTS_ENABLED";
+    public static final String CONTAINER_RESYNC_PERIOD_MS = "CRYOSTAT_CONTAINER_RESYNC_PERIOD";
     public static final String K8S_NAMESPACES = "CRYOSTAT_K8S_NAMESPACES";
     public static final String VERTX_POOL_SIZE = "CRYOSTAT_VERTX_POOL_SIZE";
 
@@ -56,14 +64,36 @@ public final class Variables {
     public static final String WEBSERVER_SSL_PROXIED = "CRYOSTAT_SSL_PROXIED";
     public static final String WEBSERVER_ALLOW_UNTRUSTED_SSL = "CRYOSTAT_ALLOW_UNTRUSTED_SSL";
     public static final String MAX_CONNECTIONS_ENV_VAR = "CRYOSTAT_MAX_WS_CONNECTIONS";
+    public static final String WS_MAX_QUEUED_MESSAGES = "CRYOSTAT_MAX_WS_QUEUED_MESSAGES";
     public static final String ENABLE_CORS_ENV = "CRYOSTAT_CORS_ORIGIN";
     public static final String HTTP_REQUEST_TIMEOUT = "CRYOSTAT_HTTP_REQUEST_TIMEOUT";
+    public static final String HTTP_STREAMING_THREADS = "CRYOSTAT_HTTP_STREAMING_THREADS";
+    public static final String HTTP_STREAMING_MAX_QUEUED = "CRYOSTAT_HTTP_STREAMING_MAX_QUEUED";
+    public static final String HTTP_BLOCKING_MODE = "CRYOSTAT_HTTP_BLOCKING_MODE";
+    public static final String HTTP_BLOCKING_THREADS = "CRYOSTAT_HTTP_BLOCKING_THREADS";
+    public static final String HTTP_HANDLER_MAX_CONCURRENCY =
+            "CRYOSTAT_HTTP_HANDLER_MAX_CONCURRENCY";
+    public static final String HTTP_HANDLER_MAX_QUEUED = "CRYOSTAT_HTTP_HANDLER_MAX_QUEUED";
     public static final String DEV_MODE = "CRYOSTAT_DEV_MODE";
 
+    // GraphQL configuration
+    public static final String GRAPHQL_TARGET_PARALLELISM = "CRYOSTAT_GRAPHQL_TARGET_PARALLELISM";
+    public static final String GRAPHQL_TARGET_TIMEOUT = "CRYOSTAT_GRAPHQL_TARGET_TIMEOUT";
+
+    // automated rules configuration
+    public static final String MATCH_EXPRESSION_ENGINE = "CRYOSTAT_MATCH_EXPRESSION_ENGINE";
+
     // JMX connections configuration
     public static final String TARGET_MAX_CONCURRENT_CONNECTIONS =
             "CRYOSTAT_TARGET_MAX_CONCURRENT_CONNECTIONS";
+    public static final String TARGET_MAX_QUEUED_CONNECTIONS =
+            "CRYOSTAT_TARGET_MAX_QUEUED_CONNECTIONS";
+    public static final String TARGET_CONNECT_THREADS = "CRYOSTAT_TARGET_CONNECT_THREADS";
     public static final String TARGET_CACHE_TTL = "CRYOSTAT_TARGET_CACHE_TTL";
+    public static final String TARGET_RECORDINGS_CACHE_TTL = "CRYOSTAT_TARGET_RECORDINGS_CACHE_TTL";
+    public static final String TARGET_MAX_QUEUED_TASKS = "CRYOSTAT_TARGET_MAX_QUEUED_TASKS";
+    public static final String TARGET_MAX_PINNED_CONNECTIONS =
+            "CRYOSTAT_TARGET_MAX_PINNED_CONNECTIONS";
     public static final String JMX_CONNECTION_TIMEOUT = "CRYOSTAT_JMX_CONNECTION_TIMEOUT_SECONDS";
 
     // paths configuration
@@ -75,6 +105,7 @@ public final class Variables {
     public static final String JDBC_URL = "CRYOSTAT_JDBC_URL";
     public static final String JDBC_USERNAME = "CRYOSTAT_JDBC_USERNAME";
     public static final String JDBC_PASSWORD = "CRYOSTAT_JDBC_PASSWORD";
+    public static final String JDBC_POOL_SIZE = "CRYOSTAT_JDBC_POOL_SIZE";
     public static final String JMX_CREDENTIALS_DB_PASSWORD = "CRYOSTAT_JMX_CREDENTIALS_DB_PASSWORD";
     public static final String HIBERNATE_DIALECT = "CRYOSTAT_HIBERNATE_DIALECT";
     public static final String HBM2DDL = "CRYOSTAT_HBM2DDL";
@@ -21,7 +21,7 @@ import java.util.concurrent.Executors;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
-import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 
 import io.cryostat.VerticleDeployer;
 import io.cryostat.configuration.CredentialsManager;
@@ -62,8 +62,8 @@ public abstract class DiscoveryModule {
 
     @Provides
     @Singleton
-    static PluginInfoDao providePluginInfoDao(EntityManager em, Gson gson, Logger logger) {
-        return new PluginInfoDao(em, gson, logger);
+    static PluginInfoDao providePluginInfoDao(EntityManagerFactory emf, Gson gson, Logger logger) {
+        return new PluginInfoDao(emf, gson, logger);
     }
 
     @Provides
@@ -71,6 +71,7 @@ public abstract class DiscoveryModule {
     static DiscoveryStorage provideDiscoveryStorage(
             VerticleDeployer deployer,
             @Named(DISCOVERY_PING_DURATION) Duration pingPeriod,
+            Environment env,
             Lazy<BuiltInDiscovery> builtin,
             PluginInfoDao dao,
             Lazy<JvmIdHelper> jvmIdHelper,
@@ -80,11 +81,14 @@ public abstract class DiscoveryModule {
             WebClient http,
             Clock clock,
             Logger logger) {
+        int jvmIdParallelism =
+                Integer.parseInt(env.getEnv(Variables.DISCOVERY_JVM_ID_PARALLELISM, "8"));
         return new DiscoveryStorage(
                 deployer,
                 Executors.newSingleThreadScheduledExecutor(),
                 Executors.newCachedThreadPool(),
                 pingPeriod,
+                Math.max(1, jvmIdParallelism),
                 builtin,
                 dao,
                 jvmIdHelper,
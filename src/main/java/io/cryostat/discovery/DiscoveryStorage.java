@@ -21,19 +21,17 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Predicate;
 
 import javax.script.ScriptException;
 
@@ -50,12 +48,10 @@ import io.cryostat.platform.discovery.BaseNodeType;
 import io.cryostat.platform.discovery.EnvironmentNode;
 import io.cryostat.platform.discovery.TargetNode;
 import io.cryostat.recordings.JvmIdHelper;
-import io.cryostat.recordings.JvmIdHelper.JvmIdGetException;
 import io.cryostat.rules.MatchExpressionEvaluator;
 import io.cryostat.util.HttpStatusCodeIdentifier;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
 import dagger.Lazy;
 import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
@@ -65,7 +61,6 @@ import io.vertx.ext.web.client.HttpRequest;
 import io.vertx.ext.web.client.WebClient;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
-import org.apache.commons.lang3.tuple.Pair;
 
 public class DiscoveryStorage extends AbstractPlatformClientVerticle {
 
@@ -80,14 +75,23 @@ public class DiscoveryStorage extends AbstractPlatformClientVerticle {
     private final Lazy<CredentialsManager> credentialsManager;
     private final Lazy<MatchExpressionEvaluator> matchExpressionEvaluator;
     private final Gson gson;
-    private final Clock clock;
     private final WebClient http;
     private final Logger logger;
+    private final JvmIdResolver jvmIdResolver;
     private ScheduledFuture<?> pluginPruneTask;
-    private ScheduledFuture<?> targetRetryTask;
 
-    private final Map<Pair<TargetNode, UUID>, ConnectionAttemptRecord> nonConnectableTargets =
-            new ConcurrentHashMap<>();
+    // JVM IDs which have been resolved but not yet written to their plugin's subtree, by plugin
+    // and target connect URL. Guarded by itself.
+    private final Map<UUID, Map<URI, String>> resolvedJvmIds = new HashMap<>();
+
+    // parsed plugin subtrees, kept in step with the dao so that reads do not need to deserialize
+    // every plugin's subtree. Writers hold treeLock, readers only ever see a complete snapshot.
+    private final Object treeLock = new Object();
+    private final Map<UUID, EnvironmentNode> pluginTrees = new LinkedHashMap<>();
+    // deep copies of the plugin subtrees which are only ever published in snapshots, so that a
+    // snapshot which has been handed to readers is never changed by later writes
+    private final Map<UUID, EnvironmentNode> publishedTrees = new LinkedHashMap<>();
+    private volatile TreeSnapshot snapshot;
 
     public static final String DISCOVERY_STARTUP_ADDRESS = "discovery-startup";
 
@@ -96,6 +100,7 @@ public class DiscoveryStorage extends AbstractPlatformClientVerticle {
             ScheduledExecutorService scheduler,
             ExecutorService executor,
             Duration pingPeriod,
+            int jvmIdResolutionParallelism,
             Lazy<BuiltInDiscovery> builtin,
             PluginInfoDao dao,
             Lazy<JvmIdHelper> jvmIdHelper,
@@ -116,8 +121,15 @@ public class DiscoveryStorage extends AbstractPlatformClientVerticle {
         this.matchExpressionEvaluator = matchExpressionEvaluator;
         this.gson = gson;
         this.http = http;
-        this.clock = clock;
         this.logger = logger;
+        this.jvmIdResolver =
+                new JvmIdResolver(
+                        jvmIdHelper,
+                        scheduler,
+                        jvmIdResolutionParallelism,
+                        clock,
+                        logger,
+                        this::onJvmIdResolved);
     }
 
     @Override
@@ -147,27 +159,18 @@ public class DiscoveryStorage extends AbstractPlatformClientVerticle {
                         pingPeriod.toMillis(),
                         pingPeriod.toMillis(),
                         TimeUnit.MILLISECONDS);
-        // TODO make this configurable
-        this.targetRetryTask =
-                scheduler.scheduleAtFixedRate(
-                        this::checkNonConnectedTargetJvmIds, 2, 2, TimeUnit.SECONDS);
         this.credentialsManager
                 .get()
                 .addListener(
                         event -> {
                             switch (event.getEventType()) {
                                 case ADDED:
-                                    testNonConnectedTargets(
-                                            entry -> {
+                                    jvmIdResolver.retry(
+                                            target -> {
                                                 try {
-                                                    ServiceRef target = entry.getKey().getTarget();
-                                                    boolean credentialsApply =
-                                                            matchExpressionEvaluator
-                                                                    .get()
-                                                                    .applies(
-                                                                            event.getPayload(),
-                                                                            target);
-                                                    return credentialsApply && testJvmId(target);
+                                                    return matchExpressionEvaluator
+                                                            .get()
+                                                            .applies(event.getPayload(), target);
                                                 } catch (ScriptException e) {
                                                     logger.error(e);
                                                     return false;
@@ -184,23 +187,13 @@ public class DiscoveryStorage extends AbstractPlatformClientVerticle {
 
         this.addTargetDiscoveryListener(
                 tde -> {
+                    URI serviceUri = tde.getServiceRef().getServiceUri();
                     switch (tde.getEventKind()) {
                         case MODIFIED:
-                            testNonConnectedTargets(
-                                    entry ->
-                                            Objects.equals(
-                                                    tde.getServiceRef(),
-                                                    entry.getKey().getTarget()));
+                            jvmIdResolver.retry(serviceUri);
                             break;
                         case LOST:
-                            var it = nonConnectableTargets.entrySet().iterator();
-                            while (it.hasNext()) {
-                                var entry = it.next();
-                                if (Objects.equals(
-                                        tde.getServiceRef(), entry.getKey().getKey().getTarget())) {
-                                    it.remove();
-                                }
-                            }
+                            jvmIdResolver.remove(serviceUri);
                             break;
                         default:
                             break;
@@ -208,72 +201,12 @@ public class DiscoveryStorage extends AbstractPlatformClientVerticle {
                 });
     }
 
-    private void checkNonConnectedTargetJvmIds() {
-        testNonConnectedTargets(
-                entry -> {
-                    TargetNode targetNode = entry.getKey();
-                    ConnectionAttemptRecord attemptRecord = nonConnectableTargets.get(entry);
-                    // TODO make this configurable, use an exponential backoff, have a
-                    // maximum retry policy, etc.
-                    long nextAttempt =
-                            (attemptRecord.attemptCount * attemptRecord.attemptCount)
-                                    + attemptRecord.lastAttemptTimestamp;
-                    attemptRecord.attemptCount++;
-                    long now = clock.now().getEpochSecond();
-                    if (now < nextAttempt) {
-                        return false;
-                    }
-                    long elapsed =
-                            attemptRecord.lastAttemptTimestamp
-                                    - attemptRecord.firstAttemptTimestamp;
-                    if (elapsed > ConnectionAttemptRecord.MAX_ATTEMPT_INTERVAL) {
-                        return false;
-                    }
-                    return testJvmId(targetNode.getTarget());
-                });
-    }
-
-    private boolean testJvmId(ServiceRef serviceRef) {
-        try {
-            String id = jvmIdHelper.get().resolveId(serviceRef).getJvmId();
-            return StringUtils.isNotBlank(id);
-        } catch (JvmIdGetException e) {
-            logger.trace("Retain null jvmId for target [{}]", serviceRef.getServiceUri());
-            logger.trace(e);
-            return false;
-        }
-    }
-
-    private void testNonConnectedTargets(Predicate<Entry<TargetNode, UUID>> predicate) {
-        Map<Pair<TargetNode, UUID>, ConnectionAttemptRecord> copy =
-                new HashMap<>(nonConnectableTargets);
-        for (var entry : copy.entrySet()) {
-            executor.submit(
-                    () -> {
-                        try {
-                            if (predicate.test(entry.getKey())) {
-                                nonConnectableTargets.remove(entry.getKey());
-                                UUID id = entry.getKey().getValue();
-                                PluginInfo plugin = getById(id).orElseThrow();
-                                EnvironmentNode original =
-                                        gson.fromJson(plugin.getSubtree(), EnvironmentNode.class);
-                                update(id, original.getChildren());
-                            }
-                        } catch (JsonSyntaxException e) {
-                            throw new RuntimeException(e);
-                        }
-                    });
-        }
-    }
-
     @Override
     public void stop() {
         if (this.pluginPruneTask != null) {
             this.pluginPruneTask.cancel(false);
         }
-        if (this.targetRetryTask != null) {
-            this.targetRetryTask.cancel(false);
-        }
+        jvmIdResolver.stop();
     }
 
     private CompletableFuture<Void> pingPrune() {
@@ -406,7 +339,11 @@ public class DiscoveryStorage extends AbstractPlatformClientVerticle {
                                     initial.getLabels(),
                                     Map.of(AnnotationKey.REALM.name(), id.toString())),
                             initial.getChildren());
-            PluginInfo updated = dao.update(id, update);
+            PluginInfo updated;
+            synchronized (treeLock) {
+                updated = dao.update(id, update);
+                putTree(id, update);
+            }
             logger.trace("Discovery Registration: \"{}\" [{}]", realm, id);
             return updated.getId();
         } catch (Exception e) {
@@ -422,23 +359,20 @@ public class DiscoveryStorage extends AbstractPlatformClientVerticle {
         return merged;
     }
 
+    // fill in the JVM IDs which are already known without connecting to any targets. The targets
+    // which are still missing their JVM IDs are collected so that they can be resolved later.
     private List<AbstractNode> modifyChildrenWithJvmIds(
-            UUID id, Collection<? extends AbstractNode> children) {
+            Collection<? extends AbstractNode> children, List<ServiceRef> unresolved) {
         List<AbstractNode> modifiedChildren = new ArrayList<>();
         for (AbstractNode child : children) {
             if (child instanceof TargetNode) {
                 ServiceRef ref = ((TargetNode) child).getTarget();
-                try {
-                    ref = jvmIdHelper.get().resolveId(ref);
-                    child = new TargetNode(child.getNodeType(), ref, child.getLabels());
-                } catch (Exception e) {
+                Optional<ServiceRef> resolved = jvmIdHelper.get().resolveIdIfKnown(ref);
+                if (resolved.isPresent()) {
+                    child = new TargetNode(child.getNodeType(), resolved.get(), child.getLabels());
+                } else {
                     logger.info("Update node [{}] with null jvmId", child.getName());
-                    logger.info(e);
-                    ConnectionAttemptRecord attemptRecord = new ConnectionAttemptRecord();
-                    attemptRecord.firstAttemptTimestamp = clock.now().getEpochSecond();
-                    attemptRecord.lastAttemptTimestamp = attemptRecord.firstAttemptTimestamp;
-                    nonConnectableTargets.putIfAbsent(
-                            Pair.of((TargetNode) child, id), attemptRecord);
+                    unresolved.add(ref);
                 }
                 modifiedChildren.add(child);
             } else if (child instanceof EnvironmentNode) {
@@ -448,7 +382,38 @@ public class DiscoveryStorage extends AbstractPlatformClientVerticle {
                                 child.getNodeType(),
                                 child.getLabels(),
                                 modifyChildrenWithJvmIds(
-                                        id, ((EnvironmentNode) child).getChildren())));
+                                        ((EnvironmentNode) child).getChildren(), unresolved)));
+            } else {
+                throw new IllegalArgumentException(child.getClass().getCanonicalName());
+            }
+        }
+        return modifiedChildren;
+    }
+
+    private static List<AbstractNode> withResolvedJvmIds(
+            Collection<? extends AbstractNode> children, Map<URI, String> jvmIds) {
+        List<AbstractNode> modifiedChildren = new ArrayList<>();
+        for (AbstractNode child : children) {
+            if (child instanceof TargetNode) {
+                ServiceRef ref = ((TargetNode) child).getTarget();
+                String jvmId = jvmIds.get(ref.getServiceUri());
+                if (jvmId != null && StringUtils.isBlank(ref.getJvmId())) {
+                    ServiceRef updated =
+                            new ServiceRef(jvmId, ref.getServiceUri(), ref.getAlias().orElse(null));
+                    updated.setLabels(ref.getLabels());
+                    updated.setPlatformAnnotations(ref.getPlatformAnnotations());
+                    updated.setCryostatAnnotations(ref.getCryostatAnnotations());
+                    child = new TargetNode(child.getNodeType(), updated, child.getLabels());
+                }
+                modifiedChildren.add(child);
+            } else if (child instanceof EnvironmentNode) {
+                modifiedChildren.add(
+                        new EnvironmentNode(
+                                child.getName(),
+                                child.getNodeType(),
+                                child.getLabels(),
+                                withResolvedJvmIds(
+                                        ((EnvironmentNode) child).getChildren(), jvmIds)));
             } else {
                 throw new IllegalArgumentException(child.getClass().getCanonicalName());
             }
@@ -456,18 +421,77 @@ public class DiscoveryStorage extends AbstractPlatformClientVerticle {
         return modifiedChildren;
     }
 
+    /**
+     * Replace the plugin's subtree. Targets whose JVM IDs are not yet known are stored without them
+     * and resolved in the background, and a MODIFIED event is emitted for each as its JVM ID is
+     * filled in.
+     */
     public List<? extends AbstractNode> update(
             UUID id, Collection<? extends AbstractNode> children) {
+        List<ServiceRef> unresolved = new ArrayList<>();
         var updatedChildren =
-                modifyChildrenWithJvmIds(id, Objects.requireNonNull(children, "children"));
+                modifyChildrenWithJvmIds(Objects.requireNonNull(children, "children"), unresolved);
+
+        EnvironmentNode originalTree;
+        EnvironmentNode currentTree;
+        synchronized (treeLock) {
+            PluginInfo plugin = dao.get(id).orElseThrow(() -> new NotFoundException(id));
+
+            originalTree = getSubtree(plugin);
+            plugin = dao.update(id, updatedChildren);
+            logger.trace("Discovery Update {} ({}): {}", id, plugin.getRealm(), updatedChildren);
+            currentTree = gson.fromJson(plugin.getSubtree(), EnvironmentNode.class);
+            putTree(id, currentTree);
+        }
+
+        notifyChanges(originalTree, currentTree);
+        unresolved.forEach(ref -> jvmIdResolver.submit(id, ref));
+
+        return currentTree.getChildren();
+    }
 
-        PluginInfo plugin = dao.get(id).orElseThrow(() -> new NotFoundException(id));
+    private void onJvmIdResolved(UUID id, ServiceRef ref) {
+        boolean scheduled;
+        synchronized (resolvedJvmIds) {
+            scheduled = resolvedJvmIds.containsKey(id);
+            resolvedJvmIds
+                    .computeIfAbsent(id, k -> new HashMap<>())
+                    .put(ref.getServiceUri(), ref.getJvmId());
+        }
+        if (!scheduled) {
+            // any more IDs resolved for the plugin before this runs are written along with it
+            executor.submit(() -> applyResolvedJvmIds(id));
+        }
+    }
 
-        EnvironmentNode originalTree = gson.fromJson(plugin.getSubtree(), EnvironmentNode.class);
-        plugin = dao.update(id, updatedChildren);
-        logger.trace("Discovery Update {} ({}): {}", id, plugin.getRealm(), updatedChildren);
-        EnvironmentNode currentTree = gson.fromJson(plugin.getSubtree(), EnvironmentNode.class);
+    private void applyResolvedJvmIds(UUID id) {
+        Map<URI, String> jvmIds;
+        synchronized (resolvedJvmIds) {
+            jvmIds = resolvedJvmIds.remove(id);
+        }
+        if (jvmIds == null) {
+            return;
+        }
+        EnvironmentNode originalTree;
+        EnvironmentNode currentTree;
+        synchronized (treeLock) {
+            Optional<PluginInfo> plugin = dao.get(id);
+            if (plugin.isEmpty()) {
+                // deregistered while its targets were being resolved
+                return;
+            }
+            originalTree = getSubtree(plugin.get());
+            List<AbstractNode> updatedChildren =
+                    withResolvedJvmIds(originalTree.getChildren(), jvmIds);
+            PluginInfo updated = dao.update(id, updatedChildren);
+            logger.trace("Discovery JVM IDs {} ({}): {}", id, updated.getRealm(), jvmIds);
+            currentTree = gson.fromJson(updated.getSubtree(), EnvironmentNode.class);
+            putTree(id, currentTree);
+        }
+        notifyChanges(originalTree, currentTree);
+    }
 
+    private void notifyChanges(EnvironmentNode originalTree, EnvironmentNode currentTree) {
         List<ServiceRef> previousRefs = getRefsFromLeaves(findLeavesFrom(originalTree));
         List<ServiceRef> currentRefs = getRefsFromLeaves(findLeavesFrom(currentTree));
 
@@ -479,39 +503,111 @@ public class DiscoveryStorage extends AbstractPlatformClientVerticle {
 
         ServiceRef.compare(previousRefs).to(currentRefs).removed().stream()
                 .forEach(sr -> notifyAsyncTargetDiscovery(EventKind.LOST, sr));
-        ;
-
-        return currentTree.getChildren();
     }
 
     public PluginInfo deregister(UUID id) {
-        PluginInfo plugin = dao.get(id).orElseThrow(() -> new NotFoundException(id));
+        PluginInfo plugin;
+        EnvironmentNode subtree;
+        synchronized (treeLock) {
+            plugin = dao.get(id).orElseThrow(() -> new NotFoundException(id));
+            subtree = getSubtree(plugin);
+            dao.delete(id);
+            removeTree(id);
+        }
         deleteStoredCredentials(plugin.getCallback());
-        dao.delete(id);
-        findLeavesFrom(gson.fromJson(plugin.getSubtree(), EnvironmentNode.class)).stream()
+        findLeavesFrom(subtree).stream()
                 .map(TargetNode::getTarget)
                 .forEach(sr -> notifyAsyncTargetDiscovery(EventKind.LOST, sr));
         return plugin;
     }
 
     public EnvironmentNode getDiscoveryTree() {
-        List<EnvironmentNode> realms =
-                dao.getAll().stream()
-                        .map(PluginInfo::getSubtree)
-                        .map(s -> gson.fromJson(s, EnvironmentNode.class))
-                        .sorted((s1, s2) -> s1.compareTo(s2))
-                        .toList();
-        return new EnvironmentNode(
-                "Universe", BaseNodeType.UNIVERSE, Collections.emptyMap(), realms);
+        return getSnapshot().universe;
     }
 
-    private List<TargetNode> getLeafNodes() {
-        return findLeavesFrom(getDiscoveryTree());
+    @Override
+    public List<ServiceRef> listDiscoverableServices() {
+        return getSnapshot().services;
     }
 
     @Override
-    public List<ServiceRef> listDiscoverableServices() {
-        return getLeafNodes().stream().map(TargetNode::getTarget).toList();
+    public boolean contains(ServiceRef ref) {
+        TreeSnapshot current = getSnapshot();
+        if (ref.getJvmId() != null && current.servicesByJvmId.containsKey(ref.getJvmId())) {
+            return true;
+        }
+        return current.services.contains(ref);
+    }
+
+    @Override
+    public Optional<ServiceRef> lookupServiceByJvmId(String jvmId) {
+        return Optional.ofNullable(getSnapshot().servicesByJvmId.get(jvmId));
+    }
+
+    @Override
+    public Optional<ServiceRef> lookupServiceByConnectUrl(URI connectUrl) {
+        return Optional.ofNullable(getSnapshot().servicesByConnectUrl.get(connectUrl));
+    }
+
+    private TreeSnapshot getSnapshot() {
+        TreeSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (treeLock) {
+            if (snapshot == null) {
+                pluginTrees.clear();
+                publishedTrees.clear();
+                List<EnvironmentNode> realms = new ArrayList<>();
+                for (PluginInfo plugin : dao.getAll()) {
+                    EnvironmentNode subtree =
+                            gson.fromJson(plugin.getSubtree(), EnvironmentNode.class);
+                    EnvironmentNode published = copyTree(subtree);
+                    if (plugin.getId() != null) {
+                        pluginTrees.put(plugin.getId(), subtree);
+                        publishedTrees.put(plugin.getId(), published);
+                    }
+                    realms.add(published);
+                }
+                snapshot = new TreeSnapshot(0, realms);
+            }
+            return snapshot;
+        }
+    }
+
+    private EnvironmentNode getSubtree(PluginInfo plugin) {
+        TreeSnapshot current = snapshot;
+        if (current != null && plugin.getId() != null) {
+            synchronized (treeLock) {
+                EnvironmentNode subtree = pluginTrees.get(plugin.getId());
+                if (subtree != null) {
+                    return subtree;
+                }
+            }
+        }
+        return gson.fromJson(plugin.getSubtree(), EnvironmentNode.class);
+    }
+
+    // callers must hold treeLock. If no snapshot has been loaded yet then there is nothing to
+    // update, and the next read will load the latest state from the dao.
+    private void putTree(UUID id, EnvironmentNode subtree) {
+        TreeSnapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        pluginTrees.put(id, subtree);
+        publishedTrees.put(id, copyTree(subtree));
+        snapshot = new TreeSnapshot(current.version + 1, publishedTrees.values());
+    }
+
+    private void removeTree(UUID id) {
+        TreeSnapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        pluginTrees.remove(id);
+        publishedTrees.remove(id);
+        snapshot = new TreeSnapshot(current.version + 1, publishedTrees.values());
     }
 
     public Optional<PluginInfo> getBuiltInPluginByRealm(String realm) {
@@ -522,19 +618,37 @@ public class DiscoveryStorage extends AbstractPlatformClientVerticle {
     }
 
     public List<ServiceRef> listDiscoverableServices(PluginInfo plugin) {
-        return findLeavesFrom(gson.fromJson(plugin.getSubtree(), EnvironmentNode.class)).stream()
-                .map(TargetNode::getTarget)
-                .toList();
+        return findLeavesFrom(getSubtree(plugin)).stream().map(TargetNode::getTarget).toList();
     }
 
-    private List<TargetNode> findLeavesFrom(AbstractNode node) {
+    private static EnvironmentNode copyTree(EnvironmentNode node) {
+        return new EnvironmentNode(
+                node.getName(),
+                node.getNodeType(),
+                node.getLabels(),
+                node.getChildren().stream().map(DiscoveryStorage::copyNode).toList());
+    }
+
+    private static AbstractNode copyNode(AbstractNode node) {
+        if (node instanceof TargetNode) {
+            return new TargetNode((TargetNode) node);
+        }
+        if (node instanceof EnvironmentNode) {
+            return copyTree((EnvironmentNode) node);
+        }
+        throw new IllegalArgumentException(node.getClass().getCanonicalName());
+    }
+
+    private static List<TargetNode> findLeavesFrom(AbstractNode node) {
         if (node instanceof TargetNode) {
             return List.of((TargetNode) node);
         }
         if (node instanceof EnvironmentNode) {
             EnvironmentNode environment = (EnvironmentNode) node;
             List<TargetNode> targets = new ArrayList<>();
-            environment.getChildren().stream().map(this::findLeavesFrom).forEach(targets::addAll);
+            environment.getChildren().stream()
+                    .map(DiscoveryStorage::findLeavesFrom)
+                    .forEach(targets::addAll);
             return targets;
         }
         throw new IllegalArgumentException(node.getClass().getCanonicalName());
@@ -552,10 +666,38 @@ public class DiscoveryStorage extends AbstractPlatformClientVerticle {
         }
     }
 
-    private static class ConnectionAttemptRecord {
-        static final long MAX_ATTEMPT_INTERVAL = 60; // seconds from first try to last try
-        long attemptCount;
-        long firstAttemptTimestamp;
-        long lastAttemptTimestamp;
+    /**
+     * View of the whole discovery tree at one point in time, with its leaf targets indexed by JVM
+     * ID and by connect URL. The tree is built from copies of the plugin subtrees which no writer
+     * holds, so it does not change after it is published. A new snapshot is swapped in whenever a
+     * plugin registers, updates its subtree, or deregisters.
+     */
+    private static class TreeSnapshot {
+        final long version;
+        final EnvironmentNode universe;
+        final List<ServiceRef> services;
+        final Map<String, ServiceRef> servicesByJvmId;
+        final Map<URI, ServiceRef> servicesByConnectUrl;
+
+        TreeSnapshot(long version, Collection<EnvironmentNode> realms) {
+            this.version = version;
+            this.universe =
+                    new EnvironmentNode(
+                            "Universe",
+                            BaseNodeType.UNIVERSE,
+                            Collections.emptyMap(),
+                            realms.stream().sorted((s1, s2) -> s1.compareTo(s2)).toList());
+            this.services = findLeavesFrom(universe).stream().map(TargetNode::getTarget).toList();
+            Map<String, ServiceRef> byJvmId = new HashMap<>();
+            Map<URI, ServiceRef> byConnectUrl = new HashMap<>();
+            for (ServiceRef ref : services) {
+                if (ref.getJvmId() != null) {
+                    byJvmId.putIfAbsent(ref.getJvmId(), ref);
+                }
+                byConnectUrl.putIfAbsent(ref.getServiceUri(), ref);
+            }
+            this.servicesByJvmId = Collections.unmodifiableMap(byJvmId);
+            this.servicesByConnectUrl = Collections.unmodifiableMap(byConnectUrl);
+        }
     }
 }
@@ -0,0 +1,345 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.discovery;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+import io.cryostat.core.log.Logger;
+import io.cryostat.core.sys.Clock;
+import io.cryostat.platform.ServiceRef;
+import io.cryostat.recordings.JvmIdHelper;
+
+import dagger.Lazy;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Resolves the JVM IDs of discovered targets in the background, so that discovery updates do not
+ * wait on connections to their targets. At most a fixed number of targets are resolved at once and
+ * the rest wait in the order they were submitted. A target which cannot be resolved is retried
+ * after a delay which doubles with each failure, waiting in a queue ordered by the time of its next
+ * attempt with a single timer set for the earliest. After {@link #MAX_ATTEMPTS} failures a target
+ * is only retried when {@link #retry(Predicate)} or {@link #retry(URI)} selects it, ex. because
+ * credentials were added which apply to it, until it is removed.
+ */
+class JvmIdResolver {
+
+    static final Duration INITIAL_BACKOFF = Duration.ofSeconds(1);
+    static final Duration MAX_BACKOFF = Duration.ofMinutes(1);
+    static final int MAX_ATTEMPTS = 8;
+
+    private final Lazy<JvmIdHelper> jvmIdHelper;
+    private final ScheduledExecutorService scheduler;
+    private final int parallelism;
+    private final Clock clock;
+    private final Logger logger;
+    private final BiConsumer<UUID, ServiceRef> resolvedHandler;
+
+    // guarded by this
+    private final Map<Key, Attempt> attempts = new HashMap<>();
+    private final Map<URI, Set<Key>> keysByUri = new HashMap<>();
+    private final Deque<Attempt> ready = new ArrayDeque<>();
+    private final PriorityQueue<Attempt> backoff =
+            new PriorityQueue<>(Comparator.comparingLong(a -> a.nextAttempt));
+    private int running;
+    private ScheduledFuture<?> timer;
+    private long timerDeadline;
+
+    /**
+     * @param parallelism the number of targets which may be resolved at once
+     * @param resolvedHandler called with the ID of the discovery plugin which submitted a target,
+     *     and the target with its JVM ID, once it has been resolved
+     */
+    JvmIdResolver(
+            Lazy<JvmIdHelper> jvmIdHelper,
+            ScheduledExecutorService scheduler,
+            int parallelism,
+            Clock clock,
+            Logger logger,
+            BiConsumer<UUID, ServiceRef> resolvedHandler) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "JVM ID resolution parallelism must be a positive integer, was "
+                            + parallelism);
+        }
+        this.jvmIdHelper = jvmIdHelper;
+        this.scheduler = scheduler;
+        this.parallelism = parallelism;
+        this.clock = clock;
+        this.logger = logger;
+        this.resolvedHandler = resolvedHandler;
+    }
+
+    /**
+     * Queue the target for resolution, unless it is already queued or being retried for the same
+     * plugin, in which case only the target to resolve is replaced.
+     */
+    void submit(UUID pluginId, ServiceRef ref) {
+        synchronized (this) {
+            Key key = new Key(pluginId, ref.getServiceUri());
+            Attempt attempt = attempts.get(key);
+            if (attempt != null) {
+                attempt.ref = ref;
+                return;
+            }
+            attempt = new Attempt(key, ref);
+            attempts.put(key, attempt);
+            keysByUri.computeIfAbsent(key.serviceUri(), k -> new HashSet<>()).add(key);
+            attempt.state = State.READY;
+            ready.add(attempt);
+        }
+        drain();
+    }
+
+    /**
+     * Immediately retry the waiting targets selected by the predicate, restarting their backoff.
+     */
+    void retry(Predicate<ServiceRef> predicate) {
+        List<Attempt> candidates;
+        synchronized (this) {
+            candidates = new ArrayList<>(attempts.values());
+        }
+        // the predicate may evaluate match expressions, so do not hold the lock while testing
+        List<Attempt> selected = candidates.stream().filter(a -> predicate.test(a.ref)).toList();
+        synchronized (this) {
+            selected.stream().filter(a -> attempts.get(a.key) == a).forEach(this::restart);
+            scheduleTimer();
+        }
+        drain();
+    }
+
+    /** Immediately retry the waiting target with the given URI, restarting its backoff. */
+    void retry(URI serviceUri) {
+        synchronized (this) {
+            Set<Key> keys = keysByUri.get(serviceUri);
+            if (keys == null) {
+                return;
+            }
+            keys.forEach(key -> restart(attempts.get(key)));
+            scheduleTimer();
+        }
+        drain();
+    }
+
+    /** Stop resolving the target for any plugin, ex. because it has been lost. */
+    synchronized void remove(URI serviceUri) {
+        Set<Key> keys = keysByUri.remove(serviceUri);
+        if (keys == null) {
+            return;
+        }
+        for (Key key : keys) {
+            Attempt attempt = attempts.remove(key);
+            switch (attempt.state) {
+                case READY:
+                    ready.remove(attempt);
+                    break;
+                case BACKOFF:
+                    backoff.remove(attempt);
+                    break;
+                default:
+                    // a running attempt's result is discarded when it completes
+                    break;
+            }
+        }
+        scheduleTimer();
+    }
+
+    synchronized void stop() {
+        if (timer != null) {
+            timer.cancel(false);
+            timer = null;
+        }
+        attempts.clear();
+        keysByUri.clear();
+        ready.clear();
+        backoff.clear();
+    }
+
+    synchronized int getPending() {
+        return attempts.size();
+    }
+
+    private void drain() {
+        List<Attempt> started = new ArrayList<>();
+        synchronized (this) {
+            while (running < parallelism && !ready.isEmpty()) {
+                Attempt attempt = ready.poll();
+                attempt.state = State.RUNNING;
+                running++;
+                started.add(attempt);
+            }
+        }
+        started.forEach(this::resolve);
+    }
+
+    private void resolve(Attempt attempt) {
+        CompletableFuture<ServiceRef> future;
+        try {
+            future = jvmIdHelper.get().resolveIdAsync(attempt.ref);
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((ref, t) -> complete(attempt, ref, t));
+    }
+
+    private void complete(Attempt attempt, ServiceRef ref, Throwable t) {
+        boolean resolved = t == null && ref != null && StringUtils.isNotBlank(ref.getJvmId());
+        boolean current;
+        synchronized (this) {
+            running--;
+            current = attempts.get(attempt.key) == attempt;
+            if (!current) {
+                // removed while running
+            } else if (resolved) {
+                forget(attempt.key);
+            } else if (attempt.retryRequested) {
+                attempt.retryRequested = false;
+                attempt.count = 0;
+                attempt.state = State.READY;
+                ready.add(attempt);
+            } else if (++attempt.count >= MAX_ATTEMPTS) {
+                attempt.state = State.PARKED;
+                logger.info(
+                        "Could not resolve jvmId for target [{}] after {} attempts",
+                        attempt.ref.getServiceUri(),
+                        attempt.count);
+            } else {
+                long delay = getBackoff(attempt.count);
+                attempt.nextAttempt = clock.getMonotonicTime() + delay;
+                attempt.state = State.BACKOFF;
+                backoff.add(attempt);
+                logger.info(
+                        "Could not resolve jvmId for target [{}], retrying in {}ms",
+                        attempt.ref.getServiceUri(),
+                        TimeUnit.NANOSECONDS.toMillis(delay));
+                scheduleTimer();
+            }
+        }
+        if (t != null) {
+            logger.trace(t);
+        }
+        if (current && resolved) {
+            resolvedHandler.accept(attempt.key.pluginId(), ref);
+        }
+        drain();
+    }
+
+    // callers must hold this object's lock
+    private void restart(Attempt attempt) {
+        if (attempt.state == State.RUNNING) {
+            attempt.retryRequested = true;
+        } else if (attempt.state == State.BACKOFF || attempt.state == State.PARKED) {
+            backoff.remove(attempt);
+            attempt.count = 0;
+            attempt.state = State.READY;
+            ready.add(attempt);
+        }
+    }
+
+    // callers must hold this object's lock
+    private void forget(Key key) {
+        attempts.remove(key);
+        Set<Key> keys = keysByUri.get(key.serviceUri());
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            keysByUri.remove(key.serviceUri());
+        }
+    }
+
+    static long getBackoff(int failures) {
+        long initial = INITIAL_BACKOFF.toNanos();
+        long max = MAX_BACKOFF.toNanos();
+        int shift = Math.max(0, failures - 1);
+        if (shift >= Long.numberOfLeadingZeros(initial) - 1) {
+            return max;
+        }
+        return Math.min(max, initial << shift);
+    }
+
+    // callers must hold this object's lock
+    private void scheduleTimer() {
+        Attempt head = backoff.peek();
+        if (head == null) {
+            if (timer != null) {
+                timer.cancel(false);
+                timer = null;
+            }
+            return;
+        }
+        if (timer != null) {
+            if (timerDeadline <= head.nextAttempt) {
+                return;
+            }
+            timer.cancel(false);
+        }
+        timerDeadline = head.nextAttempt;
+        long delay = Math.max(0, head.nextAttempt - clock.getMonotonicTime());
+        this.timer = scheduler.schedule(this::promoteDueAttempts, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void promoteDueAttempts() {
+        synchronized (this) {
+            this.timer = null;
+            long now = Math.max(clock.getMonotonicTime(), timerDeadline);
+            while (!backoff.isEmpty() && backoff.peek().nextAttempt <= now) {
+                Attempt attempt = backoff.poll();
+                attempt.state = State.READY;
+                ready.add(attempt);
+            }
+            scheduleTimer();
+        }
+        drain();
+    }
+
+    private enum State {
+        READY,
+        RUNNING,
+        BACKOFF,
+        PARKED,
+    }
+
+    private static record Key(UUID pluginId, URI serviceUri) {}
+
+    private static class Attempt {
+        final Key key;
+        ServiceRef ref;
+        State state;
+        int count;
+        long nextAttempt;
+        boolean retryRequested;
+
+        Attempt(Key key, ServiceRef ref) {
+            this.key = key;
+            this.ref = ref;
+        }
+    }
+}
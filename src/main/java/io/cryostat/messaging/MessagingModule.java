@@ -42,6 +42,7 @@ import io.vertx.core.Vertx;
 public abstract class MessagingModule {
 
     static final String WS_MAX_CONNECTIONS = "WS_MAX_CONNECTIONS";
+    static final String WS_MAX_QUEUED_MESSAGES = "WS_MAX_QUEUED_MESSAGES";
 
     @Provides
     @Singleton
@@ -52,6 +53,7 @@ public abstract class MessagingModule {
             AuthManager authManager,
             NotificationFactory notificationFactory,
             @Named(WS_MAX_CONNECTIONS) int maxConnections,
+            @Named(WS_MAX_QUEUED_MESSAGES) int maxQueuedMessages,
             Clock clock,
             Logger logger,
             Gson gson) {
@@ -62,6 +64,7 @@ public abstract class MessagingModule {
                 authManager,
                 notificationFactory,
                 maxConnections,
+                maxQueuedMessages,
                 clock,
                 logger,
                 gson);
@@ -91,4 +94,20 @@ public abstract class MessagingModule {
             return Integer.MAX_VALUE;
         }
     }
+
+    @Provides
+    @Named(WS_MAX_QUEUED_MESSAGES)
+    static int provideWebSocketMaxQueuedMessages(Environment env, Logger logger) {
+        try {
+            int count = Integer.parseInt(env.getEnv(Variables.WS_MAX_QUEUED_MESSAGES, "256"));
+            if (count <= 0) {
+                logger.warn("{} was set to {} - ignoring", Variables.WS_MAX_QUEUED_MESSAGES, count);
+                count = 256;
+            }
+            return count;
+        } catch (NumberFormatException nfe) {
+            logger.warn(nfe);
+            return 256;
+        }
+    }
 }
@@ -18,7 +18,6 @@ package io.cryostat.messaging;
 import java.io.IOException;
 import java.net.SocketException;
 import java.net.UnknownHostException;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -54,6 +53,7 @@ public class MessagingServer extends AbstractVerticle
     private final NotificationFactory notificationFactory;
     private final Clock clock;
     private final int maxConnections;
+    private final int maxQueuedMessages;
     private final Logger logger;
     private final Gson gson;
 
@@ -67,15 +67,19 @@ public class MessagingServer extends AbstractVerticle
             AuthManager authManager,
             NotificationFactory notificationFactory,
             @Named(MessagingModule.WS_MAX_CONNECTIONS) int maxConnections,
+            @Named(MessagingModule.WS_MAX_QUEUED_MESSAGES) int maxQueuedMessages,
             Clock clock,
             Logger logger,
             Gson gson) {
         this.vertx = vertx;
-        this.connections = new HashSet<>();
+        // concurrent so that messages are written to clients without holding a lock. Connecting and
+        // disconnecting clients still synchronize on it to enforce the connection limit
+        this.connections = ConcurrentHashMap.newKeySet();
         this.server = server;
         this.authManager = authManager;
         this.notificationFactory = notificationFactory;
         this.maxConnections = maxConnections;
+        this.maxQueuedMessages = maxQueuedMessages;
         this.clock = clock;
         this.logger = logger;
         this.gson = gson;
@@ -85,6 +89,7 @@ public class MessagingServer extends AbstractVerticle
     @Override
     public void start() throws SocketException, UnknownHostException {
         logger.info("Max concurrent WebSocket connections: {}", maxConnections);
+        logger.info("Max queued WebSocket messages per client: {}", maxQueuedMessages);
 
         prunerTaskId =
                 this.vertx.setPeriodic(TimeUnit.SECONDS.toMillis(1), id -> this.pruneConnections());
@@ -112,7 +117,7 @@ public class MessagingServer extends AbstractVerticle
                     }
                     logger.info("Connected remote client {}", remoteAddress);
 
-                    WsClient wsc = new WsClient(this.logger, sws, clock);
+                    WsClient wsc = new WsClient(this.logger, sws, clock, maxQueuedMessages);
                     sws.closeHandler((unused) -> removeConnection(wsc));
                     sws.textMessageHandler(
                             msg -> {
@@ -198,22 +203,16 @@ public class MessagingServer extends AbstractVerticle
 
     @Override
     public void onNotification(Notification notification) {
-        getVertx()
-                .executeBlocking(
-                        promise -> {
-                            try {
-                                writeMessage(notification);
-                            } finally {
-                                promise.complete();
-                            }
-                        });
+        // writes never block, since each client queues what its WebSocket cannot yet accept
+        getVertx().runOnContext(v -> writeMessage(notification));
     }
 
     void writeMessage(Object message) {
+        // serialized once and shared by all clients
         String json = gson.toJson(message);
-        logger.info("Outgoing WS message: {}", json);
-        synchronized (connections) {
-            connections.forEach(c -> c.writeMessage(json));
+        logger.trace("Outgoing WS message: {}", json);
+        for (WsClient c : connections) {
+            c.writeMessage(json);
         }
     }
 
@@ -15,6 +15,9 @@
  */
 package io.cryostat.messaging;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+
 import io.cryostat.core.log.Logger;
 import io.cryostat.core.sys.Clock;
 
@@ -27,17 +30,30 @@ import jdk.jfr.Event;
 import jdk.jfr.Label;
 import jdk.jfr.Name;
 
+/**
+ * Messages are written straight to the WebSocket while its write queue has room. Once the write
+ * queue is full, further messages wait in a bounded per-client queue, which is flushed as the
+ * WebSocket drains. If a client falls so far behind that this queue is also full, its oldest
+ * messages are dropped, so that a slow client cannot hold up delivery to the other clients or grow
+ * without bound.
+ */
 class WsClient implements AutoCloseable {
 
     private final ServerWebSocket sws;
     private final long connectionTime;
+    private final int maxQueuedMessages;
     private volatile boolean isAccepted;
     private final Logger logger;
 
-    WsClient(Logger logger, ServerWebSocket sws, Clock clock) {
+    // guarded by itself
+    private final Deque<String> pending = new ArrayDeque<>();
+    private long dropped;
+
+    WsClient(Logger logger, ServerWebSocket sws, Clock clock, int maxQueuedMessages) {
         this.logger = logger;
         this.sws = sws;
         this.connectionTime = clock.getMonotonicTime();
+        this.maxQueuedMessages = maxQueuedMessages;
     }
 
     void setAccepted() {
@@ -53,27 +69,65 @@ class WsClient implements AutoCloseable {
     }
 
     void writeMessage(String message) {
-        if (isAccepted() && !this.sws.isClosed()) {
-            WsMessageEmitted evt =
-                    new WsMessageEmitted(
-                            sws.remoteAddress().host(),
-                            sws.remoteAddress().port(),
-                            sws.uri(),
-                            message.length());
-            evt.begin();
-
-            try {
-                this.sws.writeTextMessage(message);
-
-            } catch (Exception e) {
-                logger.warn(e);
-                evt.setExceptionThrown(true);
-
-            } finally {
-                evt.end();
-                if (evt.shouldCommit()) {
-                    evt.commit();
-                }
+        if (!isAccepted() || this.sws.isClosed()) {
+            return;
+        }
+        synchronized (pending) {
+            if (pending.isEmpty() && !this.sws.writeQueueFull()) {
+                write(message);
+                return;
+            }
+            if (pending.size() >= maxQueuedMessages) {
+                pending.poll();
+                dropped++;
+            }
+            pending.add(message);
+            if (pending.size() == 1) {
+                this.sws.drainHandler(v -> drain());
+            }
+        }
+    }
+
+    private void drain() {
+        synchronized (pending) {
+            while (!pending.isEmpty() && !this.sws.writeQueueFull()) {
+                write(pending.poll());
+            }
+            if (!pending.isEmpty()) {
+                // still behind, so wait for the next drain
+                return;
+            }
+            this.sws.drainHandler(null);
+            if (dropped > 0) {
+                logger.warn(
+                        "Dropped {} messages to slow remote client {}",
+                        dropped,
+                        getRemoteAddress());
+                dropped = 0;
+            }
+        }
+    }
+
+    private void write(String message) {
+        WsMessageEmitted evt =
+                new WsMessageEmitted(
+                        sws.remoteAddress().host(),
+                        sws.remoteAddress().port(),
+                        sws.uri(),
+                        message.length());
+        evt.begin();
+
+        try {
+            this.sws.writeTextMessage(message);
+
+        } catch (Exception e) {
+            logger.warn(e);
+            evt.setExceptionThrown(true);
+
+        } finally {
+            evt.end();
+            if (evt.shouldCommit()) {
+                evt.commit();
             }
         }
     }
@@ -88,6 +142,9 @@ class WsClient implements AutoCloseable {
 
     @Override
     public void close() {
+        synchronized (pending) {
+            pending.clear();
+        }
         if (!sws.isClosed()) {
             sws.textMessageHandler(null);
             sws.close();
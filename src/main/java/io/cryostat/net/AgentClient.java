@@ -15,6 +15,7 @@
  */
 package io.cryostat.net;
 
+import java.io.InputStream;
 import java.net.URI;
 import java.time.Duration;
 import java.util.Collection;
@@ -47,10 +48,12 @@ import io.cryostat.core.net.MBeanMetrics;
 import io.cryostat.core.serialization.SerializableRecordingDescriptor;
 import io.cryostat.net.AgentJFRService.StartRecordingRequest;
 import io.cryostat.util.HttpStatusCodeIdentifier;
+import io.cryostat.util.WriteStreamToInputStream;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.json.JsonArray;
@@ -59,6 +62,8 @@ import io.vertx.ext.auth.authentication.UsernamePasswordCredentials;
 import io.vertx.ext.web.client.HttpRequest;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.predicate.ResponsePredicate;
+import io.vertx.ext.web.client.predicate.ResponsePredicateResult;
 import io.vertx.ext.web.codec.BodyCodec;
 import jdk.jfr.RecordingState;
 import org.apache.commons.lang3.StringUtils;
@@ -193,21 +198,58 @@ public class AgentClient {
                 });
     }
 
-    Future<Buffer> openStream(long id) {
-        Future<HttpResponse<Buffer>> f =
-                invoke(HttpMethod.GET, "/recordings/" + id, BodyCodec.buffer());
-        return f.map(
-                resp -> {
-                    int statusCode = resp.statusCode();
-                    if (HttpStatusCodeIdentifier.isSuccessCode(statusCode)) {
-                        return resp.body();
-                    } else if (statusCode == 403) {
-                        throw new AuthorizationErrorException(
-                                new UnsupportedOperationException("openStream"));
-                    } else {
-                        throw new AgentApiException(statusCode);
+    /**
+     * Open the recording's data as a stream. The returned Future completes as soon as the agent has
+     * responded with a success status, and the response body is then fed into the stream as it
+     * arrives, with backpressure applied to the agent connection while the reader falls behind.
+     */
+    Future<InputStream> openStream(long id) {
+        WriteStreamToInputStream stream = new WriteStreamToInputStream();
+        Promise<InputStream> promise = Promise.promise();
+        ResponsePredicate expectation =
+                ResponsePredicate.create(
+                        resp -> {
+                            int statusCode = resp.statusCode();
+                            if (HttpStatusCodeIdentifier.isSuccessCode(statusCode)) {
+                                promise.tryComplete(stream);
+                                return ResponsePredicateResult.success();
+                            } else if (statusCode == 403) {
+                                promise.tryFail(
+                                        new AuthorizationErrorException(
+                                                new UnsupportedOperationException("openStream")));
+                            } else {
+                                promise.tryFail(new AgentApiException(statusCode));
+                            }
+                            return ResponsePredicateResult.failure(
+                                    "Unexpected status code " + statusCode);
+                        });
+        executor.submit(
+                () -> {
+                    try {
+                        // the stream is ended here rather than by the codec so that a body which
+                        // is cut short is reported to the reader as a failure, not a clean EOF
+                        prepareRequest(
+                                        HttpMethod.GET,
+                                        "/recordings/" + id,
+                                        BodyCodec.pipe(stream, false))
+                                .expect(expectation)
+                                .send()
+                                .onComplete(
+                                        ar -> {
+                                            if (ar.succeeded()) {
+                                                stream.end();
+                                            } else {
+                                                logger.error(ar.cause());
+                                                stream.fail(ar.cause());
+                                                promise.tryFail(ar.cause());
+                                            }
+                                        });
+                    } catch (Exception e) {
+                        stream.fail(e);
+                        promise.tryFail(e);
                     }
                 });
+        return promise.future();
     }
 
     Future<Void> stopRecording(long id) {
@@ -360,40 +402,7 @@ public class AgentClient {
         return Future.fromCompletionStage(
                 CompletableFuture.supplyAsync(
                                 () -> {
-                                    logger.info("{} {} {}", mtd, agentUri, path);
-                                    HttpRequest<T> req =
-                                            webClient
-                                                    .request(
-                                                            mtd,
-                                                            agentUri.getPort(),
-                                                            agentUri.getHost(),
-                                                            path)
-                                                    .ssl("https".equals(agentUri.getScheme()))
-                                                    .timeout(
-                                                            Duration.ofSeconds(httpTimeout)
-                                                                    .toMillis())
-                                                    .followRedirects(true)
-                                                    .as(codec);
-                                    try {
-                                        Credentials credentials =
-                                                credentialsManager.getCredentialsByTargetId(
-                                                        agentUri.toString());
-                                        if (credentials == null
-                                                || credentials.getUsername() == null
-                                                || credentials.getPassword() == null) {
-                                            throw new InvalidCredentialsException(
-                                                    NULL_CREDENTIALS + " " + agentUri);
-                                        }
-                                        req =
-                                                req.authentication(
-                                                        new UsernamePasswordCredentials(
-                                                                credentials.getUsername(),
-                                                                credentials.getPassword()));
-                                    } catch (ScriptException | InvalidCredentialsException e) {
-                                        logger.error(e);
-                                        throw new IllegalStateException(e);
-                                    }
-
+                                    HttpRequest<T> req = prepareRequest(mtd, path, codec);
                                     try {
                                         if (payload != null) {
                                             return req.sendBuffer(payload)
@@ -418,6 +427,32 @@ public class AgentClient {
                                 }));
     }
 
+    private <T> HttpRequest<T> prepareRequest(HttpMethod mtd, String path, BodyCodec<T> codec) {
+        logger.info("{} {} {}", mtd, agentUri, path);
+        HttpRequest<T> req =
+                webClient
+                        .request(mtd, agentUri.getPort(), agentUri.getHost(), path)
+                        .ssl("https".equals(agentUri.getScheme()))
+                        .timeout(Duration.ofSeconds(httpTimeout).toMillis())
+                        .followRedirects(true)
+                        .as(codec);
+        try {
+            Credentials credentials =
+                    credentialsManager.getCredentialsByTargetId(agentUri.toString());
+            if (credentials == null
+                    || credentials.getUsername() == null
+                    || credentials.getPassword() == null) {
+                throw new InvalidCredentialsException(NULL_CREDENTIALS + " " + agentUri);
+            }
+            return req.authentication(
+                    new UsernamePasswordCredentials(
+                            credentials.getUsername(), credentials.getPassword()));
+        } catch (ScriptException | InvalidCredentialsException e) {
+            logger.error(e);
+            throw new IllegalStateException(e);
+        }
+    }
+
     static class Factory {
 
         private final ExecutorService executor;
@@ -0,0 +1,269 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.cryostat.core.log.Logger;
+import io.cryostat.core.net.JFRConnection;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Admits new target connections without parking a thread per waiting caller. A connection holds a
+ * permit from the time it starts connecting until it is released, and only a fixed number of
+ * connection attempts run at once on the connect executor. Requests beyond those limits wait in a
+ * queue ordered by priority and then by arrival, fail once their deadline passes, and are rejected
+ * outright once the queue is full.
+ */
+class ConnectionAdmission {
+
+    enum Priority {
+        HIGH,
+        NORMAL,
+    }
+
+    private final int maxConnections;
+    private final int maxConnecting;
+    private final int maxQueued;
+    private final Executor connectExecutor;
+    private final Logger logger;
+
+    private final PriorityQueue<Waiter> queue =
+            new PriorityQueue<>(
+                    Comparator.comparing((Waiter w) -> w.priority)
+                            .thenComparingLong(w -> w.sequence));
+    private long sequence;
+    private int open;
+    private int connecting;
+
+    /**
+     * @param maxConnections the number of connections which may be open at once, or a number less
+     *     than 1 for no limit
+     * @param maxConnecting the number of connection attempts which may run at once, which should
+     *     not exceed the number of threads of the connect executor
+     * @param maxQueued the number of connection requests which may wait for admission before
+     *     further requests are rejected, or a number less than 1 for no limit
+     */
+    ConnectionAdmission(
+            int maxConnections,
+            int maxConnecting,
+            int maxQueued,
+            Executor connectExecutor,
+            Logger logger) {
+        if (maxConnecting < 1) {
+            throw new IllegalArgumentException(
+                    "Connection attempt limit must be a positive integer, was " + maxConnecting);
+        }
+        this.maxConnections = maxConnections;
+        this.maxConnecting = maxConnecting;
+        this.maxQueued = maxQueued;
+        this.connectExecutor = connectExecutor;
+        this.logger = logger;
+    }
+
+    /**
+     * Open a connection once one is admitted. The connection's permit is held until {@link
+     * #release()} is called, unless the connection attempt fails or completes after the deadline,
+     * in which case the late connection is closed again.
+     *
+     * @return a future connection, failing with a {@link RejectedExecutionException} if too many
+     *     requests are already queued, or with a {@link TimeoutException} if the connection is not
+     *     opened before the deadline
+     */
+    CompletableFuture<JFRConnection> submit(
+            String targetId,
+            Priority priority,
+            Duration deadline,
+            Callable<JFRConnection> connect) {
+        Waiter waiter = new Waiter(targetId, priority, connect);
+        boolean admitted;
+        int depth;
+        synchronized (this) {
+            depth = queue.size();
+            admitted = depth == 0 && hasCapacity();
+            if (admitted) {
+                reserve();
+            } else if (maxQueued > 0 && depth >= maxQueued) {
+                return CompletableFuture.failedFuture(
+                        new RejectedExecutionException(
+                                String.format(
+                                        "Too many connections queued (%d), rejected %s",
+                                        maxQueued, targetId)));
+            } else {
+                waiter.sequence = sequence++;
+                queue.add(waiter);
+            }
+        }
+        waiter.queueDepth = depth;
+        waiter.future
+                .orTimeout(deadline.toNanos(), TimeUnit.NANOSECONDS)
+                .whenComplete(
+                        (c, t) -> {
+                            if (t != null) {
+                                expire(waiter);
+                            }
+                        });
+        if (admitted) {
+            start(waiter);
+        }
+        return waiter.future;
+    }
+
+    /** Return the permit of a connection previously opened by this admission queue. */
+    void release() {
+        List<Waiter> next;
+        synchronized (this) {
+            open--;
+            next = dispatch();
+        }
+        next.forEach(this::start);
+    }
+
+    synchronized int getQueueLength() {
+        return queue.size();
+    }
+
+    synchronized int getOpenConnections() {
+        return open;
+    }
+
+    private boolean hasCapacity() {
+        return (maxConnections < 1 || open < maxConnections) && connecting < maxConnecting;
+    }
+
+    private void reserve() {
+        open++;
+        connecting++;
+    }
+
+    private List<Waiter> dispatch() {
+        List<Waiter> next = new ArrayList<>();
+        while (!queue.isEmpty() && hasCapacity()) {
+            Waiter waiter = queue.remove();
+            if (waiter.future.isDone()) {
+                continue;
+            }
+            reserve();
+            next.add(waiter);
+        }
+        return next;
+    }
+
+    private void expire(Waiter waiter) {
+        boolean removed;
+        synchronized (this) {
+            removed = queue.remove(waiter);
+        }
+        if (removed) {
+            logger.warn("Connection to {} expired while queued", waiter.targetId);
+        }
+    }
+
+    private void start(Waiter waiter) {
+        TargetConnectionQueued evt = new TargetConnectionQueued();
+        if (evt.shouldCommit()) {
+            evt.serviceUri = waiter.targetId;
+            evt.priority = waiter.priority.name();
+            evt.queueDepth = waiter.queueDepth;
+            evt.queuedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - waiter.enqueued);
+            evt.commit();
+        }
+        try {
+            connectExecutor.execute(() -> connect(waiter));
+        } catch (RejectedExecutionException e) {
+            waiter.future.completeExceptionally(e);
+            finish(false);
+        }
+    }
+
+    private void connect(Waiter waiter) {
+        JFRConnection connection = null;
+        try {
+            // the caller may have given up while this attempt was waiting for a thread
+            if (!waiter.future.isDone()) {
+                connection = waiter.connect.call();
+            }
+        } catch (Exception e) {
+            waiter.future.completeExceptionally(e);
+        }
+        boolean kept = connection != null && waiter.future.complete(connection);
+        if (connection != null && !kept) {
+            logger.warn("Closing connection to {} opened past its deadline", waiter.targetId);
+            try {
+                connection.close();
+            } catch (Exception e) {
+                logger.warn(e);
+            }
+        }
+        finish(kept);
+    }
+
+    private void finish(boolean kept) {
+        List<Waiter> next;
+        synchronized (this) {
+            connecting--;
+            if (!kept) {
+                open--;
+            }
+            next = dispatch();
+        }
+        next.forEach(this::start);
+    }
+
+    private static class Waiter {
+        final String targetId;
+        final Priority priority;
+        final Callable<JFRConnection> connect;
+        final CompletableFuture<JFRConnection> future = new CompletableFuture<>();
+        final long enqueued = System.nanoTime();
+        long sequence;
+        int queueDepth;
+
+        Waiter(String targetId, Priority priority, Callable<JFRConnection> connect) {
+            this.targetId = targetId;
+            this.priority = priority;
+            this.connect = connect;
+        }
+    }
+
+    @Name("io.cryostat.net.ConnectionAdmission.TargetConnectionQueued")
+    @Label("Target Connection Queued")
+    @Category("Cryostat")
+    @SuppressFBWarnings(
+            value = "URF_UNREAD_FIELD",
+            justification = "The event fields are recorded with JFR instead of accessed directly")
+    public static class TargetConnectionQueued extends Event {
+        String serviceUri;
+        String priority;
+        int queueDepth;
+        long queuedMillis;
+    }
+}
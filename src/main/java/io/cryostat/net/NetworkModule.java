@@ -33,6 +33,7 @@ import io.cryostat.core.sys.Environment;
 import io.cryostat.core.sys.FileSystem;
 import io.cryostat.core.tui.ClientWriter;
 import io.cryostat.discovery.DiscoveryStorage;
+import io.cryostat.messaging.notifications.NotificationListener;
 import io.cryostat.net.openshift.OpenShiftNetworkModule;
 import io.cryostat.net.reports.ReportsModule;
 import io.cryostat.net.security.SecurityModule;
@@ -51,6 +52,7 @@ import io.vertx.core.Vertx;
 import io.vertx.core.VertxOptions;
 import io.vertx.ext.web.client.WebClient;
 import io.vertx.ext.web.client.WebClientOptions;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 
 @Module(
         includes = {
@@ -87,6 +89,30 @@ public abstract class NetworkModule {
         return Integer.parseInt(env.getEnv(Variables.TARGET_MAX_CONCURRENT_CONNECTIONS, "-1"));
     }
 
+    @Provides
+    @Named(Variables.TARGET_MAX_QUEUED_CONNECTIONS)
+    static int provideMaxQueuedTargetConnections(Environment env) {
+        return Integer.parseInt(env.getEnv(Variables.TARGET_MAX_QUEUED_CONNECTIONS, "256"));
+    }
+
+    @Provides
+    @Named(Variables.TARGET_CONNECT_THREADS)
+    static int provideTargetConnectThreads(Environment env) {
+        return Math.max(1, Integer.parseInt(env.getEnv(Variables.TARGET_CONNECT_THREADS, "8")));
+    }
+
+    @Provides
+    @Named(Variables.TARGET_MAX_QUEUED_TASKS)
+    static int provideMaxQueuedTargetTasks(Environment env) {
+        return Integer.parseInt(env.getEnv(Variables.TARGET_MAX_QUEUED_TASKS, "64"));
+    }
+
+    @Provides
+    @Named(Variables.TARGET_MAX_PINNED_CONNECTIONS)
+    static int provideMaxPinnedTargetConnections(Environment env) {
+        return Integer.parseInt(env.getEnv(Variables.TARGET_MAX_PINNED_CONNECTIONS, "0"));
+    }
+
     @Provides
     @Named(Variables.TARGET_CACHE_TTL)
     static Duration provideMaxTargetTTL(Environment env) {
@@ -94,6 +120,15 @@ public abstract class NetworkModule {
                 Math.max(1, Integer.parseInt(env.getEnv(Variables.TARGET_CACHE_TTL, "10"))));
     }
 
+    @Provides
+    @Named(Variables.TARGET_RECORDINGS_CACHE_TTL)
+    static Duration provideTargetRecordingsTTL(Environment env) {
+        return Duration.ofSeconds(
+                Math.max(
+                        0,
+                        Integer.parseInt(env.getEnv(Variables.TARGET_RECORDINGS_CACHE_TTL, "2"))));
+    }
+
     @Provides
     @Singleton
     static AgentConnection.Factory provideAgentConnectionFactory(
@@ -129,7 +164,12 @@ public abstract class NetworkModule {
             Lazy<AgentConnection.Factory> agentConnectionFactory,
             DiscoveryStorage storage,
             @Named(Variables.TARGET_CACHE_TTL) Duration maxTargetTtl,
+            @Named(Variables.TARGET_RECORDINGS_CACHE_TTL) Duration recordingsTtl,
             @Named(Variables.TARGET_MAX_CONCURRENT_CONNECTIONS) int maxTargetConnections,
+            @Named(Variables.TARGET_MAX_QUEUED_CONNECTIONS) int maxQueuedConnections,
+            @Named(Variables.TARGET_CONNECT_THREADS) int connectThreads,
+            @Named(Variables.TARGET_MAX_QUEUED_TASKS) int maxQueuedTasksPerTarget,
+            @Named(Variables.TARGET_MAX_PINNED_CONNECTIONS) int maxPinnedConnections,
             @Named(Variables.JMX_CONNECTION_TIMEOUT) long connectionTimeoutSeconds,
             Logger logger) {
         return new TargetConnectionManager(
@@ -139,11 +179,28 @@ public abstract class NetworkModule {
                 Executors.newCachedThreadPool(),
                 Scheduler.systemScheduler(),
                 maxTargetTtl,
-                maxTargetConnections,
+                recordingsTtl,
+                new ConnectionAdmission(
+                        maxTargetConnections,
+                        connectThreads,
+                        maxQueuedConnections,
+                        Executors.newFixedThreadPool(
+                                connectThreads,
+                                new BasicThreadFactory.Builder()
+                                        .namingPattern("target-connect-%d")
+                                        .daemon(true)
+                                        .build()),
+                        logger),
+                maxQueuedTasksPerTarget,
+                maxPinnedConnections,
                 connectionTimeoutSeconds,
                 logger);
     }
 
+    @Binds
+    @IntoSet
+    abstract NotificationListener bindTargetConnectionManager(TargetConnectionManager mgr);
+
     @Provides
     @Singleton
     static JFRConnectionToolkit provideJFRConnectionToolkit(
@@ -15,10 +15,15 @@
  */
 package io.cryostat.net;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -26,24 +31,34 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.management.remote.JMXServiceURL;
 
+import org.openjdk.jmc.rjmx.services.jfr.IRecordingDescriptor;
+
 import io.cryostat.core.log.Logger;
 import io.cryostat.core.net.Credentials;
 import io.cryostat.core.net.JFRConnection;
 import io.cryostat.core.net.JFRConnectionToolkit;
 import io.cryostat.core.net.discovery.JvmDiscoveryClient.EventKind;
+import io.cryostat.messaging.notifications.Notification;
+import io.cryostat.messaging.notifications.NotificationListener;
 import io.cryostat.platform.PlatformClient;
+import io.cryostat.recordings.RecordingTargetHelper;
+import io.cryostat.util.SingleFlight;
 
 import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
 import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.github.benmanes.caffeine.cache.Scheduler;
 import dagger.Lazy;
@@ -52,8 +67,9 @@ import jdk.jfr.Category;
 import jdk.jfr.Event;
 import jdk.jfr.Label;
 import jdk.jfr.Name;
+import org.apache.commons.lang3.tuple.Pair;
 
-public class TargetConnectionManager {
+public class TargetConnectionManager implements NotificationListener<Map<String, Object>> {
 
     public static final Pattern HOST_PORT_PAIR_PATTERN =
             Pattern.compile("^([^:\\s]+)(?::(\\d{1,5}))?$");
@@ -61,12 +77,27 @@ public class TargetConnectionManager {
     private final Lazy<JFRConnectionToolkit> jfrConnectionToolkit;
     private final Lazy<AgentConnection.Factory> agentConnectionFactory;
     private final Executor executor;
+    private final Scheduler scheduler;
+    private final Duration ttl;
+    private final int maxPinnedConnections;
     private final long connectionTimeoutSeconds;
     private final Logger logger;
 
     private final AsyncLoadingCache<ConnectionDescriptor, JFRConnection> connections;
-    private final Map<String, Object> targetLocks;
-    private final Optional<Semaphore> semaphore;
+    private final TargetTaskScheduler taskScheduler;
+    private final ConnectionAdmission admission;
+
+    private final Duration recordingsTtl;
+    private final Cache<ConnectionDescriptor, RecordingsSnapshot> recordings;
+    private final Map<String, AtomicLong> recordingsGenerations;
+    private final SingleFlight<Pair<ConnectionDescriptor, Long>, List<IRecordingDescriptor>>
+            recordingsLoads;
+
+    private final Map<String, Pin> pins;
+    // access-ordered, so that the least recently used pinned target is the first to be demoted
+    private final LinkedHashMap<String, ConnectionDescriptor> warm;
+    private final AtomicBoolean pinging;
+    private final SingleFlight<String, Void> pings;
 
     TargetConnectionManager(
             Lazy<JFRConnectionToolkit> jfrConnectionToolkit,
@@ -75,21 +106,23 @@ public class TargetConnectionManager {
             Executor executor,
             Scheduler scheduler,
             Duration ttl,
-            int maxTargetConnections,
+            Duration recordingsTtl,
+            ConnectionAdmission admission,
+            int maxQueuedTasksPerTarget,
+            int maxPinnedConnections,
             long connectionTimeoutSeconds,
             Logger logger) {
         this.jfrConnectionToolkit = jfrConnectionToolkit;
         this.agentConnectionFactory = agentConnectionFactory;
         this.executor = executor;
+        this.scheduler = scheduler;
+        this.ttl = ttl;
+        this.maxPinnedConnections = maxPinnedConnections;
         this.connectionTimeoutSeconds = connectionTimeoutSeconds;
         this.logger = logger;
 
-        this.targetLocks = new ConcurrentHashMap<>();
-        if (maxTargetConnections > 0) {
-            this.semaphore = Optional.of(new Semaphore(maxTargetConnections, true));
-        } else {
-            this.semaphore = Optional.empty();
-        }
+        this.taskScheduler = new TargetTaskScheduler(maxQueuedTasksPerTarget);
+        this.admission = admission;
 
         Caffeine<ConnectionDescriptor, JFRConnection> cacheBuilder =
                 Caffeine.newBuilder()
@@ -100,10 +133,25 @@ public class TargetConnectionManager {
             throw new IllegalArgumentException(
                     "TTL must be a positive integer in seconds, was " + ttl.toSeconds());
         } else {
-            cacheBuilder = cacheBuilder.expireAfterAccess(ttl);
+            cacheBuilder = cacheBuilder.expireAfter(new ConnectionExpiry());
         }
         this.connections = cacheBuilder.buildAsync(new ConnectionLoader());
 
+        this.recordingsTtl = recordingsTtl;
+        this.recordings =
+                Caffeine.newBuilder()
+                        .executor(executor)
+                        .scheduler(scheduler)
+                        .expireAfterWrite(recordingsTtl)
+                        .build();
+        this.recordingsGenerations = new ConcurrentHashMap<>();
+        this.recordingsLoads = new SingleFlight<>();
+
+        this.pins = new ConcurrentHashMap<>();
+        this.warm = new LinkedHashMap<>(16, 0.75f, true);
+        this.pinging = new AtomicBoolean();
+        this.pings = new SingleFlight<>();
+
         // force removal of connections from cache when we're notified about targets being lost.
         // This should already be taken care of by the connection close listener, but this provides
         // some additional insurance in case a target disappears and the underlying JMX network
@@ -118,37 +166,328 @@ public class TargetConnectionManager {
                                 connections.synchronous().invalidate(cd);
                             }
                         }
+                        String targetId = tde.getServiceRef().getServiceUri().toString();
+                        discardRecordings(targetId);
+                        pins.remove(targetId);
+                        demote(targetId);
                     }
                 });
     }
 
+    /**
+     * Execute a task on the target's connection using the connection executor. Unlike {@link
+     * #executeConnectedTask(ConnectionDescriptor, ConnectedTask)} the task is not scheduled against
+     * other tasks for the same target, since callers may wait on it from within such a task.
+     */
     public <T> CompletableFuture<T> executeConnectedTaskAsync(
             ConnectionDescriptor connectionDescriptor, ConnectedTask<T> task) {
-        synchronized (
-                targetLocks.computeIfAbsent(
-                        connectionDescriptor.getTargetId(), k -> new Object())) {
-            return connections
-                    .get(connectionDescriptor)
-                    .thenApplyAsync(
-                            conn -> {
-                                try {
-                                    return task.execute(conn);
-                                } catch (Exception e) {
-                                    logger.error(e);
-                                    throw new CompletionException(e);
-                                }
-                            },
-                            executor)
-                    .orTimeout(connectionTimeoutSeconds, TimeUnit.SECONDS);
-        }
+        return connections
+                .get(connectionDescriptor)
+                .thenApplyAsync(
+                        conn -> {
+                            try {
+                                return task.execute(conn);
+                            } catch (Exception e) {
+                                logger.error(e);
+                                throw new CompletionException(e);
+                            }
+                        },
+                        executor)
+                .orTimeout(connectionTimeoutSeconds, TimeUnit.SECONDS);
     }
 
+    /**
+     * Execute a task on the target's connection in the calling thread. Tasks marked {@link
+     * ConnectedTask#readOnly(ConnectedTask)} may run concurrently with other read-only tasks for
+     * the same target, while any other task waits for exclusive use of the target.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if too many tasks are already waiting
+     *     for the target
+     */
     public <T> T executeConnectedTask(
             ConnectionDescriptor connectionDescriptor, ConnectedTask<T> task) throws Exception {
-        synchronized (
-                targetLocks.computeIfAbsent(
-                        connectionDescriptor.getTargetId(), k -> new Object())) {
-            return task.execute(connections.get(connectionDescriptor).get());
+        touchPin(connectionDescriptor.getTargetId());
+        return taskScheduler.run(
+                connectionDescriptor.getTargetId(),
+                task.isReadOnly(),
+                () -> task.execute(connections.get(connectionDescriptor).get()));
+    }
+
+    /**
+     * List the target's recordings. Concurrent requests for the same target share a single listing,
+     * and with {@link Consistency#CACHED} a recent listing may be reused. Cached listings are
+     * discarded whenever Cryostat itself creates, stops or deletes a recording in the target, but
+     * may not reflect changes made by other clients until they expire.
+     */
+    public List<IRecordingDescriptor> getRecordings(
+            ConnectionDescriptor connectionDescriptor, Consistency consistency) throws Exception {
+        String targetId = connectionDescriptor.getTargetId();
+        if (consistency == Consistency.CACHED && !recordingsTtl.isZero()) {
+            RecordingsSnapshot snapshot = recordings.getIfPresent(connectionDescriptor);
+            if (snapshot != null) {
+                if (snapshot.isOlderThan(recordingsTtl.dividedBy(2))) {
+                    // refresh in the background and serve the current listing meanwhile
+                    loadRecordingsAsync(connectionDescriptor);
+                }
+                return snapshot.descriptors;
+            }
+        }
+        if (taskScheduler.isHeldByCurrentThread(targetId)) {
+            // the shared listing would be scheduled behind the task this thread is running
+            AtomicLong generation = getRecordingsGeneration(targetId);
+            return loadRecordings(connectionDescriptor, generation, generation.get());
+        }
+        try {
+            return loadRecordingsAsync(connectionDescriptor).get();
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof Exception) {
+                throw (Exception) ee.getCause();
+            }
+            throw ee;
+        }
+    }
+
+    /** Discard any cached recording listings for the target. */
+    public void invalidateRecordings(String targetId) {
+        getRecordingsGeneration(targetId).incrementAndGet();
+        removeSnapshots(targetId);
+    }
+
+    /** Discard any cached recording listings for the target and forget the target entirely. */
+    private void discardRecordings(String targetId) {
+        // a listing in flight holds the removed generation, so it is not kept once it completes
+        recordingsGenerations.remove(targetId);
+        removeSnapshots(targetId);
+    }
+
+    private void removeSnapshots(String targetId) {
+        for (ConnectionDescriptor cd : recordings.asMap().keySet()) {
+            if (Objects.equals(cd.getTargetId(), targetId)) {
+                recordings.invalidate(cd);
+            }
+        }
+    }
+
+    @Override
+    public void onNotification(Notification<Map<String, Object>> notification) {
+        switch (notification.getCategory()) {
+            case RecordingTargetHelper.CREATION_NOTIFICATION_CATEGORY:
+            case RecordingTargetHelper.STOP_NOTIFICATION_CATEGORY:
+            case RecordingTargetHelper.DELETION_NOTIFICATION_CATEGORY:
+            case RecordingTargetHelper.SNAPSHOT_CREATION_NOTIFICATION_CATEGORY:
+            case RecordingTargetHelper.SNAPSHOT_DELETION_NOTIFICATION_CATEGORY:
+                Object targetId = notification.getMessage().get("target");
+                if (targetId != null) {
+                    invalidateRecordings(targetId.toString());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private CompletableFuture<List<IRecordingDescriptor>> loadRecordingsAsync(
+            ConnectionDescriptor connectionDescriptor) {
+        AtomicLong generation = getRecordingsGeneration(connectionDescriptor.getTargetId());
+        long expected = generation.get();
+        return recordingsLoads.run(
+                Pair.of(connectionDescriptor, expected),
+                () ->
+                        CompletableFuture.supplyAsync(
+                                () -> {
+                                    try {
+                                        return loadRecordings(
+                                                connectionDescriptor, generation, expected);
+                                    } catch (Exception e) {
+                                        throw new CompletionException(e);
+                                    }
+                                },
+                                executor));
+    }
+
+    private List<IRecordingDescriptor> loadRecordings(
+            ConnectionDescriptor connectionDescriptor, AtomicLong generation, long expected)
+            throws Exception {
+        List<IRecordingDescriptor> descriptors =
+                executeConnectedTask(
+                        connectionDescriptor,
+                        ConnectedTask.readOnly(
+                                conn -> List.copyOf(conn.getService().getAvailableRecordings())));
+        if (recordingsTtl.isZero()) {
+            return descriptors;
+        }
+        RecordingsSnapshot snapshot = new RecordingsSnapshot(descriptors);
+        recordings.put(connectionDescriptor, snapshot);
+        if (recordingsGenerations.get(connectionDescriptor.getTargetId()) != generation
+                || generation.get() != expected) {
+            // the recordings were changed while this listing was in progress, so it may be stale
+            recordings.asMap().remove(connectionDescriptor, snapshot);
+        }
+        return descriptors;
+    }
+
+    private AtomicLong getRecordingsGeneration(String targetId) {
+        return recordingsGenerations.computeIfAbsent(targetId, k -> new AtomicLong());
+    }
+
+    /**
+     * Keep a warm connection open to the target, ex. while an automated rule periodically archives
+     * its recordings, so that the rule's tasks do not have to connect to the target each time.
+     * Pinned connections do not expire and are periodically checked, and reopened if they have
+     * failed. Each pin should be released by a corresponding {@link #unpin(String)}. If more
+     * targets are pinned than the configured budget allows, the pinned targets least recently used
+     * fall back to normal connection expiry until they are used again.
+     */
+    public void pin(ConnectionDescriptor connectionDescriptor) {
+        if (maxPinnedConnections <= 0) {
+            return;
+        }
+        String targetId = connectionDescriptor.getTargetId();
+        pins.compute(
+                targetId,
+                (k, pin) -> new Pin(connectionDescriptor, pin == null ? 1 : pin.holders + 1));
+        promote(targetId, connectionDescriptor);
+    }
+
+    /** Release a pin previously taken by {@link #pin(ConnectionDescriptor)}. */
+    public void unpin(String targetId) {
+        Pin pin =
+                pins.computeIfPresent(
+                        targetId,
+                        (k, p) -> p.holders > 1 ? new Pin(p.descriptor, p.holders - 1) : null);
+        if (pin == null) {
+            demote(targetId);
+        }
+    }
+
+    boolean isWarm(String targetId) {
+        synchronized (warm) {
+            return warm.containsKey(targetId);
+        }
+    }
+
+    private void touchPin(String targetId) {
+        Pin pin = pins.get(targetId);
+        if (pin != null) {
+            promote(targetId, pin.descriptor);
+        }
+    }
+
+    private void promote(String targetId, ConnectionDescriptor connectionDescriptor) {
+        List<String> demoted = new ArrayList<>();
+        boolean promoted;
+        synchronized (warm) {
+            promoted = warm.put(targetId, connectionDescriptor) == null;
+            Iterator<String> it = warm.keySet().iterator();
+            while (warm.size() > maxPinnedConnections) {
+                demoted.add(it.next());
+                it.remove();
+            }
+        }
+        for (String id : demoted) {
+            logger.trace("Pinned connection for {} demoted", id);
+            resetExpiry(id);
+        }
+        if (promoted) {
+            warmUp(connectionDescriptor);
+            if (pinging.compareAndSet(false, true)) {
+                schedulePing();
+            }
+        }
+    }
+
+    private void demote(String targetId) {
+        boolean demoted;
+        synchronized (warm) {
+            demoted = warm.remove(targetId) != null;
+        }
+        if (demoted) {
+            resetExpiry(targetId);
+        }
+    }
+
+    private void resetExpiry(String targetId) {
+        connections
+                .synchronous()
+                .policy()
+                .expireVariably()
+                .ifPresent(
+                        policy -> {
+                            for (ConnectionDescriptor cd : connections.asMap().keySet()) {
+                                if (Objects.equals(cd.getTargetId(), targetId)) {
+                                    policy.setExpiresAfter(cd, ttl);
+                                }
+                            }
+                        });
+    }
+
+    private void warmUp(ConnectionDescriptor connectionDescriptor) {
+        connections
+                .get(connectionDescriptor)
+                .whenComplete(
+                        (conn, t) -> {
+                            if (t != null) {
+                                logger.warn(
+                                        "Failed to open pinned connection for {}",
+                                        connectionDescriptor.getTargetId());
+                            }
+                        });
+    }
+
+    private void schedulePing() {
+        scheduler.schedule(executor, this::pingPinned, ttl.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void pingPinned() {
+        List<ConnectionDescriptor> targets;
+        synchronized (warm) {
+            targets = new ArrayList<>(warm.values());
+        }
+        if (targets.isEmpty()) {
+            pinging.set(false);
+            // a target may have been pinned after the copy above but before the flag was cleared
+            if (isAnyWarm() && pinging.compareAndSet(false, true)) {
+                schedulePing();
+            }
+            return;
+        }
+        for (ConnectionDescriptor cd : targets) {
+            pings.run(
+                    cd.getTargetId(),
+                    () ->
+                            connections
+                                    .get(cd)
+                                    .thenAcceptAsync(conn -> ping(cd, conn), executor)
+                                    .exceptionally(
+                                            t -> {
+                                                logger.warn(
+                                                        "Failed to reopen pinned connection for"
+                                                                + " {}",
+                                                        cd.getTargetId());
+                                                return null;
+                                            }));
+        }
+        schedulePing();
+    }
+
+    private void ping(ConnectionDescriptor connectionDescriptor, JFRConnection connection) {
+        try {
+            if (!connection.isConnected()) {
+                throw new IOException("Connection is closed");
+            }
+            connection.getJvmId();
+        } catch (Exception e) {
+            logger.warn(
+                    "Pinned connection for {} failed health check, reconnecting",
+                    connectionDescriptor.getTargetId());
+            connections.synchronous().invalidate(connectionDescriptor);
+            warmUp(connectionDescriptor);
+        }
+    }
+
+    private boolean isAnyWarm() {
+        synchronized (warm) {
+            return !warm.isEmpty();
         }
     }
 
@@ -186,7 +525,7 @@ public class TargetConnectionManager {
             evt.begin();
             try {
                 connection.close();
-                targetLocks.remove(descriptor.getTargetId());
+                taskScheduler.release(descriptor.getTargetId());
             } catch (RuntimeException e) {
                 evt.setExceptionThrown(true);
                 throw e;
@@ -199,10 +538,7 @@ public class TargetConnectionManager {
         } catch (Exception e) {
             logger.error(e);
         } finally {
-            if (semaphore.isPresent()) {
-                semaphore.get().release();
-                logger.trace("Semaphore released! Permits: {}", semaphore.get().availablePermits());
-            }
+            admission.release();
         }
     }
 
@@ -253,9 +589,6 @@ public class TargetConnectionManager {
         logger.info("Creating connection for {}", url);
         evt.begin();
         try {
-            if (semaphore.isPresent()) {
-                semaphore.get().acquire();
-            }
             return jfrConnectionToolkit
                     .get()
                     .connect(
@@ -268,9 +601,6 @@ public class TargetConnectionManager {
                                     }));
         } catch (Exception e) {
             evt.setExceptionThrown(true);
-            if (semaphore.isPresent()) {
-                semaphore.get().release();
-            }
             throw e;
         } finally {
             evt.end();
@@ -286,16 +616,17 @@ public class TargetConnectionManager {
         @Override
         public CompletableFuture<JFRConnection> asyncLoad(
                 ConnectionDescriptor key, Executor executor) throws Exception {
-            return CompletableFuture.supplyAsync(
-                            () -> {
-                                try {
-                                    return connect(key);
-                                } catch (Exception e) {
-                                    throw new CompletionException(e);
-                                }
-                            },
-                            executor)
-                    .orTimeout(connectionTimeoutSeconds, TimeUnit.SECONDS);
+            // rule-matched targets are admitted ahead of others, since their archivers would
+            // otherwise miss their periods while connections to other targets are opened
+            ConnectionAdmission.Priority priority =
+                    pins.containsKey(key.getTargetId())
+                            ? ConnectionAdmission.Priority.HIGH
+                            : ConnectionAdmission.Priority.NORMAL;
+            return admission.submit(
+                    key.getTargetId(),
+                    priority,
+                    Duration.ofSeconds(connectionTimeoutSeconds),
+                    () -> connect(key));
         }
 
         @Override
@@ -309,8 +640,92 @@ public class TargetConnectionManager {
         }
     }
 
+    private class ConnectionExpiry implements Expiry<ConnectionDescriptor, JFRConnection> {
+
+        @Override
+        public long expireAfterCreate(
+                ConnectionDescriptor key, JFRConnection value, long currentTime) {
+            return expiry(key);
+        }
+
+        @Override
+        public long expireAfterUpdate(
+                ConnectionDescriptor key,
+                JFRConnection value,
+                long currentTime,
+                long currentDuration) {
+            return expiry(key);
+        }
+
+        @Override
+        public long expireAfterRead(
+                ConnectionDescriptor key,
+                JFRConnection value,
+                long currentTime,
+                long currentDuration) {
+            return expiry(key);
+        }
+
+        private long expiry(ConnectionDescriptor key) {
+            return isWarm(key.getTargetId()) ? Long.MAX_VALUE : ttl.toNanos();
+        }
+    }
+
+    private static class Pin {
+        private final ConnectionDescriptor descriptor;
+        private final int holders;
+
+        Pin(ConnectionDescriptor descriptor, int holders) {
+            this.descriptor = descriptor;
+            this.holders = holders;
+        }
+    }
+
+    public enum Consistency {
+        /** A recent result may be reused. */
+        CACHED,
+        /** The result must be read from the target. */
+        FRESH,
+    }
+
+    private static class RecordingsSnapshot {
+        private final List<IRecordingDescriptor> descriptors;
+        private final long loadedAt;
+
+        RecordingsSnapshot(List<IRecordingDescriptor> descriptors) {
+            this.descriptors = descriptors;
+            this.loadedAt = System.nanoTime();
+        }
+
+        boolean isOlderThan(Duration age) {
+            return System.nanoTime() - loadedAt > age.toNanos();
+        }
+    }
+
     public interface ConnectedTask<T> {
         T execute(JFRConnection connection) throws Exception;
+
+        default boolean isReadOnly() {
+            return false;
+        }
+
+        /**
+         * Mark a task which only reads from the target, ex. listing recordings or event types, so
+         * that it may share the target's connection with other read-only tasks.
+         */
+        static <T> ConnectedTask<T> readOnly(ConnectedTask<T> task) {
+            return new ConnectedTask<>() {
+                @Override
+                public T execute(JFRConnection connection) throws Exception {
+                    return task.execute(connection);
+                }
+
+                @Override
+                public boolean isReadOnly() {
+                    return true;
+                }
+            };
+        }
     }
 
     @Name("io.cryostat.net.TargetConnectionManager.JMXConnectionOpened")
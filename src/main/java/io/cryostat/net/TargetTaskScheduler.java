@@ -0,0 +1,151 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Schedules tasks against each target's shared connection. Read-only tasks may run concurrently
+ * with one another, while a mutating task runs alone, so slow operations such as streaming a
+ * recording only hold up requests which could conflict with them. Tasks for a target are admitted
+ * in arrival order, and a task which would have to wait behind too many others is rejected rather
+ * than queued.
+ */
+class TargetTaskScheduler {
+
+    private final int maxQueuedTasks;
+    private final Map<String, TargetQueue> queues = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxQueuedTasks the number of tasks which may wait for any one target before further
+     *     tasks are rejected, or a number less than 1 for no limit
+     */
+    TargetTaskScheduler(int maxQueuedTasks) {
+        this.maxQueuedTasks = maxQueuedTasks;
+    }
+
+    <T> T run(String targetId, boolean readOnly, Callable<T> task) throws Exception {
+        // counted as waiting as soon as the queue is looked up, so that it cannot be released
+        // and replaced by another queue for the same target in the meantime
+        TargetQueue queue =
+                queues.compute(
+                        targetId,
+                        (k, q) -> {
+                            TargetQueue tq = q == null ? new TargetQueue() : q;
+                            tq.waiting.incrementAndGet();
+                            return tq;
+                        });
+        Lock lock = readOnly ? queue.lock.readLock() : queue.lock.writeLock();
+        if (queue.isHeldByCurrentThread()) {
+            // a task nested within another for the same target is already serialized with
+            // respect to other tasks by the outer one
+            queue.waiting.decrementAndGet();
+            if (!readOnly && !queue.lock.isWriteLockedByCurrentThread()) {
+                throw new IllegalStateException(
+                        "Mutating task for " + targetId + " nested within a read-only task");
+            }
+            lock.lock();
+        } else {
+            acquire(targetId, readOnly, queue, lock);
+        }
+        try {
+            return task.call();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Forget a target's queue once there are no tasks running or waiting for it. */
+    void release(String targetId) {
+        queues.computeIfPresent(targetId, (k, q) -> q.isIdle() ? null : q);
+    }
+
+    boolean isHeldByCurrentThread(String targetId) {
+        TargetQueue queue = queues.get(targetId);
+        return queue != null && queue.isHeldByCurrentThread();
+    }
+
+    int getQueueDepth(String targetId) {
+        TargetQueue queue = queues.get(targetId);
+        return queue == null ? 0 : queue.waiting.get();
+    }
+
+    private void acquire(String targetId, boolean readOnly, TargetQueue queue, Lock lock)
+            throws InterruptedException {
+        int depth = queue.waiting.get();
+        if (maxQueuedTasks > 0 && depth > maxQueuedTasks) {
+            queue.waiting.decrementAndGet();
+            throw new RejectedExecutionException(
+                    String.format("Too many tasks queued for %s (%d)", targetId, maxQueuedTasks));
+        }
+        TargetTaskQueued evt = new TargetTaskQueued();
+        evt.begin();
+        long start = System.nanoTime();
+        try {
+            lock.lockInterruptibly();
+        } finally {
+            queue.waiting.decrementAndGet();
+        }
+        evt.end();
+        if (evt.shouldCommit()) {
+            evt.serviceUri = targetId;
+            evt.readOnly = readOnly;
+            evt.queueDepth = depth - 1;
+            evt.queuedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            evt.commit();
+        }
+    }
+
+    private static class TargetQueue {
+        // fair, so that a steady stream of read-only tasks cannot starve a mutating one
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
+        final AtomicInteger waiting = new AtomicInteger();
+
+        boolean isHeldByCurrentThread() {
+            return lock.isWriteLockedByCurrentThread() || lock.getReadHoldCount() > 0;
+        }
+
+        boolean isIdle() {
+            return waiting.get() == 0 && !lock.isWriteLocked() && lock.getReadLockCount() == 0;
+        }
+    }
+
+    @Name("io.cryostat.net.TargetTaskScheduler.TargetTaskQueued")
+    @Label("Target Task Queued")
+    @Category("Cryostat")
+    @SuppressFBWarnings(
+            value = "URF_UNREAD_FIELD",
+            justification = "The event fields are recorded with JFR instead of accessed directly")
+    public static class TargetTaskQueued extends Event {
+        String serviceUri;
+        boolean readOnly;
+        int queueDepth;
+        long queuedMillis;
+    }
+}
@@ -55,9 +55,12 @@ import io.cryostat.net.security.ResourceType;
 import io.cryostat.net.security.ResourceVerb;
 import io.cryostat.util.resource.ClassPropertiesLoader;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.github.benmanes.caffeine.cache.Scheduler;
+import com.github.benmanes.caffeine.cache.Ticker;
 import com.google.gson.Gson;
 import com.google.gson.annotations.SerializedName;
 import dagger.Lazy;
@@ -92,6 +95,13 @@ public class OpenShiftAuthManager extends AbstractAuthManager {
     private static final String CRYOSTAT_BASE_OAUTH_ROLE = "CRYOSTAT_BASE_OAUTH_ROLE";
     private static final String CRYOSTAT_CUSTOM_OAUTH_ROLE = "CRYOSTAT_CUSTOM_OAUTH_ROLE";
 
+    // SelfSubjectAccessReview decisions are cached per token so that clients polling the API do not
+    // cause API server round trips on every request. Denials are cached for a shorter time so that
+    // newly granted permissions take effect quickly.
+    static final Duration ACCESS_REVIEW_ALLOWED_TTL = Duration.ofSeconds(30);
+    static final Duration ACCESS_REVIEW_DENIED_TTL = Duration.ofSeconds(5);
+    static final long ACCESS_REVIEW_CACHE_MAX_SIZE = 4096;
+
     static final Pattern RESOURCE_PATTERN =
             Pattern.compile(
                     "^([\\w]+)([\\.\\w]+)?(?:/([\\w]+))?$",
@@ -106,6 +116,8 @@ public class OpenShiftAuthManager extends AbstractAuthManager {
     private final Gson gson;
 
     private final LoadingCache<String, OpenShiftClient> userClients;
+    private final AsyncCache<AccessReviewKey, AccessReviewDecision> accessReviews;
+    private final Executor reviewExecutor;
 
     OpenShiftAuthManager(
             Environment env,
@@ -114,8 +126,9 @@ public class OpenShiftAuthManager extends AbstractAuthManager {
             Function<String, OpenShiftClient> clientProvider,
             ClassPropertiesLoader classPropertiesLoader,
             Gson gson,
-            Executor cacheExecutor,
+            Executor reviewExecutor,
             Scheduler cacheScheduler,
+            Ticker cacheTicker,
             Logger logger) {
         super(logger);
         this.env = env;
@@ -124,15 +137,26 @@ public class OpenShiftAuthManager extends AbstractAuthManager {
         this.oauthUrls = new ConcurrentHashMap<>(2);
         this.oauthMetadata = new ConcurrentHashMap<>(1);
         this.gson = gson;
+        this.reviewExecutor = reviewExecutor;
 
         Caffeine<String, OpenShiftClient> cacheBuilder =
                 Caffeine.newBuilder()
-                        .executor(cacheExecutor)
+                        .executor(reviewExecutor)
                         .scheduler(cacheScheduler)
+                        .ticker(cacheTicker)
                         .expireAfterAccess(Duration.ofMinutes(5)) // should this be configurable?
                         .removalListener((k, v, cause) -> v.close());
         this.userClients = cacheBuilder.build(clientProvider::apply);
 
+        this.accessReviews =
+                Caffeine.newBuilder()
+                        .executor(reviewExecutor)
+                        .scheduler(cacheScheduler)
+                        .ticker(cacheTicker)
+                        .maximumSize(ACCESS_REVIEW_CACHE_MAX_SIZE)
+                        .expireAfter(new AccessReviewExpiry())
+                        .buildAsync();
+
         this.resourceMap = processResourceMapping(classPropertiesLoader, logger);
     }
 
@@ -233,13 +257,26 @@ public class OpenShiftAuthManager extends AbstractAuthManager {
         }
 
         OpenShiftClient client = userClients.get(token);
+        String tokenHash = DigestUtils.sha256Hex(token);
         try {
+            AccessReviewLookup evt = new AccessReviewLookup();
+            evt.begin();
+            // collecting first starts all of the reviews, which then run concurrently
             List<CompletableFuture<Void>> results =
                     resourceActions.stream()
                             .flatMap(
                                     resourceAction ->
-                                            validateAction(client, namespace.get(), resourceAction))
+                                            validateAction(
+                                                    client,
+                                                    tokenHash,
+                                                    namespace.get(),
+                                                    resourceAction,
+                                                    evt))
                             .collect(Collectors.toList());
+            evt.end();
+            if (evt.shouldCommit()) {
+                evt.commit();
+            }
 
             CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
                     .get(15, TimeUnit.SECONDS);
@@ -271,7 +308,11 @@ public class OpenShiftAuthManager extends AbstractAuthManager {
     }
 
     private Stream<CompletableFuture<Void>> validateAction(
-            OpenShiftClient client, String namespace, ResourceAction resourceAction) {
+            OpenShiftClient client,
+            String tokenHash,
+            String namespace,
+            ResourceAction resourceAction,
+            AccessReviewLookup evt) {
         Set<GroupResource> resources =
                 resourceMap.getOrDefault(resourceAction.getResource(), Set.of());
         if (resources.isEmpty()) {
@@ -279,55 +320,69 @@ public class OpenShiftAuthManager extends AbstractAuthManager {
         }
         String verb = map(resourceAction.getVerb());
         return resources.stream()
-                .map(
-                        resource ->
-                                new SelfSubjectAccessReviewBuilder()
-                                        .withNewSpec()
-                                        .withNewResourceAttributes()
-                                        .withNamespace(namespace)
-                                        .withGroup(resource.getGroup())
-                                        .withResource(resource.getResource())
-                                        .withSubresource(resource.getSubResource())
-                                        .withVerb(verb)
-                                        .endResourceAttributes()
-                                        .endSpec()
-                                        .build())
-                .map(
-                        accessReview -> {
-                            CompletableFuture<Void> result = new CompletableFuture<>();
-                            AuthRequest evt = new AuthRequest();
-                            try {
-                                evt.begin();
-                                SelfSubjectAccessReview accessReviewResult =
-                                        client.authorization()
-                                                .v1()
-                                                .selfSubjectAccessReview()
-                                                .create(accessReview);
-                                evt.setRequestSuccessful(true);
-                                if (accessReviewResult.getStatus().getAllowed()) {
-                                    result.complete(null);
-                                } else {
-                                    result.completeExceptionally(
-                                            new PermissionDeniedException(
-                                                    namespace,
-                                                    new GroupResource(
-                                                                    accessReview
-                                                                            .getSpec()
-                                                                            .getResourceAttributes())
-                                                            .toString(),
-                                                    verb,
-                                                    accessReviewResult.getStatus().getReason()));
-                                }
-                            } catch (Exception e) {
-                                result.completeExceptionally(e);
-                            } finally {
-                                if (evt.shouldCommit()) {
-                                    evt.end();
-                                    evt.commit();
-                                }
-                            }
-                            return result;
+                .map(resource -> new AccessReviewKey(tokenHash, namespace, resource, verb))
+                .map(key -> reviewAccess(client, key, evt));
+    }
+
+    private CompletableFuture<Void> reviewAccess(
+            OpenShiftClient client, AccessReviewKey key, AccessReviewLookup evt) {
+        // the mapping function is called on this thread, and only if the decision is not cached
+        boolean[] miss = new boolean[1];
+        CompletableFuture<AccessReviewDecision> review =
+                accessReviews.get(
+                        key,
+                        (k, executor) -> {
+                            miss[0] = true;
+                            return CompletableFuture.supplyAsync(
+                                    () -> performAccessReview(client, k), executor);
                         });
+        if (miss[0]) {
+            evt.cacheMisses++;
+        } else {
+            evt.cacheHits++;
+        }
+        return review.thenCompose(
+                decision -> {
+                    if (decision.allowed) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return CompletableFuture.failedFuture(
+                            new PermissionDeniedException(
+                                    key.namespace,
+                                    key.resource.toString(),
+                                    key.verb,
+                                    decision.reason));
+                });
+    }
+
+    private AccessReviewDecision performAccessReview(OpenShiftClient client, AccessReviewKey key) {
+        SelfSubjectAccessReview accessReview =
+                new SelfSubjectAccessReviewBuilder()
+                        .withNewSpec()
+                        .withNewResourceAttributes()
+                        .withNamespace(key.namespace)
+                        .withGroup(key.resource.getGroup())
+                        .withResource(key.resource.getResource())
+                        .withSubresource(key.resource.getSubResource())
+                        .withVerb(key.verb)
+                        .endResourceAttributes()
+                        .endSpec()
+                        .build();
+        AuthRequest evt = new AuthRequest();
+        try {
+            evt.begin();
+            SelfSubjectAccessReview accessReviewResult =
+                    client.authorization().v1().selfSubjectAccessReview().create(accessReview);
+            evt.setRequestSuccessful(true);
+            return new AccessReviewDecision(
+                    accessReviewResult.getStatus().getAllowed(),
+                    accessReviewResult.getStatus().getReason());
+        } finally {
+            if (evt.shouldCommit()) {
+                evt.end();
+                evt.commit();
+            }
+        }
     }
 
     @Override
@@ -367,6 +422,9 @@ public class OpenShiftAuthManager extends AbstractAuthManager {
     }
 
     private void deleteToken(String token) throws TokenNotFoundException {
+        String tokenHash = DigestUtils.sha256Hex(token);
+        accessReviews.synchronous().asMap().keySet().removeIf(k -> k.tokenHash.equals(tokenHash));
+        userClients.invalidate(token);
         List<StatusDetails> results =
                 serviceAccountClient
                         .get()
@@ -406,23 +464,33 @@ public class OpenShiftAuthManager extends AbstractAuthManager {
     }
 
     private Future<TokenReviewStatus> performTokenReview(String token) {
-        try {
-            TokenReview review =
-                    new TokenReviewBuilder().withNewSpec().withToken(token).endSpec().build();
-            review = serviceAccountClient.get().tokenReviews().create(review);
-            TokenReviewStatus status = review.getStatus();
-            if (StringUtils.isNotBlank(status.getError())) {
-                return CompletableFuture.failedFuture(
-                        new AuthenticationErrorException(status.getError()));
-            }
-            return CompletableFuture.completedFuture(status);
-        } catch (KubernetesClientException e) {
-            logger.info(e);
-            return CompletableFuture.failedFuture(e);
-        } catch (Exception e) {
-            logger.error(e);
-            return CompletableFuture.failedFuture(e);
-        }
+        CompletableFuture<TokenReviewStatus> result = new CompletableFuture<>();
+        reviewExecutor.execute(
+                () -> {
+                    try {
+                        TokenReview review =
+                                new TokenReviewBuilder()
+                                        .withNewSpec()
+                                        .withToken(token)
+                                        .endSpec()
+                                        .build();
+                        review = serviceAccountClient.get().tokenReviews().create(review);
+                        TokenReviewStatus status = review.getStatus();
+                        if (StringUtils.isNotBlank(status.getError())) {
+                            result.completeExceptionally(
+                                    new AuthenticationErrorException(status.getError()));
+                            return;
+                        }
+                        result.complete(status);
+                    } catch (KubernetesClientException e) {
+                        logger.info(e);
+                        result.completeExceptionally(e);
+                    } catch (Exception e) {
+                        logger.error(e);
+                        result.completeExceptionally(e);
+                    }
+                });
+        return result;
     }
 
     private CompletableFuture<String> computeAuthorizationEndpoint() {
@@ -568,6 +636,17 @@ public class OpenShiftAuthManager extends AbstractAuthManager {
         }
     }
 
+    @Name("io.cryostat.net.OpenShiftAuthManager.AccessReviewLookup")
+    @Label("Access Review Lookup")
+    @Category("Cryostat")
+    @SuppressFBWarnings(
+            value = "URF_UNREAD_FIELD",
+            justification = "Event fields are recorded with JFR instead of accessed directly")
+    public static class AccessReviewLookup extends Event {
+        int cacheHits;
+        int cacheMisses;
+    }
+
     @Name("io.cryostat.net.OpenShiftAuthManager.AuthRequest")
     @Label("AuthRequest")
     @Category("Cryostat")
@@ -587,6 +666,78 @@ public class OpenShiftAuthManager extends AbstractAuthManager {
         }
     }
 
+    private static class AccessReviewKey {
+        private final String tokenHash;
+        private final String namespace;
+        private final GroupResource resource;
+        private final String verb;
+
+        AccessReviewKey(String tokenHash, String namespace, GroupResource resource, String verb) {
+            this.tokenHash = tokenHash;
+            this.namespace = namespace;
+            this.resource = resource;
+            this.verb = verb;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tokenHash, namespace, resource, verb);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof AccessReviewKey)) {
+                return false;
+            }
+            AccessReviewKey other = (AccessReviewKey) obj;
+            return Objects.equals(tokenHash, other.tokenHash)
+                    && Objects.equals(namespace, other.namespace)
+                    && Objects.equals(resource, other.resource)
+                    && Objects.equals(verb, other.verb);
+        }
+    }
+
+    private static class AccessReviewDecision {
+        private final boolean allowed;
+        private final String reason;
+
+        AccessReviewDecision(Boolean allowed, String reason) {
+            this.allowed = Boolean.TRUE.equals(allowed);
+            this.reason = reason;
+        }
+    }
+
+    private static class AccessReviewExpiry
+            implements Expiry<AccessReviewKey, AccessReviewDecision> {
+        @Override
+        public long expireAfterCreate(
+                AccessReviewKey key, AccessReviewDecision decision, long currentTime) {
+            return (decision.allowed ? ACCESS_REVIEW_ALLOWED_TTL : ACCESS_REVIEW_DENIED_TTL)
+                    .toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(
+                AccessReviewKey key,
+                AccessReviewDecision decision,
+                long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(key, decision, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(
+                AccessReviewKey key,
+                AccessReviewDecision decision,
+                long currentTime,
+                long currentDuration) {
+            return currentDuration;
+        }
+    }
+
     // A pairing of a Kubernetes group name and resource name
     public static class GroupResource {
 
@@ -18,12 +18,14 @@ package io.cryostat.net.openshift;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Paths;
-import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import io.cryostat.configuration.Variables;
 import io.cryostat.core.log.Logger;
 import io.cryostat.core.sys.Environment;
 import io.cryostat.core.sys.FileSystem;
@@ -31,6 +33,7 @@ import io.cryostat.net.AuthManager;
 import io.cryostat.util.resource.ClassPropertiesLoader;
 
 import com.github.benmanes.caffeine.cache.Scheduler;
+import com.github.benmanes.caffeine.cache.Ticker;
 import com.google.gson.Gson;
 import dagger.Binds;
 import dagger.Lazy;
@@ -43,6 +46,7 @@ import io.fabric8.openshift.client.DefaultOpenShiftClient;
 import io.fabric8.openshift.client.OpenShiftClient;
 import io.fabric8.openshift.client.OpenShiftConfigBuilder;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 
 @Module
 public abstract class OpenShiftNetworkModule {
@@ -50,6 +54,7 @@ public abstract class OpenShiftNetworkModule {
     static final String OPENSHIFT_SERVICE_ACCOUNT_TOKEN = "OPENSHIFT_SERVICE_ACCOUNT_TOKEN";
     static final String OPENSHIFT_NAMESPACE = "OPENSHIFT_NAMESPACE";
     static final String TOKENED_CLIENT = "TOKENED_CLIENT";
+    static final String AUTH_REVIEW_EXECUTOR = "AUTH_REVIEW_EXECUTOR";
 
     @Provides
     @Singleton
@@ -96,6 +101,21 @@ public abstract class OpenShiftNetworkModule {
         return tokenedClient.apply(serviceAccountToken);
     }
 
+    // TokenReviews and SelfSubjectAccessReviews block on API server round trips, so they are kept
+    // off of the common pool and limited in how many may be in flight at once
+    @Provides
+    @Singleton
+    @Named(AUTH_REVIEW_EXECUTOR)
+    static ExecutorService provideAuthReviewExecutor(Environment env) {
+        int threads = Math.max(1, Integer.parseInt(env.getEnv(Variables.AUTH_REVIEW_THREADS, "8")));
+        return Executors.newFixedThreadPool(
+                threads,
+                new BasicThreadFactory.Builder()
+                        .namingPattern("auth-review-%d")
+                        .daemon(true)
+                        .build());
+    }
+
     @Provides
     @Singleton
     static OpenShiftAuthManager provideOpenShiftAuthManager(
@@ -105,6 +125,7 @@ public abstract class OpenShiftNetworkModule {
             @Named(TOKENED_CLIENT) Function<String, OpenShiftClient> clientProvider,
             ClassPropertiesLoader classPropertiesLoader,
             Gson gson,
+            @Named(AUTH_REVIEW_EXECUTOR) ExecutorService reviewExecutor,
             Logger logger) {
         return new OpenShiftAuthManager(
                 env,
@@ -113,8 +134,9 @@ public abstract class OpenShiftNetworkModule {
                 clientProvider,
                 classPropertiesLoader,
                 gson,
-                ForkJoinPool.commonPool(),
+                reviewExecutor,
                 Scheduler.systemScheduler(),
+                Ticker.systemTicker(),
                 logger);
     }
 
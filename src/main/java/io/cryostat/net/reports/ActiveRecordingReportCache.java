@@ -16,8 +16,11 @@
 package io.cryostat.net.reports;
 
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
@@ -41,11 +44,15 @@ import io.cryostat.recordings.RecordingTargetHelper;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.github.benmanes.caffeine.cache.Scheduler;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 class ActiveRecordingReportCache implements NotificationListener<Map<String, Object>> {
     protected final Provider<ReportGeneratorService> reportGeneratorServiceProvider;
     protected final FileSystem fs;
-    protected final LoadingCache<RecordingDescriptor, String> cache;
+    protected final LoadingCache<RecordingDescriptor, CachedReport> cache;
+    protected final LoadingCache<FilteredReportKey, String> filteredCache;
+    protected final ReportFilter reportFilter;
     protected final TargetConnectionManager targetConnectionManager;
     protected final long generationTimeoutSeconds;
     protected final long cacheExpirySeconds;
@@ -62,6 +69,7 @@ class ActiveRecordingReportCache implements NotificationListener<Map<String, Obj
             @Named(ReportsModule.REPORT_GENERATION_TIMEOUT_SECONDS) long generationTimeoutSeconds,
             @Named(ReportsModule.ACTIVE_REPORT_CACHE_EXPIRY_SECONDS) long cacheExpirySeconds,
             @Named(ReportsModule.ACTIVE_REPORT_CACHE_REFRESH_SECONDS) long cacheRefreshSeconds,
+            ReportFilter reportFilter,
             Logger logger) {
         this.reportGeneratorServiceProvider = reportGeneratorServiceProvider;
         this.fs = fs;
@@ -69,6 +77,7 @@ class ActiveRecordingReportCache implements NotificationListener<Map<String, Obj
         this.generationTimeoutSeconds = generationTimeoutSeconds;
         this.cacheExpirySeconds = cacheExpirySeconds;
         this.cacheRefreshSeconds = cacheRefreshSeconds;
+        this.reportFilter = reportFilter;
         this.logger = logger;
         this.cache =
                 Caffeine.newBuilder()
@@ -76,7 +85,15 @@ class ActiveRecordingReportCache implements NotificationListener<Map<String, Obj
                         .expireAfterWrite(cacheExpirySeconds, TimeUnit.SECONDS)
                         .refreshAfterWrite(cacheRefreshSeconds, TimeUnit.SECONDS)
                         .softValues()
-                        .build(this::getReport);
+                        .build(this::getCachedReport);
+        // filtered reports are not refreshed, so they are expired as soon as the unfiltered report
+        // they may have been derived from would be refreshed
+        this.filteredCache =
+                Caffeine.newBuilder()
+                        .scheduler(Scheduler.systemScheduler())
+                        .expireAfterWrite(cacheRefreshSeconds, TimeUnit.SECONDS)
+                        .softValues()
+                        .build(this::getFilteredReport);
     }
 
     Future<String> get(
@@ -84,12 +101,16 @@ class ActiveRecordingReportCache implements NotificationListener<Map<String, Obj
         CompletableFuture<String> f = new CompletableFuture<>();
         try {
             if (filter.isBlank()) {
-                f.complete(cache.get(new RecordingDescriptor(connectionDescriptor, recordingName)));
+                f.complete(
+                        cache.get(new RecordingDescriptor(connectionDescriptor, recordingName))
+                                .getJson());
             } else {
                 f.complete(
-                        getReport(
-                                new RecordingDescriptor(connectionDescriptor, recordingName),
-                                filter));
+                        filteredCache.get(
+                                new FilteredReportKey(
+                                        new RecordingDescriptor(
+                                                connectionDescriptor, recordingName),
+                                        filter)));
             }
         } catch (Exception e) {
             f.completeExceptionally(e);
@@ -97,18 +118,71 @@ class ActiveRecordingReportCache implements NotificationListener<Map<String, Obj
         return f;
     }
 
+    /**
+     * @return a report document containing only the results of the given rules, or only their
+     *     scores, taken from the cached unfiltered report of the recording
+     */
+    Future<String> getRules(
+            ConnectionDescriptor connectionDescriptor,
+            String recordingName,
+            Collection<String> ruleIds,
+            boolean scoresOnly) {
+        CompletableFuture<String> f = new CompletableFuture<>();
+        try {
+            IndexedReport report =
+                    cache.get(new RecordingDescriptor(connectionDescriptor, recordingName))
+                            .getIndex();
+            f.complete(scoresOnly ? report.scoresToJson(ruleIds) : report.toJson(ruleIds));
+        } catch (Exception e) {
+            f.completeExceptionally(e);
+        }
+        return f;
+    }
+
     boolean delete(ConnectionDescriptor connectionDescriptor, String recordingName) {
         RecordingDescriptor key = new RecordingDescriptor(connectionDescriptor, recordingName);
+        for (FilteredReportKey filteredKey : filteredCache.asMap().keySet()) {
+            if (filteredKey.recordingDescriptor.equals(key)) {
+                filteredCache.invalidate(filteredKey);
+            }
+        }
+        return invalidate(key);
+    }
+
+    private boolean invalidate(RecordingDescriptor key) {
         boolean hasKey = cache.asMap().containsKey(key);
         if (hasKey) {
-            logger.trace("Invalidated active report cache for {}", recordingName);
+            logger.trace("Invalidated active report cache for {}", key.recordingName);
             cache.invalidate(key);
         } else {
-            logger.trace("No cache entry for {} to invalidate", recordingName);
+            logger.trace("No cache entry for {} to invalidate", key.recordingName);
         }
         return hasKey;
     }
 
+    protected String getFilteredReport(FilteredReportKey key) throws Exception {
+        // concurrent requests for the same filtered report are coalesced by the loading cache, and
+        // if the full report is already cached then the filtered one is derived from it rather than
+        // analyzing the recording again
+        CachedReport cached = cache.getIfPresent(key.recordingDescriptor);
+        if (cached != null) {
+            IndexedReport unfiltered = cached.getIndex();
+            Optional<Set<String>> selected = reportFilter.select(unfiltered, key.filter);
+            if (selected.isPresent()) {
+                logger.trace(
+                        "Active report for {} derived from unfiltered",
+                        key.recordingDescriptor.recordingName);
+                return unfiltered.toJson(selected.get());
+            }
+        }
+        return getReport(key.recordingDescriptor, key.filter);
+    }
+
+    protected CachedReport getCachedReport(RecordingDescriptor recordingDescriptor)
+            throws Exception {
+        return new CachedReport(getReport(recordingDescriptor));
+    }
+
     protected String getReport(RecordingDescriptor recordingDescriptor) throws Exception {
         return getReport(recordingDescriptor, EMPTY_FILTERS);
     }
@@ -129,7 +203,7 @@ class ActiveRecordingReportCache implements NotificationListener<Map<String, Obj
             } catch (ExecutionException | CompletionException e) {
                 logger.error(e);
 
-                delete(recordingDescriptor.connectionDescriptor, recordingDescriptor.recordingName);
+                invalidate(recordingDescriptor);
 
                 if (e.getCause()
                         instanceof SubprocessReportGenerator.SubprocessReportGenerationException) {
@@ -167,6 +241,64 @@ class ActiveRecordingReportCache implements NotificationListener<Map<String, Obj
         }
     }
 
+    /**
+     * A generated report document, kept as it was generated so that the full report is served
+     * unchanged, and indexed on first use so that selected rules can be served without parsing the
+     * rest.
+     */
+    static class CachedReport {
+        private final String json;
+        private IndexedReport index;
+
+        CachedReport(String json) {
+            this.json = Objects.requireNonNull(json);
+        }
+
+        String getJson() {
+            return json;
+        }
+
+        synchronized IndexedReport getIndex() {
+            if (index == null) {
+                index = IndexedReport.of(json);
+            }
+            return index;
+        }
+    }
+
+    static class FilteredReportKey {
+        final RecordingDescriptor recordingDescriptor;
+        final String filter;
+
+        FilteredReportKey(RecordingDescriptor recordingDescriptor, String filter) {
+            this.recordingDescriptor = Objects.requireNonNull(recordingDescriptor);
+            this.filter = Objects.requireNonNull(filter);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other == null) {
+                return false;
+            }
+            if (other == this) {
+                return true;
+            }
+            if (!(other instanceof FilteredReportKey)) {
+                return false;
+            }
+            FilteredReportKey key = (FilteredReportKey) other;
+            return new EqualsBuilder()
+                    .append(recordingDescriptor, key.recordingDescriptor)
+                    .append(filter, key.filter)
+                    .isEquals();
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder().append(recordingDescriptor).append(filter).hashCode();
+        }
+    }
+
     @Override
     public void onNotification(Notification<Map<String, Object>> notification) {
         String category = notification.getCategory();
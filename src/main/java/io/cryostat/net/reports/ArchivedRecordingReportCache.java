@@ -15,8 +15,17 @@
  */
 package io.cryostat.net.reports;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -27,6 +36,11 @@ import javax.inject.Provider;
 import io.cryostat.core.log.Logger;
 import io.cryostat.core.sys.FileSystem;
 import io.cryostat.recordings.RecordingArchiveHelper;
+import io.cryostat.util.SingleFlight;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.commons.lang3.function.FailableFunction;
 
 class ArchivedRecordingReportCache {
 
@@ -34,93 +48,227 @@ class ArchivedRecordingReportCache {
     protected final Provider<ReportGeneratorService> reportGeneratorServiceProvider;
     protected final RecordingArchiveHelper recordingArchiveHelper;
     protected final long generationTimeoutSeconds;
+    protected final ReportFilter reportFilter;
     protected final Logger logger;
+    private final SingleFlight<Path, Path> inFlight = new SingleFlight<>();
+    private final SingleFlight<Path, IndexedReport> indexing = new SingleFlight<>();
+    // mapped indexes of cached reports, by the path of the index file
+    private final Cache<Path, IndexedReport> indexes = Caffeine.newBuilder().softValues().build();
+
+    protected static final String EMPTY_FILTERS = "";
 
     ArchivedRecordingReportCache(
             FileSystem fs,
             Provider<ReportGeneratorService> reportGeneratorServiceProvider,
             RecordingArchiveHelper recordingArchiveHelper,
             @Named(ReportsModule.REPORT_GENERATION_TIMEOUT_SECONDS) long generationTimeoutSeconds,
+            ReportFilter reportFilter,
             Logger logger) {
         this.fs = fs;
         this.reportGeneratorServiceProvider = reportGeneratorServiceProvider;
         this.recordingArchiveHelper = recordingArchiveHelper;
         this.generationTimeoutSeconds = generationTimeoutSeconds;
+        this.reportFilter = reportFilter;
         this.logger = logger;
     }
 
     Future<Path> getFromPath(String subdirectoryName, String recordingName, String filter) {
-        CompletableFuture<Path> f = new CompletableFuture<>();
-        Path dest = null;
-        try {
-            dest =
-                    recordingArchiveHelper
-                            .getCachedReportPathFromPath(subdirectoryName, recordingName, filter)
-                            .get();
-            if (fs.isReadable(dest) && fs.isRegularFile(dest)) {
-                f.complete(dest);
-                logger.trace("Archived report cache hit for {}", recordingName);
-                return f;
-            }
-            logger.trace("Archived report cache miss for {}", recordingName);
-            Path archivedRecording =
-                    recordingArchiveHelper
-                            .getRecordingPathFromPath(subdirectoryName, recordingName)
-                            .get();
+        return get(
+                recordingName,
+                filter,
+                f ->
+                        recordingArchiveHelper
+                                .getCachedReportPathFromPath(subdirectoryName, recordingName, f)
+                                .get(),
+                () ->
+                        recordingArchiveHelper
+                                .getRecordingPathFromPath(subdirectoryName, recordingName)
+                                .get());
+    }
 
-            Path saveFile =
-                    reportGeneratorServiceProvider
-                            .get()
-                            .exec(archivedRecording, dest, filter)
+    Future<Path> get(String recordingName, String filter) {
+        return this.get(null, recordingName, filter);
+    }
+
+    Future<Path> get(String sourceTarget, String recordingName, String filter) {
+        return get(
+                recordingName,
+                filter,
+                f ->
+                        recordingArchiveHelper
+                                .getCachedReportPath(sourceTarget, recordingName, f)
+                                .get(),
+                () -> recordingArchiveHelper.getRecordingPath(sourceTarget, recordingName).get());
+    }
+
+    /**
+     * @return a report document containing only the results of the given rules, or only their
+     *     scores, read from an index of the cached unfiltered report of the recording
+     */
+    Future<String> getRules(
+            String sourceTarget,
+            String recordingName,
+            Collection<String> ruleIds,
+            boolean scoresOnly) {
+        CompletableFuture<String> f = new CompletableFuture<>();
+        try {
+            Path report =
+                    get(sourceTarget, recordingName, EMPTY_FILTERS)
                             .get(generationTimeoutSeconds, TimeUnit.SECONDS);
-            f.complete(saveFile);
+            // indexing runs while the report is reserved, so concurrent requests wait for the
+            // index to be written rather than mapping it partway through
+            IndexedReport index =
+                    indexing.run(report, () -> CompletableFuture.completedFuture(index(report)))
+                            .get();
+            f.complete(scoresOnly ? index.scoresToJson(ruleIds) : index.toJson(ruleIds));
         } catch (Exception e) {
             logger.error(e);
             f.completeExceptionally(e);
-            try {
-                fs.deleteIfExists(dest);
-            } catch (IOException ioe) {
-                logger.warn(ioe);
-            }
         }
         return f;
     }
 
-    Future<Path> get(String recordingName, String filter) {
-        return this.get(null, recordingName, filter);
+    private IndexedReport index(Path report) throws IOException {
+        // the index is kept beside the report so that it is invalidated along with it
+        Path index =
+                report.resolveSibling(
+                        report.getFileName().toString().replaceFirst("\\.json$", ".idx"));
+        if (isCached(index)) {
+            IndexedReport mapped = indexes.getIfPresent(index);
+            if (mapped != null) {
+                return mapped;
+            }
+            try {
+                mapped = IndexedReport.map(index);
+                indexes.put(index, mapped);
+                return mapped;
+            } catch (IllegalArgumentException | BufferUnderflowException e) {
+                logger.warn(e);
+            }
+        }
+        // the index is missing or unreadable, so any mapping of a previous index is stale
+        indexes.invalidate(index);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        IndexedReport.write(fs.readString(report), baos);
+        fs.copy(
+                new ByteArrayInputStream(baos.toByteArray()),
+                index,
+                StandardCopyOption.REPLACE_EXISTING);
+        logger.trace("Archived report index written to {}", index);
+        IndexedReport mapped = IndexedReport.map(index);
+        indexes.put(index, mapped);
+        return mapped;
     }
 
-    Future<Path> get(String sourceTarget, String recordingName, String filter) {
+    private Future<Path> get(
+            String recordingName,
+            String filter,
+            FailableFunction<String, Path, Exception> cachedReportPath,
+            Callable<Path> recordingPath) {
         CompletableFuture<Path> f = new CompletableFuture<>();
-        Path dest = null;
         try {
-            dest =
-                    recordingArchiveHelper
-                            .getCachedReportPath(sourceTarget, recordingName, filter)
-                            .get();
-            if (fs.isReadable(dest) && fs.isRegularFile(dest)) {
+            Path dest = cachedReportPath.apply(filter);
+            if (isCached(dest)) {
                 f.complete(dest);
                 logger.trace("Archived report cache hit for {}", recordingName);
                 return f;
             }
             logger.trace("Archived report cache miss for {}", recordingName);
-            Path archivedRecording =
-                    recordingArchiveHelper.getRecordingPath(sourceTarget, recordingName).get();
+            Path unfiltered = filter.isBlank() ? null : cachedReportPath.apply(EMPTY_FILTERS);
             Path saveFile =
-                    reportGeneratorServiceProvider
-                            .get()
-                            .exec(archivedRecording, dest, filter)
+                    inFlight.run(
+                                    dest,
+                                    deriveOrGenerate(
+                                            recordingName, unfiltered, dest, filter, recordingPath))
                             .get(generationTimeoutSeconds, TimeUnit.SECONDS);
             f.complete(saveFile);
         } catch (Exception e) {
             logger.error(e);
             f.completeExceptionally(e);
+        }
+        return f;
+    }
+
+    private Callable<CompletableFuture<Path>> deriveOrGenerate(
+            String recordingName,
+            Path unfiltered,
+            Path dest,
+            String filter,
+            Callable<Path> recordingPath) {
+        // derivations share the destination file with generations, so they are coalesced with them
+        return () -> {
+            if (isCached(dest)) {
+                // written by a flight which completed since the caller checked
+                return CompletableFuture.completedFuture(dest);
+            }
+            if (unfiltered != null && deriveFilteredReport(unfiltered, dest, filter)) {
+                logger.trace("Archived report for {} derived from unfiltered", recordingName);
+                return CompletableFuture.completedFuture(dest);
+            }
+            return generate(recordingPath.call(), dest, filter).call();
+        };
+    }
+
+    private Callable<CompletableFuture<Path>> generate(
+            Path archivedRecording, Path dest, String filter) {
+        // concurrent requests for the same report share the same destination file, so they are
+        // coalesced into a single report generation. Only that generation may remove a partially
+        // written file, since a caller which gives up waiting does not stop the generation.
+        return () -> {
+            CompletableFuture<Path> generation;
             try {
-                fs.deleteIfExists(dest);
-            } catch (IOException ioe) {
-                logger.warn(ioe);
+                generation =
+                        reportGeneratorServiceProvider.get().exec(archivedRecording, dest, filter);
+            } catch (Exception e) {
+                deleteQuietly(dest);
+                throw e;
             }
+            return generation.whenComplete(
+                    (p, t) -> {
+                        if (t != null) {
+                            deleteQuietly(dest);
+                        }
+                    });
+        };
+    }
+
+    private void deleteQuietly(Path report) {
+        try {
+            fs.deleteIfExists(report);
+        } catch (IOException ioe) {
+            logger.warn(ioe);
         }
-        return f;
+    }
+
+    private boolean isCached(Path report) {
+        return fs.isReadable(report) && fs.isRegularFile(report);
+    }
+
+    private boolean deriveFilteredReport(Path unfiltered, Path dest, String filter)
+            throws IOException {
+        if (!isCached(unfiltered)) {
+            return false;
+        }
+        Optional<String> filtered = reportFilter.apply(fs.readString(unfiltered), filter);
+        if (filtered.isEmpty()) {
+            return false;
+        }
+        // written beside the destination and moved into place, so that the report is never seen
+        // partially written. The temporary name shares the report's prefix so that it is removed
+        // along with the recording's other reports.
+        Path tmp = dest.resolveSibling(dest.getFileName() + ".tmp");
+        try {
+            fs.writeString(
+                    tmp,
+                    filtered.get(),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            Files.move(tmp, dest, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw e;
+        }
+        return true;
     }
 }
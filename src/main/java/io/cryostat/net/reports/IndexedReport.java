@@ -0,0 +1,307 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net.reports;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Automated analysis report results in an indexed binary form. The index at the start of the report
+ * holds each result's rule ID, topic, name and score, followed by the JSON document of each result.
+ * A subset of results, or only their scores, can therefore be read without parsing the rest of the
+ * report, and the report can be memory-mapped directly from a file.
+ *
+ * <pre>
+ * int magic, int version, int count
+ * count * { string id, string topic, string name, double score, int offset, int length }
+ * result data, each result's JSON at its offset relative to the start of the data
+ * </pre>
+ *
+ * Strings are written as an int byte length followed by UTF-8 bytes, with a length of -1 for a
+ * missing string. A count of -1 marks an unindexed report, whose data is a document which was not a
+ * JSON object of results and is kept as-is.
+ */
+class IndexedReport {
+
+    static final int MAGIC = 0x43525054; // "CRPT"
+    static final int VERSION = 1;
+
+    private final Map<String, Entry> entries;
+    private final ByteBuffer data;
+
+    private IndexedReport(Map<String, Entry> entries, ByteBuffer data) {
+        this.entries = entries;
+        this.data = data;
+    }
+
+    /** Index a JSON report document, as produced by report generation, in memory. */
+    static IndexedReport of(String json) {
+        return parse(ByteBuffer.wrap(encode(json)));
+    }
+
+    /** Index a JSON report document into the given stream, ex. to be saved as a file. */
+    static void write(String json, OutputStream out) throws IOException {
+        out.write(encode(json));
+    }
+
+    /** Memory-map a report file previously written by {@link #write(String, OutputStream)}. */
+    static IndexedReport map(Path src) throws IOException {
+        try (FileChannel channel = FileChannel.open(src, StandardOpenOption.READ)) {
+            return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    boolean isIndexed() {
+        return entries != null;
+    }
+
+    Collection<Entry> getEntries() {
+        return entries == null ? List.of() : Collections.unmodifiableCollection(entries.values());
+    }
+
+    /**
+     * @return the full report document
+     */
+    String toJson() {
+        if (!isIndexed()) {
+            return read(0, data.limit());
+        }
+        return toJson(entries.keySet());
+    }
+
+    /**
+     * @return a report document containing only the results of the given rule IDs
+     */
+    String toJson(Collection<String> ruleIds) {
+        StringBuilder sb = new StringBuilder("{");
+        for (Entry entry : select(ruleIds)) {
+            if (sb.length() > 1) {
+                sb.append(',');
+            }
+            sb.append(new JsonPrimitive(entry.id).toString())
+                    .append(':')
+                    .append(read(entry.offset, entry.length));
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * @return a JSON object mapping the given rule IDs to their scores
+     */
+    String scoresToJson(Collection<String> ruleIds) {
+        JsonObject scores = new JsonObject();
+        for (Entry entry : select(ruleIds)) {
+            if (Double.isNaN(entry.score)) {
+                scores.add(entry.id, JsonNull.INSTANCE);
+            } else {
+                scores.addProperty(entry.id, entry.score);
+            }
+        }
+        return scores.toString();
+    }
+
+    private List<Entry> select(Collection<String> ruleIds) {
+        List<Entry> selected = new ArrayList<>();
+        if (entries == null) {
+            return selected;
+        }
+        for (Entry entry : entries.values()) {
+            if (ruleIds.contains(entry.id)) {
+                selected.add(entry);
+            }
+        }
+        return selected;
+    }
+
+    private String read(int offset, int length) {
+        byte[] bytes = new byte[length];
+        data.duplicate().position(offset).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encode(String json) {
+        Optional<JsonObject> results = parseResults(json);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(baos)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            if (results.isEmpty()) {
+                out.writeInt(-1);
+                out.write(json.getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                return baos.toByteArray();
+            }
+            List<byte[]> values = new ArrayList<>();
+            out.writeInt(results.get().size());
+            int offset = 0;
+            for (Map.Entry<String, JsonElement> e : results.get().entrySet()) {
+                JsonObject result = e.getValue().getAsJsonObject();
+                byte[] value = result.toString().getBytes(StandardCharsets.UTF_8);
+                writeString(out, e.getKey());
+                writeString(out, getString(result, "topic"));
+                writeString(out, getString(result, "name"));
+                out.writeDouble(getScore(result));
+                out.writeInt(offset);
+                out.writeInt(value.length);
+                values.add(value);
+                offset += value.length;
+            }
+            for (byte[] value : values) {
+                out.write(value);
+            }
+            out.flush();
+            return baos.toByteArray();
+        } catch (IOException ioe) {
+            // not expected when writing to memory
+            throw new IllegalStateException(ioe);
+        }
+    }
+
+    private static IndexedReport parse(ByteBuffer buf) {
+        if (buf.limit() < 12 || buf.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not an indexed report");
+        }
+        int version = buf.getInt(4);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported indexed report version " + version);
+        }
+        buf.position(8);
+        int count = buf.getInt();
+        if (count < 0) {
+            return new IndexedReport(null, buf.slice());
+        }
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String id = readString(buf);
+            String topic = readString(buf);
+            String name = readString(buf);
+            double score = buf.getDouble();
+            int offset = buf.getInt();
+            int length = buf.getInt();
+            entries.put(id, new Entry(id, topic, name, score, offset, length));
+        }
+        return new IndexedReport(entries, buf.slice());
+    }
+
+    private static Optional<JsonObject> parseResults(String json) {
+        JsonElement root;
+        try {
+            root = JsonParser.parseString(json);
+        } catch (JsonParseException e) {
+            return Optional.empty();
+        }
+        if (!root.isJsonObject()) {
+            return Optional.empty();
+        }
+        for (Map.Entry<String, JsonElement> e : root.getAsJsonObject().entrySet()) {
+            if (!e.getValue().isJsonObject()) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(root.getAsJsonObject());
+    }
+
+    private static String getString(JsonObject obj, String key) {
+        JsonElement el = obj.get(key);
+        if (el == null || !el.isJsonPrimitive() || !el.getAsJsonPrimitive().isString()) {
+            return null;
+        }
+        return el.getAsString();
+    }
+
+    private static double getScore(JsonObject obj) {
+        JsonElement el = obj.get("score");
+        if (el == null || !el.isJsonPrimitive() || !el.getAsJsonPrimitive().isNumber()) {
+            return Double.NaN;
+        }
+        return el.getAsDouble();
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int length = buf.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static class Entry {
+        private final String id;
+        private final String topic;
+        private final String name;
+        private final double score;
+        private final int offset;
+        private final int length;
+
+        Entry(String id, String topic, String name, double score, int offset, int length) {
+            this.id = id;
+            this.topic = topic;
+            this.name = name;
+            this.score = score;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        Optional<String> getTopic() {
+            return Optional.ofNullable(topic);
+        }
+
+        Optional<String> getName() {
+            return Optional.ofNullable(name);
+        }
+
+        double getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net.reports;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RunnableFuture;
+import java.util.function.Predicate;
+
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.util.IPreferenceValueProvider;
+import org.openjdk.jmc.common.util.TypedPreference;
+import org.openjdk.jmc.flightrecorder.rules.IResult;
+import org.openjdk.jmc.flightrecorder.rules.IResultValueProvider;
+import org.openjdk.jmc.flightrecorder.rules.IRule;
+import org.openjdk.jmc.flightrecorder.rules.TypedResult;
+import org.openjdk.jmc.flightrecorder.rules.util.RulesToolkit.EventAvailability;
+
+import io.cryostat.core.util.RuleFilterParser;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Derives filtered automated analysis reports from unfiltered ones. An unfiltered report contains
+ * the result of every rule keyed by rule ID, so applying a filter to it yields the same results as
+ * analyzing the recording again with only the filtered rules enabled, without the cost of that
+ * analysis.
+ */
+class ReportFilter {
+
+    private final RuleFilterParser ruleFilterParser;
+
+    ReportFilter(RuleFilterParser ruleFilterParser) {
+        this.ruleFilterParser = ruleFilterParser;
+    }
+
+    /**
+     * @return the given JSON report reduced to the results of rules matching the filter, or empty
+     *     if the report is not in the expected format and should be regenerated instead
+     */
+    Optional<String> apply(String report, String filter) {
+        JsonElement root;
+        try {
+            root = JsonParser.parseString(report);
+        } catch (JsonParseException e) {
+            return Optional.empty();
+        }
+        if (!root.isJsonObject()) {
+            return Optional.empty();
+        }
+        Predicate<IRule> predicate = ruleFilterParser.parse(filter);
+        JsonObject filtered = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : root.getAsJsonObject().entrySet()) {
+            if (!entry.getValue().isJsonObject()) {
+                return Optional.empty();
+            }
+            JsonObject result = entry.getValue().getAsJsonObject();
+            Optional<String> topic = getString(result, "topic");
+            if (topic.isEmpty()) {
+                return Optional.empty();
+            }
+            ResultRule rule =
+                    new ResultRule(
+                            entry.getKey(),
+                            topic.get(),
+                            getString(result, "name").orElse(entry.getKey()));
+            if (predicate.test(rule)) {
+                filtered.add(entry.getKey(), result);
+            }
+        }
+        return Optional.of(filtered.toString());
+    }
+
+    /**
+     * @return the IDs of the rules in the given report matching the filter, or empty if the report
+     *     does not identify its results' rules well enough to apply the filter
+     */
+    Optional<Set<String>> select(IndexedReport report, String filter) {
+        if (!report.isIndexed()) {
+            return Optional.empty();
+        }
+        Predicate<IRule> predicate = ruleFilterParser.parse(filter);
+        Set<String> selected = new HashSet<>();
+        for (IndexedReport.Entry entry : report.getEntries()) {
+            if (entry.getTopic().isEmpty()) {
+                return Optional.empty();
+            }
+            ResultRule rule =
+                    new ResultRule(
+                            entry.getId(),
+                            entry.getTopic().get(),
+                            entry.getName().orElse(entry.getId()));
+            if (predicate.test(rule)) {
+                selected.add(entry.getId());
+            }
+        }
+        return Optional.of(selected);
+    }
+
+    private static Optional<String> getString(JsonObject obj, String key) {
+        JsonElement el = obj.get(key);
+        if (el == null || !el.isJsonPrimitive() || !el.getAsJsonPrimitive().isString()) {
+            return Optional.empty();
+        }
+        return Optional.of(el.getAsString());
+    }
+
+    /**
+     * The identity of the rule which produced a result, for testing against rule filters. Rule
+     * filters are predicates over {@link IRule}, but only ever read a rule's ID, topic and name, so
+     * this carries just those. It is never handed to the rules engine, so it has no preferences,
+     * dependencies, or evaluation of its own.
+     */
+    static class ResultRule implements IRule {
+        private final String id;
+        private final String topic;
+        private final String name;
+
+        ResultRule(String id, String topic, String name) {
+            this.id = id;
+            this.topic = topic;
+            this.name = name;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String getTopic() {
+            return topic;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Map<String, EventAvailability> getRequiredEvents() {
+            return Map.of();
+        }
+
+        @Override
+        public RunnableFuture<IResult> createEvaluation(
+                IItemCollection items,
+                IPreferenceValueProvider preferences,
+                IResultValueProvider dependencyResults) {
+            throw new UnsupportedOperationException(
+                    String.format("%s is a rule filter subject and cannot be evaluated", id));
+        }
+
+        @Override
+        public Collection<TypedPreference<?>> getConfigurationAttributes() {
+            return List.of();
+        }
+
+        @Override
+        public Collection<TypedResult<?>> getResults() {
+            return List.of();
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package io.cryostat.net.reports;
 
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.concurrent.Future;
 
 import io.cryostat.net.ConnectionDescriptor;
@@ -48,6 +49,22 @@ public class ReportService {
         return activeCache.get(connectionDescriptor, recordingName, filter);
     }
 
+    public Future<String> getRules(
+            String sourceTarget,
+            String recordingName,
+            Collection<String> ruleIds,
+            boolean scoresOnly) {
+        return archivedCache.getRules(sourceTarget, recordingName, ruleIds, scoresOnly);
+    }
+
+    public Future<String> getRules(
+            ConnectionDescriptor connectionDescriptor,
+            String recordingName,
+            Collection<String> ruleIds,
+            boolean scoresOnly) {
+        return activeCache.getRules(connectionDescriptor, recordingName, ruleIds, scoresOnly);
+    }
+
     public boolean delete(ConnectionDescriptor connectionDescriptor, String recordingName) {
         return activeCache.delete(connectionDescriptor, recordingName);
     }
@@ -0,0 +1,317 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net.reports;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Provider;
+
+import io.cryostat.core.log.Logger;
+import io.cryostat.net.reports.SubprocessReportGenerator.ExitStatus;
+import io.cryostat.util.JavaProcess;
+
+import com.google.gson.Gson;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+/**
+ * A fixed number of long-lived {@link SubprocessReportGenerator} worker processes. Rather than
+ * forking a new JVM for every report, jobs are written one per line to an idle worker's stdin and
+ * the worker replies with the job's {@link ExitStatus} on its stdout, so the workers stay warm
+ * between reports while their heaps remain isolated from the main Cryostat process. A worker is
+ * replaced once it has processed a configured number of jobs, or once it exits on its own, ex.
+ * after running out of memory.
+ */
+class ReportWorkerPool {
+
+    static final String WORKER_ARG = "--worker";
+    static final String STATUS_PREFIX = "CRYOSTAT_REPORT_WORKER_STATUS ";
+
+    private final Provider<JavaProcess.Builder> javaProcessBuilderProvider;
+    private final List<String> jvmArgs;
+    private final int maxJobsPerWorker;
+    private final long generationTimeoutSeconds;
+    private final Gson gson;
+    private final Logger logger;
+
+    private final ExecutorService executor;
+    private final BlockingQueue<Worker> idleWorkers;
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    ReportWorkerPool(
+            Provider<JavaProcess.Builder> javaProcessBuilderProvider,
+            List<String> jvmArgs,
+            int workers,
+            int maxJobsPerWorker,
+            long generationTimeoutSeconds,
+            Logger logger) {
+        this.javaProcessBuilderProvider = javaProcessBuilderProvider;
+        this.jvmArgs = List.copyOf(jvmArgs);
+        this.maxJobsPerWorker = maxJobsPerWorker;
+        this.generationTimeoutSeconds = generationTimeoutSeconds;
+        this.gson = new Gson();
+        this.logger = logger;
+        if (workers > 0) {
+            // one dispatch thread per worker, so an idle worker is always available to whichever
+            // thread picks up the next queued job
+            this.executor =
+                    Executors.newFixedThreadPool(
+                            workers,
+                            new BasicThreadFactory.Builder()
+                                    .namingPattern("report-worker-%d")
+                                    .daemon(true)
+                                    .build());
+            this.idleWorkers = new ArrayBlockingQueue<>(workers);
+            for (int i = 0; i < workers; i++) {
+                idleWorkers.add(new Worker());
+            }
+        } else {
+            this.executor = null;
+            this.idleWorkers = null;
+        }
+    }
+
+    boolean isEnabled() {
+        return executor != null;
+    }
+
+    CompletableFuture<ExitStatus> submit(Path recording, Path saveFile, String filter) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Report generation worker pool is disabled");
+        }
+        Job job =
+                new Job(
+                        recording.toAbsolutePath().toString(),
+                        saveFile.toAbsolutePath().toString(),
+                        filter);
+        long enqueued = System.nanoTime();
+        // the submitter waits for the whole generation timeout from now, so the job must finish
+        // within that time including its wait for a worker, with a second's margin to report back
+        long deadline = enqueued + TimeUnit.SECONDS.toNanos(generationTimeoutSeconds - 1);
+        queueDepth.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> process(job, enqueued, deadline), executor);
+    }
+
+    private ExitStatus process(Job job, long enqueued, long deadline) {
+        ReportWorkerJobEvent evt = new ReportWorkerJobEvent();
+        evt.begin();
+        evt.queueDepth = queueDepth.decrementAndGet();
+        long started = System.nanoTime();
+        evt.queuedMillis = TimeUnit.NANOSECONDS.toMillis(started - enqueued);
+        ExitStatus status;
+        if (deadline - started <= 0) {
+            // whoever submitted this job has already given up waiting on it
+            status = ExitStatus.TIMED_OUT;
+        } else {
+            Worker worker = idleWorkers.remove();
+            try {
+                status = worker.run(job, deadline);
+            } finally {
+                idleWorkers.add(worker);
+            }
+        }
+        evt.generationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        evt.status = status.name();
+        evt.end();
+        if (evt.shouldCommit()) {
+            evt.commit();
+        }
+        return status;
+    }
+
+    private static ExitStatus parseStatus(String line) {
+        return ExitStatus.byExitCode(
+                Integer.parseInt(line.substring(STATUS_PREFIX.length()).trim()));
+    }
+
+    private class Worker {
+        private Process proc;
+        private BufferedWriter jobs;
+        private BlockingQueue<Optional<ExitStatus>> results;
+        private int jobsProcessed;
+
+        ExitStatus run(Job job, long deadline) {
+            ExitStatus status;
+            try {
+                if (proc == null || !proc.isAlive()) {
+                    start();
+                }
+                jobs.write(gson.toJson(job));
+                jobs.newLine();
+                jobs.flush();
+                jobsProcessed++;
+                Optional<ExitStatus> result =
+                        results.poll(
+                                Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (result == null) {
+                    status = ExitStatus.TIMED_OUT;
+                    recycle();
+                } else if (result.isPresent()) {
+                    status = result.get();
+                } else {
+                    // the worker exited mid-job, ex. -XX:+ExitOnOutOfMemoryError
+                    status = exitStatus();
+                    recycle();
+                }
+            } catch (InterruptedException e) {
+                logger.error(e);
+                status = ExitStatus.TERMINATED;
+                recycle();
+            } catch (IOException e) {
+                logger.error(e);
+                status = ExitStatus.IO_EXCEPTION;
+                recycle();
+            }
+            if (proc != null && maxJobsPerWorker > 0 && jobsProcessed >= maxJobsPerWorker) {
+                recycle();
+            }
+            return status;
+        }
+
+        private void start() throws IOException, InterruptedException {
+            stop();
+            proc =
+                    javaProcessBuilderProvider
+                            .get()
+                            .klazz(SubprocessReportGenerator.class)
+                            .jvmArgs(jvmArgs)
+                            .processArgs(List.of(WORKER_ARG))
+                            .pipeIO(true)
+                            .exec();
+            jobs =
+                    new BufferedWriter(
+                            new OutputStreamWriter(proc.getOutputStream(), StandardCharsets.UTF_8));
+            BlockingQueue<Optional<ExitStatus>> q = new LinkedBlockingQueue<>();
+            results = q;
+            BufferedReader out =
+                    new BufferedReader(
+                            new InputStreamReader(proc.getInputStream(), StandardCharsets.UTF_8));
+            Thread reader =
+                    new Thread(
+                            () -> {
+                                try (out) {
+                                    String line;
+                                    while ((line = out.readLine()) != null) {
+                                        if (line.startsWith(STATUS_PREFIX)) {
+                                            q.add(Optional.of(parseStatus(line)));
+                                        } else {
+                                            logger.trace(line);
+                                        }
+                                    }
+                                } catch (IOException | NumberFormatException e) {
+                                    logger.warn(e);
+                                } finally {
+                                    q.add(Optional.empty());
+                                }
+                            },
+                            SubprocessReportGenerator.class.getSimpleName() + "-worker-reader");
+            reader.setDaemon(true);
+            reader.start();
+            jobsProcessed = 0;
+        }
+
+        private ExitStatus exitStatus() throws InterruptedException {
+            if (!proc.waitFor(1, TimeUnit.SECONDS)) {
+                return ExitStatus.OTHER;
+            }
+            ExitStatus status = ExitStatus.byExitCode(proc.exitValue());
+            return status == ExitStatus.OK ? ExitStatus.OTHER : status;
+        }
+
+        private void recycle() {
+            stop();
+            try {
+                // start the replacement right away so that it warms up before the next job
+                start();
+            } catch (IOException | InterruptedException e) {
+                logger.error(e);
+                stop();
+            }
+        }
+
+        private void stop() {
+            if (proc == null) {
+                return;
+            }
+            try {
+                jobs.close();
+            } catch (IOException e) {
+                logger.trace(e);
+            }
+            proc.destroyForcibly();
+            proc = null;
+            jobs = null;
+            results = null;
+        }
+    }
+
+    static class Job {
+        private final String recording;
+        private final String saveFile;
+        private final String filter;
+
+        Job(String recording, String saveFile, String filter) {
+            this.recording = recording;
+            this.saveFile = saveFile;
+            this.filter = filter;
+        }
+
+        String getRecording() {
+            return recording;
+        }
+
+        String getSaveFile() {
+            return saveFile;
+        }
+
+        String getFilter() {
+            return filter;
+        }
+    }
+
+    @Name("io.cryostat.net.reports.ReportWorkerPool.ReportWorkerJobEvent")
+    @Label("Report Worker Job")
+    @Category("Cryostat")
+    @SuppressFBWarnings(
+            value = "URF_UNREAD_FIELD",
+            justification = "The event fields are recorded with JFR instead of accessed directly")
+    public static class ReportWorkerJobEvent extends Event {
+        int queueDepth;
+        long queuedMillis;
+        long generationMillis;
+        String status;
+    }
+}
@@ -23,6 +23,7 @@ import io.cryostat.configuration.Variables;
 import io.cryostat.core.log.Logger;
 import io.cryostat.core.sys.Environment;
 import io.cryostat.core.sys.FileSystem;
+import io.cryostat.core.util.RuleFilterParser;
 import io.cryostat.messaging.notifications.NotificationListener;
 import io.cryostat.net.TargetConnectionManager;
 import io.cryostat.net.web.http.HttpModule;
@@ -74,6 +75,7 @@ public abstract class ReportsModule {
             @Named(REPORT_GENERATION_TIMEOUT_SECONDS) long generationTimeoutSeconds,
             @Named(ACTIVE_REPORT_CACHE_EXPIRY_SECONDS) long cacheExpirySeconds,
             @Named(ACTIVE_REPORT_CACHE_REFRESH_SECONDS) long cacheRefreshSeconds,
+            ReportFilter reportFilter,
             Logger logger) {
         return new ActiveRecordingReportCache(
                 reportGeneratorServiceProvider,
@@ -82,6 +84,7 @@ public abstract class ReportsModule {
                 generationTimeoutSeconds,
                 cacheExpirySeconds,
                 cacheRefreshSeconds,
+                reportFilter,
                 logger);
     }
 
@@ -96,15 +99,23 @@ public abstract class ReportsModule {
             Provider<ReportGeneratorService> reportGeneratorServiceProvider,
             RecordingArchiveHelper recordingArchiveHelper,
             @Named(REPORT_GENERATION_TIMEOUT_SECONDS) long generationTimeoutSeconds,
+            ReportFilter reportFilter,
             Logger logger) {
         return new ArchivedRecordingReportCache(
                 fs,
                 reportGeneratorServiceProvider,
                 recordingArchiveHelper,
                 generationTimeoutSeconds,
+                reportFilter,
                 logger);
     }
 
+    @Provides
+    @Singleton
+    static ReportFilter provideReportFilter() {
+        return new ReportFilter(new RuleFilterParser());
+    }
+
     @Provides
     static JavaProcess.Builder provideJavaProcessBuilder() {
         return new JavaProcess.Builder();
@@ -140,6 +151,7 @@ public abstract class ReportsModule {
             FileSystem fs,
             TargetConnectionManager targetConnectionManager,
             Provider<JavaProcess.Builder> javaProcessBuilder,
+            ReportWorkerPool workerPool,
             @Named(REPORT_GENERATION_TIMEOUT_SECONDS) long generationTimeoutSeconds,
             Logger logger) {
         return new SubprocessReportGenerator(
@@ -147,6 +159,24 @@ public abstract class ReportsModule {
                 fs,
                 targetConnectionManager,
                 javaProcessBuilder,
+                workerPool,
+                generationTimeoutSeconds,
+                logger);
+    }
+
+    @Provides
+    @Singleton
+    static ReportWorkerPool provideReportWorkerPool(
+            Environment env,
+            Provider<JavaProcess.Builder> javaProcessBuilder,
+            @Named(REPORT_GENERATION_TIMEOUT_SECONDS) long generationTimeoutSeconds,
+            Logger logger) {
+        return new ReportWorkerPool(
+                javaProcessBuilder,
+                SubprocessReportGenerator.createJvmArgs(
+                        Integer.parseInt(env.getEnv(Variables.SUBPROCESS_MAX_HEAP_ENV, "0"))),
+                Integer.parseInt(env.getEnv(Variables.REPORT_GENERATION_WORKERS_ENV, "0")),
+                Integer.parseInt(env.getEnv(Variables.REPORT_GENERATION_WORKER_MAX_JOBS_ENV, "50")),
                 generationTimeoutSeconds,
                 logger);
     }
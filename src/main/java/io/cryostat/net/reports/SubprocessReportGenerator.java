@@ -15,9 +15,13 @@
  */
 package io.cryostat.net.reports;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
@@ -56,6 +60,7 @@ public class SubprocessReportGenerator extends AbstractReportGeneratorService {
 
     private final Environment env;
     private final Provider<JavaProcess.Builder> javaProcessBuilderProvider;
+    private final ReportWorkerPool workerPool;
     private final long generationTimeoutSeconds;
 
     SubprocessReportGenerator(
@@ -63,16 +68,18 @@ public class SubprocessReportGenerator extends AbstractReportGeneratorService {
             FileSystem fs,
             TargetConnectionManager targetConnectionManager,
             Provider<JavaProcess.Builder> javaProcessBuilderProvider,
+            ReportWorkerPool workerPool,
             @Named(ReportsModule.REPORT_GENERATION_TIMEOUT_SECONDS) long generationTimeoutSeconds,
             Logger logger) {
         super(targetConnectionManager, fs, logger);
         this.env = env;
         this.javaProcessBuilderProvider = javaProcessBuilderProvider;
+        this.workerPool = workerPool;
         this.generationTimeoutSeconds = generationTimeoutSeconds;
     }
 
     @Override
-    public synchronized CompletableFuture<Path> exec(Path recording, Path saveFile, String filter)
+    public CompletableFuture<Path> exec(Path recording, Path saveFile, String filter)
             throws NoSuchMethodException,
                     SecurityException,
                     IllegalAccessException,
@@ -90,6 +97,19 @@ public class SubprocessReportGenerator extends AbstractReportGeneratorService {
         if (filter == null) {
             throw new IllegalArgumentException("Filter may not be null");
         }
+        if (workerPool.isEnabled()) {
+            return workerPool
+                    .submit(recording, saveFile, filter)
+                    .thenApply(
+                            status -> {
+                                try {
+                                    return handleExitStatus(status, recording, saveFile);
+                                } catch (ReportGenerationException | RecordingNotFoundException e) {
+                                    logger.error(e);
+                                    throw new CompletionException(e);
+                                }
+                            });
+        }
         JavaProcess.Builder procBuilder =
                 javaProcessBuilderProvider
                         .get()
@@ -112,15 +132,7 @@ public class SubprocessReportGenerator extends AbstractReportGeneratorService {
                                         ? ExitStatus.TIMED_OUT
                                         : ExitStatus.byExitCode(proc.exitValue());
 
-                        switch (status) {
-                            case OK:
-                                return saveFile;
-                            case NO_SUCH_RECORDING:
-                                throw new RecordingNotFoundException(
-                                        "archives", recording.toString());
-                            default:
-                                throw new SubprocessReportGenerationException(status);
-                        }
+                        return handleExitStatus(status, recording, saveFile);
                     } catch (InterruptedException e) {
                         logger.error(e);
                         throw new CompletionException(
@@ -139,7 +151,19 @@ public class SubprocessReportGenerator extends AbstractReportGeneratorService {
                 });
     }
 
-    private List<String> createJvmArgs(int maxHeapMegabytes) throws IOException {
+    private static Path handleExitStatus(ExitStatus status, Path recording, Path saveFile)
+            throws ReportGenerationException, RecordingNotFoundException {
+        switch (status) {
+            case OK:
+                return saveFile;
+            case NO_SUCH_RECORDING:
+                throw new RecordingNotFoundException("archives", recording.toString());
+            default:
+                throw new SubprocessReportGenerationException(status);
+        }
+    }
+
+    static List<String> createJvmArgs(int maxHeapMegabytes) {
         List<String> args = new ArrayList<>();
         if (maxHeapMegabytes > 0) {
             args.add(String.format("-Xms%dM", maxHeapMegabytes));
@@ -162,6 +186,13 @@ public class SubprocessReportGenerator extends AbstractReportGeneratorService {
     }
 
     public static void main(String[] args) {
+        boolean worker = args.length == 1 && ReportWorkerPool.WORKER_ARG.equals(args[0]);
+        // a worker reports job results on stdout, so everything else is sent to stderr instead
+        PrintStream results = System.out;
+        if (worker) {
+            System.setOut(System.err);
+        }
+
         long startTime = System.nanoTime();
         Logger.INSTANCE.info(SubprocessReportGenerator.class.getName() + " starting");
         Runtime.getRuntime()
@@ -199,6 +230,16 @@ public class SubprocessReportGenerator extends AbstractReportGeneratorService {
             System.exit(ExitStatus.OTHER.code);
         }
 
+        if (worker) {
+            try {
+                runWorker(fs, gson, results);
+                System.exit(ExitStatus.OK.code);
+            } catch (IOException e) {
+                e.printStackTrace();
+                System.exit(ExitStatus.IO_EXCEPTION.code);
+            }
+        }
+
         if (args.length != 3) {
             throw new IllegalArgumentException(Arrays.asList(args).toString());
         }
@@ -206,6 +247,33 @@ public class SubprocessReportGenerator extends AbstractReportGeneratorService {
         var saveFile = Paths.get(args[1]);
         String filter = args[2];
 
+        System.exit(generateReport(fs, gson, recording, saveFile, filter).code);
+    }
+
+    /**
+     * Process jobs written by a {@link ReportWorkerPool} to stdin, one per line, until stdin is
+     * closed. Each job's status is written back as a line on the given results stream.
+     */
+    static void runWorker(FileSystem fs, Gson gson, PrintStream results) throws IOException {
+        BufferedReader jobs =
+                new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = jobs.readLine()) != null) {
+            ReportWorkerPool.Job job = gson.fromJson(line, ReportWorkerPool.Job.class);
+            ExitStatus status =
+                    generateReport(
+                            fs,
+                            gson,
+                            Paths.get(job.getRecording()),
+                            Paths.get(job.getSaveFile()),
+                            job.getFilter());
+            results.println(ReportWorkerPool.STATUS_PREFIX + status.code);
+            results.flush();
+        }
+    }
+
+    static ExitStatus generateReport(
+            FileSystem fs, Gson gson, Path recording, Path saveFile, String filter) {
         try {
             Logger.INSTANCE.info(SubprocessReportGenerator.class.getName() + " processing report");
             Map<String, AnalysisResult> evalMapResult = generateEvalMapFromFile(recording, filter);
@@ -217,16 +285,16 @@ public class SubprocessReportGenerator extends AbstractReportGeneratorService {
                     StandardOpenOption.DSYNC,
                     StandardOpenOption.WRITE);
 
-            System.exit(ExitStatus.OK.code);
+            return ExitStatus.OK;
         } catch (ConnectionException e) {
             e.printStackTrace();
-            System.exit(ExitStatus.TARGET_CONNECTION_FAILURE.code);
+            return ExitStatus.TARGET_CONNECTION_FAILURE;
         } catch (IOException e) {
             e.printStackTrace();
-            System.exit(ExitStatus.IO_EXCEPTION.code);
+            return ExitStatus.IO_EXCEPTION;
         } catch (Exception e) {
             e.printStackTrace();
-            System.exit(ExitStatus.OTHER.code);
+            return ExitStatus.OTHER;
         }
     }
 
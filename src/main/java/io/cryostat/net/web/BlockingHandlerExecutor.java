@@ -0,0 +1,245 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net.web;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import io.cryostat.core.log.Logger;
+import io.cryostat.net.web.http.RequestHandler;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.ext.web.Route;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.HttpException;
+import io.vertx.ext.web.impl.BlockingHandlerDecorator;
+import io.vertx.ext.web.impl.RoutingContextDecorator;
+import io.vertx.ext.web.impl.RoutingContextInternal;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Decides where request handlers which are not asynchronous are run. In {@link Mode#WORKER} mode
+ * they are run on the Vert.x worker pool, serialized per context if the handler is ordered. In
+ * {@link Mode#EXECUTOR} mode they are run on a dedicated executor without ordering, and each
+ * handler may only occupy a limited number of the executor's threads at once, so that handlers
+ * blocked on slow target connections cannot starve the others. Requests beyond a handler's limit
+ * wait in a queue of their own, and are answered with HTTP 503 once that queue is full. As with
+ * the worker pool, handlers see the request at the route they were decorated for, and routing
+ * continues on the request's own context once they call {@link RoutingContext#next()} or {@link
+ * RoutingContext#fail(Throwable)}.
+ */
+class BlockingHandlerExecutor {
+
+    enum Mode {
+        WORKER,
+        EXECUTOR,
+    }
+
+    private final Mode mode;
+    private final Supplier<Executor> executor;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Logger logger;
+
+    /**
+     * @param executor supplies the executor used in {@link Mode#EXECUTOR} mode. It is only
+     *     requested if a handler is decorated in that mode.
+     * @param maxConcurrent the number of requests each handler may run at once in {@link
+     *     Mode#EXECUTOR} mode
+     * @param maxQueued the number of requests which may wait for each handler before further
+     *     requests are rejected, or a number less than 1 for no limit
+     */
+    BlockingHandlerExecutor(
+            Mode mode,
+            Supplier<Executor> executor,
+            int maxConcurrent,
+            int maxQueued,
+            Logger logger) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException(
+                    "Handler concurrency limit must be a positive integer, was " + maxConcurrent);
+        }
+        this.mode = mode;
+        this.executor = executor;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.logger = logger;
+    }
+
+    Mode getMode() {
+        return mode;
+    }
+
+    Handler<RoutingContext> decorate(RequestHandler handler) {
+        switch (mode) {
+            case EXECUTOR:
+                return new LimitedHandler(handler, executor.get());
+            case WORKER:
+            default:
+                return new BlockingHandlerDecorator(handler, handler.isOrdered());
+        }
+    }
+
+    class LimitedHandler implements Handler<RoutingContext> {
+
+        private final RequestHandler handler;
+        private final String name;
+        private final Executor executor;
+
+        // guarded by this
+        private final Deque<Waiter> queue = new ArrayDeque<>();
+        private int running;
+
+        LimitedHandler(RequestHandler handler, Executor executor) {
+            this.handler = handler;
+            this.name = handler.getClass().getSimpleName();
+            this.executor = executor;
+        }
+
+        @Override
+        public void handle(RoutingContext ctx) {
+            Waiter waiter = new Waiter(ctx);
+            synchronized (this) {
+                waiter.queueDepth = queue.size();
+                if (queue.isEmpty() && running < maxConcurrent) {
+                    running++;
+                } else if (maxQueued > 0 && queue.size() >= maxQueued) {
+                    logger.warn("Too many requests queued for {}, rejecting", name);
+                    ctx.fail(new HttpException(503, "Too many requests queued"));
+                    return;
+                } else {
+                    queue.add(waiter);
+                    return;
+                }
+            }
+            start(waiter);
+        }
+
+        private void start(Waiter waiter) {
+            long queuedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - waiter.enqueued);
+            BlockingRequestQueued evt = new BlockingRequestQueued();
+            if (evt.shouldCommit()) {
+                evt.handler = name;
+                evt.queueDepth = waiter.queueDepth;
+                evt.queuedMillis = queuedMillis;
+                evt.commit();
+            }
+            try {
+                executor.execute(() -> run(waiter));
+            } catch (RejectedExecutionException e) {
+                // a queued request is started from the thread which finished the previous one
+                waiter.context.runOnContext(v -> waiter.ctx.fail(new HttpException(503, e)));
+                finish();
+            }
+        }
+
+        private void run(Waiter waiter) {
+            RoutingContext ctx = new ContextBoundRoutingContext(waiter);
+            try {
+                handler.handle(ctx);
+            } catch (Exception e) {
+                ctx.fail(e);
+            } finally {
+                finish();
+            }
+        }
+
+        private void finish() {
+            Waiter next;
+            synchronized (this) {
+                next = queue.poll();
+                if (next == null) {
+                    running--;
+                }
+            }
+            if (next != null) {
+                start(next);
+            }
+        }
+    }
+
+    private static class Waiter {
+        final RoutingContext ctx;
+        // captured on the event loop, since routing moves on once the request is handed off
+        final Route route;
+        final Context context;
+        final long enqueued = System.nanoTime();
+        int queueDepth;
+
+        Waiter(RoutingContext ctx) {
+            this.ctx = ctx;
+            this.route = ctx.currentRoute();
+            this.context = ctx.vertx().getOrCreateContext();
+        }
+    }
+
+    /**
+     * Presents the request at the route its handler was decorated for, like the worker pool's
+     * decorator does, and continues routing on the request's own context. The plain decorator
+     * would instead continue on whichever context the executor's thread is given.
+     */
+    private static class ContextBoundRoutingContext extends RoutingContextDecorator {
+        private final RoutingContext ctx;
+        private final Context context;
+
+        ContextBoundRoutingContext(Waiter waiter) {
+            super(waiter.route, (RoutingContextInternal) waiter.ctx);
+            this.ctx = waiter.ctx;
+            this.context = waiter.context;
+        }
+
+        @Override
+        public void next() {
+            context.runOnContext(v -> ctx.next());
+        }
+
+        @Override
+        public void fail(int statusCode) {
+            context.runOnContext(v -> ctx.fail(statusCode));
+        }
+
+        @Override
+        public void fail(Throwable throwable) {
+            context.runOnContext(v -> ctx.fail(throwable));
+        }
+
+        @Override
+        public void fail(int statusCode, Throwable throwable) {
+            context.runOnContext(v -> ctx.fail(statusCode, throwable));
+        }
+    }
+
+    @Name("io.cryostat.net.web.BlockingHandlerExecutor.BlockingRequestQueued")
+    @Label("Blocking Request Queued")
+    @Category("Cryostat")
+    @SuppressFBWarnings(
+            value = "URF_UNREAD_FIELD",
+            justification = "The event fields are recorded with JFR instead of accessed directly")
+    public static class BlockingRequestQueued extends Event {
+        String handler;
+        int queueDepth;
+        long queuedMillis;
+    }
+}
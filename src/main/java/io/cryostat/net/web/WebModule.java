@@ -17,13 +17,21 @@ package io.cryostat.net.web;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 
 import io.cryostat.MainModule;
+import io.cryostat.configuration.Variables;
 import io.cryostat.core.log.Logger;
+import io.cryostat.core.sys.Environment;
 import io.cryostat.core.sys.FileSystem;
 import io.cryostat.net.AuthManager;
 import io.cryostat.net.HttpServer;
@@ -34,10 +42,12 @@ import io.cryostat.net.web.http.RequestHandler;
 import com.google.gson.Gson;
 import dagger.Module;
 import dagger.Provides;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 
 @Module(includes = {HttpModule.class})
 public abstract class WebModule {
     public static final String WEBSERVER_TEMP_DIR_PATH = "WEBSERVER_TEMP_DIR_PATH";
+    static final String HTTP_BLOCKING_EXECUTOR = "HTTP_BLOCKING_EXECUTOR";
 
     @Provides
     static WebServer provideWebServer(
@@ -46,6 +56,7 @@ public abstract class WebModule {
             Set<RequestHandler> requestHandlers,
             Gson gson,
             AuthManager authManager,
+            BlockingHandlerExecutor blockingExecutor,
             Logger logger,
             @Named(MainModule.RECORDINGS_PATH) Path archivedRecordingsPath) {
         return new WebServer(
@@ -54,10 +65,55 @@ public abstract class WebModule {
                 requestHandlers,
                 gson,
                 authManager,
+                blockingExecutor,
                 logger,
                 archivedRecordingsPath);
     }
 
+    @Provides
+    @Singleton
+    static BlockingHandlerExecutor provideBlockingHandlerExecutor(
+            @Named(HTTP_BLOCKING_EXECUTOR) Provider<ExecutorService> executor,
+            Environment env,
+            Logger logger) {
+        BlockingHandlerExecutor.Mode mode =
+                BlockingHandlerExecutor.Mode.valueOf(
+                        env.getEnv(Variables.HTTP_BLOCKING_MODE, "worker")
+                                .toUpperCase(Locale.ROOT));
+        int maxConcurrent =
+                Math.max(
+                        1,
+                        Integer.parseInt(
+                                env.getEnv(Variables.HTTP_HANDLER_MAX_CONCURRENCY, "4")));
+        int maxQueued = Integer.parseInt(env.getEnv(Variables.HTTP_HANDLER_MAX_QUEUED, "64"));
+        logger.info("Running blocking request handlers in {} mode", mode);
+        return new BlockingHandlerExecutor(
+                mode, executor::get, maxConcurrent, maxQueued, logger);
+    }
+
+    @Provides
+    @Singleton
+    @Named(HTTP_BLOCKING_EXECUTOR)
+    static ExecutorService provideBlockingExecutor(Environment env) {
+        int threads =
+                Math.max(1, Integer.parseInt(env.getEnv(Variables.HTTP_BLOCKING_THREADS, "20")));
+        // request limits are enforced per handler, so this queue only holds requests which were
+        // admitted by their handler while all threads were busy with other handlers
+        ThreadPoolExecutor executor =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        60,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(),
+                        new BasicThreadFactory.Builder()
+                                .namingPattern("http-blocking-%d")
+                                .daemon(true)
+                                .build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     @Provides
     @Singleton
     @Named(WEBSERVER_TEMP_DIR_PATH)
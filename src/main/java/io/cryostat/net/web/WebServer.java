@@ -60,7 +60,6 @@ import io.vertx.ext.web.Route;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.HttpException;
-import io.vertx.ext.web.impl.BlockingHandlerDecorator;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.impl.EnglishReasonPhraseCatalog;
@@ -77,6 +76,7 @@ public class WebServer extends AbstractVerticle {
     private final Path recordingsPath;
     private final Gson gson;
     private final AuthManager auth;
+    private final BlockingHandlerExecutor blockingExecutor;
     private final Logger logger;
 
     WebServer(
@@ -85,6 +85,7 @@ public class WebServer extends AbstractVerticle {
             Set<RequestHandler> requestHandlers,
             Gson gson,
             AuthManager auth,
+            BlockingHandlerExecutor blockingExecutor,
             Logger logger,
             @Named(MainModule.RECORDINGS_PATH) Path recordingsPath) {
         this.server = server;
@@ -94,6 +95,7 @@ public class WebServer extends AbstractVerticle {
         this.recordingsPath = recordingsPath;
         this.gson = gson;
         this.auth = auth;
+        this.blockingExecutor = blockingExecutor;
         this.logger = logger;
     }
 
@@ -218,9 +220,7 @@ public class WebServer extends AbstractVerticle {
                     if (handler.isAsync()) {
                         route = route.handler(handler);
                     } else {
-                        BlockingHandlerDecorator async =
-                                new BlockingHandlerDecorator(handler, handler.isOrdered());
-                        route = route.handler(async);
+                        route = route.handler(blockingExecutor.decorate(handler));
                     }
                     route = route.failureHandler(failureHandler);
                     if (!handler.isAvailable()) {
@@ -21,6 +21,7 @@ import java.nio.charset.StandardCharsets;
 import java.rmi.ConnectIOException;
 import java.util.Base64;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -91,6 +92,9 @@ public abstract class AbstractAuthenticatedRequestHandler implements RequestHand
             if (isTargetConnectionFailure(e)) {
                 handleConnectionException(ctx, e);
             }
+            if (isTargetBusyFailure(e)) {
+                throw new HttpException(503, "Target Busy", e);
+            }
             throw new HttpException(500, e.getMessage(), e);
         }
     }
@@ -152,6 +156,11 @@ public abstract class AbstractAuthenticatedRequestHandler implements RequestHand
                 || ExceptionUtils.indexOfType(e, FlightRecorderException.class) >= 0;
     }
 
+    /** Check if the exception happened because too many requests were waiting for the target. */
+    public static boolean isTargetBusyFailure(Exception e) {
+        return ExceptionUtils.indexOfType(e, RejectedExecutionException.class) >= 0;
+    }
+
     public static boolean isAuthenticationFailure(Exception e) {
         // Check if the Exception has a PermissionDeniedException or KubernetesClientException
         // in its cause chain
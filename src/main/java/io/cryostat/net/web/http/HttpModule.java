@@ -15,7 +15,14 @@
  */
 package io.cryostat.net.web.http;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 import javax.inject.Named;
+import javax.inject.Singleton;
 
 import io.cryostat.configuration.Variables;
 import io.cryostat.core.sys.Environment;
@@ -37,10 +44,36 @@ import dagger.Provides;
 public abstract class HttpModule {
 
     public static final String HTTP_REQUEST_TIMEOUT_SECONDS = "HTTP_REQUEST_TIMEOUT_SECONDS";
+    public static final String HTTP_STREAMING_EXECUTOR = "HTTP_STREAMING_EXECUTOR";
 
     @Provides
     @Named(HTTP_REQUEST_TIMEOUT_SECONDS)
     static long provideReportGenerationTimeoutSeconds(Environment env) {
         return Long.parseLong(env.getEnv(Variables.HTTP_REQUEST_TIMEOUT, "29"));
     }
+
+    @Provides
+    @Singleton
+    @Named(HTTP_STREAMING_EXECUTOR)
+    static ExecutorService provideStreamingExecutor(Environment env) {
+        int threads =
+                Math.max(1, Integer.parseInt(env.getEnv(Variables.HTTP_STREAMING_THREADS, "10")));
+        int maxQueued =
+                Math.max(
+                        0, Integer.parseInt(env.getEnv(Variables.HTTP_STREAMING_MAX_QUEUED, "32")));
+        // each transfer holds its thread until the download completes, so the pool is bounded and
+        // downloads beyond its queue are rejected rather than each being given a new thread
+        ThreadPoolExecutor executor =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        60,
+                        TimeUnit.SECONDS,
+                        maxQueued > 0
+                                ? new ArrayBlockingQueue<>(maxQueued)
+                                : new SynchronousQueue<>(),
+                        new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 }
@@ -67,6 +67,14 @@ public abstract class HttpApiBetaModule {
     @IntoSet
     abstract RequestHandler bindReportGetWithJwtHandler(ReportGetWithJwtHandler handler);
 
+    @Binds
+    @IntoSet
+    abstract RequestHandler bindReportRulesGetHandler(ReportRulesGetHandler handler);
+
+    @Binds
+    @IntoSet
+    abstract RequestHandler bindTargetReportRulesGetHandler(TargetReportRulesGetHandler handler);
+
     @Binds
     @IntoSet
     abstract RequestHandler bindRecordingUploadPostHandler(RecordingUploadPostHandler handler);
@@ -0,0 +1,161 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net.web.http.api.beta;
+
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import io.cryostat.configuration.CredentialsManager;
+import io.cryostat.net.AuthManager;
+import io.cryostat.net.reports.ReportGenerationException;
+import io.cryostat.net.reports.ReportService;
+import io.cryostat.net.reports.ReportsModule;
+import io.cryostat.net.security.ResourceAction;
+import io.cryostat.net.web.http.HttpMimeType;
+import io.cryostat.net.web.http.api.ApiVersion;
+import io.cryostat.net.web.http.api.v2.AbstractV2RequestHandler;
+import io.cryostat.net.web.http.api.v2.ApiException;
+import io.cryostat.net.web.http.api.v2.IntermediateResponse;
+import io.cryostat.net.web.http.api.v2.RequestParameters;
+import io.cryostat.recordings.RecordingArchiveHelper;
+import io.cryostat.recordings.RecordingNotFoundException;
+import io.cryostat.recordings.RecordingSourceTargetNotFoundException;
+
+import com.google.gson.Gson;
+import io.vertx.core.http.HttpMethod;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+/**
+ * Responds with the results of only the requested rules from an archived recording's report, or
+ * only their scores if the "scores" query parameter is true. Rule IDs are given by one or more
+ * comma-separated "ids" query parameters.
+ */
+public class ReportRulesGetHandler extends AbstractV2RequestHandler<String> {
+
+    static final String PATH = "reports/:sourceTarget/:recordingName/rules";
+
+    private final ReportService reportService;
+    private final RecordingArchiveHelper recordingArchiveHelper;
+    private final long reportGenerationTimeoutSeconds;
+
+    @Inject
+    ReportRulesGetHandler(
+            AuthManager auth,
+            CredentialsManager credentialsManager,
+            Gson gson,
+            ReportService reportService,
+            RecordingArchiveHelper recordingArchiveHelper,
+            @Named(ReportsModule.REPORT_GENERATION_TIMEOUT_SECONDS)
+                    long reportGenerationTimeoutSeconds) {
+        super(auth, credentialsManager, gson);
+        this.reportService = reportService;
+        this.recordingArchiveHelper = recordingArchiveHelper;
+        this.reportGenerationTimeoutSeconds = reportGenerationTimeoutSeconds;
+    }
+
+    @Override
+    public boolean requiresAuthentication() {
+        return true;
+    }
+
+    @Override
+    public ApiVersion apiVersion() {
+        return ApiVersion.BETA;
+    }
+
+    @Override
+    public HttpMethod httpMethod() {
+        return HttpMethod.GET;
+    }
+
+    @Override
+    public Set<ResourceAction> resourceActions() {
+        return EnumSet.of(
+                ResourceAction.READ_RECORDING,
+                ResourceAction.CREATE_REPORT,
+                ResourceAction.READ_REPORT);
+    }
+
+    @Override
+    public String path() {
+        return basePath() + PATH;
+    }
+
+    @Override
+    public List<HttpMimeType> produces() {
+        return List.of(HttpMimeType.JSON_RAW);
+    }
+
+    @Override
+    public boolean isAsync() {
+        return false;
+    }
+
+    @Override
+    public IntermediateResponse<String> handle(RequestParameters params) throws Exception {
+        String sourceTarget = params.getPathParams().get("sourceTarget");
+        String recordingName = params.getPathParams().get("recordingName");
+        Set<String> ruleIds = getRuleIds(params);
+        boolean scoresOnly = isScoresOnly(params);
+        try {
+            recordingArchiveHelper.validateSourceTarget(sourceTarget);
+            String rules =
+                    reportService
+                            .getRules(sourceTarget, recordingName, ruleIds, scoresOnly)
+                            .get(reportGenerationTimeoutSeconds, TimeUnit.SECONDS);
+            return new IntermediateResponse<String>().body(rules);
+        } catch (RecordingSourceTargetNotFoundException e) {
+            throw new ApiException(404, e.getMessage(), e);
+        } catch (ExecutionException | CompletionException e) {
+            if (ExceptionUtils.getRootCause(e) instanceof ReportGenerationException) {
+                ReportGenerationException rge =
+                        (ReportGenerationException) ExceptionUtils.getRootCause(e);
+                throw new ApiException(rge.getStatusCode(), e.getMessage());
+            }
+            if (ExceptionUtils.getRootCause(e) instanceof RecordingNotFoundException) {
+                throw new ApiException(404, e.getMessage(), e);
+            }
+            throw e;
+        }
+    }
+
+    static Set<String> getRuleIds(RequestParameters params) {
+        Set<String> ruleIds = new LinkedHashSet<>();
+        for (String ids : params.getQueryParams().getAll("ids")) {
+            for (String id : ids.split(",")) {
+                if (!id.isBlank()) {
+                    ruleIds.add(id.trim());
+                }
+            }
+        }
+        if (ruleIds.isEmpty()) {
+            throw new ApiException(400, "At least one rule ID must be given by \"ids\"");
+        }
+        return ruleIds;
+    }
+
+    static boolean isScoresOnly(RequestParameters params) {
+        return Boolean.parseBoolean(params.getQueryParams().get("scores"));
+    }
+}
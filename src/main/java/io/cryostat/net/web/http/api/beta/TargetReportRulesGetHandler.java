@@ -0,0 +1,147 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net.web.http.api.beta;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import io.cryostat.configuration.CredentialsManager;
+import io.cryostat.net.AuthManager;
+import io.cryostat.net.reports.ReportGenerationException;
+import io.cryostat.net.reports.ReportService;
+import io.cryostat.net.reports.ReportsModule;
+import io.cryostat.net.reports.SubprocessReportGenerator;
+import io.cryostat.net.security.ResourceAction;
+import io.cryostat.net.web.http.HttpMimeType;
+import io.cryostat.net.web.http.api.ApiVersion;
+import io.cryostat.net.web.http.api.v2.AbstractV2RequestHandler;
+import io.cryostat.net.web.http.api.v2.ApiException;
+import io.cryostat.net.web.http.api.v2.IntermediateResponse;
+import io.cryostat.net.web.http.api.v2.RequestParameters;
+import io.cryostat.recordings.RecordingNotFoundException;
+
+import com.google.gson.Gson;
+import io.vertx.core.http.HttpMethod;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+/**
+ * Responds with the results of only the requested rules from an active recording's report, or only
+ * their scores, as for {@link ReportRulesGetHandler}.
+ */
+class TargetReportRulesGetHandler extends AbstractV2RequestHandler<String> {
+
+    static final String PATH = "targets/:targetId/reports/:recordingName/rules";
+
+    private final ReportService reportService;
+    private final long reportGenerationTimeoutSeconds;
+
+    @Inject
+    TargetReportRulesGetHandler(
+            AuthManager auth,
+            CredentialsManager credentialsManager,
+            Gson gson,
+            ReportService reportService,
+            @Named(ReportsModule.REPORT_GENERATION_TIMEOUT_SECONDS)
+                    long reportGenerationTimeoutSeconds) {
+        super(auth, credentialsManager, gson);
+        this.reportService = reportService;
+        this.reportGenerationTimeoutSeconds = reportGenerationTimeoutSeconds;
+    }
+
+    @Override
+    public boolean requiresAuthentication() {
+        return true;
+    }
+
+    @Override
+    public ApiVersion apiVersion() {
+        return ApiVersion.BETA;
+    }
+
+    @Override
+    public HttpMethod httpMethod() {
+        return HttpMethod.GET;
+    }
+
+    @Override
+    public Set<ResourceAction> resourceActions() {
+        return EnumSet.of(
+                ResourceAction.READ_TARGET,
+                ResourceAction.READ_RECORDING,
+                ResourceAction.CREATE_REPORT,
+                ResourceAction.READ_REPORT);
+    }
+
+    @Override
+    public String path() {
+        return basePath() + PATH;
+    }
+
+    @Override
+    public List<HttpMimeType> produces() {
+        return List.of(HttpMimeType.JSON_RAW);
+    }
+
+    @Override
+    public boolean isAsync() {
+        return false;
+    }
+
+    @Override
+    public IntermediateResponse<String> handle(RequestParameters params) throws Exception {
+        String recordingName = params.getPathParams().get("recordingName");
+        Set<String> ruleIds = ReportRulesGetHandler.getRuleIds(params);
+        boolean scoresOnly = ReportRulesGetHandler.isScoresOnly(params);
+        try {
+            String rules =
+                    reportService
+                            .getRules(
+                                    getConnectionDescriptorFromParams(params),
+                                    recordingName,
+                                    ruleIds,
+                                    scoresOnly)
+                            .get(reportGenerationTimeoutSeconds, TimeUnit.SECONDS);
+            return new IntermediateResponse<String>().body(rules);
+        } catch (ExecutionException | CompletionException e) {
+            Throwable rootCause = ExceptionUtils.getRootCause(e);
+            if (rootCause instanceof RecordingNotFoundException) {
+                throw new ApiException(404, e.getMessage(), e);
+            }
+            if (rootCause
+                    instanceof SubprocessReportGenerator.SubprocessReportGenerationException) {
+                SubprocessReportGenerator.ExitStatus status =
+                        ((SubprocessReportGenerator.SubprocessReportGenerationException) rootCause)
+                                .getStatus();
+                if (status == SubprocessReportGenerator.ExitStatus.TARGET_CONNECTION_FAILURE
+                        || status == SubprocessReportGenerator.ExitStatus.NO_SUCH_RECORDING) {
+                    throw new ApiException(404, e.getMessage(), e);
+                }
+            }
+            if (rootCause instanceof ReportGenerationException) {
+                throw new ApiException(
+                        ((ReportGenerationException) rootCause).getStatusCode(), e.getMessage());
+            }
+            throw e;
+        }
+    }
+}
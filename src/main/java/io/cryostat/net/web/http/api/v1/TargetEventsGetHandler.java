@@ -30,6 +30,7 @@ import io.cryostat.core.log.Logger;
 import io.cryostat.jmc.serialization.SerializableEventTypeInfo;
 import io.cryostat.net.AuthManager;
 import io.cryostat.net.TargetConnectionManager;
+import io.cryostat.net.TargetConnectionManager.ConnectedTask;
 import io.cryostat.net.security.ResourceAction;
 import io.cryostat.net.web.http.AbstractAuthenticatedRequestHandler;
 import io.cryostat.net.web.http.HttpMimeType;
@@ -92,16 +93,17 @@ class TargetEventsGetHandler extends AbstractAuthenticatedRequestHandler {
         List<SerializableEventTypeInfo> templates =
                 connectionManager.executeConnectedTask(
                         getConnectionDescriptorFromContext(ctx),
-                        connection -> {
-                            Collection<? extends IEventTypeInfo> origInfos =
-                                    connection.getService().getAvailableEventTypes();
-                            List<SerializableEventTypeInfo> infos =
-                                    new ArrayList<>(origInfos.size());
-                            for (IEventTypeInfo info : origInfos) {
-                                infos.add(new SerializableEventTypeInfo(info));
-                            }
-                            return infos;
-                        });
+                        ConnectedTask.readOnly(
+                                connection -> {
+                                    Collection<? extends IEventTypeInfo> origInfos =
+                                            connection.getService().getAvailableEventTypes();
+                                    List<SerializableEventTypeInfo> infos =
+                                            new ArrayList<>(origInfos.size());
+                                    for (IEventTypeInfo info : origInfos) {
+                                        infos.add(new SerializableEventTypeInfo(info));
+                                    }
+                                    return infos;
+                                }));
         ctx.response().putHeader(HttpHeaders.CONTENT_TYPE, HttpMimeType.JSON.mime());
         ctx.response().end(gson.toJson(templates));
     }
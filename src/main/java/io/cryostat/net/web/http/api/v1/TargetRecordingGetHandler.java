@@ -20,9 +20,11 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
 import io.cryostat.configuration.CredentialsManager;
 import io.cryostat.core.log.Logger;
@@ -33,9 +35,10 @@ import io.cryostat.net.TargetConnectionManager;
 import io.cryostat.net.security.ResourceAction;
 import io.cryostat.net.web.http.AbstractAuthenticatedRequestHandler;
 import io.cryostat.net.web.http.HttpMimeType;
+import io.cryostat.net.web.http.HttpModule;
 import io.cryostat.net.web.http.api.ApiVersion;
 import io.cryostat.recordings.RecordingTargetHelper;
-import io.cryostat.util.OutputToReadStream;
+import io.cryostat.util.InputStreamToWriteStream;
 
 import io.vertx.core.Vertx;
 import io.vertx.core.http.HttpHeaders;
@@ -50,6 +53,7 @@ class TargetRecordingGetHandler extends AbstractAuthenticatedRequestHandler {
     protected final RecordingTargetHelper recordingTargetHelper;
 
     private final Vertx vertx;
+    private final ExecutorService executor;
 
     @Inject
     TargetRecordingGetHandler(
@@ -58,11 +62,13 @@ class TargetRecordingGetHandler extends AbstractAuthenticatedRequestHandler {
             TargetConnectionManager targetConnectionManager,
             HttpServer httpServer,
             RecordingTargetHelper recordingTargetHelper,
+            @Named(HttpModule.HTTP_STREAMING_EXECUTOR) ExecutorService executor,
             Logger logger) {
         super(auth, credentialsManager, logger);
         this.targetConnectionManager = targetConnectionManager;
         this.recordingTargetHelper = recordingTargetHelper;
         this.vertx = httpServer.getVertx();
+        this.executor = executor;
     }
 
     @Override
@@ -116,22 +122,22 @@ class TargetRecordingGetHandler extends AbstractAuthenticatedRequestHandler {
         ctx.response().setChunked(true);
         ctx.response().putHeader(HttpHeaders.CONTENT_TYPE, HttpMimeType.OCTET_STREAM.mime());
 
-        try (final InputStream is = stream.get();
-                final OutputToReadStream otrs =
-                        new OutputToReadStream(
-                                vertx, targetConnectionManager, connectionDescriptor)) {
-            CompletableFuture<Void> future = new CompletableFuture<>();
-            otrs.pipeFromInput(
-                    is,
-                    ctx.response(),
-                    res -> {
-                        if (res.succeeded()) {
-                            future.complete(null);
-                        } else {
-                            future.completeExceptionally(res.cause());
-                        }
-                    });
-            future.get();
-        }
+        // the transfer finishes on the streaming executor and the response's context, so this
+        // handler's thread is released as soon as the transfer has started
+        new InputStreamToWriteStream(vertx, executor, targetConnectionManager, connectionDescriptor)
+                .pipe(stream.get(), ctx.response())
+                .onFailure(
+                        t -> {
+                            if (ctx.response().headWritten()) {
+                                // too late to send an error status, so abort the download
+                                ctx.response().reset();
+                                return;
+                            }
+                            if (t instanceof RejectedExecutionException) {
+                                ctx.fail(new HttpException(503, "Too many concurrent downloads"));
+                            } else {
+                                ctx.fail(new HttpException(500, t));
+                            }
+                        });
     }
 }
@@ -32,6 +32,7 @@ import io.cryostat.configuration.CredentialsManager;
 import io.cryostat.core.log.Logger;
 import io.cryostat.net.AuthManager;
 import io.cryostat.net.TargetConnectionManager;
+import io.cryostat.net.TargetConnectionManager.ConnectedTask;
 import io.cryostat.net.security.ResourceAction;
 import io.cryostat.net.web.http.AbstractAuthenticatedRequestHandler;
 import io.cryostat.net.web.http.HttpMimeType;
@@ -99,11 +100,13 @@ class TargetRecordingOptionsGetHandler extends AbstractAuthenticatedRequestHandl
         Map<String, Object> optionMap =
                 connectionManager.executeConnectedTask(
                         getConnectionDescriptorFromContext(ctx),
-                        connection -> {
-                            RecordingOptionsBuilder builder =
-                                    recordingOptionsBuilderFactory.create(connection.getService());
-                            return getRecordingOptions(connection.getService(), builder);
-                        });
+                        ConnectedTask.readOnly(
+                                connection -> {
+                                    RecordingOptionsBuilder builder =
+                                            recordingOptionsBuilderFactory.create(
+                                                    connection.getService());
+                                    return getRecordingOptions(connection.getService(), builder);
+                                }));
         ctx.response().putHeader(HttpHeaders.CONTENT_TYPE, HttpMimeType.JSON.mime());
         ctx.response().end(gson.toJson(optionMap));
     }
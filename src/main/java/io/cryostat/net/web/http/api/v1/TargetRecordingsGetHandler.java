@@ -30,6 +30,8 @@ import io.cryostat.core.log.Logger;
 import io.cryostat.jmc.serialization.HyperlinkedSerializableRecordingDescriptor;
 import io.cryostat.net.AuthManager;
 import io.cryostat.net.TargetConnectionManager;
+import io.cryostat.net.TargetConnectionManager.ConnectedTask;
+import io.cryostat.net.TargetConnectionManager.Consistency;
 import io.cryostat.net.security.ResourceAction;
 import io.cryostat.net.web.WebServer;
 import io.cryostat.net.web.http.AbstractAuthenticatedRequestHandler;
@@ -98,27 +100,31 @@ class TargetRecordingsGetHandler extends AbstractAuthenticatedRequestHandler {
     @Override
     public void handleAuthenticated(RoutingContext ctx) throws Exception {
         WebServer webServer = webServerProvider.get();
+        List<IRecordingDescriptor> origDescriptors =
+                connectionManager.getRecordings(
+                        getConnectionDescriptorFromContext(ctx), Consistency.CACHED);
         List<HyperlinkedSerializableRecordingDescriptor> descriptors =
                 connectionManager.executeConnectedTask(
                         getConnectionDescriptorFromContext(ctx),
-                        connection -> {
-                            List<IRecordingDescriptor> origDescriptors =
-                                    connection.getService().getAvailableRecordings();
-                            List<HyperlinkedSerializableRecordingDescriptor> list =
-                                    new ArrayList<>(origDescriptors.size());
-                            for (IRecordingDescriptor desc : origDescriptors) {
-                                list.add(
-                                        new HyperlinkedSerializableRecordingDescriptor(
-                                                desc,
-                                                webServer.getDownloadURL(
-                                                        connection, desc.getName()),
-                                                webServer.getReportURL(connection, desc.getName()),
-                                                recordingMetadataManager.getMetadata(
-                                                        getConnectionDescriptorFromContext(ctx),
-                                                        desc.getName())));
-                            }
-                            return list;
-                        });
+                        ConnectedTask.readOnly(
+                                connection -> {
+                                    List<HyperlinkedSerializableRecordingDescriptor> list =
+                                            new ArrayList<>(origDescriptors.size());
+                                    for (IRecordingDescriptor desc : origDescriptors) {
+                                        list.add(
+                                                new HyperlinkedSerializableRecordingDescriptor(
+                                                        desc,
+                                                        webServer.getDownloadURL(
+                                                                connection, desc.getName()),
+                                                        webServer.getReportURL(
+                                                                connection, desc.getName()),
+                                                        recordingMetadataManager.getMetadata(
+                                                                getConnectionDescriptorFromContext(
+                                                                        ctx),
+                                                                desc.getName())));
+                                    }
+                                    return list;
+                                }));
         ctx.response().putHeader(HttpHeaders.CONTENT_TYPE, HttpMimeType.JSON.mime());
         ctx.response().end(gson.toJson(descriptors));
     }
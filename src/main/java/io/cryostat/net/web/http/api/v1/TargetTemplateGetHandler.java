@@ -26,6 +26,7 @@ import io.cryostat.core.log.Logger;
 import io.cryostat.core.templates.TemplateType;
 import io.cryostat.net.AuthManager;
 import io.cryostat.net.TargetConnectionManager;
+import io.cryostat.net.TargetConnectionManager.ConnectedTask;
 import io.cryostat.net.security.ResourceAction;
 import io.cryostat.net.web.http.AbstractAuthenticatedRequestHandler;
 import io.cryostat.net.web.http.HttpMimeType;
@@ -87,7 +88,10 @@ class TargetTemplateGetHandler extends AbstractAuthenticatedRequestHandler {
         targetConnectionManager
                 .executeConnectedTask(
                         getConnectionDescriptorFromContext(ctx),
-                        conn -> conn.getTemplateService().getXml(templateName, templateType))
+                        ConnectedTask.readOnly(
+                                conn ->
+                                        conn.getTemplateService()
+                                                .getXml(templateName, templateType)))
                 .ifPresentOrElse(
                         doc -> {
                             ctx.response()
@@ -28,6 +28,7 @@ import io.cryostat.core.templates.Template;
 import io.cryostat.core.templates.TemplateType;
 import io.cryostat.net.AuthManager;
 import io.cryostat.net.TargetConnectionManager;
+import io.cryostat.net.TargetConnectionManager.ConnectedTask;
 import io.cryostat.net.security.ResourceAction;
 import io.cryostat.net.web.http.AbstractAuthenticatedRequestHandler;
 import io.cryostat.net.web.http.HttpMimeType;
@@ -99,12 +100,14 @@ class TargetTemplatesGetHandler extends AbstractAuthenticatedRequestHandler {
         List<Template> templates =
                 connectionManager.executeConnectedTask(
                         getConnectionDescriptorFromContext(ctx),
-                        connection -> {
-                            List<Template> list =
-                                    new ArrayList<>(connection.getTemplateService().getTemplates());
-                            list.add(ALL_EVENTS_TEMPLATE);
-                            return list;
-                        });
+                        ConnectedTask.readOnly(
+                                connection -> {
+                                    List<Template> list =
+                                            new ArrayList<>(
+                                                    connection.getTemplateService().getTemplates());
+                                    list.add(ALL_EVENTS_TEMPLATE);
+                                    return list;
+                                }));
         ctx.response().putHeader(HttpHeaders.CONTENT_TYPE, HttpMimeType.JSON.mime());
         ctx.response().end(gson.toJson(templates));
     }
@@ -96,6 +96,9 @@ public abstract class AbstractV2RequestHandler<T> implements RequestHandler {
             if (AbstractAuthenticatedRequestHandler.isTargetConnectionFailure(e)) {
                 handleConnectionException(ctx, e);
             }
+            if (AbstractAuthenticatedRequestHandler.isTargetBusyFailure(e)) {
+                throw new ApiException(503, "Target Busy", e);
+            }
             throw new ApiException(500, e);
         }
     }
@@ -26,6 +26,7 @@ import io.cryostat.core.log.Logger;
 import io.cryostat.core.net.MBeanMetrics;
 import io.cryostat.net.AuthManager;
 import io.cryostat.net.TargetConnectionManager;
+import io.cryostat.net.TargetConnectionManager.ConnectedTask;
 import io.cryostat.net.security.ResourceAction;
 import io.cryostat.net.web.http.HttpMimeType;
 import io.cryostat.net.web.http.api.ApiVersion;
@@ -84,9 +85,10 @@ public class MBeanMetricsGetHandler extends AbstractV2RequestHandler<MBeanMetric
     public IntermediateResponse<MBeanMetrics> handle(RequestParameters params) throws Exception {
         return tcm.executeConnectedTask(
                 getConnectionDescriptorFromParams(params),
-                conn -> {
-                    MBeanMetrics metrics = conn.getMBeanMetrics();
-                    return new IntermediateResponse<MBeanMetrics>().body(metrics);
-                });
+                ConnectedTask.readOnly(
+                        conn -> {
+                            MBeanMetrics metrics = conn.getMBeanMetrics();
+                            return new IntermediateResponse<MBeanMetrics>().body(metrics);
+                        }));
     }
 }
@@ -30,6 +30,7 @@ import io.cryostat.configuration.CredentialsManager;
 import io.cryostat.jmc.serialization.SerializableEventTypeInfo;
 import io.cryostat.net.AuthManager;
 import io.cryostat.net.TargetConnectionManager;
+import io.cryostat.net.TargetConnectionManager.ConnectedTask;
 import io.cryostat.net.security.ResourceAction;
 import io.cryostat.net.web.http.HttpMimeType;
 import io.cryostat.net.web.http.api.ApiVersion;
@@ -92,20 +93,21 @@ class TargetEventsGetHandler extends AbstractV2RequestHandler<List<SerializableE
             throws Exception {
         return targetConnectionManager.executeConnectedTask(
                 getConnectionDescriptorFromParams(params),
-                connection -> {
-                    String q = params.getQueryParams().get("q");
-                    List<SerializableEventTypeInfo> matchingEvents =
-                            connection.getService().getAvailableEventTypes().stream()
-                                    .filter(
-                                            event ->
-                                                    StringUtils.isBlank(q)
-                                                            || eventMatchesSearchTerm(
-                                                                    event, q.toLowerCase()))
-                                    .map(SerializableEventTypeInfo::new)
-                                    .collect(Collectors.toList());
-                    return new IntermediateResponse<List<SerializableEventTypeInfo>>()
-                            .body(matchingEvents);
-                });
+                ConnectedTask.readOnly(
+                        connection -> {
+                            String q = params.getQueryParams().get("q");
+                            List<SerializableEventTypeInfo> matchingEvents =
+                                    connection.getService().getAvailableEventTypes().stream()
+                                            .filter(
+                                                    event ->
+                                                            StringUtils.isBlank(q)
+                                                                    || eventMatchesSearchTerm(
+                                                                            event, q.toLowerCase()))
+                                            .map(SerializableEventTypeInfo::new)
+                                            .collect(Collectors.toList());
+                            return new IntermediateResponse<List<SerializableEventTypeInfo>>()
+                                    .body(matchingEvents);
+                        }));
     }
 
     private boolean eventMatchesSearchTerm(IEventTypeInfo event, String term) {
@@ -30,6 +30,7 @@ import io.cryostat.core.agent.Event;
 import io.cryostat.core.agent.ProbeTemplate;
 import io.cryostat.net.AuthManager;
 import io.cryostat.net.TargetConnectionManager;
+import io.cryostat.net.TargetConnectionManager.ConnectedTask;
 import io.cryostat.net.security.ResourceAction;
 import io.cryostat.net.web.http.HttpMimeType;
 import io.cryostat.net.web.http.api.ApiVersion;
@@ -91,25 +92,26 @@ class TargetProbesGetHandler extends AbstractV2RequestHandler<List<Event>> {
         }
         return connectionManager.executeConnectedTask(
                 getConnectionDescriptorFromParams(requestParams),
-                connection -> {
-                    List<Event> response = new ArrayList<Event>();
-                    AgentJMXHelper helper = new AgentJMXHelper(connection.getHandle());
-                    try {
-                        String probes = helper.retrieveEventProbes();
-                        if (probes != null && !probes.isBlank()) {
-                            ProbeTemplate template = new ProbeTemplate();
-                            template.deserialize(
-                                    new ByteArrayInputStream(
-                                            probes.getBytes(StandardCharsets.UTF_8)));
-                            for (Event e : template.getEvents()) {
-                                response.add(e);
+                ConnectedTask.readOnly(
+                        connection -> {
+                            List<Event> response = new ArrayList<Event>();
+                            AgentJMXHelper helper = new AgentJMXHelper(connection.getHandle());
+                            try {
+                                String probes = helper.retrieveEventProbes();
+                                if (probes != null && !probes.isBlank()) {
+                                    ProbeTemplate template = new ProbeTemplate();
+                                    template.deserialize(
+                                            new ByteArrayInputStream(
+                                                    probes.getBytes(StandardCharsets.UTF_8)));
+                                    for (Event e : template.getEvents()) {
+                                        response.add(e);
+                                    }
+                                }
+                            } catch (Exception e) {
+                                throw new ApiException(501, e.getMessage());
                             }
-                        }
-                    } catch (Exception e) {
-                        throw new ApiException(501, e.getMessage());
-                    }
-                    return new IntermediateResponse<List<Event>>().body(response);
-                });
+                            return new IntermediateResponse<List<Event>>().body(response);
+                        }));
     }
 
     @Override
@@ -20,9 +20,13 @@ import java.util.EnumSet;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.openjdk.jmc.rjmx.services.jfr.IRecordingDescriptor;
 
 import io.cryostat.configuration.CredentialsManager;
 import io.cryostat.core.log.Logger;
@@ -30,12 +34,15 @@ import io.cryostat.net.AuthManager;
 import io.cryostat.net.ConnectionDescriptor;
 import io.cryostat.net.HttpServer;
 import io.cryostat.net.TargetConnectionManager;
+import io.cryostat.net.TargetConnectionManager.ConnectedTask;
+import io.cryostat.net.TargetConnectionManager.Consistency;
 import io.cryostat.net.security.ResourceAction;
 import io.cryostat.net.security.jwt.AssetJwtHelper;
 import io.cryostat.net.web.WebServer;
 import io.cryostat.net.web.http.HttpMimeType;
+import io.cryostat.net.web.http.HttpModule;
 import io.cryostat.net.web.http.api.ApiVersion;
-import io.cryostat.util.OutputToReadStream;
+import io.cryostat.util.InputStreamToWriteStream;
 
 import com.nimbusds.jwt.JWT;
 import dagger.Lazy;
@@ -49,6 +56,7 @@ class TargetRecordingGetHandler extends AbstractAssetJwtConsumingHandler {
 
     private final TargetConnectionManager targetConnectionManager;
     private final Vertx vertx;
+    private final ExecutorService executor;
 
     @Inject
     TargetRecordingGetHandler(
@@ -58,10 +66,12 @@ class TargetRecordingGetHandler extends AbstractAssetJwtConsumingHandler {
             Lazy<WebServer> webServer,
             HttpServer httpServer,
             TargetConnectionManager targetConnectionManager,
+            @Named(HttpModule.HTTP_STREAMING_EXECUTOR) ExecutorService executor,
             Logger logger) {
         super(auth, credentialsManager, jwtFactory, webServer, logger);
         this.targetConnectionManager = targetConnectionManager;
         this.vertx = httpServer.getVertx();
+        this.executor = executor;
     }
 
     @Override
@@ -106,24 +116,29 @@ class TargetRecordingGetHandler extends AbstractAssetJwtConsumingHandler {
     void handleRecordingDownloadRequest(RoutingContext ctx, JWT jwt, String recordingName)
             throws Exception {
         ConnectionDescriptor connectionDescriptor = getConnectionDescriptorFromJwt(ctx, jwt);
-        Optional<InputStream> stream =
-                targetConnectionManager.executeConnectedTask(
-                        connectionDescriptor,
-                        conn ->
-                                conn.getService().getAvailableRecordings().stream()
-                                        .filter(r -> Objects.equals(recordingName, r.getName()))
-                                        .map(
-                                                desc -> {
-                                                    try {
-                                                        return conn.getService()
-                                                                .openStream(desc, false);
-                                                    } catch (Exception e) {
-                                                        logger.error(e);
-                                                        throw new ApiException(500, e);
-                                                    }
-                                                })
-                                        .filter(Objects::nonNull)
-                                        .findFirst());
+        Optional<IRecordingDescriptor> descriptor =
+                targetConnectionManager
+                        .getRecordings(connectionDescriptor, Consistency.CACHED)
+                        .stream()
+                        .filter(r -> Objects.equals(recordingName, r.getName()))
+                        .findFirst();
+        Optional<InputStream> stream = Optional.empty();
+        if (descriptor.isPresent()) {
+            stream =
+                    Optional.of(
+                            targetConnectionManager.executeConnectedTask(
+                                    connectionDescriptor,
+                                    ConnectedTask.readOnly(
+                                            conn -> {
+                                                try {
+                                                    return conn.getService()
+                                                            .openStream(descriptor.get(), false);
+                                                } catch (Exception e) {
+                                                    logger.error(e);
+                                                    throw new ApiException(500, e);
+                                                }
+                                            })));
+        }
         if (stream.isEmpty()) {
             throw new ApiException(404, String.format("%s not found", recordingName));
         }
@@ -135,26 +150,22 @@ class TargetRecordingGetHandler extends AbstractAssetJwtConsumingHandler {
                         String.format("attachment; filename=\"%s.jfr\"", recordingName));
         ctx.response().putHeader(HttpHeaders.CONTENT_TYPE, HttpMimeType.OCTET_STREAM.mime());
 
-        try (final InputStream is = stream.get();
-                final OutputToReadStream otrs =
-                        new OutputToReadStream(
-                                vertx, targetConnectionManager, connectionDescriptor)) {
-            CompletableFuture<Void> future = new CompletableFuture<>();
-            otrs.pipeFromInput(
-                    is,
-                    ctx.response(),
-                    res -> {
-                        if (res.succeeded()) {
-                            future.complete(null);
-                        } else {
-                            future.completeExceptionally(res.cause());
-                        }
-                    });
-            try {
-                future.get();
-            } catch (Exception e) {
-                throw new ApiException(500, e);
-            }
-        }
+        // the transfer finishes on the streaming executor and the response's context, so this
+        // handler's thread is released as soon as the transfer has started
+        new InputStreamToWriteStream(vertx, executor, targetConnectionManager, connectionDescriptor)
+                .pipe(stream.get(), ctx.response())
+                .onFailure(
+                        t -> {
+                            if (ctx.response().headWritten()) {
+                                // too late to send an error status, so abort the download
+                                ctx.response().reset();
+                                return;
+                            }
+                            if (t instanceof RejectedExecutionException) {
+                                ctx.fail(new ApiException(503, "Too many concurrent downloads"));
+                            } else {
+                                ctx.fail(new ApiException(500, t));
+                            }
+                        });
     }
 }
@@ -29,6 +29,7 @@ import io.cryostat.configuration.CredentialsManager;
 import io.cryostat.jmc.serialization.SerializableOptionDescriptor;
 import io.cryostat.net.AuthManager;
 import io.cryostat.net.TargetConnectionManager;
+import io.cryostat.net.TargetConnectionManager.ConnectedTask;
 import io.cryostat.net.security.ResourceAction;
 import io.cryostat.net.web.http.HttpMimeType;
 import io.cryostat.net.web.http.api.ApiVersion;
@@ -92,16 +93,18 @@ class TargetRecordingOptionsListGetHandler
         List<SerializableOptionDescriptor> options =
                 connectionManager.executeConnectedTask(
                         getConnectionDescriptorFromParams(requestParams),
-                        connection -> {
-                            Map<String, IOptionDescriptor<?>> origOptions =
-                                    connection.getService().getAvailableRecordingOptions();
-                            List<SerializableOptionDescriptor> serializableOptions =
-                                    new ArrayList<>(origOptions.size());
-                            for (IOptionDescriptor<?> option : origOptions.values()) {
-                                serializableOptions.add(new SerializableOptionDescriptor(option));
-                            }
-                            return serializableOptions;
-                        });
+                        ConnectedTask.readOnly(
+                                connection -> {
+                                    Map<String, IOptionDescriptor<?>> origOptions =
+                                            connection.getService().getAvailableRecordingOptions();
+                                    List<SerializableOptionDescriptor> serializableOptions =
+                                            new ArrayList<>(origOptions.size());
+                                    for (IOptionDescriptor<?> option : origOptions.values()) {
+                                        serializableOptions.add(
+                                                new SerializableOptionDescriptor(option));
+                                    }
+                                    return serializableOptions;
+                                }));
         return new IntermediateResponse<List<SerializableOptionDescriptor>>().body(options);
     }
 }
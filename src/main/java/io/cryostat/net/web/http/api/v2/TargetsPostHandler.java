@@ -22,7 +22,6 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
@@ -137,10 +136,8 @@ class TargetsPostHandler extends AbstractV2RequestHandler<ServiceRef> {
                 throw new ApiException(400, "\"alias\" form parameter must be provided");
             }
             URI uri = URIUtil.createAbsolute(connectUrl);
-            for (ServiceRef serviceRef : storage.listDiscoverableServices()) {
-                if (Objects.equals(uri, serviceRef.getServiceUri())) {
-                    throw new ApiException(400, "Duplicate connectUrl");
-                }
+            if (storage.lookupServiceByConnectUrl(uri).isPresent()) {
+                throw new ApiException(400, "Duplicate connectUrl");
             }
 
             MultiMap queries = params.getQueryParams();
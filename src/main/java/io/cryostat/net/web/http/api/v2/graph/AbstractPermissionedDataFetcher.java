@@ -16,10 +16,15 @@
 package io.cryostat.net.web.http.api.v2.graph;
 
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
 
 import io.cryostat.net.AuthManager;
 import io.cryostat.net.AuthenticationErrorException;
 import io.cryostat.net.security.PermissionedAction;
+import io.cryostat.net.security.ResourceAction;
 
 import graphql.GraphQLContext;
 import graphql.schema.DataFetcher;
@@ -43,20 +48,74 @@ abstract class AbstractPermissionedDataFetcher<T> implements DataFetcher<T>, Per
         return true;
     }
 
+    /**
+     * Whether the fetcher returns a {@link CompletionStage} and has its permissions checked
+     * asynchronously. The stage it returns is failed if the check does not pass, and it must defer
+     * any work until {@link #authorize(DataFetchingEnvironment)} has completed. Other fetchers
+     * wait for the check before {@link #getAuthenticated(DataFetchingEnvironment)} is called.
+     */
+    boolean async() {
+        return false;
+    }
+
     @Override
+    @SuppressWarnings("unchecked")
     public final T get(DataFetchingEnvironment environment) throws Exception {
-        GraphQLContext graphCtx = environment.getGraphQlContext();
-        RoutingContext ctx = graphCtx.get(RoutingContext.class);
-        boolean authenticated =
-                auth.validateHttpHeader(
-                                () -> ctx.request().getHeader(HttpHeaders.AUTHORIZATION),
-                                resourceActions())
-                        .get();
+        if (async()) {
+            CompletableFuture<Void> authorized = authorize(environment);
+            CompletionStage<?> result = (CompletionStage<?>) getAuthenticated(environment);
+            return (T) authorized.thenCompose(v -> result);
+        }
+        boolean authenticated = validate(environment).get();
         if (!authenticated) {
             throw new AuthenticationErrorException("Unauthorized");
         }
         return getAuthenticated(environment);
     }
 
+    /**
+     * Check the request's permissions without blocking. The check is only made once per request
+     * for each set of permissions, however many fields share it, and the returned future fails
+     * with an {@link AuthenticationErrorException} if it does not pass.
+     */
+    CompletableFuture<Void> authorize(DataFetchingEnvironment environment) {
+        GraphQLContext graphCtx = environment.getGraphQlContext();
+        return graphCtx.computeIfAbsent(
+                new Authorization(resourceActions()),
+                k ->
+                        toCompletableFuture(validate(environment))
+                                .thenAccept(
+                                        authenticated -> {
+                                            if (!authenticated) {
+                                                throw new CompletionException(
+                                                        new AuthenticationErrorException(
+                                                                "Unauthorized"));
+                                            }
+                                        }));
+    }
+
+    private Future<Boolean> validate(DataFetchingEnvironment environment) {
+        GraphQLContext graphCtx = environment.getGraphQlContext();
+        RoutingContext ctx = graphCtx.get(RoutingContext.class);
+        return auth.validateHttpHeader(
+                () -> ctx.request().getHeader(HttpHeaders.AUTHORIZATION), resourceActions());
+    }
+
+    private static <V> CompletableFuture<V> toCompletableFuture(Future<V> future) {
+        if (future instanceof CompletionStage) {
+            return ((CompletionStage<V>) future).toCompletableFuture();
+        }
+        return CompletableFuture.supplyAsync(
+                () -> {
+                    try {
+                        return future.get();
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
     abstract T getAuthenticated(DataFetchingEnvironment environment) throws Exception;
+
+    private static record Authorization(Set<ResourceAction> resourceActions) {}
 }
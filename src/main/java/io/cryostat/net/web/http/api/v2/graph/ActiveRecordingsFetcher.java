@@ -89,12 +89,10 @@ class ActiveRecordingsFetcher extends AbstractPermissionedDataFetcher<Active> {
         if (filter.contains(FilterInput.Key.LABELS)) {
             List<String> labels = filter.get(FilterInput.Key.LABELS);
             for (String label : labels) {
+                LabelSelectorMatcher matcher = LabelSelectorMatcher.parse(label);
                 recordings =
                         recordings.stream()
-                                .filter(
-                                        r ->
-                                                LabelSelectorMatcher.parse(label)
-                                                        .test(r.getMetadata().getLabels()))
+                                .filter(r -> matcher.test(r.getMetadata().getLabels()))
                                 .collect(Collectors.toList());
             }
         }
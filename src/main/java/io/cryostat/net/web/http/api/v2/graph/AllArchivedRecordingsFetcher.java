@@ -68,6 +68,7 @@ class AllArchivedRecordingsFetcher extends AbstractPermissionedDataFetcher<Archi
     Archived getAuthenticated(DataFetchingEnvironment environment) throws Exception {
         FilterInput filter = FilterInput.from(environment);
         List<ArchivedRecordingInfo> recordings = new ArrayList<>();
+        boolean labelsApplied = false;
         if (filter.contains(FilterInput.Key.SOURCE_TARGET)) {
             String targetId = filter.get(FilterInput.Key.SOURCE_TARGET);
             try {
@@ -79,6 +80,12 @@ class AllArchivedRecordingsFetcher extends AbstractPermissionedDataFetcher<Archi
                         e.getMessage());
                 recordings = List.of();
             }
+        } else if (filter.contains(FilterInput.Key.LABELS)) {
+            // answered from the recording metadata label index rather than by testing the labels
+            // of every archived recording
+            List<String> labels = filter.get(FilterInput.Key.LABELS);
+            recordings = archiveHelper.getRecordingsMatching(labels).get();
+            labelsApplied = true;
         } else {
             recordings = archiveHelper.getRecordings().get();
         }
@@ -89,15 +96,13 @@ class AllArchivedRecordingsFetcher extends AbstractPermissionedDataFetcher<Archi
                             .filter(r -> Objects.equals(r.getName(), recordingName))
                             .collect(Collectors.toList());
         }
-        if (filter.contains(FilterInput.Key.LABELS)) {
+        if (!labelsApplied && filter.contains(FilterInput.Key.LABELS)) {
             List<String> labels = filter.get(FilterInput.Key.LABELS);
             for (String label : labels) {
+                LabelSelectorMatcher matcher = LabelSelectorMatcher.parse(label);
                 recordings =
                         recordings.stream()
-                                .filter(
-                                        r ->
-                                                LabelSelectorMatcher.parse(label)
-                                                        .test(r.getMetadata().getLabels()))
+                                .filter(r -> matcher.test(r.getMetadata().getLabels()))
                                 .collect(Collectors.toList());
             }
         }
@@ -88,12 +88,10 @@ class ArchivedRecordingsFetcher extends AbstractPermissionedDataFetcher<Archived
         if (filter.contains(FilterInput.Key.LABELS)) {
             List<String> labels = filter.get(FilterInput.Key.LABELS);
             for (String label : labels) {
+                LabelSelectorMatcher matcher = LabelSelectorMatcher.parse(label);
                 recordings =
                         recordings.stream()
-                                .filter(
-                                        r ->
-                                                LabelSelectorMatcher.parse(label)
-                                                        .test(r.getMetadata().getLabels()))
+                                .filter(r -> matcher.test(r.getMetadata().getLabels()))
                                 .collect(Collectors.toList());
             }
         }
@@ -17,15 +17,19 @@ package io.cryostat.net.web.http.api.v2.graph;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
 import io.cryostat.configuration.CredentialsManager;
+import io.cryostat.configuration.Variables;
 import io.cryostat.core.log.Logger;
+import io.cryostat.core.sys.Environment;
 import io.cryostat.discovery.DiscoveryStorage;
 import io.cryostat.net.AuthManager;
 import io.cryostat.net.TargetConnectionManager;
@@ -57,6 +61,7 @@ import graphql.schema.idl.SchemaParser;
 import graphql.schema.idl.TypeDefinitionRegistry;
 import graphql.schema.idl.TypeRuntimeWiring;
 import org.apache.commons.codec.binary.Base32;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 
 @Module
 public abstract class GraphModule {
@@ -161,6 +166,21 @@ public abstract class GraphModule {
     @IntoSet
     abstract AbstractPermissionedDataFetcher<?> bindRootNodeFetcher(RootNodeFetcher apdf);
 
+    @Provides
+    @Singleton
+    static TargetFanOut provideTargetFanOut(Environment env) {
+        int parallelism = Integer.parseInt(env.getEnv(Variables.GRAPHQL_TARGET_PARALLELISM, "16"));
+        long timeout = Long.parseLong(env.getEnv(Variables.GRAPHQL_TARGET_TIMEOUT, "10"));
+        return new TargetFanOut(
+                Executors.newFixedThreadPool(
+                        Math.max(1, parallelism),
+                        new BasicThreadFactory.Builder()
+                                .namingPattern("graphql-target-%d")
+                                .daemon(true)
+                                .build()),
+                Duration.ofSeconds(Math.max(1, timeout)));
+    }
+
     @Provides
     static RecordingsFetcher provideRecordingsFetcher(
             AuthManager auth,
@@ -169,9 +189,17 @@ public abstract class GraphModule {
             CredentialsManager credentialsManager,
             RecordingMetadataManager metadataManager,
             Provider<WebServer> webServer,
+            TargetFanOut fanOut,
             Logger logger) {
         return new RecordingsFetcher(
-                auth, tcm, archiveHelper, credentialsManager, metadataManager, webServer, logger);
+                auth,
+                tcm,
+                archiveHelper,
+                credentialsManager,
+                metadataManager,
+                webServer,
+                fanOut,
+                logger);
     }
 
     @Binds
@@ -403,8 +431,9 @@ public abstract class GraphModule {
             AuthManager auth,
             TargetConnectionManager tcm,
             CredentialsManager credentialsManager,
+            TargetFanOut fanOut,
             Logger logger) {
-        return new MBeanMetricsFetcher(auth, tcm, credentialsManager, logger);
+        return new MBeanMetricsFetcher(auth, tcm, credentialsManager, fanOut, logger);
     }
 
     @Binds
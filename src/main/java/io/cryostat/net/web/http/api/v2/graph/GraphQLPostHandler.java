@@ -33,6 +33,7 @@ import io.vertx.core.http.HttpMethod;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.graphql.GraphQLHandler;
+import org.dataloader.DataLoaderRegistry;
 
 class GraphQLPostHandler implements RequestHandler {
 
@@ -44,7 +45,10 @@ class GraphQLPostHandler implements RequestHandler {
 
     @Inject
     GraphQLPostHandler(GraphQL graph, AuthManager auth, Logger logger) {
-        this.handler = GraphQLHandler.create(graph);
+        this.handler =
+                GraphQLHandler.create(graph)
+                        // fresh per request, so that loaded values are not shared across requests
+                        .dataLoaderRegistry(rc -> new DataLoaderRegistry());
         this.auth = auth;
         this.logger = logger;
     }
@@ -17,6 +17,7 @@ package io.cryostat.net.web.http.api.v2.graph;
 
 import java.util.EnumSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import javax.inject.Inject;
 
@@ -26,16 +27,21 @@ import io.cryostat.core.net.MBeanMetrics;
 import io.cryostat.net.AuthManager;
 import io.cryostat.net.ConnectionDescriptor;
 import io.cryostat.net.TargetConnectionManager;
+import io.cryostat.net.TargetConnectionManager.ConnectedTask;
 import io.cryostat.net.security.ResourceAction;
 import io.cryostat.platform.ServiceRef;
 import io.cryostat.platform.discovery.TargetNode;
 
 import graphql.schema.DataFetchingEnvironment;
 
-public class MBeanMetricsFetcher extends AbstractPermissionedDataFetcher<MBeanMetrics> {
+public class MBeanMetricsFetcher
+        extends AbstractPermissionedDataFetcher<CompletableFuture<MBeanMetrics>> {
+
+    static final String MBEAN_METRICS_LOADER = "mbeanMetrics";
 
     private final TargetConnectionManager tcm;
     private final CredentialsManager credentialsManager;
+    private final TargetFanOut fanOut;
     private final Logger logger;
 
     @Inject
@@ -43,10 +49,12 @@ public class MBeanMetricsFetcher extends AbstractPermissionedDataFetcher<MBeanMe
             AuthManager auth,
             TargetConnectionManager tcm,
             CredentialsManager credentialsManager,
+            TargetFanOut fanOut,
             Logger logger) {
         super(auth);
         this.tcm = tcm;
         this.credentialsManager = credentialsManager;
+        this.fanOut = fanOut;
         this.logger = logger;
     }
 
@@ -66,17 +74,37 @@ public class MBeanMetricsFetcher extends AbstractPermissionedDataFetcher<MBeanMe
     }
 
     @Override
-    public MBeanMetrics getAuthenticated(DataFetchingEnvironment environment) throws Exception {
+    boolean blocking() {
+        // the blocking work is dispatched through the fan-out executor instead
+        return false;
+    }
+
+    @Override
+    boolean async() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<MBeanMetrics> getAuthenticated(DataFetchingEnvironment environment)
+            throws Exception {
         TargetNode source = (TargetNode) environment.getSource();
-        ServiceRef target = source.getTarget();
+        return fanOut.load(
+                        environment,
+                        MBEAN_METRICS_LOADER,
+                        source.getTarget(),
+                        authorize(environment),
+                        this::getMetrics)
+                .exceptionally(
+                        t -> {
+                            logger.warn(t);
+                            return null;
+                        });
+    }
+
+    private MBeanMetrics getMetrics(ServiceRef target) throws Exception {
         String targetId = target.getServiceUri().toString();
         ConnectionDescriptor cd =
                 new ConnectionDescriptor(targetId, credentialsManager.getCredentials(target));
-        try {
-            return tcm.executeConnectedTask(cd, conn -> conn.getMBeanMetrics());
-        } catch (Exception e) {
-            logger.warn(e);
-            return null;
-        }
+        return tcm.executeConnectedTask(cd, ConnectedTask.readOnly(conn -> conn.getMBeanMetrics()));
     }
 }
@@ -21,19 +21,22 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
 
 import org.openjdk.jmc.common.unit.QuantityConversionException;
+import org.openjdk.jmc.rjmx.services.jfr.IRecordingDescriptor;
 
 import io.cryostat.configuration.CredentialsManager;
 import io.cryostat.core.log.Logger;
 import io.cryostat.net.AuthManager;
 import io.cryostat.net.ConnectionDescriptor;
 import io.cryostat.net.TargetConnectionManager;
+import io.cryostat.net.TargetConnectionManager.ConnectedTask;
+import io.cryostat.net.TargetConnectionManager.Consistency;
 import io.cryostat.net.security.ResourceAction;
 import io.cryostat.net.web.WebServer;
 import io.cryostat.net.web.http.api.v2.graph.RecordingsFetcher.Recordings;
@@ -47,13 +50,16 @@ import io.cryostat.rules.ArchivedRecordingInfo;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import graphql.schema.DataFetchingEnvironment;
 
-class RecordingsFetcher extends AbstractPermissionedDataFetcher<Recordings> {
+class RecordingsFetcher extends AbstractPermissionedDataFetcher<CompletableFuture<Recordings>> {
+
+    static final String ACTIVE_RECORDINGS_LOADER = "activeRecordings";
 
     private final TargetConnectionManager targetConnectionManager;
     private final RecordingArchiveHelper archiveHelper;
     private final CredentialsManager credentialsManager;
     private final RecordingMetadataManager metadataManager;
     private final Provider<WebServer> webServer;
+    private final TargetFanOut fanOut;
     private final Logger logger;
 
     @Inject
@@ -64,6 +70,7 @@ class RecordingsFetcher extends AbstractPermissionedDataFetcher<Recordings> {
             CredentialsManager credentialsManager,
             RecordingMetadataManager metadataManager,
             Provider<WebServer> webServer,
+            TargetFanOut fanOut,
             Logger logger) {
         super(auth);
         this.targetConnectionManager = targetConnectionManager;
@@ -71,6 +78,7 @@ class RecordingsFetcher extends AbstractPermissionedDataFetcher<Recordings> {
         this.credentialsManager = credentialsManager;
         this.metadataManager = metadataManager;
         this.webServer = webServer;
+        this.fanOut = fanOut;
         this.logger = logger;
     }
 
@@ -92,78 +100,116 @@ class RecordingsFetcher extends AbstractPermissionedDataFetcher<Recordings> {
                 ResourceAction.READ_CREDENTIALS);
     }
 
+    @Override
+    boolean blocking() {
+        // the blocking work is dispatched through the fan-out executor instead
+        return false;
+    }
+
+    @Override
+    boolean async() {
+        return true;
+    }
+
     @Override
     @SuppressFBWarnings(
             value = "URF_UNREAD_FIELD",
             justification =
                     "The Recordings fields are serialized and returned to the client by the GraphQL"
                             + " engine")
-    public Recordings getAuthenticated(DataFetchingEnvironment environment) throws Exception {
+    public CompletableFuture<Recordings> getAuthenticated(DataFetchingEnvironment environment)
+            throws Exception {
         TargetNode source = (TargetNode) environment.getSource();
         ServiceRef target = source.getTarget();
         String targetId = target.getServiceUri().toString();
-        Recordings recordings = new Recordings();
 
         List<String> requestedFields =
                 environment.getSelectionSet().getFields().stream()
                         .map(field -> field.getName())
                         .collect(Collectors.toList());
 
+        // the active and archived recordings are fetched concurrently, once authorized
+        CompletableFuture<Void> authorized = authorize(environment);
+        CompletableFuture<List<GraphRecordingDescriptor>> active =
+                CompletableFuture.completedFuture(null);
         if (requestedFields.contains("active")) {
-            ConnectionDescriptor cd =
-                    new ConnectionDescriptor(targetId, credentialsManager.getCredentials(target));
-            // FIXME populating these two struct members are each async tasks. we should do them in
-            // parallel
-            recordings.active =
-                    targetConnectionManager.executeConnectedTask(
-                            cd,
-                            conn -> {
-                                return conn.getService().getAvailableRecordings().stream()
-                                        .map(
-                                                r -> {
-                                                    try {
-                                                        String downloadUrl =
-                                                                webServer
-                                                                        .get()
-                                                                        .getDownloadURL(
-                                                                                conn, r.getName());
-                                                        String reportUrl =
-                                                                webServer
-                                                                        .get()
-                                                                        .getReportURL(
-                                                                                conn, r.getName());
-                                                        Metadata metadata =
-                                                                metadataManager.getMetadata(
-                                                                        cd, r.getName());
-                                                        return new GraphRecordingDescriptor(
-                                                                target,
-                                                                r,
-                                                                downloadUrl,
-                                                                reportUrl,
-                                                                metadata);
-                                                    } catch (QuantityConversionException
-                                                            | URISyntaxException
-                                                            | IOException e) {
-                                                        logger.error(e);
-                                                        return null;
-                                                    }
-                                                })
-                                        .filter(Objects::nonNull)
-                                        .collect(Collectors.toList());
-                            });
+            active =
+                    fanOut.load(
+                            environment,
+                            ACTIVE_RECORDINGS_LOADER,
+                            target,
+                            authorized,
+                            this::getActive);
         }
 
+        CompletableFuture<List<ArchivedRecordingInfo>> archived =
+                CompletableFuture.completedFuture(null);
         if (requestedFields.contains("archived")) {
-            try {
-                recordings.archived = archiveHelper.getRecordings(targetId).get();
-            } catch (ExecutionException e) {
-                recordings.archived = List.of();
-                logger.warn("Couldn't get archived recordings for {}", targetId);
-                logger.warn(e);
-            }
+            archived =
+                    fanOut.submit(authorized, () -> archiveHelper.getRecordings(targetId).get())
+                            .exceptionally(
+                                    t -> {
+                                        logger.warn(
+                                                "Couldn't get archived recordings for {}",
+                                                targetId);
+                                        logger.warn(t);
+                                        return List.of();
+                                    });
         }
 
-        return recordings;
+        return active.thenCombine(
+                archived,
+                (a, b) -> {
+                    Recordings recordings = new Recordings();
+                    recordings.active = a;
+                    recordings.archived = b;
+                    return recordings;
+                });
+    }
+
+    private List<GraphRecordingDescriptor> getActive(ServiceRef target) throws Exception {
+        String targetId = target.getServiceUri().toString();
+        ConnectionDescriptor cd =
+                new ConnectionDescriptor(targetId, credentialsManager.getCredentials(target));
+        List<IRecordingDescriptor> descriptors =
+                targetConnectionManager.getRecordings(cd, Consistency.CACHED);
+        return targetConnectionManager.executeConnectedTask(
+                cd,
+                ConnectedTask.readOnly(
+                        conn -> {
+                            return descriptors.stream()
+                                    .map(
+                                            r -> {
+                                                try {
+                                                    String downloadUrl =
+                                                            webServer
+                                                                    .get()
+                                                                    .getDownloadURL(
+                                                                            conn, r.getName());
+                                                    String reportUrl =
+                                                            webServer
+                                                                    .get()
+                                                                    .getReportURL(
+                                                                            conn, r.getName());
+                                                    Metadata metadata =
+                                                            metadataManager.getMetadata(
+                                                                    cd, r.getName());
+                                                    return new GraphRecordingDescriptor(
+                                                            target,
+                                                            r,
+                                                            downloadUrl,
+                                                            reportUrl,
+                                                            metadata);
+                                                } catch (QuantityConversionException
+                                                        | URISyntaxException
+                                                        | IOException e) {
+                                                    logger.error(e);
+                                                    return null;
+                                                }
+                                            })
+                                    .filter(Objects::nonNull)
+                                    .collect(Collectors.toList());
+                        }));
     }
 
     static class Recordings {
@@ -0,0 +1,154 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net.web.http.api.v2.graph;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import io.cryostat.platform.ServiceRef;
+
+import graphql.schema.DataFetchingEnvironment;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderFactory;
+import org.dataloader.DataLoaderRegistry;
+import org.dataloader.Try;
+
+/**
+ * Runs the blocking per-target work of data fetchers, such as listing a target's active recordings
+ * over JMX, in parallel across targets. Within a query execution each kind of work is collected
+ * into a {@link DataLoader} batch, so a query selecting fields on many target nodes dispatches the
+ * work for all of those targets together, and work requested more than once for the same target is
+ * only performed once. The work runs on a bounded executor and each target's work is subject to its
+ * own timeout from when it is submitted, so a slow or unreachable target fails only its own fields
+ * rather than holding up the rest of the query.
+ */
+class TargetFanOut {
+
+    private final Executor executor;
+    private final Duration timeout;
+
+    TargetFanOut(Executor executor, Duration timeout) {
+        this.executor = executor;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param name identifies the kind of work, so that all loads of the same name in a query
+     *     execution are batched together
+     */
+    <V> CompletableFuture<V> load(
+            DataFetchingEnvironment environment,
+            String name,
+            ServiceRef target,
+            TargetTask<V> task) {
+        return load(environment, name, target, CompletableFuture.completedFuture(null), task);
+    }
+
+    /**
+     * As {@link #load(DataFetchingEnvironment, String, ServiceRef, TargetTask)}, but no work is
+     * started until the gate completes, ex. once the request's permissions have been checked, and
+     * the work fails with the gate if it fails. The load still joins the query's batch immediately.
+     */
+    <V> CompletableFuture<V> load(
+            DataFetchingEnvironment environment,
+            String name,
+            ServiceRef target,
+            CompletionStage<?> gate,
+            TargetTask<V> task) {
+        DataLoaderRegistry registry = environment.getDataLoaderRegistry();
+        if (registry == null) {
+            return submit(gate, () -> task.load(target));
+        }
+        DataLoader<ServiceRef, V> loader =
+                registry.computeIfAbsent(
+                        name,
+                        k ->
+                                DataLoaderFactory.<ServiceRef, V>newDataLoaderWithTry(
+                                        targets -> gate.thenCompose(v -> fanOut(targets, task))));
+        return loader.load(target);
+    }
+
+    /**
+     * Run a single task on the bounded executor. The task fails with a {@link
+     * java.util.concurrent.TimeoutException} if it has not completed within the per-target timeout
+     * of its submission, including any time spent waiting for an executor thread, and is then
+     * interrupted if it is still running.
+     */
+    <V> CompletableFuture<V> submit(Callable<V> task) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        FutureTask<V> ft =
+                new FutureTask<>(task) {
+                    @Override
+                    protected void done() {
+                        if (isCancelled()) {
+                            return;
+                        }
+                        try {
+                            future.complete(get());
+                        } catch (ExecutionException e) {
+                            future.completeExceptionally(e.getCause());
+                        } catch (Exception e) {
+                            future.completeExceptionally(e);
+                        }
+                    }
+                };
+        future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete(
+                        (v, t) -> {
+                            if (t != null) {
+                                ft.cancel(true);
+                            }
+                        });
+        try {
+            executor.execute(ft);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /** As {@link #submit(Callable)}, but the task is only submitted once the gate completes. */
+    <V> CompletableFuture<V> submit(CompletionStage<?> gate, Callable<V> task) {
+        return gate.thenCompose(v -> submit(task)).toCompletableFuture();
+    }
+
+    private <V> CompletionStage<List<Try<V>>> fanOut(List<ServiceRef> targets, TargetTask<V> task) {
+        List<CompletableFuture<Try<V>>> results = new ArrayList<>(targets.size());
+        for (ServiceRef target : targets) {
+            results.add(Try.tryFuture(submit(() -> task.load(target))));
+        }
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                .thenApply(
+                        v ->
+                                results.stream()
+                                        .map(CompletableFuture::join)
+                                        .collect(Collectors.toList()));
+    }
+
+    interface TargetTask<V> {
+        V load(ServiceRef target) throws Exception;
+    }
+}
@@ -36,6 +36,14 @@ public class EqualityMatcher implements LabelMatcher {
         return key;
     }
 
+    EqualityMatcher.Operator getOperator() {
+        return operator;
+    }
+
+    String getValue() {
+        return value;
+    }
+
     @Override
     public boolean test(String s) {
         return operator.with(value).test(s);
@@ -0,0 +1,134 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net.web.http.api.v2.graph.labels;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted index from label keys and values to the items carrying them. Equality, set membership
+ * and existence selectors are answered by looking up the items for the selected labels rather than
+ * testing the labels of every item, so that a selection costs time proportional to the number of
+ * items carrying those labels. Negated selectors cannot be answered this way, since they also match
+ * items without any indexed labels, and are only tested against the candidates found by the other
+ * selectors.
+ */
+public class LabelIndex<T> {
+
+    private final Map<String, Map<String, Set<T>>> index = new HashMap<>();
+    private final Map<T, Map<String, String>> labels = new HashMap<>();
+
+    public synchronized void put(T item, Map<String, String> labels) {
+        remove(item);
+        Map<String, String> copy = Map.copyOf(labels);
+        this.labels.put(item, copy);
+        copy.forEach(
+                (k, v) ->
+                        index.computeIfAbsent(k, key -> new HashMap<>())
+                                .computeIfAbsent(v, value -> new HashSet<>())
+                                .add(item));
+    }
+
+    public synchronized void remove(T item) {
+        Map<String, String> previous = labels.remove(item);
+        if (previous == null) {
+            return;
+        }
+        previous.forEach(
+                (k, v) -> {
+                    Map<String, Set<T>> values = index.get(k);
+                    if (values == null) {
+                        return;
+                    }
+                    Set<T> items = values.get(v);
+                    if (items != null) {
+                        items.remove(item);
+                        if (items.isEmpty()) {
+                            values.remove(v);
+                        }
+                    }
+                    if (values.isEmpty()) {
+                        index.remove(k);
+                    }
+                });
+    }
+
+    /**
+     * @return the items matching all of the given selectors, or empty if none of the selectors can
+     *     be answered from the index. In that case any item, including one which was never indexed,
+     *     may match and the caller must test each item itself.
+     */
+    public synchronized Optional<Set<T>> select(Collection<LabelSelectorMatcher> selectors) {
+        List<Set<T>> postings = new ArrayList<>();
+        for (LabelSelectorMatcher selector : selectors) {
+            for (LabelMatcher matcher : selector.getMatchers()) {
+                lookup(matcher).ifPresent(postings::add);
+            }
+        }
+        if (postings.isEmpty()) {
+            return Optional.empty();
+        }
+        // intersect starting from the smallest set so that the work done is bounded by it
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<T> candidates = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(postings.get(i));
+        }
+        return Optional.of(
+                candidates.stream()
+                        .filter(
+                                item ->
+                                        selectors.stream()
+                                                .allMatch(s -> s.test(labels.get(item))))
+                        .collect(Collectors.toSet()));
+    }
+
+    private Optional<Set<T>> lookup(LabelMatcher matcher) {
+        Map<String, Set<T>> values = index.getOrDefault(matcher.getKey(), Map.of());
+        if (matcher instanceof EqualityMatcher) {
+            EqualityMatcher equality = (EqualityMatcher) matcher;
+            switch (equality.getOperator()) {
+                case EQUAL:
+                case DOUBLE_EQUAL:
+                    return Optional.of(values.getOrDefault(equality.getValue(), Set.of()));
+                default:
+                    return Optional.empty();
+            }
+        } else if (matcher instanceof SetMatcher) {
+            SetMatcher set = (SetMatcher) matcher;
+            Set<T> items = new HashSet<>();
+            switch (set.getOperator()) {
+                case IN:
+                    set.getValues().forEach(v -> items.addAll(values.getOrDefault(v, Set.of())));
+                    return Optional.of(items);
+                case EXISTS:
+                    values.values().forEach(items::addAll);
+                    return Optional.of(items);
+                default:
+                    return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -16,6 +16,7 @@
 package io.cryostat.net.web.http.api.v2.graph.labels;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.function.Function;
@@ -42,6 +43,14 @@ public class SetMatcher implements LabelMatcher {
         return key;
     }
 
+    SetMatcher.Operator getOperator() {
+        return operator;
+    }
+
+    Set<String> getValues() {
+        return Collections.unmodifiableSet(values);
+    }
+
     @Override
     public boolean test(String s) {
         return operator.with(values).test(s);
@@ -15,7 +15,10 @@
  */
 package io.cryostat.platform;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Consumer;
 
 import io.cryostat.platform.discovery.EnvironmentNode;
@@ -41,6 +44,18 @@ public interface PlatformClient {
         return existingRef.isPresent();
     }
 
+    default Optional<ServiceRef> lookupServiceByJvmId(String jvmId) {
+        return listDiscoverableServices().stream()
+                .filter(sr -> Objects.equals(sr.getJvmId(), jvmId))
+                .findFirst();
+    }
+
+    default Optional<ServiceRef> lookupServiceByConnectUrl(URI connectUrl) {
+        return listDiscoverableServices().stream()
+                .filter(sr -> Objects.equals(sr.getServiceUri(), connectUrl))
+                .findFirst();
+    }
+
     void addTargetDiscoveryListener(Consumer<TargetDiscoveryEvent> listener);
 
     void removeTargetDiscoveryListener(Consumer<TargetDiscoveryEvent> listener);
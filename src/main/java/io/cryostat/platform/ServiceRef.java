@@ -78,6 +78,10 @@ public class ServiceRef {
         return Collections.unmodifiableMap(labels);
     }
 
+    public String getLabel(String key) {
+        return labels.get(key);
+    }
+
     public void setPlatformAnnotations(Map<String, String> annotations) {
         this.annotations.platform.clear();
         if (annotations == null) {
@@ -90,6 +94,10 @@ public class ServiceRef {
         return new HashMap<>(annotations.platform);
     }
 
+    public String getPlatformAnnotation(String key) {
+        return annotations.platform.get(key);
+    }
+
     public void setCryostatAnnotations(Map<AnnotationKey, String> annotations) {
         this.annotations.cryostat.clear();
         if (annotations == null) {
@@ -102,6 +110,10 @@ public class ServiceRef {
         return new HashMap<>(annotations.cryostat);
     }
 
+    public String getCryostatAnnotation(AnnotationKey key) {
+        return annotations.cryostat.get(key);
+    }
+
     @Override
     public boolean equals(Object other) {
         if (other == null) {
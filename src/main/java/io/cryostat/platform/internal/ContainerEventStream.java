@@ -0,0 +1,180 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.platform.internal;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import io.cryostat.core.log.Logger;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import dagger.Lazy;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.core.parsetools.JsonEventType;
+import io.vertx.core.parsetools.JsonParser;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.codec.BodyCodec;
+
+/**
+ * Subscribes to the container events of a Podman or Docker engine. The engine's {@code /events}
+ * endpoint holds the response open and writes one JSON object per event, which are parsed as they
+ * arrive and passed on for each container with the discovery label. Only the events which can
+ * change whether or how a container is discovered are requested. When the engine closes the
+ * stream or the request fails, the subscription is reopened after a delay, asking the engine to
+ * replay events since the last one seen so that none are missed while disconnected.
+ */
+class ContainerEventStream {
+
+    static final long RECONNECT_DELAY_MS = Duration.ofSeconds(5).toMillis();
+
+    private final Lazy<WebClient> webClient;
+    private final Lazy<Vertx> vertx;
+    private final SocketAddress socket;
+    private final String requestPath;
+    private final String label;
+    private final List<String> actions;
+    private final Gson gson;
+    private final Logger logger;
+    private final Consumer<String> containerHandler;
+    private final long reconnectDelayMs;
+
+    private volatile boolean running;
+    private volatile long since;
+    private volatile long reconnectTimerId = -1;
+
+    /**
+     * @param requestPath the engine's events endpoint, ex. {@code /v1.41/events}
+     * @param label the label of the containers to receive events for
+     * @param actions the container events to receive, ex. {@code start}, as named by the engine
+     * @param containerHandler called with the ID of each container an event is received for
+     * @param reconnectDelayMs the time to wait before reopening a closed or failed subscription
+     */
+    ContainerEventStream(
+            Lazy<WebClient> webClient,
+            Lazy<Vertx> vertx,
+            SocketAddress socket,
+            String requestPath,
+            String label,
+            List<String> actions,
+            Gson gson,
+            Logger logger,
+            Consumer<String> containerHandler,
+            long reconnectDelayMs) {
+        this.webClient = webClient;
+        this.vertx = vertx;
+        this.socket = socket;
+        this.requestPath = requestPath;
+        this.label = label;
+        this.actions = List.copyOf(actions);
+        this.gson = gson;
+        this.logger = logger;
+        this.containerHandler = containerHandler;
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+
+    /**
+     * @param since the time, in seconds since the epoch, from which events should be received.
+     *     This should be no later than the last full query of the engine's containers.
+     */
+    void start(long since) {
+        this.since = since;
+        this.running = true;
+        connect();
+    }
+
+    void stop() {
+        this.running = false;
+        if (reconnectTimerId >= 0) {
+            vertx.get().cancelTimer(reconnectTimerId);
+        }
+    }
+
+    private void connect() {
+        if (!running) {
+            return;
+        }
+        JsonParser parser = JsonParser.newParser().objectValueMode();
+        parser.handler(
+                event -> {
+                    if (event.type() == JsonEventType.VALUE) {
+                        handle(event.objectValue().encode());
+                    }
+                });
+        logger.info("Subscribing to container events at {} since {}", requestPath, since);
+        webClient
+                .get()
+                .request(HttpMethod.GET, socket, 80, "localhost", requestPath)
+                .addQueryParam("since", Long.toString(since))
+                .addQueryParam(
+                        "filters",
+                        gson.toJson(
+                                Map.of(
+                                        "type",
+                                        List.of("container"),
+                                        "label",
+                                        List.of(label),
+                                        "event",
+                                        actions)))
+                .as(BodyCodec.jsonStream(parser))
+                .send(
+                        ar -> {
+                            if (ar.failed()) {
+                                logger.warn("Container event stream failed: {}", ar.cause());
+                            } else {
+                                logger.info(
+                                        "Container event stream closed with status {}",
+                                        ar.result().statusCode());
+                            }
+                            if (running) {
+                                this.reconnectTimerId =
+                                        vertx.get()
+                                                .setTimer(
+                                                        reconnectDelayMs,
+                                                        id -> {
+                                                            this.reconnectTimerId = -1;
+                                                            connect();
+                                                        });
+                            }
+                        });
+    }
+
+    private void handle(String json) {
+        ContainerEvent event;
+        try {
+            event = gson.fromJson(json, ContainerEvent.class);
+        } catch (JsonSyntaxException e) {
+            logger.warn(e);
+            return;
+        }
+        if (event == null || event.Actor() == null || event.Actor().ID() == null) {
+            return;
+        }
+        logger.trace("Container {} event {}", event.Actor().ID(), event.Action());
+        // events within the same second may be replayed after reconnecting, which is harmless
+        // since each only causes the container to be queried again
+        this.since = Math.max(since, event.time());
+        containerHandler.accept(event.Actor().ID());
+    }
+
+    static record ContainerEvent(String Type, String Action, Actor Actor, long time) {}
+
+    static record Actor(String ID, Map<String, String> Attributes) {}
+}
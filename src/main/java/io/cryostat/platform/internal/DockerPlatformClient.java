@@ -29,6 +29,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import javax.management.remote.JMXServiceURL;
@@ -62,13 +63,20 @@ public class DockerPlatformClient extends AbstractPlatformClient {
     public static final String JMX_HOST_LABEL = "io.cryostat.jmxHost";
     public static final String JMX_PORT_LABEL = "io.cryostat.jmxPort";
 
+    // containers are only listed while running, so only events which start or end that, or
+    // change how the container is named, can change what is discovered
+    static final List<String> CONTAINER_EVENTS = List.of("start", "die", "destroy", "rename");
+
     private final Lazy<WebClient> webClient;
     private final Lazy<Vertx> vertx;
     private final SocketAddress dockerSocket;
+    private final boolean subscribeEvents;
+    private final long resyncPeriodMs;
     private final Lazy<JFRConnectionToolkit> connectionToolkit;
     private final Gson gson;
     private final Logger logger;
     private long timerId;
+    private ContainerEventStream eventStream;
 
     private final CopyOnWriteArrayList<ContainerSpec> containers = new CopyOnWriteArrayList<>();
 
@@ -76,12 +84,16 @@ public class DockerPlatformClient extends AbstractPlatformClient {
             Lazy<WebClient> webClient,
             Lazy<Vertx> vertx,
             SocketAddress dockerSocket,
+            boolean subscribeEvents,
+            long resyncPeriodMs,
             Lazy<JFRConnectionToolkit> connectionToolkit,
             Gson gson,
             Logger logger) {
         this.webClient = webClient;
         this.vertx = vertx;
         this.dockerSocket = dockerSocket;
+        this.subscribeEvents = subscribeEvents;
+        this.resyncPeriodMs = resyncPeriodMs;
         this.connectionToolkit = connectionToolkit;
         this.gson = gson;
         this.logger = logger;
@@ -90,18 +102,35 @@ public class DockerPlatformClient extends AbstractPlatformClient {
     @Override
     public void start() throws Exception {
         super.start();
+        long since = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
         queryContainers();
-        this.timerId =
-                vertx.get()
-                        .setPeriodic(
-                                // TODO make this configurable
-                                10_000, unused -> queryContainers());
+        if (subscribeEvents) {
+            // containers are updated as events arrive, so the full query only needs to catch
+            // anything the event stream has missed
+            this.eventStream =
+                    new ContainerEventStream(
+                            webClient,
+                            vertx,
+                            dockerSocket,
+                            "/v1.41/events",
+                            DISCOVERY_LABEL,
+                            CONTAINER_EVENTS,
+                            gson,
+                            logger,
+                            this::queryContainer,
+                            ContainerEventStream.RECONNECT_DELAY_MS);
+            eventStream.start(since);
+        }
+        this.timerId = vertx.get().setPeriodic(resyncPeriodMs, unused -> queryContainers());
     }
 
     @Override
     public void stop() throws Exception {
         super.stop();
         vertx.get().cancelTimer(timerId);
+        if (eventStream != null) {
+            eventStream.stop();
+        }
     }
 
     @Override
@@ -117,6 +146,7 @@ public class DockerPlatformClient extends AbstractPlatformClient {
 
     private void queryContainers() {
         doDockerListRequest(
+                Map.of("label", List.of(DISCOVERY_LABEL)),
                 current -> {
                     Set<ContainerSpec> previous = new HashSet<>(containers);
                     Set<ContainerSpec> updated = new HashSet<>(current);
@@ -147,12 +177,43 @@ public class DockerPlatformClient extends AbstractPlatformClient {
                 });
     }
 
-    private void doDockerListRequest(Consumer<List<ContainerSpec>> successHandler) {
+    private void queryContainer(String id) {
+        doDockerListRequest(
+                Map.of("label", List.of(DISCOVERY_LABEL), "id", List.of(id)),
+                current -> {
+                    Optional<ContainerSpec> previous =
+                            containers.stream().filter(c -> id.equals(c.Id)).findFirst();
+                    Optional<ContainerSpec> updated =
+                            current.stream().filter(c -> id.equals(c.Id)).findFirst();
+                    if (previous.equals(updated)) {
+                        return;
+                    }
+                    ServiceRef previousRef = previous.map(this::convert).orElse(null);
+                    previous.ifPresent(containers::remove);
+                    updated.ifPresent(containers::add);
+                    ServiceRef updatedRef = updated.map(this::convert).orElse(null);
+                    if (previousRef != null
+                            && updatedRef != null
+                            && previousRef.getServiceUri().equals(updatedRef.getServiceUri())) {
+                        notifyAsyncTargetDiscovery(EventKind.MODIFIED, updatedRef);
+                        return;
+                    }
+                    if (previousRef != null) {
+                        notifyAsyncTargetDiscovery(EventKind.LOST, previousRef);
+                    }
+                    if (updatedRef != null) {
+                        notifyAsyncTargetDiscovery(EventKind.FOUND, updatedRef);
+                    }
+                });
+    }
+
+    private void doDockerListRequest(
+            Map<String, List<String>> filters, Consumer<List<ContainerSpec>> successHandler) {
         URI requestPath = URI.create("http://d/v1.41/containers/json");
         webClient
                 .get()
                 .request(HttpMethod.GET, dockerSocket, 80, "localhost", requestPath.toString())
-                .addQueryParam("filters", gson.toJson(Map.of("label", List.of(DISCOVERY_LABEL))))
+                .addQueryParam("filters", gson.toJson(filters))
                 .timeout(2_000L)
                 .as(BodyCodec.string())
                 .send(
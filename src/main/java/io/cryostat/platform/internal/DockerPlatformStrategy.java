@@ -21,8 +21,10 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import io.cryostat.configuration.Variables;
 import io.cryostat.core.log.Logger;
 import io.cryostat.core.net.JFRConnectionToolkit;
+import io.cryostat.core.sys.Environment;
 import io.cryostat.core.sys.FileSystem;
 import io.cryostat.net.AuthManager;
 
@@ -37,6 +39,9 @@ import io.vertx.ext.web.codec.BodyCodec;
 
 class DockerPlatformStrategy implements PlatformDetectionStrategy<DockerPlatformClient> {
 
+    // the full container query is only a fallback while subscribed to events
+    private static final String DEFAULT_EVENTS_RESYNC_PERIOD_MS = "300000";
+    private static final String DEFAULT_POLL_PERIOD_MS = "10000";
     private static final String DOCKER_SOCKET_PATH = "/var/run/docker.sock";
     private final Logger logger;
     private final Lazy<? extends AuthManager> authMgr;
@@ -44,6 +49,7 @@ class DockerPlatformStrategy implements PlatformDetectionStrategy<DockerPlatform
     private final Lazy<Vertx> vertx;
     private final Lazy<JFRConnectionToolkit> connectionToolkit;
     private final Gson gson;
+    private final Environment env;
     private final FileSystem fs;
 
     DockerPlatformStrategy(
@@ -53,6 +59,7 @@ class DockerPlatformStrategy implements PlatformDetectionStrategy<DockerPlatform
             Lazy<Vertx> vertx,
             Lazy<JFRConnectionToolkit> connectionToolkit,
             Gson gson,
+            Environment env,
             FileSystem fs) {
         this.logger = logger;
         this.authMgr = authMgr;
@@ -60,6 +67,7 @@ class DockerPlatformStrategy implements PlatformDetectionStrategy<DockerPlatform
         this.vertx = vertx;
         this.connectionToolkit = connectionToolkit;
         this.gson = gson;
+        this.env = env;
         this.fs = fs;
     }
 
@@ -128,8 +136,22 @@ class DockerPlatformStrategy implements PlatformDetectionStrategy<DockerPlatform
     @Override
     public DockerPlatformClient getPlatformClient() {
         logger.info("Selected {} Strategy", getClass().getSimpleName());
+        boolean subscribeEvents =
+                Boolean.parseBoolean(env.getEnv(Variables.CONTAINER_EVENTS_ENABLED, "true"));
         return new DockerPlatformClient(
-                webClient, vertx, getSocket(), connectionToolkit, gson, logger);
+                webClient,
+                vertx,
+                getSocket(),
+                subscribeEvents,
+                Long.parseLong(
+                        env.getEnv(
+                                Variables.CONTAINER_RESYNC_PERIOD_MS,
+                                subscribeEvents
+                                        ? DEFAULT_EVENTS_RESYNC_PERIOD_MS
+                                        : DEFAULT_POLL_PERIOD_MS)),
+                connectionToolkit,
+                gson,
+                logger);
     }
 
     @Override
@@ -20,8 +20,10 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -49,12 +51,14 @@ import io.fabric8.kubernetes.api.model.EndpointPort;
 import io.fabric8.kubernetes.api.model.EndpointSubset;
 import io.fabric8.kubernetes.api.model.Endpoints;
 import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.ObjectReference;
 import io.fabric8.kubernetes.api.model.OwnerReference;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
 import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
 import org.apache.commons.lang3.concurrent.ConcurrentException;
 import org.apache.commons.lang3.concurrent.LazyInitializer;
 import org.apache.commons.lang3.tuple.Pair;
@@ -63,6 +67,16 @@ import org.apache.commons.lang3.tuple.Triple;
 public class KubeApiPlatformClient extends AbstractPlatformClient {
 
     private static final long ENDPOINTS_INFORMER_RESYNC_PERIOD = Duration.ofSeconds(30).toMillis();
+    // owner informers only serve as caches, so they are never resynced
+    private static final long OWNER_INFORMER_RESYNC_PERIOD = 0;
+    private static final Set<KubernetesNodeType> OWNER_TYPES =
+            EnumSet.of(
+                    KubernetesNodeType.POD,
+                    KubernetesNodeType.REPLICASET,
+                    KubernetesNodeType.REPLICATIONCONTROLLER,
+                    KubernetesNodeType.DEPLOYMENT,
+                    KubernetesNodeType.STATEFULSET,
+                    KubernetesNodeType.DAEMONSET);
     public static final String REALM = "KubernetesApi";
 
     private final KubernetesClient k8sClient;
@@ -80,6 +94,21 @@ public class KubeApiPlatformClient extends AbstractPlatformClient {
                     var result = new HashMap<String, SharedIndexInformer<Endpoints>>();
                     namespaces.forEach(
                             ns -> {
+                                // owners are informed first so that the Endpoints handler can
+                                // resolve the Pods it is notified about from the informer caches
+                                for (KubernetesNodeType type : OWNER_TYPES) {
+                                    try {
+                                        ownerInformers.put(
+                                                Pair.of(ns, type), informOwners(ns, type));
+                                    } catch (KubernetesClientException e) {
+                                        logger.warn(
+                                                "Could not start {} SharedInformer for namespace"
+                                                        + " \"{}\", falling back to queries: {}",
+                                                type,
+                                                ns,
+                                                e.getMessage());
+                                    }
+                                }
                                 result.put(
                                         ns,
                                         k8sClient
@@ -95,14 +124,13 @@ public class KubeApiPlatformClient extends AbstractPlatformClient {
                     return result;
                 }
             };
-    private Integer memoHash;
-    private EnvironmentNode memoTree;
+    private final Map<Pair<String, KubernetesNodeType>, SharedIndexInformer<? extends HasMetadata>>
+            ownerInformers = new ConcurrentHashMap<>();
+    // namespace subtrees are rebuilt only after an informer reports a change in that namespace
+    private final Map<String, EnvironmentNode> namespaceNodes = new ConcurrentHashMap<>();
+    private final Set<String> staleNamespaces = ConcurrentHashMap.newKeySet();
     private final Lazy<JFRConnectionToolkit> connectionToolkit;
     private final Logger logger;
-    private final Map<Triple<String, String, String>, Pair<HasMetadata, EnvironmentNode>>
-            discoveryNodeCache = new ConcurrentHashMap<>();
-    private final Map<Triple<String, String, String>, Object> queryLocks =
-            new ConcurrentHashMap<>();
 
     KubeApiPlatformClient(
             Collection<String> namespaces,
@@ -136,45 +164,50 @@ public class KubeApiPlatformClient extends AbstractPlatformClient {
 
     @Override
     public EnvironmentNode getDiscoveryTree() {
-        int currentHash = 0;
-        HashCodeBuilder hcb = new HashCodeBuilder();
-        Map<String, SharedIndexInformer<Endpoints>> informers = safeGetInformers();
-        for (var informer : informers.values()) {
-            List<Endpoints> store = informer.getStore().list();
-            hcb.append(store.hashCode());
-        }
-        currentHash = hcb.build();
-        if (Objects.equals(memoHash, currentHash)) {
-            logger.trace("Using memoized discovery tree");
-            return new EnvironmentNode(memoTree);
-        }
-        memoHash = currentHash;
         EnvironmentNode realmNode =
                 new EnvironmentNode(REALM, BaseNodeType.REALM, Collections.emptyMap(), Set.of());
-        informers
-                .entrySet()
+        safeGetInformers()
                 .forEach(
-                        entry -> {
-                            var namespace = entry.getKey();
-                            var store = entry.getValue().getStore().list();
-                            EnvironmentNode nsNode =
-                                    new EnvironmentNode(namespace, KubernetesNodeType.NAMESPACE);
-                            try {
-                                store.stream()
-                                        .flatMap(endpoints -> getTargetTuples(endpoints).stream())
-                                        .forEach(tuple -> buildOwnerChain(nsNode, tuple));
-                            } catch (Exception e) {
-                                logger.warn(e);
-                            } finally {
-                                discoveryNodeCache.clear();
-                                queryLocks.clear();
+                        (namespace, informer) -> {
+                            EnvironmentNode nsNode = namespaceNodes.get(namespace);
+                            // clear the mark before rebuilding, so that a change seen during the
+                            // rebuild marks the namespace again
+                            if (staleNamespaces.remove(namespace) || nsNode == null) {
+                                nsNode =
+                                        buildNamespaceNode(
+                                                namespace, informer.getStore().list());
+                                namespaceNodes.put(namespace, nsNode);
+                            } else {
+                                logger.trace(
+                                        "Using memoized discovery tree for namespace {}",
+                                        namespace);
                             }
-                            realmNode.addChildNode(nsNode);
+                            realmNode.addChildNode(new EnvironmentNode(nsNode));
                         });
-        memoTree = realmNode;
         return realmNode;
     }
 
+    private void invalidate(String namespace) {
+        if (namespace != null) {
+            staleNamespaces.add(namespace);
+        }
+    }
+
+    private EnvironmentNode buildNamespaceNode(String namespace, List<Endpoints> store) {
+        EnvironmentNode nsNode = new EnvironmentNode(namespace, KubernetesNodeType.NAMESPACE);
+        Map<Triple<String, String, String>, Pair<HasMetadata, EnvironmentNode>> nodes =
+                new HashMap<>();
+        Set<EnvironmentNode> linked = Collections.newSetFromMap(new IdentityHashMap<>());
+        try {
+            store.stream()
+                    .flatMap(endpoints -> getTargetTuples(endpoints).stream())
+                    .forEach(tuple -> buildOwnerChain(nsNode, tuple, nodes, linked));
+        } catch (Exception e) {
+            logger.warn(e);
+        }
+        return nsNode;
+    }
+
     private Map<String, SharedIndexInformer<Endpoints>> safeGetInformers() {
         Map<String, SharedIndexInformer<Endpoints>> informers;
         try {
@@ -185,7 +218,11 @@ public class KubeApiPlatformClient extends AbstractPlatformClient {
         return informers;
     }
 
-    private void buildOwnerChain(EnvironmentNode nsNode, TargetTuple targetTuple) {
+    private void buildOwnerChain(
+            EnvironmentNode nsNode,
+            TargetTuple targetTuple,
+            Map<Triple<String, String, String>, Pair<HasMetadata, EnvironmentNode>> nodes,
+            Set<EnvironmentNode> linked) {
         ObjectReference target = targetTuple.addr.getTargetRef();
         if (target == null) {
             logger.error(
@@ -203,24 +240,25 @@ public class KubeApiPlatformClient extends AbstractPlatformClient {
             // add that to the Namespace
 
             Pair<HasMetadata, EnvironmentNode> pod =
-                    discoveryNodeCache.computeIfAbsent(
+                    nodes.computeIfAbsent(
                             cacheKey(target.getNamespace(), target), this::queryForNode);
             pod.getRight()
                     .addChildNode(
                             new TargetNode(
                                     KubernetesNodeType.ENDPOINT, targetTuple.toServiceRef()));
 
+            // once a node is linked, the rest of its owner chain has already been built by an
+            // earlier target sharing it
             Pair<HasMetadata, EnvironmentNode> node = pod;
-            while (true) {
-                Pair<HasMetadata, EnvironmentNode> owner = getOrCreateOwnerNode(node);
+            while (linked.add(node.getRight())) {
+                Pair<HasMetadata, EnvironmentNode> owner = getOrCreateOwnerNode(node, nodes);
                 if (owner == null) {
+                    nsNode.addChildNode(node.getRight());
                     break;
                 }
-                EnvironmentNode ownerNode = owner.getRight();
-                ownerNode.addChildNode(node.getRight());
+                owner.getRight().addChildNode(node.getRight());
                 node = owner;
             }
-            nsNode.addChildNode(node.getRight());
         } else {
             // if the Endpoint points to something else(?) than a Pod, just add the target straight
             // to the Namespace
@@ -230,7 +268,8 @@ public class KubeApiPlatformClient extends AbstractPlatformClient {
     }
 
     private Pair<HasMetadata, EnvironmentNode> getOrCreateOwnerNode(
-            Pair<HasMetadata, EnvironmentNode> child) {
+            Pair<HasMetadata, EnvironmentNode> child,
+            Map<Triple<String, String, String>, Pair<HasMetadata, EnvironmentNode>> nodes) {
         HasMetadata childRef = child.getLeft();
         if (childRef == null) {
             logger.error(
@@ -251,7 +290,7 @@ public class KubeApiPlatformClient extends AbstractPlatformClient {
                         .filter(o -> KubernetesNodeType.fromKubernetesKind(o.getKind()) != null)
                         .findFirst()
                         .orElse(owners.get(0));
-        return discoveryNodeCache.computeIfAbsent(cacheKey(namespace, owner), this::queryForNode);
+        return nodes.computeIfAbsent(cacheKey(namespace, owner), this::queryForNode);
     }
 
     private Triple<String, String, String> cacheKey(String ns, OwnerReference resource) {
@@ -272,16 +311,64 @@ public class KubeApiPlatformClient extends AbstractPlatformClient {
         if (nodeType == null) {
             return null;
         }
-        synchronized (queryLocks.computeIfAbsent(lookupKey, k -> new Object())) {
-            EnvironmentNode node;
-            HasMetadata kubeObj =
-                    nodeType.getQueryFunction().apply(k8sClient).apply(namespace).apply(nodeName);
-            if (kubeObj != null) {
-                node = new EnvironmentNode(nodeName, nodeType, kubeObj.getMetadata().getLabels());
-            } else {
-                node = new EnvironmentNode(nodeName, nodeType);
-            }
-            return Pair.of(kubeObj, node);
+        EnvironmentNode node;
+        HasMetadata kubeObj = getResource(namespace, nodeType, nodeName);
+        if (kubeObj != null) {
+            node = new EnvironmentNode(nodeName, nodeType, kubeObj.getMetadata().getLabels());
+        } else {
+            node = new EnvironmentNode(nodeName, nodeType);
+        }
+        return Pair.of(kubeObj, node);
+    }
+
+    private HasMetadata getResource(String namespace, KubernetesNodeType nodeType, String name) {
+        SharedIndexInformer<? extends HasMetadata> informer =
+                ownerInformers.get(Pair.of(namespace, nodeType));
+        if (informer != null) {
+            return informer.getStore().getByKey(Cache.namespaceKeyFunc(namespace, name));
+        }
+        return nodeType.getQueryFunction().apply(k8sClient).apply(namespace).apply(name);
+    }
+
+    private SharedIndexInformer<? extends HasMetadata> informOwners(
+            String namespace, KubernetesNodeType type) {
+        switch (type) {
+            case POD:
+                return k8sClient
+                        .pods()
+                        .inNamespace(namespace)
+                        .inform(new OwnerHandler<>(), OWNER_INFORMER_RESYNC_PERIOD);
+            case REPLICASET:
+                return k8sClient
+                        .apps()
+                        .replicaSets()
+                        .inNamespace(namespace)
+                        .inform(new OwnerHandler<>(), OWNER_INFORMER_RESYNC_PERIOD);
+            case REPLICATIONCONTROLLER:
+                return k8sClient
+                        .replicationControllers()
+                        .inNamespace(namespace)
+                        .inform(new OwnerHandler<>(), OWNER_INFORMER_RESYNC_PERIOD);
+            case DEPLOYMENT:
+                return k8sClient
+                        .apps()
+                        .deployments()
+                        .inNamespace(namespace)
+                        .inform(new OwnerHandler<>(), OWNER_INFORMER_RESYNC_PERIOD);
+            case STATEFULSET:
+                return k8sClient
+                        .apps()
+                        .statefulSets()
+                        .inNamespace(namespace)
+                        .inform(new OwnerHandler<>(), OWNER_INFORMER_RESYNC_PERIOD);
+            case DAEMONSET:
+                return k8sClient
+                        .apps()
+                        .daemonSets()
+                        .inNamespace(namespace)
+                        .inform(new OwnerHandler<>(), OWNER_INFORMER_RESYNC_PERIOD);
+            default:
+                throw new IllegalArgumentException(type.getKind());
         }
     }
 
@@ -321,12 +408,19 @@ public class KubeApiPlatformClient extends AbstractPlatformClient {
     private final class EndpointsHandler implements ResourceEventHandler<Endpoints> {
         @Override
         public void onAdd(Endpoints endpoints) {
+            invalidate(endpoints.getMetadata().getNamespace());
             getServiceRefs(endpoints)
                     .forEach(serviceRef -> notifyAsyncTargetDiscovery(EventKind.FOUND, serviceRef));
         }
 
         @Override
         public void onUpdate(Endpoints oldEndpoints, Endpoints newEndpoints) {
+            // resyncs redeliver the same object, which leaves the namespace subtree valid
+            if (!Objects.equals(
+                    oldEndpoints.getMetadata().getResourceVersion(),
+                    newEndpoints.getMetadata().getResourceVersion())) {
+                invalidate(newEndpoints.getMetadata().getNamespace());
+            }
             Set<ServiceRef> previousRefs = new HashSet<>(getServiceRefs(oldEndpoints));
             Set<ServiceRef> currentRefs = new HashSet<>(getServiceRefs(newEndpoints));
 
@@ -346,6 +440,7 @@ public class KubeApiPlatformClient extends AbstractPlatformClient {
 
         @Override
         public void onDelete(Endpoints endpoints, boolean deletedFinalStateUnknown) {
+            invalidate(endpoints.getMetadata().getNamespace());
             if (deletedFinalStateUnknown) {
                 logger.warn("Deleted final state unknown: {}", endpoints);
                 return;
@@ -355,6 +450,31 @@ public class KubeApiPlatformClient extends AbstractPlatformClient {
         }
     }
 
+    private final class OwnerHandler<T extends HasMetadata> implements ResourceEventHandler<T> {
+        @Override
+        public void onAdd(T obj) {
+            invalidate(obj.getMetadata().getNamespace());
+        }
+
+        @Override
+        public void onUpdate(T oldObj, T newObj) {
+            // status updates, ex. when a ReplicaSet scales, do not change the discovery tree
+            ObjectMeta oldMeta = oldObj.getMetadata();
+            ObjectMeta newMeta = newObj.getMetadata();
+            if (!Objects.equals(oldMeta.getLabels(), newMeta.getLabels())
+                    || !Objects.equals(oldMeta.getAnnotations(), newMeta.getAnnotations())
+                    || !Objects.equals(
+                            oldMeta.getOwnerReferences(), newMeta.getOwnerReferences())) {
+                invalidate(newMeta.getNamespace());
+            }
+        }
+
+        @Override
+        public void onDelete(T obj, boolean deletedFinalStateUnknown) {
+            invalidate(obj.getMetadata().getNamespace());
+        }
+    }
+
     private class TargetTuple {
         ObjectReference objRef;
         EndpointAddress addr;
@@ -367,14 +487,21 @@ public class KubeApiPlatformClient extends AbstractPlatformClient {
         }
 
         ServiceRef toServiceRef() {
-            Pair<HasMetadata, EnvironmentNode> node =
-                    discoveryNodeCache.computeIfAbsent(
-                            cacheKey(objRef.getNamespace(), objRef),
-                            KubeApiPlatformClient.this::queryForNode);
-            HasMetadata podRef = node.getLeft();
-            if (node.getRight().getNodeType() != KubernetesNodeType.POD) {
+            if (KubernetesNodeType.fromKubernetesKind(objRef.getKind())
+                    != KubernetesNodeType.POD) {
                 throw new IllegalStateException();
             }
+            HasMetadata podRef =
+                    getResource(objRef.getNamespace(), KubernetesNodeType.POD, objRef.getName());
+            if (podRef == null) {
+                // the Pod informer may not have seen a new Pod yet when its Endpoints are updated
+                podRef =
+                        KubernetesNodeType.POD
+                                .getQueryFunction()
+                                .apply(k8sClient)
+                                .apply(objRef.getNamespace())
+                                .apply(objRef.getName());
+            }
             if (podRef == null) {
                 throw new IllegalStateException();
             }
@@ -96,9 +96,10 @@ public abstract class PlatformStrategyModule {
             Lazy<Vertx> vertx,
             Lazy<JFRConnectionToolkit> connectionToolkit,
             Gson gson,
+            Environment env,
             FileSystem fs) {
         return new PodmanPlatformStrategy(
-                logger, noopAuthManager, webClient, vertx, connectionToolkit, gson, fs);
+                logger, noopAuthManager, webClient, vertx, connectionToolkit, gson, env, fs);
     }
 
     @Provides
@@ -110,9 +111,10 @@ public abstract class PlatformStrategyModule {
             Lazy<Vertx> vertx,
             Lazy<JFRConnectionToolkit> connectionToolkit,
             Gson gson,
+            Environment env,
             FileSystem fs) {
         return new DockerPlatformStrategy(
-                logger, noopAuthManager, webClient, vertx, connectionToolkit, gson, fs);
+                logger, noopAuthManager, webClient, vertx, connectionToolkit, gson, env, fs);
     }
 
     @Provides
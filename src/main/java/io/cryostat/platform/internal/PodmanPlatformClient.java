@@ -69,14 +69,20 @@ public class PodmanPlatformClient extends AbstractPlatformClient {
     public static final String JMX_HOST_LABEL = "io.cryostat.jmxHost";
     public static final String JMX_PORT_LABEL = "io.cryostat.jmxPort";
 
+    // the libpod names of the events which start or end a running container, or rename it
+    static final List<String> CONTAINER_EVENTS = List.of("start", "died", "remove", "rename");
+
     private final ExecutorService executor;
     private final Lazy<WebClient> webClient;
     private final Lazy<Vertx> vertx;
     private final SocketAddress podmanSocket;
+    private final boolean subscribeEvents;
+    private final long resyncPeriodMs;
     private final Lazy<JFRConnectionToolkit> connectionToolkit;
     private final Gson gson;
     private final Logger logger;
     private long timerId;
+    private ContainerEventStream eventStream;
 
     private final CopyOnWriteArrayList<ContainerSpec> containers = new CopyOnWriteArrayList<>();
 
@@ -85,6 +91,8 @@ public class PodmanPlatformClient extends AbstractPlatformClient {
             Lazy<WebClient> webClient,
             Lazy<Vertx> vertx,
             SocketAddress podmanSocket,
+            boolean subscribeEvents,
+            long resyncPeriodMs,
             Lazy<JFRConnectionToolkit> connectionToolkit,
             Gson gson,
             Logger logger) {
@@ -92,6 +100,8 @@ public class PodmanPlatformClient extends AbstractPlatformClient {
         this.webClient = webClient;
         this.vertx = vertx;
         this.podmanSocket = podmanSocket;
+        this.subscribeEvents = subscribeEvents;
+        this.resyncPeriodMs = resyncPeriodMs;
         this.connectionToolkit = connectionToolkit;
         this.gson = gson;
         this.logger = logger;
@@ -100,18 +110,35 @@ public class PodmanPlatformClient extends AbstractPlatformClient {
     @Override
     public void start() throws Exception {
         super.start();
+        long since = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
         queryContainers();
-        this.timerId =
-                vertx.get()
-                        .setPeriodic(
-                                // TODO make this configurable
-                                10_000, unused -> queryContainers());
+        if (subscribeEvents) {
+            // containers are updated as events arrive, so the full query only needs to catch
+            // anything the event stream has missed
+            this.eventStream =
+                    new ContainerEventStream(
+                            webClient,
+                            vertx,
+                            podmanSocket,
+                            "/v3.0.0/libpod/events",
+                            DISCOVERY_LABEL,
+                            CONTAINER_EVENTS,
+                            gson,
+                            logger,
+                            this::queryContainer,
+                            ContainerEventStream.RECONNECT_DELAY_MS);
+            eventStream.start(since);
+        }
+        this.timerId = vertx.get().setPeriodic(resyncPeriodMs, unused -> queryContainers());
     }
 
     @Override
     public void stop() throws Exception {
         super.stop();
         vertx.get().cancelTimer(timerId);
+        if (eventStream != null) {
+            eventStream.stop();
+        }
     }
 
     @Override
@@ -127,6 +154,7 @@ public class PodmanPlatformClient extends AbstractPlatformClient {
 
     private void queryContainers() {
         doPodmanListRequest(
+                Map.of("label", List.of(DISCOVERY_LABEL)),
                 current -> {
                     Set<ContainerSpec> previous = new HashSet<>(containers);
                     Set<ContainerSpec> updated = new HashSet<>(current);
@@ -157,12 +185,43 @@ public class PodmanPlatformClient extends AbstractPlatformClient {
                 });
     }
 
-    private void doPodmanListRequest(Consumer<List<ContainerSpec>> successHandler) {
+    private void queryContainer(String id) {
+        doPodmanListRequest(
+                Map.of("label", List.of(DISCOVERY_LABEL), "id", List.of(id)),
+                current -> {
+                    Optional<ContainerSpec> previous =
+                            containers.stream().filter(c -> id.equals(c.Id)).findFirst();
+                    Optional<ContainerSpec> updated =
+                            current.stream().filter(c -> id.equals(c.Id)).findFirst();
+                    if (previous.equals(updated)) {
+                        return;
+                    }
+                    ServiceRef previousRef = previous.map(this::convert).orElse(null);
+                    previous.ifPresent(containers::remove);
+                    updated.ifPresent(containers::add);
+                    ServiceRef updatedRef = updated.map(this::convert).orElse(null);
+                    if (previousRef != null
+                            && updatedRef != null
+                            && previousRef.getServiceUri().equals(updatedRef.getServiceUri())) {
+                        notifyAsyncTargetDiscovery(EventKind.MODIFIED, updatedRef);
+                        return;
+                    }
+                    if (previousRef != null) {
+                        notifyAsyncTargetDiscovery(EventKind.LOST, previousRef);
+                    }
+                    if (updatedRef != null) {
+                        notifyAsyncTargetDiscovery(EventKind.FOUND, updatedRef);
+                    }
+                });
+    }
+
+    private void doPodmanListRequest(
+            Map<String, List<String>> filters, Consumer<List<ContainerSpec>> successHandler) {
         URI requestPath = URI.create("http://d/v3.0.0/libpod/containers/json");
         webClient
                 .get()
                 .request(HttpMethod.GET, podmanSocket, 80, "localhost", requestPath.toString())
-                .addQueryParam("filters", gson.toJson(Map.of("label", List.of(DISCOVERY_LABEL))))
+                .addQueryParam("filters", gson.toJson(filters))
                 .timeout(2_000L)
                 .as(BodyCodec.string())
                 .send(
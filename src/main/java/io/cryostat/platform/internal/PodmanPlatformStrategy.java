@@ -22,8 +22,10 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import io.cryostat.configuration.Variables;
 import io.cryostat.core.log.Logger;
 import io.cryostat.core.net.JFRConnectionToolkit;
+import io.cryostat.core.sys.Environment;
 import io.cryostat.core.sys.FileSystem;
 import io.cryostat.net.AuthManager;
 
@@ -39,12 +41,17 @@ import io.vertx.ext.web.codec.BodyCodec;
 
 class PodmanPlatformStrategy implements PlatformDetectionStrategy<PodmanPlatformClient> {
 
+    // without events the container list is polled, so it is queried more often by default
+    private static final String DEFAULT_EVENTS_RESYNC_PERIOD_MS = "300000";
+    private static final String DEFAULT_POLL_PERIOD_MS = "10000";
+
     private final Logger logger;
     private final Lazy<? extends AuthManager> authMgr;
     private final Lazy<WebClient> webClient;
     private final Lazy<Vertx> vertx;
     private final Lazy<JFRConnectionToolkit> connectionToolkit;
     private final Gson gson;
+    private final Environment env;
     private final FileSystem fs;
 
     PodmanPlatformStrategy(
@@ -54,6 +61,7 @@ class PodmanPlatformStrategy implements PlatformDetectionStrategy<PodmanPlatform
             Lazy<Vertx> vertx,
             Lazy<JFRConnectionToolkit> connectionToolkit,
             Gson gson,
+            Environment env,
             FileSystem fs) {
         this.logger = logger;
         this.authMgr = authMgr;
@@ -61,6 +69,7 @@ class PodmanPlatformStrategy implements PlatformDetectionStrategy<PodmanPlatform
         this.vertx = vertx;
         this.connectionToolkit = connectionToolkit;
         this.gson = gson;
+        this.env = env;
         this.fs = fs;
     }
 
@@ -129,11 +138,20 @@ class PodmanPlatformStrategy implements PlatformDetectionStrategy<PodmanPlatform
     @Override
     public PodmanPlatformClient getPlatformClient() {
         logger.info("Selected {} Strategy", getClass().getSimpleName());
+        boolean subscribeEvents =
+                Boolean.parseBoolean(env.getEnv(Variables.CONTAINER_EVENTS_ENABLED, "true"));
         return new PodmanPlatformClient(
                 Executors.newSingleThreadExecutor(),
                 webClient,
                 vertx,
                 getSocket(),
+                subscribeEvents,
+                Long.parseLong(
+                        env.getEnv(
+                                Variables.CONTAINER_RESYNC_PERIOD_MS,
+                                subscribeEvents
+                                        ? DEFAULT_EVENTS_RESYNC_PERIOD_MS
+                                        : DEFAULT_POLL_PERIOD_MS)),
                 connectionToolkit,
                 gson,
                 logger);
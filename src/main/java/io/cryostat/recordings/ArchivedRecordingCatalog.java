@@ -0,0 +1,475 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.recordings;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import io.cryostat.core.log.Logger;
+import io.cryostat.core.sys.FileSystem;
+
+/**
+ * In-memory index of the archived recordings directory. Each archive subdirectory (one per JVM ID,
+ * plus the special uploads and lost locations) is listed from disk at most once, either lazily on
+ * first access or eagerly by {@link #rebuild()} at startup, and is afterward kept up to date by
+ * {@link RecordingArchiveHelper} as it saves and deletes archived recordings. Listing archives and
+ * resolving recording paths can then be answered without walking the filesystem. Listings and file
+ * lookups are made without holding the catalog's lock, so that slow storage does not block readers.
+ */
+class ArchivedRecordingCatalog {
+
+    private final FileSystem fs;
+    private final Path archivedRecordingsPath;
+    private final Function<String, String> subdirectoryNameToJvmId;
+    private final Logger logger;
+
+    // insertion-ordered to preserve the directory listing order of the archives
+    private final Map<String, Directory> directories = new LinkedHashMap<>();
+    private final Map<String, Map<String, Entry>> entriesByFilename = new LinkedHashMap<>();
+    private boolean complete;
+    // counts changes which a listing of a subdirectory that is in progress may have missed
+    private long generation;
+
+    ArchivedRecordingCatalog(
+            FileSystem fs,
+            Path archivedRecordingsPath,
+            Function<String, String> subdirectoryNameToJvmId,
+            Logger logger) {
+        this.fs = fs;
+        this.archivedRecordingsPath = archivedRecordingsPath;
+        this.subdirectoryNameToJvmId = subdirectoryNameToJvmId;
+        this.logger = logger;
+    }
+
+    void rebuild() throws IOException {
+        synchronized (this) {
+            directories.clear();
+            entriesByFilename.clear();
+            complete = false;
+            generation++;
+        }
+        loadAll();
+    }
+
+    List<Directory> getDirectories() throws IOException {
+        loadAll();
+        synchronized (this) {
+            return new ArrayList<>(directories.values());
+        }
+    }
+
+    Optional<Directory> getDirectory(String subdirectoryName) throws IOException {
+        synchronized (this) {
+            Directory directory = directories.get(subdirectoryName);
+            if (directory != null || complete) {
+                return Optional.ofNullable(directory);
+            }
+        }
+        return Optional.ofNullable(load(subdirectoryName));
+    }
+
+    synchronized Optional<Entry> get(String subdirectoryName, String filename) {
+        Directory directory = directories.get(subdirectoryName);
+        if (directory == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(directory.entries.get(filename));
+    }
+
+    // A miss may be a recording that was placed into the archives by some means other than
+    // Cryostat itself, so the single file is looked up on disk rather than re-listing the whole
+    // subdirectory. Requests for recordings which do not exist cost one lookup each.
+    Optional<Entry> find(String subdirectoryName, String filename) throws IOException {
+        Optional<Entry> entry = get(subdirectoryName, filename);
+        if (entry.isPresent()) {
+            return entry;
+        }
+        Directory directory = load(subdirectoryName);
+        if (directory == null) {
+            return Optional.empty();
+        }
+        entry = get(subdirectoryName, filename);
+        return entry.isPresent() ? entry : probe(directory, filename);
+    }
+
+    Optional<Entry> find(String filename) throws IOException {
+        loadAll();
+        Optional<Entry> entry = firstByFilename(filename);
+        if (entry.isPresent()) {
+            return entry;
+        }
+        // list only the top level of the archives to pick up any new subdirectories, then look
+        // for the single file in each
+        for (String subdirectoryName : fs.listDirectoryChildren(archivedRecordingsPath)) {
+            Directory directory = load(subdirectoryName);
+            if (directory == null) {
+                continue;
+            }
+            entry = get(subdirectoryName, filename);
+            if (entry.isEmpty()) {
+                entry = probe(directory, filename);
+            }
+            if (entry.isPresent()) {
+                return entry;
+            }
+        }
+        return Optional.empty();
+    }
+
+    synchronized List<Entry> getEntries(Directory directory) {
+        return new ArrayList<>(directory.entries.values());
+    }
+
+    Entry add(
+            String subdirectoryName,
+            String jvmId,
+            String filename,
+            Path path,
+            long size,
+            long archivedTime) {
+        boolean listed;
+        synchronized (this) {
+            listed = complete || directories.containsKey(subdirectoryName);
+        }
+        if (!listed) {
+            try {
+                // the subdirectory may already hold other recordings that have not been listed yet
+                load(subdirectoryName);
+            } catch (IOException e) {
+                logger.warn(e);
+            }
+        }
+        synchronized (this) {
+            Directory directory =
+                    directories.computeIfAbsent(
+                            subdirectoryName, k -> new Directory(subdirectoryName, jvmId));
+            Entry entry =
+                    new Entry(
+                            subdirectoryName, directory.jvmId, filename, path, size, archivedTime);
+            put(directory, entry);
+            return entry;
+        }
+    }
+
+    Entry add(String subdirectoryName, String filename) {
+        Path path =
+                archivedRecordingsPath
+                        .resolve(subdirectoryName)
+                        .resolve(filename)
+                        .normalize()
+                        .toAbsolutePath();
+        BasicFileAttributes attrs = readAttributes(path);
+        return add(
+                subdirectoryName,
+                subdirectoryNameToJvmId.apply(subdirectoryName),
+                filename,
+                path,
+                getSize(attrs),
+                getArchivedTime(attrs));
+    }
+
+    synchronized Optional<Entry> remove(String subdirectoryName, String filename) {
+        Directory directory = directories.get(subdirectoryName);
+        if (directory == null) {
+            // a listing of the subdirectory which is in progress may still include the file
+            generation++;
+            return Optional.empty();
+        }
+        Entry entry = directory.entries.remove(filename);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        Map<String, Entry> byFilename = entriesByFilename.get(filename);
+        if (byFilename != null) {
+            byFilename.remove(subdirectoryName);
+            if (byFilename.isEmpty()) {
+                entriesByFilename.remove(filename);
+            }
+        }
+        return Optional.of(entry);
+    }
+
+    synchronized void invalidate(String subdirectoryName) {
+        generation++;
+        Directory directory = directories.remove(subdirectoryName);
+        if (directory == null) {
+            return;
+        }
+        for (String filename : directory.entries.keySet()) {
+            Map<String, Entry> byFilename = entriesByFilename.get(filename);
+            if (byFilename != null) {
+                byFilename.remove(subdirectoryName);
+                if (byFilename.isEmpty()) {
+                    entriesByFilename.remove(filename);
+                }
+            }
+        }
+        complete = false;
+    }
+
+    private Optional<Entry> probe(Directory directory, String filename) {
+        if (filename.equals(RecordingArchiveHelper.CONNECT_URL) || !isPlainName(filename)) {
+            return Optional.empty();
+        }
+        Path root = archivedRecordingsPath.normalize().toAbsolutePath();
+        Path path =
+                archivedRecordingsPath
+                        .resolve(directory.subdirectoryName)
+                        .resolve(filename)
+                        .normalize()
+                        .toAbsolutePath();
+        // the names come from request paths, so never look outside of the archives
+        if (!path.startsWith(root) || path.equals(root)) {
+            return Optional.empty();
+        }
+        if (!fs.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        Entry entry = newEntry(directory, filename, path);
+        synchronized (this) {
+            if (directories.get(directory.subdirectoryName) != directory) {
+                // invalidated while the file was looked up
+                return Optional.of(entry);
+            }
+            Entry existing = directory.entries.get(filename);
+            if (existing != null) {
+                return Optional.of(existing);
+            }
+            put(directory, entry);
+        }
+        return Optional.of(entry);
+    }
+
+    private synchronized Optional<Entry> firstByFilename(String filename) {
+        Map<String, Entry> byFilename = entriesByFilename.get(filename);
+        if (byFilename == null || byFilename.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(byFilename.values().iterator().next());
+    }
+
+    // callers must hold this object's lock
+    private void put(Directory directory, Entry entry) {
+        directory.entries.put(entry.filename, entry);
+        entriesByFilename
+                .computeIfAbsent(entry.filename, k -> new LinkedHashMap<>())
+                .put(entry.subdirectoryName, entry);
+    }
+
+    private void loadAll() throws IOException {
+        long startGeneration;
+        synchronized (this) {
+            if (complete) {
+                return;
+            }
+            startGeneration = generation;
+        }
+        for (String subdirectoryName : fs.listDirectoryChildren(archivedRecordingsPath)) {
+            load(subdirectoryName);
+        }
+        synchronized (this) {
+            if (generation == startGeneration) {
+                complete = true;
+            }
+        }
+    }
+
+    /**
+     * Get the catalogued subdirectory, listing it from disk if it has not been yet. The listing is
+     * done without holding this object's lock and swapped in afterward, unless the catalog was
+     * changed in a way which the listing may have missed, in which case it is listed again.
+     */
+    private Directory load(String subdirectoryName) throws IOException {
+        if (RecordingArchiveHelper.TEMP_UPLOADS_SUBDIRECTORY.equals(subdirectoryName)
+                || !isPlainName(subdirectoryName)) {
+            return null;
+        }
+        while (true) {
+            long startGeneration;
+            synchronized (this) {
+                Directory directory = directories.get(subdirectoryName);
+                if (directory != null) {
+                    return directory;
+                }
+                startGeneration = generation;
+            }
+            Directory scanned = scan(subdirectoryName);
+            synchronized (this) {
+                Directory directory = directories.get(subdirectoryName);
+                if (directory != null) {
+                    // loaded or added to concurrently
+                    return directory;
+                }
+                if (generation == startGeneration) {
+                    if (scanned != null) {
+                        directories.put(subdirectoryName, scanned);
+                        for (Entry entry : scanned.entries.values()) {
+                            entriesByFilename
+                                    .computeIfAbsent(entry.filename, k -> new LinkedHashMap<>())
+                                    .put(subdirectoryName, entry);
+                        }
+                    }
+                    return scanned;
+                }
+            }
+        }
+    }
+
+    private Directory scan(String subdirectoryName) throws IOException {
+        Path subdirectory = archivedRecordingsPath.resolve(subdirectoryName);
+        if (!fs.exists(subdirectory)) {
+            return null;
+        }
+        Directory directory =
+                new Directory(subdirectoryName, subdirectoryNameToJvmId.apply(subdirectoryName));
+        for (String file : fs.listDirectoryChildren(subdirectory)) {
+            if (file.equals(RecordingArchiveHelper.CONNECT_URL)) {
+                continue;
+            }
+            Path path = subdirectory.resolve(file).normalize().toAbsolutePath();
+            Entry entry = newEntry(directory, file, path);
+            directory.entries.put(file, entry);
+        }
+        logger.trace(
+                "Catalogued {} archived recordings in {}",
+                directory.entries.size(),
+                subdirectoryName);
+        return directory;
+    }
+
+    private static boolean isPlainName(String name) {
+        return !name.isEmpty()
+                && !name.equals(".")
+                && !name.equals("..")
+                && name.indexOf('/') < 0
+                && name.indexOf(File.separatorChar) < 0;
+    }
+
+    private Entry newEntry(Directory directory, String filename, Path path) {
+        BasicFileAttributes attrs = readAttributes(path);
+        return new Entry(
+                directory.subdirectoryName,
+                directory.jvmId,
+                filename,
+                path,
+                getSize(attrs),
+                getArchivedTime(attrs));
+    }
+
+    private BasicFileAttributes readAttributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            logger.error("Invalid path: {}", path);
+            return null;
+        }
+    }
+
+    private static long getSize(BasicFileAttributes attrs) {
+        return attrs == null ? 0 : attrs.size();
+    }
+
+    private static long getArchivedTime(BasicFileAttributes attrs) {
+        return attrs == null ? 0 : attrs.creationTime().toMillis();
+    }
+
+    static class Directory {
+        private final String subdirectoryName;
+        private final String jvmId;
+        private final Map<String, Entry> entries = new LinkedHashMap<>();
+        private volatile String connectUrl;
+
+        Directory(String subdirectoryName, String jvmId) {
+            this.subdirectoryName = subdirectoryName;
+            this.jvmId = jvmId;
+        }
+
+        String getSubdirectoryName() {
+            return subdirectoryName;
+        }
+
+        String getJvmId() {
+            return jvmId;
+        }
+
+        Optional<String> getConnectUrl() {
+            return Optional.ofNullable(connectUrl);
+        }
+
+        void setConnectUrl(String connectUrl) {
+            this.connectUrl = connectUrl;
+        }
+    }
+
+    // jvmId and filename together are the key for the recording's labels in the
+    // RecordingMetadataManager
+    static class Entry {
+        private final String subdirectoryName;
+        private final String jvmId;
+        private final String filename;
+        private final Path path;
+        private final long size;
+        private final long archivedTime;
+
+        Entry(
+                String subdirectoryName,
+                String jvmId,
+                String filename,
+                Path path,
+                long size,
+                long archivedTime) {
+            this.subdirectoryName = subdirectoryName;
+            this.jvmId = jvmId;
+            this.filename = filename;
+            this.path = path;
+            this.size = size;
+            this.archivedTime = archivedTime;
+        }
+
+        String getSubdirectoryName() {
+            return subdirectoryName;
+        }
+
+        String getJvmId() {
+            return jvmId;
+        }
+
+        String getFilename() {
+            return filename;
+        }
+
+        Path getPath() {
+            return path;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        long getArchivedTime() {
+            return archivedTime;
+        }
+    }
+}
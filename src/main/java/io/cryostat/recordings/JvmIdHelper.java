@@ -16,10 +16,7 @@
 package io.cryostat.recordings;
 
 import java.io.IOException;
-import java.net.URI;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -57,7 +54,9 @@ public class JvmIdHelper extends AbstractEventEmitter<JvmIdHelper.IdEvent, Strin
     private final Logger logger;
 
     private final AsyncLoadingCache<String, String> ids;
-    private final Map<String, ServiceRef> reverse;
+    // the targets whose JVM IDs are cached and which have been seen in discovery, so that their
+    // ServiceRefs can be found by JVM ID. Entries are removed along with the cached IDs.
+    private final JvmIdIndex index = new JvmIdIndex();
 
     JvmIdHelper(
             TargetConnectionManager targetConnectionManager,
@@ -78,7 +77,14 @@ public class JvmIdHelper extends AbstractEventEmitter<JvmIdHelper.IdEvent, Strin
                         .executor(executor)
                         .scheduler(scheduler)
                         .<String, String>removalListener(
-                                (targetId, jvmId, cause) -> emit(IdEvent.INVALIDATED, jvmId))
+                                (targetId, jvmId, cause) -> {
+                                    // explicit removals update the index directly, since this
+                                    // listener runs later and may race a newer entry
+                                    if (cause.wasEvicted()) {
+                                        index.remove(targetId, jvmId);
+                                    }
+                                    emit(IdEvent.INVALIDATED, jvmId);
+                                })
                         .buildAsync(new IdLoader());
 
         platform.addTargetDiscoveryListener(
@@ -86,6 +92,7 @@ public class JvmIdHelper extends AbstractEventEmitter<JvmIdHelper.IdEvent, Strin
                     switch (tde.getEventKind()) {
                         case LOST:
                             String targetId = tde.getServiceRef().getServiceUri().toString();
+                            index.remove(targetId);
                             ids.synchronous().invalidate(targetId);
                             break;
                         default:
@@ -93,54 +100,87 @@ public class JvmIdHelper extends AbstractEventEmitter<JvmIdHelper.IdEvent, Strin
                             break;
                     }
                 });
-        this.reverse = new HashMap<>();
     }
 
     private boolean observe(ServiceRef sr) {
         if (StringUtils.isBlank(sr.getJvmId())) {
             return false;
         }
-        reverse.put(sr.getJvmId(), sr);
-        ids.put(sr.getServiceUri().toString(), CompletableFuture.completedFuture(sr.getJvmId()));
+        String targetId = sr.getServiceUri().toString();
+        index.put(sr);
+        // replacing the cached ID notifies the removal listener, which would report the
+        // unchanged ID as invalidated
+        if (!Objects.equals(getCachedId(targetId).orElse(null), sr.getJvmId())) {
+            ids.put(targetId, CompletableFuture.completedFuture(sr.getJvmId()));
+        }
         return true;
     }
 
     // Use dao directly since refs resolve before listDiscoverableServices is populated
     public ServiceRef resolveId(ServiceRef sr) throws JvmIdGetException {
+        try {
+            return resolveIdAsync(sr).get();
+        } catch (InterruptedException | ExecutionException e) {
+            String uriStr = sr.getServiceUri().toString();
+            logger.warn("Could not resolve jvmId for target {}", uriStr);
+            throw new JvmIdGetException(e, uriStr);
+        }
+    }
+
+    /**
+     * @return the given target with its JVM ID, if it already has one or one has already been
+     *     resolved for its service URI. This never connects to the target.
+     */
+    public Optional<ServiceRef> resolveIdIfKnown(ServiceRef sr) {
+        if (observe(sr)) {
+            return Optional.of(sr);
+        }
+        return getCachedId(sr.getServiceUri().toString()).map(id -> withJvmId(sr, id));
+    }
+
+    public CompletableFuture<ServiceRef> resolveIdAsync(ServiceRef sr) {
         if (observe(sr)) {
-            return sr;
+            return CompletableFuture.completedFuture(sr);
         }
         logger.info("Observing new target: {}", sr);
-        URI serviceUri = sr.getServiceUri();
-        String uriStr = serviceUri.toString();
+        String uriStr = sr.getServiceUri().toString();
+        CompletableFuture<String> future;
         try {
-            String id =
-                    computeJvmId(uriStr, Optional.ofNullable(credentialsManager.getCredentials(sr)))
-                            .whenComplete(
-                                    (i, t) -> {
-                                        String prevId = this.ids.synchronous().get(uriStr);
-                                        if (Objects.equals(prevId, i)) {
-                                            return;
-                                        }
-                                        this.ids.put(uriStr, CompletableFuture.completedFuture(i));
-                                        logger.info("JVM ID: {} -> {}", uriStr, i);
-                                    })
-                            .get();
-
-            ServiceRef updated = new ServiceRef(id, serviceUri, sr.getAlias().orElse(uriStr));
-            updated.setLabels(sr.getLabels());
-            updated.setPlatformAnnotations(sr.getPlatformAnnotations());
-            updated.setCryostatAnnotations(sr.getCryostatAnnotations());
-            reverse.put(id, sr);
-            return updated;
-        } catch (InterruptedException | ExecutionException | ScriptException e) {
-            logger.warn("Could not resolve jvmId for target {}", uriStr);
-            throw new JvmIdGetException(e, uriStr);
+            Optional<Credentials> credentials =
+                    Optional.ofNullable(credentialsManager.getCredentials(sr));
+            future = computeJvmId(uriStr, credentials);
+        } catch (ScriptException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.thenApply(
+                id -> {
+                    if (!Objects.equals(getCachedId(uriStr).orElse(null), id)) {
+                        this.ids.put(uriStr, CompletableFuture.completedFuture(id));
+                    }
+                    return withJvmId(sr, id);
+                });
+    }
+
+    private Optional<String> getCachedId(String targetId) {
+        CompletableFuture<String> cached = ids.getIfPresent(targetId);
+        if (cached == null || !cached.isDone() || cached.isCompletedExceptionally()) {
+            return Optional.empty();
         }
+        return Optional.ofNullable(cached.join());
+    }
+
+    private ServiceRef withJvmId(ServiceRef sr, String id) {
+        String uriStr = sr.getServiceUri().toString();
+        ServiceRef updated = new ServiceRef(id, sr.getServiceUri(), sr.getAlias().orElse(uriStr));
+        updated.setLabels(sr.getLabels());
+        updated.setPlatformAnnotations(sr.getPlatformAnnotations());
+        updated.setCryostatAnnotations(sr.getCryostatAnnotations());
+        index.put(updated);
+        return updated;
     }
 
     public Optional<ServiceRef> reverseLookup(String jvmId) {
-        return Optional.ofNullable(this.reverse.get(jvmId));
+        return index.getServiceRef(jvmId);
     }
 
     private CompletableFuture<String> computeJvmId(
@@ -177,6 +217,12 @@ public class JvmIdHelper extends AbstractEventEmitter<JvmIdHelper.IdEvent, Strin
 
     public String getJvmId(String targetId, boolean cache, Optional<Credentials> credentials)
             throws JvmIdGetException {
+        if (cache) {
+            Optional<String> indexed = index.getJvmId(targetId);
+            if (indexed.isPresent()) {
+                return indexed.get();
+            }
+        }
         try {
             return (cache ? this.ids.get(targetId) : computeJvmId(targetId, credentials))
                     .get(connectionTimeoutSeconds, TimeUnit.SECONDS);
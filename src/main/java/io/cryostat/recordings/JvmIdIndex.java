@@ -0,0 +1,122 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.recordings;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.cryostat.platform.ServiceRef;
+
+/**
+ * Index from target IDs to the JVM IDs resolved for them, and from JVM IDs back to the targets. A
+ * JVM may be reachable by more than one target ID, ex. by both a JMX and an agent URL, so each JVM
+ * ID maps to a set of targets. Every change to a target's entries is made within a compute on its
+ * key, so that updates to different targets do not contend on a shared lock and the two directions
+ * always agree about each target.
+ */
+class JvmIdIndex {
+
+    private final ConcurrentHashMap<String, ServiceRef> refsByTarget = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> targetsByJvmId = new ConcurrentHashMap<>();
+
+    /** Index the target under its service URI, replacing any JVM ID indexed for it before. */
+    void put(ServiceRef ref) {
+        String targetId = ref.getServiceUri().toString();
+        String jvmId = Objects.requireNonNull(ref.getJvmId(), "jvmId");
+        ServiceRef copy = new ServiceRef(ref);
+        refsByTarget.compute(
+                targetId,
+                (k, prev) -> {
+                    if (prev != null && !Objects.equals(prev.getJvmId(), jvmId)) {
+                        unlink(prev.getJvmId(), k);
+                    }
+                    link(jvmId, k);
+                    return copy;
+                });
+    }
+
+    void remove(String targetId) {
+        refsByTarget.computeIfPresent(
+                targetId,
+                (k, prev) -> {
+                    unlink(prev.getJvmId(), k);
+                    return null;
+                });
+    }
+
+    /** Remove the target only if it is still indexed with the given JVM ID. */
+    void remove(String targetId, String jvmId) {
+        refsByTarget.computeIfPresent(
+                targetId,
+                (k, prev) -> {
+                    if (!Objects.equals(prev.getJvmId(), jvmId)) {
+                        return prev;
+                    }
+                    unlink(jvmId, k);
+                    return null;
+                });
+    }
+
+    Optional<String> getJvmId(String targetId) {
+        return Optional.ofNullable(refsByTarget.get(targetId)).map(ServiceRef::getJvmId);
+    }
+
+    Optional<ServiceRef> getServiceRef(String jvmId) {
+        Set<String> targetIds = targetsByJvmId.get(jvmId);
+        if (targetIds == null) {
+            return Optional.empty();
+        }
+        for (String targetId : targetIds) {
+            ServiceRef ref = refsByTarget.get(targetId);
+            // the target may have been re-indexed since the set was read
+            if (ref != null && Objects.equals(jvmId, ref.getJvmId())) {
+                return Optional.of(new ServiceRef(ref));
+            }
+        }
+        return Optional.empty();
+    }
+
+    Set<String> getTargetIds(String jvmId) {
+        return Set.copyOf(targetsByJvmId.getOrDefault(jvmId, Set.of()));
+    }
+
+    int size() {
+        return refsByTarget.size();
+    }
+
+    private void link(String jvmId, String targetId) {
+        targetsByJvmId.compute(
+                jvmId,
+                (k, targetIds) -> {
+                    if (targetIds == null) {
+                        targetIds = ConcurrentHashMap.newKeySet();
+                    }
+                    targetIds.add(targetId);
+                    return targetIds;
+                });
+    }
+
+    private void unlink(String jvmId, String targetId) {
+        targetsByJvmId.computeIfPresent(
+                jvmId,
+                (k, targetIds) -> {
+                    targetIds.remove(targetId);
+                    return targetIds.isEmpty() ? null : targetIds;
+                });
+    }
+}
@@ -34,8 +34,10 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -66,7 +68,9 @@ import io.cryostat.net.TargetConnectionManager;
 import io.cryostat.net.web.WebModule;
 import io.cryostat.net.web.WebServer;
 import io.cryostat.net.web.http.api.v2.ApiException;
+import io.cryostat.net.web.http.api.v2.graph.labels.LabelSelectorMatcher;
 import io.cryostat.platform.PlatformClient;
+import io.cryostat.platform.ServiceRef;
 import io.cryostat.recordings.JvmIdHelper.JvmIdGetException;
 import io.cryostat.recordings.RecordingMetadataManager.Metadata;
 import io.cryostat.rules.ArchivePathException;
@@ -80,6 +84,8 @@ import io.vertx.core.Vertx;
 import io.vertx.ext.web.FileUpload;
 import org.apache.commons.codec.binary.Base32;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.lang3.tuple.Pair;
 
 public class RecordingArchiveHelper {
 
@@ -96,6 +102,7 @@ public class RecordingArchiveHelper {
     private final JvmIdHelper jvmIdHelper;
     private final Vertx vertx;
     private final Base32 base32;
+    private final ArchivedRecordingCatalog catalog;
 
     private static final String SAVE_NOTIFICATION_CATEGORY = "ActiveRecordingSaved";
     private static final String DELETE_NOTIFICATION_CATEGORY = "ArchivedRecordingDeleted";
@@ -117,7 +124,7 @@ public class RecordingArchiveHelper {
     public static final String LOST_RECORDINGS_SUBDIRECTORY = "lost";
     public static final String TEMP_UPLOADS_SUBDIRECTORY = "file-uploads";
     public static final String MULTIFORM_RECORDINGS_KEY = "recording";
-    private static final String CONNECT_URL = "connectUrl";
+    static final String CONNECT_URL = "connectUrl";
 
     RecordingArchiveHelper(
             FileSystem fs,
@@ -146,6 +153,9 @@ public class RecordingArchiveHelper {
         this.jvmIdHelper = jvmIdHelper;
         this.vertx = vertx;
         this.base32 = base32;
+        this.catalog =
+                new ArchivedRecordingCatalog(
+                        fs, archivedRecordingsPath, jvmIdHelper::subdirectoryNameToJvmId, logger);
     }
 
     // startup migration for archived recordings
@@ -260,6 +270,7 @@ public class RecordingArchiveHelper {
         for (var f : futures) {
             f.get();
         }
+        catalog.rebuild();
     }
 
     protected void transferArchivesIfRestarted(String targetId) {
@@ -301,6 +312,8 @@ public class RecordingArchiveHelper {
                 Files.move(oldLocation, newLocation);
             }
             fs.deleteIfExists(subdirectoryPath);
+            catalog.invalidate(subdirectoryPath.getFileName().toString());
+            catalog.invalidate(jvmIdPath.getFileName().toString());
 
             logger.info(
                     "[{}]: Archives subdirectory successfully transferred: {} -> {}",
@@ -383,6 +396,7 @@ public class RecordingArchiveHelper {
             validateSavePath(recordingName, savePath);
             Path filenamePath = savePath.getFileName();
             String filename = filenamePath.toString();
+            String subdirectoryName = savePath.getParent().getFileName().toString();
             String targetId = connectionDescriptor.getTargetId();
             Metadata metadata =
                     recordingMetadataManager
@@ -395,8 +409,8 @@ public class RecordingArchiveHelper {
                             webServerProvider.get().getArchivedDownloadURL(targetId, filename),
                             webServerProvider.get().getArchivedReportURL(targetId, filename),
                             metadata,
-                            getFileSize(filename),
-                            getArchivedTime(filename));
+                            getFileSize(subdirectoryName, filename),
+                            getArchivedTime(subdirectoryName, filename));
             future.complete(archivedRecordingInfo);
             notificationFactory
                     .createOwnedResourceBuilder(targetId, SAVE_NOTIFICATION_CATEGORY)
@@ -434,14 +448,15 @@ public class RecordingArchiveHelper {
                             webServerProvider.get().getArchivedReportURL(targetId, filename),
                             recordingMetadataManager.deleteRecordingMetadataIfExists(
                                     jvmId, recordingName),
-                            getFileSize(filename),
-                            getArchivedTime(filename));
+                            getFileSize(subdirectoryName, filename),
+                            getArchivedTime(subdirectoryName, filename));
             notificationFactory
                     .createOwnedResourceBuilder(targetId, DELETE_NOTIFICATION_CATEGORY)
                     .messageEntry("recording", archivedRecordingInfo)
                     .build()
                     .send();
             fs.deleteIfExists(recordingPath);
+            catalog.remove(subdirectoryName, filename);
             checkEmptySubdirectory(subdirectoryPath);
             future.complete(archivedRecordingInfo);
         } catch (IOException | URISyntaxException | InterruptedException | ExecutionException e) {
@@ -488,6 +503,8 @@ public class RecordingArchiveHelper {
             String targetId =
                     sourceTarget == null ? UPLOADED_RECORDINGS_SUBDIRECTORY : sourceTarget;
             subdirectoryName = parentPath.getFileName().toString();
+            Optional<ArchivedRecordingCatalog.Entry> entry =
+                    catalog.remove(subdirectoryName, filename);
             ArchivedRecordingInfo archivedRecordingInfo =
                     new ArchivedRecordingInfo(
                             targetId,
@@ -496,8 +513,8 @@ public class RecordingArchiveHelper {
                             webServerProvider.get().getArchivedReportURL(targetId, filename),
                             recordingMetadataManager.deleteRecordingMetadataIfExists(
                                     new ConnectionDescriptor(targetId), recordingName),
-                            getFileSize(filename),
-                            getArchivedTime(filename));
+                            entry.map(ArchivedRecordingCatalog.Entry::getSize).orElse(0L),
+                            entry.map(ArchivedRecordingCatalog.Entry::getArchivedTime).orElse(0L));
             notificationFactory
                     .createOwnedResourceBuilder(targetId, DELETE_NOTIFICATION_CATEGORY)
                     .messageEntry("recording", archivedRecordingInfo)
@@ -518,6 +535,10 @@ public class RecordingArchiveHelper {
                 && fs.listDirectoryChildren(parentPath).contains(CONNECT_URL)) {
             fs.deleteIfExists(parentPath.resolve(CONNECT_URL));
             fs.deleteIfExists(parentPath);
+            Path subdirectoryName = parentPath.getFileName();
+            if (subdirectoryName != null) {
+                catalog.invalidate(subdirectoryName.toString());
+            }
         }
     }
 
@@ -594,7 +615,7 @@ public class RecordingArchiveHelper {
 
         try {
             String jvmId = jvmIdHelper.getJvmId(targetId);
-            Path specificRecordingsPath = getRecordingSubdirectoryPath(jvmId);
+            String subdirectoryName = jvmIdHelper.jvmIdToSubdirectoryName(jvmId);
             if (!fs.exists(archivedRecordingsPath)) {
                 throw new ArchivePathException(archivedRecordingsPath.toString(), "does not exist");
             }
@@ -607,24 +628,18 @@ public class RecordingArchiveHelper {
                         archivedRecordingsPath.toString(), "is not a directory");
             }
 
-            if (!fs.exists(specificRecordingsPath)) {
+            Optional<ArchivedRecordingCatalog.Directory> directory =
+                    catalog.getDirectory(subdirectoryName);
+            if (directory.isEmpty()) {
                 future.complete(List.of());
                 return future;
             }
-            if (!fs.isReadable(specificRecordingsPath)) {
-                throw new ArchivePathException(
-                        specificRecordingsPath.toString(), "is not readable");
-            }
-            if (!fs.isDirectory(specificRecordingsPath)) {
-                throw new ArchivePathException(
-                        specificRecordingsPath.toString(), "is not a directory");
-            }
             WebServer webServer = webServerProvider.get();
             List<ArchivedRecordingInfo> archivedRecordings = new ArrayList<>();
-            this.fs.listDirectoryChildren(specificRecordingsPath).stream()
-                    .filter(filename -> !filename.equals(CONNECT_URL))
+            catalog.getEntries(directory.get()).stream()
                     .map(
-                            file -> {
+                            entry -> {
+                                String file = entry.getFilename();
                                 try {
                                     return new ArchivedRecordingInfo(
                                             targetId,
@@ -633,8 +648,8 @@ public class RecordingArchiveHelper {
                                             webServer.getArchivedReportURL(targetId, file),
                                             recordingMetadataManager.getMetadata(
                                                     new ConnectionDescriptor(targetId), file),
-                                            getFileSize(file),
-                                            getArchivedTime(file));
+                                            entry.getSize(),
+                                            entry.getArchivedTime());
                                 } catch (IOException | URISyntaxException e) {
                                     logger.warn(e);
                                     return null;
@@ -665,20 +680,14 @@ public class RecordingArchiveHelper {
             }
             WebServer webServer = webServerProvider.get();
             List<ArchiveDirectory> directories = new ArrayList<>();
-            List<String> subdirectories = this.fs.listDirectoryChildren(archivedRecordingsPath);
-            for (String subdirectoryName : subdirectories) {
-                if (subdirectoryName.equals(TEMP_UPLOADS_SUBDIRECTORY)) {
-                    continue;
-                }
-                Path subdirectory = archivedRecordingsPath.resolve(subdirectoryName);
-                String targetId = getConnectUrlFromPath(subdirectory).get();
-                String jvmId = jvmIdHelper.subdirectoryNameToJvmId(subdirectoryName);
-                List<String> files = this.fs.listDirectoryChildren(subdirectory);
+            for (ArchivedRecordingCatalog.Directory directory : catalog.getDirectories()) {
+                String targetId = getConnectUrl(directory);
+                String jvmId = directory.getJvmId();
                 List<ArchivedRecordingInfo> temp =
-                        files.stream()
-                                .filter(filename -> !filename.equals(CONNECT_URL))
+                        catalog.getEntries(directory).stream()
                                 .map(
-                                        file -> {
+                                        entry -> {
+                                            String file = entry.getFilename();
                                             try {
                                                 // FIXME: string replacing
                                                 return new ArchivedRecordingInfo(
@@ -697,8 +706,8 @@ public class RecordingArchiveHelper {
                                                         recordingMetadataManager
                                                                 .getMetadataFromPathIfExists(
                                                                         jvmId, file),
-                                                        getFileSize(file),
-                                                        getArchivedTime(file));
+                                                        entry.getSize(),
+                                                        entry.getArchivedTime());
                                             } catch (IOException | URISyntaxException e) {
                                                 logger.warn(e);
                                                 return null;
@@ -731,17 +740,14 @@ public class RecordingArchiveHelper {
                         archivedRecordingsPath.toString(), "is not a directory");
             }
             WebServer webServer = webServerProvider.get();
-            List<String> subdirectories = this.fs.listDirectoryChildren(archivedRecordingsPath);
             List<ArchivedRecordingInfo> archivedRecordings = new ArrayList<>();
-            for (String subdirectoryName : subdirectories) {
-                Path subdirectory = archivedRecordingsPath.resolve(subdirectoryName);
-                String targetId = getConnectUrlFromPath(subdirectory).get();
-                List<String> files = this.fs.listDirectoryChildren(subdirectory);
+            for (ArchivedRecordingCatalog.Directory directory : catalog.getDirectories()) {
+                String targetId = getConnectUrl(directory);
                 List<ArchivedRecordingInfo> temp =
-                        files.stream()
-                                .filter(filename -> !filename.equals(CONNECT_URL))
+                        catalog.getEntries(directory).stream()
                                 .map(
-                                        file -> {
+                                        entry -> {
+                                            String file = entry.getFilename();
                                             try {
                                                 return new ArchivedRecordingInfo(
                                                         targetId,
@@ -753,8 +759,8 @@ public class RecordingArchiveHelper {
                                                         recordingMetadataManager.getMetadata(
                                                                 new ConnectionDescriptor(targetId),
                                                                 file),
-                                                        getFileSize(file),
-                                                        getArchivedTime(file));
+                                                        entry.getSize(),
+                                                        entry.getArchivedTime());
                                             } catch (IOException | URISyntaxException e) {
                                                 logger.warn(e);
                                                 return null;
@@ -771,13 +777,109 @@ public class RecordingArchiveHelper {
         return future;
     }
 
+    /**
+     * Archived recordings whose labels match all of the given label selectors. Selectors which can
+     * be answered from the recording metadata label index are looked up there, so that only the
+     * matching recordings are visited. If none of the selectors can be, every archived recording
+     * is tested instead.
+     */
+    public Future<List<ArchivedRecordingInfo>> getRecordingsMatching(List<String> labelSelectors) {
+        CompletableFuture<List<ArchivedRecordingInfo>> future = new CompletableFuture<>();
+        List<LabelSelectorMatcher> selectors =
+                labelSelectors.stream()
+                        .map(LabelSelectorMatcher::parse)
+                        .collect(Collectors.toList());
+
+        try {
+            Optional<Set<Pair<String, String>>> indexed =
+                    recordingMetadataManager.findRecordings(selectors);
+            if (indexed.isEmpty()) {
+                List<ArchivedRecordingInfo> archivedRecordings = new ArrayList<>();
+                for (ArchivedRecordingInfo recording : getRecordings().get()) {
+                    Map<String, String> labels = recording.getMetadata().getLabels();
+                    if (selectors.stream().allMatch(s -> s.test(labels))) {
+                        archivedRecordings.add(recording);
+                    }
+                }
+                future.complete(archivedRecordings);
+                return future;
+            }
+            if (!fs.exists(archivedRecordingsPath)) {
+                throw new ArchivePathException(archivedRecordingsPath.toString(), "does not exist");
+            }
+            if (!fs.isReadable(archivedRecordingsPath)) {
+                throw new ArchivePathException(
+                        archivedRecordingsPath.toString(), "is not readable");
+            }
+            if (!fs.isDirectory(archivedRecordingsPath)) {
+                throw new ArchivePathException(
+                        archivedRecordingsPath.toString(), "is not a directory");
+            }
+            WebServer webServer = webServerProvider.get();
+            List<ArchivedRecordingInfo> archivedRecordings = new ArrayList<>();
+            for (Pair<String, String> recording : indexed.get()) {
+                String jvmId = recording.getLeft();
+                String file = recording.getRight();
+                String subdirectoryName = jvmIdHelper.jvmIdToSubdirectoryName(jvmId);
+                // the index also holds the metadata of active recordings, which have no entry
+                Optional<ArchivedRecordingCatalog.Directory> directory =
+                        catalog.getDirectory(subdirectoryName);
+                if (directory.isEmpty()) {
+                    continue;
+                }
+                Optional<ArchivedRecordingCatalog.Entry> entry =
+                        catalog.get(subdirectoryName, file);
+                if (entry.isEmpty()) {
+                    continue;
+                }
+                String targetId = getConnectUrl(directory.get());
+                try {
+                    archivedRecordings.add(
+                            new ArchivedRecordingInfo(
+                                    targetId,
+                                    file,
+                                    webServer.getArchivedDownloadURL(targetId, file),
+                                    webServer.getArchivedReportURL(targetId, file),
+                                    recordingMetadataManager.getMetadataFromPathIfExists(
+                                            jvmId, file),
+                                    entry.get().getSize(),
+                                    entry.get().getArchivedTime()));
+                } catch (IOException | URISyntaxException e) {
+                    logger.warn(e);
+                }
+            }
+            future.complete(archivedRecordings);
+        } catch (ExecutionException e) {
+            future.completeExceptionally(e.getCause());
+        } catch (ArchivePathException | IOException | InterruptedException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private String getConnectUrl(ArchivedRecordingCatalog.Directory directory)
+            throws InterruptedException, ExecutionException {
+        Optional<String> cached = directory.getConnectUrl();
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        String connectUrl =
+                getConnectUrlFromPath(
+                                archivedRecordingsPath.resolve(directory.getSubdirectoryName()))
+                        .get();
+        directory.setConnectUrl(connectUrl);
+        return connectUrl;
+    }
+
     public Future<Path> getRecordingPathFromPath(String subdirectoryName, String recordingName) {
         try {
             boolean checkConnectUrl = !jvmIdHelper.isSpecialDirectory(subdirectoryName);
-            Path path = archivedRecordingsPath.resolve(subdirectoryName).resolve(recordingName);
-            validateRecordingPath(Optional.of(path), recordingName, checkConnectUrl);
-            return CompletableFuture.completedFuture(path);
-        } catch (RecordingNotFoundException | ArchivePathException e) {
+            Optional<Path> path =
+                    catalog.find(subdirectoryName, recordingName)
+                            .map(ArchivedRecordingCatalog.Entry::getPath);
+            validateRecordingPath(path, recordingName, checkConnectUrl);
+            return CompletableFuture.completedFuture(path.get());
+        } catch (RecordingNotFoundException | ArchivePathException | IOException e) {
             return CompletableFuture.failedFuture(e);
         }
     }
@@ -785,9 +887,8 @@ public class RecordingArchiveHelper {
     public Future<Path> getRecordingPath(String recordingName) {
         CompletableFuture<Path> future = new CompletableFuture<>();
         try {
-            List<String> subdirectories = this.fs.listDirectoryChildren(archivedRecordingsPath);
             Optional<Path> optional =
-                    searchSubdirectories(subdirectories, archivedRecordingsPath, recordingName);
+                    catalog.find(recordingName).map(ArchivedRecordingCatalog.Entry::getPath);
             validateRecordingPath(optional, recordingName, false);
             future.complete(optional.get());
         } catch (RecordingNotFoundException | IOException | ArchivePathException e) {
@@ -803,55 +904,27 @@ public class RecordingArchiveHelper {
         CompletableFuture<Path> future = new CompletableFuture<>();
         try {
             String jvmId = jvmIdHelper.getJvmId(sourceTarget);
-            Path subdirectory = getRecordingSubdirectoryPath(jvmId);
-            if (!fs.exists(archivedRecordingsPath.resolve(subdirectory))) {
-                fs.createDirectory(archivedRecordingsPath.resolve(subdirectory));
+            String subdirectoryName = jvmIdHelper.jvmIdToSubdirectoryName(jvmId);
+            Path subdirectory = archivedRecordingsPath.resolve(subdirectoryName);
+            if (!fs.exists(subdirectory)) {
+                fs.createDirectory(subdirectory);
                 fs.writeString(
-                        archivedRecordingsPath.resolve(subdirectory.resolve(CONNECT_URL)),
-                        sourceTarget,
-                        StandardOpenOption.CREATE);
+                        subdirectory.resolve(CONNECT_URL), sourceTarget, StandardOpenOption.CREATE);
             }
-            Path archivedRecording = searchSubdirectory(subdirectory, recordingName);
-            if (archivedRecording == null) {
+            Optional<Path> archivedRecording =
+                    catalog.find(subdirectoryName, recordingName)
+                            .map(ArchivedRecordingCatalog.Entry::getPath);
+            if (archivedRecording.isEmpty()) {
                 throw new RecordingNotFoundException(sourceTarget, recordingName);
             }
-            validateRecordingPath(Optional.of(archivedRecording), recordingName, true);
-            future.complete(archivedRecording);
+            validateRecordingPath(archivedRecording, recordingName, true);
+            future.complete(archivedRecording.get());
         } catch (RecordingNotFoundException | ArchivePathException | IOException e) {
             future.completeExceptionally(e);
         }
         return future;
     }
 
-    private Path searchSubdirectory(Path subdirectory, String recordingName) {
-        Path recordingPath = null;
-        try {
-            for (String file : this.fs.listDirectoryChildren(subdirectory)) {
-                if (file.equals(CONNECT_URL)) continue;
-                if (recordingName.equals(file)) {
-                    recordingPath = subdirectory.resolve(file).normalize().toAbsolutePath();
-                    break;
-                }
-            }
-        } catch (IOException ioe) {
-            logger.error(ioe);
-        }
-        return recordingPath;
-    }
-
-    private Optional<Path> searchSubdirectories(
-            List<String> subdirectories, Path parent, String recordingName) {
-        // TODO refactor this into nicer streaming
-        return subdirectories.stream()
-                .map(parent::resolve)
-                .map(
-                        subdirectory -> {
-                            return searchSubdirectory(subdirectory, recordingName);
-                        })
-                .filter(Objects::nonNull)
-                .findFirst();
-    }
-
     public void validateSourceTarget(String sourceTarget)
             throws RecordingSourceTargetNotFoundException {
         if (sourceTarget.equals(UPLOADED_RECORDINGS_SUBDIRECTORY)) {
@@ -859,11 +932,15 @@ public class RecordingArchiveHelper {
         }
         // assume sourceTarget is percent encoded
         String decodedTargetId = URLDecoder.decode(sourceTarget, StandardCharsets.UTF_8);
-        boolean exists =
-                this.platformClient.listDiscoverableServices().stream()
-                        .anyMatch(
-                                target ->
-                                        target.getServiceUri().toString().equals(decodedTargetId));
+        boolean exists;
+        try {
+            exists =
+                    this.platformClient
+                            .lookupServiceByConnectUrl(new URI(decodedTargetId))
+                            .isPresent();
+        } catch (URISyntaxException e) {
+            exists = false;
+        }
         if (!exists) {
             throw new RecordingSourceTargetNotFoundException(decodedTargetId);
         }
@@ -877,6 +954,10 @@ public class RecordingArchiveHelper {
         }
         Path archivedRecording = optional.get();
         if (!fs.exists(archivedRecording)) {
+            Path parent = archivedRecording.getParent();
+            if (parent != null && parent.getFileName() != null) {
+                catalog.remove(parent.getFileName().toString(), recordingName);
+            }
             throw new ArchivePathException(archivedRecording.toString(), "does not exist");
         }
         if (!fs.isRegularFile(archivedRecording)) {
@@ -895,7 +976,8 @@ public class RecordingArchiveHelper {
             throws IOException, URISyntaxException, FlightRecorderException, Exception {
         URI serviceUri = URIUtil.getConnectionUri(connection);
         String jvmId = jvmIdHelper.getJvmId(serviceUri.toString());
-        Path specificRecordingsPath = getRecordingSubdirectoryPath(jvmId);
+        String subdirectoryName = jvmIdHelper.jvmIdToSubdirectoryName(jvmId);
+        Path specificRecordingsPath = archivedRecordingsPath.resolve(subdirectoryName);
         if (!fs.exists(specificRecordingsPath)) {
             fs.createDirectory(specificRecordingsPath);
             fs.writeString(
@@ -909,17 +991,10 @@ public class RecordingArchiveHelper {
             recordingName = recordingName.substring(0, recordingName.length() - 4);
         }
 
-        // TODO: To avoid having to perform this lookup each time, we should implement
-        // something like a map from targetIds to corresponding ServiceRefs
         String targetName =
-                platformClient.listDiscoverableServices().stream()
-                        .filter(
-                                serviceRef -> {
-                                    return serviceRef.getServiceUri().equals(serviceUri)
-                                            && serviceRef.getAlias().isPresent();
-                                })
-                        .map(s -> s.getAlias().get())
-                        .findFirst()
+                platformClient
+                        .lookupServiceByConnectUrl(serviceUri)
+                        .flatMap(ServiceRef::getAlias)
                         .orElse(connection.getHost())
                         .replaceAll("[\\._]+", "-");
 
@@ -945,8 +1020,9 @@ public class RecordingArchiveHelper {
         }
         destination += ".jfr";
         Path destinationPath = specificRecordingsPath.resolve(destination);
-        try (BufferedInputStream bufferedStream =
-                new BufferedInputStream(connection.getService().openStream(descriptor, false))) {
+        CountingInputStream countingStream =
+                new CountingInputStream(connection.getService().openStream(descriptor, false));
+        try (BufferedInputStream bufferedStream = new BufferedInputStream(countingStream)) {
 
             // Check if recording stream is non-empty
             int readLimit = 1; // arbitrary number greater than 0
@@ -965,6 +1041,13 @@ public class RecordingArchiveHelper {
 
             fs.copy(bufferedStream, destinationPath);
         }
+        catalog.add(
+                subdirectoryName,
+                jvmId,
+                destination,
+                destinationPath,
+                countingStream.getByteCount(),
+                clock.now().toEpochMilli());
         return destinationPath;
     }
 
@@ -976,26 +1059,16 @@ public class RecordingArchiveHelper {
                 .findFirst();
     }
 
-    private long getFileSize(String recordingName) {
-        try {
-            return Files.size(getRecordingPath(recordingName).get());
-        } catch (IOException | InterruptedException | ExecutionException e) {
-            logger.error("Invalid path: {}", recordingName);
-            return 0;
-        }
+    private long getFileSize(String subdirectoryName, String recordingName) {
+        return catalog.get(subdirectoryName, recordingName)
+                .map(ArchivedRecordingCatalog.Entry::getSize)
+                .orElse(0L);
     }
 
-    private long getArchivedTime(String recordingName) {
-        try {
-            FileTime fileTime =
-                    (FileTime)
-                            Files.getAttribute(
-                                    getRecordingPath(recordingName).get(), "creationTime");
-            return fileTime.toMillis();
-        } catch (IOException | InterruptedException | ExecutionException e) {
-            logger.error("Invalid path: {}", recordingName);
-            return 0;
-        }
+    private long getArchivedTime(String subdirectoryName, String recordingName) {
+        return catalog.get(subdirectoryName, recordingName)
+                .map(ArchivedRecordingCatalog.Entry::getArchivedTime)
+                .orElse(0L);
     }
 
     private long getLastModifiedTime(Path path) {
@@ -1138,6 +1211,7 @@ public class RecordingArchiveHelper {
                                                             makeFailedAsyncResult(res2.cause()));
                                                     return;
                                                 }
+                                                catalog.add(subdirectoryName, filename);
                                                 handler.handle(makeAsyncResult(filename));
                                             });
                         });
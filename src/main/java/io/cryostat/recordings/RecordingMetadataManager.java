@@ -19,11 +19,17 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
@@ -32,6 +38,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -47,6 +54,8 @@ import io.cryostat.discovery.DiscoveryStorage;
 import io.cryostat.messaging.notifications.NotificationFactory;
 import io.cryostat.net.ConnectionDescriptor;
 import io.cryostat.net.TargetConnectionManager;
+import io.cryostat.net.web.http.api.v2.graph.labels.LabelIndex;
+import io.cryostat.net.web.http.api.v2.graph.labels.LabelSelectorMatcher;
 import io.cryostat.platform.PlatformClient;
 import io.cryostat.platform.ServiceRef;
 import io.cryostat.platform.TargetDiscoveryEvent;
@@ -55,21 +64,32 @@ import io.cryostat.util.events.EventListener;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.reflect.TypeToken;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Promise;
 import io.vertx.core.eventbus.EventBus;
 import org.apache.commons.codec.binary.Base32;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.tuple.Pair;
 
+/**
+ * Recording labels, keyed by the recording's JVM ID and name. All metadata is read into memory from
+ * the metadata directory once on startup, after which reads are served from memory and updates are
+ * written back to the per-recording metadata files in the background. Updates made while a
+ * write-back is in progress are batched into the next one, so that only the latest metadata of each
+ * recording is written.
+ */
 public class RecordingMetadataManager extends AbstractVerticle
         implements Consumer<TargetDiscoveryEvent>, EventListener<JvmIdHelper.IdEvent, String> {
 
     public static final String NOTIFICATION_CATEGORY = "RecordingMetadataUpdated";
     private static final String UPLOADS = RecordingArchiveHelper.UPLOADED_RECORDINGS_SUBDIRECTORY;
+    static final long WRITE_BACK_RETRY_MS = 5_000;
+    static final String TEMP_FILE_SUFFIX = ".tmp";
 
     private final ExecutorService executor;
     private final Path recordingMetadataDir;
@@ -88,6 +108,16 @@ public class RecordingMetadataManager extends AbstractVerticle
 
     private final CountDownLatch migrationLatch = new CountDownLatch(1);
 
+    private final Map<String, Map<String, StoredRecordingMetadata>> metadata =
+            new ConcurrentHashMap<>();
+    // metadata files to be written by the next write-back, or deleted if empty
+    private final Map<Pair<String, String>, Optional<StoredRecordingMetadata>> pendingWrites =
+            new ConcurrentHashMap<>();
+    // (jvmId, recordingName) of recordings by their labels
+    private final LabelIndex<Pair<String, String>> labelIndex = new LabelIndex<>();
+    private final AtomicBoolean writeBackScheduled = new AtomicBoolean();
+    private final Object writeBackLock = new Object();
+
     RecordingMetadataManager(
             ExecutorService executor,
             Path recordingMetadataDir,
@@ -136,11 +166,22 @@ public class RecordingMetadataManager extends AbstractVerticle
                                     try {
                                         String subdirectoryName =
                                                 subdirectory.getFileName().toString();
-                                        if (jvmIdHelper.isSpecialDirectory(subdirectoryName)) {
+                                        if (RecordingArchiveHelper.TEMP_UPLOADS_SUBDIRECTORY.equals(
+                                                subdirectoryName)) {
+                                            logger.info(
+                                                    "Skipping temporary uploads location: {}",
+                                                    subdirectoryName);
+                                            return;
+                                        } else if (jvmIdHelper.isSpecialDirectory(
+                                                subdirectoryName)) {
                                             logger.info(
                                                     "Skipping metadata validation: appears to be a"
                                                             + " special location: {}",
                                                     subdirectoryName);
+                                            indexSpecialDirectory(
+                                                    subdirectory,
+                                                    jvmIdHelper.subdirectoryNameToJvmId(
+                                                            subdirectoryName));
                                             return;
                                         } else if (this.fs
                                                 .listDirectoryChildren(subdirectory)
@@ -206,6 +247,7 @@ public class RecordingMetadataManager extends AbstractVerticle
                                                                     // since we are using directory
                                                                     // structure
                                                                     if (srm.getJvmId() != null) {
+                                                                        index(srm);
                                                                         try {
                                                                             if (!isArchivedRecording(
                                                                                     recordingName)) {
@@ -260,6 +302,22 @@ public class RecordingMetadataManager extends AbstractVerticle
                                                 e.getMessage());
                                     }
                                 }
+                                // left behind by a write-back which did not complete
+                                else if (subdirectory
+                                        .getFileName()
+                                        .toString()
+                                        .endsWith(TEMP_FILE_SUFFIX)) {
+                                    logger.info(
+                                            "Deleting incomplete metadata file: {}", subdirectory);
+                                    try {
+                                        fs.deleteIfExists(subdirectory);
+                                    } catch (IOException e) {
+                                        logger.error(
+                                                "Failed to delete metadata file {}, msg: {}",
+                                                subdirectory,
+                                                e.getMessage());
+                                    }
+                                }
                                 /* TODO: This is a ONE-TIME migration check for the old metadata files that were stored without a directory
                                 (remove after 2.2.0 release and replace with subdirectory::fs.isDirectory (ignore files))? */
                                 else if (fs.isRegularFile(subdirectory)) {
@@ -387,9 +445,35 @@ public class RecordingMetadataManager extends AbstractVerticle
                 });
     }
 
+    // uploaded and lost recordings do not belong to any target which could be validated against,
+    // so their metadata is only indexed
+    private void indexSpecialDirectory(Path subdirectory, String jvmId) throws IOException {
+        for (String child : fs.listDirectoryChildren(subdirectory)) {
+            Path path = subdirectory.resolve(child);
+            if (!fs.isRegularFile(path)) {
+                continue;
+            }
+            try (BufferedReader br = fs.readFile(path)) {
+                StoredRecordingMetadata srm = gson.fromJson(br, StoredRecordingMetadata.class);
+                if (srm == null || srm.getRecordingName() == null) {
+                    logger.warn("Invalid metadata file {} in {}", child, jvmId);
+                    continue;
+                }
+                index(
+                        StoredRecordingMetadata.of(
+                                srm.getTargetId(), jvmId, srm.getRecordingName(), srm));
+            } catch (IOException | JsonParseException e) {
+                logger.error("Could not read metadata file {}, msg: {}", path, e.getMessage());
+            }
+        }
+    }
+
     @Override
     public void stop() {
         this.platformClient.removeTargetDiscoveryListener(this);
+        if (!writeBack()) {
+            logger.error("Some recording metadata could not be written before shutdown");
+        }
     }
 
     @Override
@@ -421,6 +505,11 @@ public class RecordingMetadataManager extends AbstractVerticle
     }
 
     private void handleFoundTarget(ServiceRef serviceRef) {
+        if (StringUtils.isBlank(serviceRef.getJvmId())) {
+            // the JVM ID is still being resolved, and the target is MODIFIED once it is. Looking
+            // it up now would only open a second connection to the target.
+            return;
+        }
         ConnectionDescriptor cd;
         try {
             cd = getConnectionDescriptorWithCredentials(serviceRef);
@@ -473,7 +562,17 @@ public class RecordingMetadataManager extends AbstractVerticle
                     if (!targetRecordingExists(cd, recordingName)) {
                         // recording was lost
                         logger.info("Active recording lost {}, deleting...", recordingName);
-                        deleteMetadataPathIfExists(path);
+                        if (srm.getJvmId() == null
+                                || recordingMetadataDir.equals(path.getParent())) {
+                            // old metadata file stored without a directory, never indexed
+                            deleteMetadataPathIfExists(path);
+                        } else {
+                            try {
+                                deleteRecordingMetadataIfExists(srm.getJvmId(), recordingName);
+                            } catch (IOException e) {
+                                logger.error(e);
+                            }
+                        }
                     } else {
                         // target still up
                         logger.info(
@@ -504,13 +603,7 @@ public class RecordingMetadataManager extends AbstractVerticle
                         .get();
         String jvmId = jvmIdHelper.subdirectoryNameToJvmId(subdirectoryName);
 
-        Path metadataPath = this.getMetadataPath(jvmId, recordingName);
-        fs.writeString(
-                metadataPath,
-                gson.toJson(StoredRecordingMetadata.of(connectUrl, jvmId, recordingName, metadata)),
-                StandardOpenOption.WRITE,
-                StandardOpenOption.CREATE,
-                StandardOpenOption.TRUNCATE_EXISTING);
+        store(StoredRecordingMetadata.of(connectUrl, jvmId, recordingName, metadata));
 
         notificationFactory
                 .createOwnedResourceBuilder(connectUrl, NOTIFICATION_CATEGORY)
@@ -533,18 +626,9 @@ public class RecordingMetadataManager extends AbstractVerticle
         Objects.requireNonNull(metadata);
         String jvmId = jvmIdHelper.getJvmId(connectionDescriptor);
 
-        Path metadataPath = this.getMetadataPath(jvmId, recordingName);
-        fs.writeString(
-                metadataPath,
-                gson.toJson(
-                        StoredRecordingMetadata.of(
-                                connectionDescriptor.getTargetId(),
-                                jvmId,
-                                recordingName,
-                                metadata)),
-                StandardOpenOption.WRITE,
-                StandardOpenOption.CREATE,
-                StandardOpenOption.TRUNCATE_EXISTING);
+        store(
+                StoredRecordingMetadata.of(
+                        connectionDescriptor.getTargetId(), jvmId, recordingName, metadata));
 
         if (issueNotification) {
             notificationFactory
@@ -581,25 +665,13 @@ public class RecordingMetadataManager extends AbstractVerticle
         Objects.requireNonNull(connectionDescriptor);
         Objects.requireNonNull(recordingName);
 
-        Metadata metadata = null;
-
         String jvmId;
         if (connectionDescriptor.getTargetId().equals(UPLOADS)) {
             jvmId = UPLOADS;
         } else {
             jvmId = jvmIdHelper.getJvmId(connectionDescriptor);
         }
-
-        Path metadataPath = getMetadataPath(jvmId, recordingName);
-        if (!fs.isRegularFile(metadataPath)) {
-            metadata = new Metadata();
-            fs.writeString(metadataPath, gson.toJson(metadata));
-        } else {
-            try (BufferedReader br = fs.readFile(metadataPath)) {
-                metadata = gson.fromJson(br, Metadata.class);
-            }
-        }
-        return metadata;
+        return getMetadataFromPathIfExists(jvmId, recordingName);
     }
 
     // Public metadata getter which doesn't rely on target being available
@@ -607,15 +679,20 @@ public class RecordingMetadataManager extends AbstractVerticle
             throws IOException {
         Objects.requireNonNull(jvmId);
         Objects.requireNonNull(recordingName);
-        Path metadataPath = getMetadataPath(jvmId, recordingName);
-        if (!fs.isRegularFile(metadataPath)) {
-            Metadata metadata = new Metadata();
-            fs.writeString(metadataPath, gson.toJson(metadata));
-            return metadata;
-        }
-        try (BufferedReader br = fs.readFile(metadataPath)) {
-            return gson.fromJson(br, Metadata.class);
-        }
+        StoredRecordingMetadata srm = metadata.getOrDefault(jvmId, Map.of()).get(recordingName);
+        return srm == null ? new Metadata() : new Metadata(srm);
+    }
+
+    /**
+     * @return the JVM IDs and names of the recordings whose labels match all of the given
+     *     selectors, or empty if none of the selectors can be answered from the label index.
+     *     Recordings without any metadata can still match such selectors (ex. "!team"), so the
+     *     caller must then test each recording's labels itself.
+     */
+    public Optional<Set<Pair<String, String>>> findRecordings(
+            Collection<LabelSelectorMatcher> selectors) {
+        Objects.requireNonNull(selectors);
+        return labelIndex.select(selectors);
     }
 
     public Metadata deleteRecordingMetadataIfExists(
@@ -632,17 +709,12 @@ public class RecordingMetadataManager extends AbstractVerticle
         Objects.requireNonNull(jvmId);
         Objects.requireNonNull(recordingName);
 
-        Path metadataPath = this.getMetadataPath(jvmId, recordingName);
-        if (fs.isRegularFile(metadataPath)) {
-            try (BufferedReader br = fs.readFile(metadataPath)) {
-                Metadata metadata = gson.fromJson(br, Metadata.class);
-                if (fs.deleteIfExists(metadataPath)) {
-                    deleteSubdirectoryIfEmpty(metadataPath.getParent());
-                }
-                return metadata;
-            }
+        StoredRecordingMetadata srm = unindex(jvmId, recordingName);
+        if (srm == null) {
+            return null;
         }
-        return null;
+        scheduleWriteBack(jvmId, recordingName, Optional.empty());
+        return new Metadata(srm);
     }
 
     public Future<Metadata> copyMetadataToArchives(
@@ -713,26 +785,14 @@ public class RecordingMetadataManager extends AbstractVerticle
             }
 
             logger.info("[{}] Metadata transfer: {} -> {}", targetId, oldJvmId, newJvmId);
-            Path oldParent = getMetadataPath(oldJvmId);
-            for (String encodedFilename : fs.listDirectoryChildren(oldParent)) {
-                Path oldMetadataPath = oldParent.resolve(encodedFilename);
-                try (BufferedReader storedMetadata = fs.readFile(oldMetadataPath)) {
-                    StoredRecordingMetadata srm =
-                            gson.fromJson(storedMetadata, StoredRecordingMetadata.class);
-                    String recordingName = srm.recordingName;
-                    StoredRecordingMetadata updatedSrm =
-                            StoredRecordingMetadata.of(targetId, newJvmId, recordingName, srm);
-                    Path newLocation = getMetadataPath(newJvmId, recordingName);
-                    fs.writeString(newLocation, gson.toJson(updatedSrm));
-
-                    fs.deleteIfExists(oldMetadataPath);
-                } catch (Exception e) {
-                    logger.error("Metadata could not be transferred");
-                    logger.error(e);
+            for (String recordingName :
+                    new ArrayList<>(metadata.getOrDefault(oldJvmId, Map.of()).keySet())) {
+                StoredRecordingMetadata srm = unindex(oldJvmId, recordingName);
+                if (srm == null) {
+                    continue;
                 }
-            }
-            if (fs.listDirectoryChildren(oldParent).isEmpty()) {
-                fs.deleteIfExists(oldParent);
+                store(StoredRecordingMetadata.of(targetId, newJvmId, recordingName, srm));
+                scheduleWriteBack(oldJvmId, recordingName, Optional.empty());
             }
             logger.info(
                     "[{}] Metadata successfully transferred: {} -> {}",
@@ -745,21 +805,124 @@ public class RecordingMetadataManager extends AbstractVerticle
     }
 
     private void removeLostTargetMetadata(String jvmId) {
-        try {
-            for (String encodedFilename : fs.listDirectoryChildren(getMetadataPath(jvmId))) {
-                String recordingName =
-                        new String(base32.decode(encodedFilename), StandardCharsets.UTF_8);
+        for (String recordingName :
+                new ArrayList<>(metadata.getOrDefault(jvmId, Map.of()).keySet())) {
+            try {
+                if (!isArchivedRecording(recordingName)) {
+                    deleteRecordingMetadataIfExists(jvmId, recordingName);
+                }
+            } catch (IOException e) {
+                logger.error(e);
+            }
+        }
+    }
+
+    // the label index is updated within the same compute as the metadata map so that the two
+    // cannot disagree about a recording's labels
+    private void index(StoredRecordingMetadata srm) {
+        metadata.compute(
+                srm.getJvmId(),
+                (k, v) -> {
+                    if (v == null) {
+                        v = new ConcurrentHashMap<>();
+                    }
+                    v.put(srm.getRecordingName(), srm);
+                    labelIndex.put(Pair.of(k, srm.getRecordingName()), srm.getLabels());
+                    return v;
+                });
+    }
+
+    private StoredRecordingMetadata unindex(String jvmId, String recordingName) {
+        StoredRecordingMetadata[] removed = new StoredRecordingMetadata[1];
+        metadata.computeIfPresent(
+                jvmId,
+                (k, v) -> {
+                    removed[0] = v.remove(recordingName);
+                    if (removed[0] != null) {
+                        labelIndex.remove(Pair.of(k, recordingName));
+                    }
+                    return v.isEmpty() ? null : v;
+                });
+        return removed[0];
+    }
+
+    private void store(StoredRecordingMetadata srm) {
+        index(srm);
+        scheduleWriteBack(srm.getJvmId(), srm.getRecordingName(), Optional.of(srm));
+    }
+
+    private void scheduleWriteBack(
+            String jvmId, String recordingName, Optional<StoredRecordingMetadata> srm) {
+        pendingWrites.put(Pair.of(jvmId, recordingName), srm);
+        submitWriteBack();
+    }
+
+    private void submitWriteBack() {
+        if (writeBackScheduled.compareAndSet(false, true)) {
+            executor.execute(
+                    () -> {
+                        if (!writeBack()) {
+                            // failed writes were requeued, so try them again later rather than
+                            // spinning on a persistent failure
+                            vertx.setTimer(WRITE_BACK_RETRY_MS, id -> submitWriteBack());
+                        }
+                    });
+        }
+    }
+
+    /**
+     * @return false if any pending write failed. Failed writes are requeued unless they have since
+     *     been superseded.
+     */
+    private boolean writeBack() {
+        boolean success = true;
+        // serialized so that an older write of some metadata cannot overtake a newer one
+        synchronized (writeBackLock) {
+            writeBackScheduled.set(false);
+            for (Pair<String, String> key : new ArrayList<>(pendingWrites.keySet())) {
+                Optional<StoredRecordingMetadata> srm = pendingWrites.remove(key);
+                if (srm == null) {
+                    continue;
+                }
                 try {
-                    if (!isArchivedRecording(recordingName)) {
-                        deleteRecordingMetadataIfExists(jvmId, recordingName);
+                    if (srm.isPresent()) {
+                        Path metadataPath = getMetadataPath(key.getLeft(), key.getRight());
+                        // written in full before replacing the previous file, so that a failed
+                        // write cannot leave truncated metadata behind. The temporary file is kept
+                        // outside of the JVM's subdirectory, where it would be read as metadata,
+                        // and is deleted by start() if it is left behind.
+                        Path tmp =
+                                recordingMetadataDir.resolve(
+                                        jvmIdHelper.jvmIdToSubdirectoryName(key.getLeft())
+                                                + "."
+                                                + getMetadataFilename(key.getRight())
+                                                + TEMP_FILE_SUFFIX);
+                        fs.writeString(
+                                tmp,
+                                gson.toJson(srm.get()),
+                                StandardOpenOption.WRITE,
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.TRUNCATE_EXISTING);
+                        Files.move(tmp, metadataPath, StandardCopyOption.ATOMIC_MOVE);
+                    } else {
+                        // the JVM's subdirectory is not created just to delete from it
+                        Path metadataPath = resolveMetadataPath(key.getLeft(), key.getRight());
+                        if (fs.deleteIfExists(metadataPath)) {
+                            deleteSubdirectoryIfEmpty(metadataPath.getParent());
+                        }
                     }
                 } catch (IOException e) {
-                    logger.error(e);
+                    logger.error(
+                            "Could not write metadata for recording {} of {}, msg: {}",
+                            key.getRight(),
+                            key.getLeft(),
+                            e.getMessage());
+                    pendingWrites.putIfAbsent(key, srm);
+                    success = false;
                 }
             }
-        } catch (IOException e) {
-            logger.error(e);
         }
+        return success;
     }
 
     private boolean isArchivedRecording(String recordingName) throws IOException {
@@ -818,23 +981,34 @@ public class RecordingMetadataManager extends AbstractVerticle
     }
 
     private Path getMetadataPath(String jvmId) throws IOException {
+        Path parentDir = resolveMetadataPath(jvmId);
+        if (!fs.isDirectory(parentDir)) {
+            fs.createDirectory(parentDir);
+        }
+        return parentDir;
+    }
+
+    private Path getMetadataPath(String jvmId, String recordingName) throws IOException {
+        getMetadataPath(jvmId);
+        return resolveMetadataPath(jvmId, recordingName);
+    }
+
+    private Path resolveMetadataPath(String jvmId) {
         String subdirectory = jvmIdHelper.jvmIdToSubdirectoryName(jvmId);
 
         Path parentDir = recordingMetadataDir.resolve(subdirectory);
         if (parentDir == null) {
             throw new IllegalStateException();
         }
-        if (!fs.isDirectory(parentDir)) {
-            fs.createDirectory(parentDir);
-        }
         return parentDir;
     }
 
-    private Path getMetadataPath(String jvmId, String recordingName) throws IOException {
-        Path subdirectory = getMetadataPath(jvmId);
-        String filename =
-                base32.encodeAsString(recordingName.getBytes(StandardCharsets.UTF_8)) + ".json";
-        return subdirectory.resolve(filename);
+    private Path resolveMetadataPath(String jvmId, String recordingName) {
+        return resolveMetadataPath(jvmId).resolve(getMetadataFilename(recordingName));
+    }
+
+    private String getMetadataFilename(String recordingName) {
+        return base32.encodeAsString(recordingName.getBytes(StandardCharsets.UTF_8)) + ".json";
     }
 
     private boolean deleteMetadataPathIfExists(Path path) {
@@ -42,6 +42,7 @@ import io.cryostat.jmc.serialization.HyperlinkedSerializableRecordingDescriptor;
 import io.cryostat.messaging.notifications.NotificationFactory;
 import io.cryostat.net.ConnectionDescriptor;
 import io.cryostat.net.TargetConnectionManager;
+import io.cryostat.net.TargetConnectionManager.Consistency;
 import io.cryostat.net.reports.ReportService;
 import io.cryostat.net.web.WebServer;
 import io.cryostat.recordings.JvmIdHelper.JvmIdGetException;
@@ -56,11 +57,11 @@ import org.apache.commons.lang3.tuple.Pair;
 
 public class RecordingTargetHelper {
 
-    private static final String CREATION_NOTIFICATION_CATEGORY = "ActiveRecordingCreated";
+    public static final String CREATION_NOTIFICATION_CATEGORY = "ActiveRecordingCreated";
     public static final String STOP_NOTIFICATION_CATEGORY = "ActiveRecordingStopped";
-    private static final String DELETION_NOTIFICATION_CATEGORY = "ActiveRecordingDeleted";
-    private static final String SNAPSHOT_CREATION_NOTIFICATION_CATEGORY = "SnapshotCreated";
-    private static final String SNAPSHOT_DELETION_NOTIFICATION_CATEGORY = "SnapshotDeleted";
+    public static final String DELETION_NOTIFICATION_CATEGORY = "ActiveRecordingDeleted";
+    public static final String SNAPSHOT_CREATION_NOTIFICATION_CATEGORY = "SnapshotCreated";
+    public static final String SNAPSHOT_DELETION_NOTIFICATION_CATEGORY = "SnapshotDeleted";
 
     private static final long TIMESTAMP_DRIFT_SAFEGUARD = 500L;
 
@@ -110,9 +111,7 @@ public class RecordingTargetHelper {
 
     public List<IRecordingDescriptor> getRecordings(ConnectionDescriptor connectionDescriptor)
             throws Exception {
-        return targetConnectionManager.executeConnectedTask(
-                connectionDescriptor,
-                connection -> connection.getService().getAvailableRecordings());
+        return targetConnectionManager.getRecordings(connectionDescriptor, Consistency.CACHED);
     }
 
     public enum ReplacementPolicy {
@@ -170,6 +169,9 @@ public class RecordingTargetHelper {
                                     .getService()
                                     .start(recordingOptions, templateName, preferredTemplateType);
                     String targetId = connectionDescriptor.getTargetId();
+                    // the notification may not be sent, ex. if the target's JVM ID is unknown, so
+                    // the cached listing is discarded here rather than left to its listener
+                    targetConnectionManager.invalidateRecordings(targetId);
 
                     Map<String, String> labels = metadata.getLabels();
                     labels.put("template.name", templateName);
@@ -278,6 +280,7 @@ public class RecordingTargetHelper {
                             return d;
                         }
                         connection.getService().stop(d);
+                        targetConnectionManager.invalidateRecordings(targetId);
                         this.cancelScheduledTasksIfExists(targetId, recordingName);
                         HyperlinkedSerializableRecordingDescriptor linkedDesc =
                                 new HyperlinkedSerializableRecordingDescriptor(
@@ -320,6 +323,8 @@ public class RecordingTargetHelper {
                                         .getService()
                                         .updateRecordingOptions(
                                                 descriptor, recordingOptionsBuilder.build());
+                                targetConnectionManager.invalidateRecordings(
+                                        connectionDescriptor.getTargetId());
 
                                 Optional<IRecordingDescriptor> updatedDescriptor =
                                         getDescriptorByName(connection, rename);
@@ -428,6 +433,7 @@ public class RecordingTargetHelper {
                                 if (descriptor.isPresent()) {
                                     IRecordingDescriptor d = descriptor.get();
                                     connection.getService().close(d);
+                                    targetConnectionManager.invalidateRecordings(targetId);
                                     reportService.delete(connectionDescriptor, recordingName);
                                     this.cancelScheduledTasksIfExists(targetId, recordingName);
                                     HyperlinkedSerializableRecordingDescriptor linkedDesc =
@@ -583,6 +589,7 @@ public class RecordingTargetHelper {
                                         if (result.failed()) {
                                             return;
                                         }
+                                        targetConnectionManager.invalidateRecordings(targetId);
                                         this.issueNotification(
                                                 targetId,
                                                 ((HyperlinkedSerializableRecordingDescriptor)
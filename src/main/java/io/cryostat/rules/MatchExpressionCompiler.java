@@ -0,0 +1,646 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.rules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import javax.script.ScriptException;
+
+import io.cryostat.platform.ServiceRef;
+
+import org.openjdk.nashorn.api.scripting.NashornException;
+import org.openjdk.nashorn.api.tree.ArrayAccessTree;
+import org.openjdk.nashorn.api.tree.BinaryTree;
+import org.openjdk.nashorn.api.tree.CompilationUnitTree;
+import org.openjdk.nashorn.api.tree.ConditionalExpressionTree;
+import org.openjdk.nashorn.api.tree.ExpressionStatementTree;
+import org.openjdk.nashorn.api.tree.ExpressionTree;
+import org.openjdk.nashorn.api.tree.FunctionCallTree;
+import org.openjdk.nashorn.api.tree.IdentifierTree;
+import org.openjdk.nashorn.api.tree.LiteralTree;
+import org.openjdk.nashorn.api.tree.MemberSelectTree;
+import org.openjdk.nashorn.api.tree.ParenthesizedTree;
+import org.openjdk.nashorn.api.tree.Parser;
+import org.openjdk.nashorn.api.tree.RegExpLiteralTree;
+import org.openjdk.nashorn.api.tree.Tree;
+
+/**
+ * Compiles match expressions into trees of Java nodes which are evaluated directly against a {@link
+ * ServiceRef}, rather than building script Bindings for and interpreting the expression on every
+ * evaluation.
+ *
+ * <p>Only a subset of the expressions accepted by {@link MatchExpressionTreeVisitor} is compiled:
+ * literals, {@code target} property accesses, equality and relational comparisons, {@code &&},
+ * {@code ||}, {@code ?:}, and {@code test()} calls on RegExp literals. These are evaluated with
+ * JavaScript semantics. Any other expression is not compiled, and should be evaluated by the
+ * ScriptEngine instead.
+ */
+public class MatchExpressionCompiler {
+
+    // Nashorn resolves a.b on a Java Map as a bean property before a Map key, so keys which
+    // collide with Map bean properties are left to the ScriptEngine
+    private static final Set<String> MAP_BEAN_PROPERTIES = Set.of("class", "empty");
+
+    // JavaScript's WhiteSpace and LineTerminator characters, which its \s matches. Java's \s
+    // only matches ASCII whitespace.
+    private static final String JS_WHITESPACE =
+            "\\t\\n\\u000B\\f\\r \\u00A0\\u1680\\u2000-\\u200A\\u2028\\u2029\\u202F\\u205F"
+                    + "\\u3000\\uFEFF";
+    private static final String JS_LINE_TERMINATORS = "\\n\\r\\u2028\\u2029";
+    // characters which JavaScript allows to be escaped and which mean the same escaped in Java
+    private static final String REGEXP_SYNTAX_CHARACTERS = "^$\\.*+?()[]{}|/-";
+
+    // JavaScript undefined, which Nashorn produces for a missing Java Map key. Label and annotation
+    // values are never null, so a null lookup result always means that the key is missing.
+    static final Object UNDEFINED =
+            new Object() {
+                @Override
+                public String toString() {
+                    return "undefined";
+                }
+            };
+
+    private final Parser parser = Parser.create();
+
+    synchronized Optional<CompiledMatchExpression> compile(String matchExpression) {
+        ExpressionTree expression = parse(matchExpression);
+        if (expression == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new CompiledMatchExpression(matchExpression, compile(expression)));
+        } catch (UnsupportedExpressionException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Find a condition of the form {@code target.<property> == '<string literal>'} which must hold
+     * for the expression to evaluate to true, so that targets whose property has a different value
+     * can be ruled out without evaluating the expression at all.
+     */
+    synchronized Optional<RequiredEquality> findRequiredEquality(String matchExpression) {
+        ExpressionTree expression = parse(matchExpression);
+        if (expression == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(findRequiredEquality(expression));
+    }
+
+    private ExpressionTree parse(String matchExpression) {
+        CompilationUnitTree cut;
+        try {
+            cut = parser.parse("", matchExpression, null);
+        } catch (NashornException e) {
+            return null;
+        }
+        if (cut == null || cut.getSourceElements().size() != 1) {
+            return null;
+        }
+        Tree statement = cut.getSourceElements().get(0);
+        if (!(statement instanceof ExpressionStatementTree)) {
+            return null;
+        }
+        return ((ExpressionStatementTree) statement).getExpression();
+    }
+
+    private RequiredEquality findRequiredEquality(ExpressionTree tree) {
+        switch (tree.getKind()) {
+            case PARENTHESIZED:
+                return findRequiredEquality(((ParenthesizedTree) tree).getExpression());
+            case CONDITIONAL_AND:
+                {
+                    // a && b can only be true if both a is truthy and b is true
+                    BinaryTree bt = (BinaryTree) tree;
+                    RequiredEquality left = findRequiredEquality(bt.getLeftOperand());
+                    return left != null ? left : findRequiredEquality(bt.getRightOperand());
+                }
+            case EQUAL_TO:
+            case STRICT_EQUAL_TO:
+                {
+                    // target properties are only ever strings, null, or undefined, so loose and
+                    // strict equality with a string literal are both plain string equality
+                    BinaryTree bt = (BinaryTree) tree;
+                    ExpressionTree property = bt.getLeftOperand();
+                    ExpressionTree literal = bt.getRightOperand();
+                    if (property.getKind() == Tree.Kind.STRING_LITERAL) {
+                        property = bt.getRightOperand();
+                        literal = bt.getLeftOperand();
+                    }
+                    if (literal.getKind() != Tree.Kind.STRING_LITERAL) {
+                        return null;
+                    }
+                    try {
+                        return new RequiredEquality(
+                                propertyPath(property),
+                                compileProperty(property),
+                                (String) ((LiteralTree) literal).getValue());
+                    } catch (UnsupportedExpressionException e) {
+                        return null;
+                    }
+                }
+            default:
+                return null;
+        }
+    }
+
+    private Node compile(ExpressionTree tree) {
+        switch (tree.getKind()) {
+            case PARENTHESIZED:
+                return compile(((ParenthesizedTree) tree).getExpression());
+            case BOOLEAN_LITERAL:
+            case STRING_LITERAL:
+            case NULL_LITERAL:
+                Object literal = ((LiteralTree) tree).getValue();
+                return sr -> literal;
+            case NUMBER_LITERAL:
+                Double number = ((Number) ((LiteralTree) tree).getValue()).doubleValue();
+                return sr -> number;
+            case IDENTIFIER:
+            case MEMBER_SELECT:
+            case ARRAY_ACCESS:
+                return compileProperty(tree);
+            case FUNCTION_INVOCATION:
+                return compileRegExpTest((FunctionCallTree) tree);
+            case CONDITIONAL_EXPRESSION:
+                {
+                    ConditionalExpressionTree ct = (ConditionalExpressionTree) tree;
+                    Node condition = compile(ct.getCondition());
+                    Node whenTrue = compile(ct.getTrueExpression());
+                    Node whenFalse = compile(ct.getFalseExpression());
+                    return sr ->
+                            isTruthy(condition.evaluate(sr))
+                                    ? whenTrue.evaluate(sr)
+                                    : whenFalse.evaluate(sr);
+                }
+            default:
+                break;
+        }
+        if (!(tree instanceof BinaryTree)) {
+            throw new UnsupportedExpressionException();
+        }
+        Node left = compile(((BinaryTree) tree).getLeftOperand());
+        Node right = compile(((BinaryTree) tree).getRightOperand());
+        switch (tree.getKind()) {
+            case CONDITIONAL_AND:
+                return sr -> {
+                    Object l = left.evaluate(sr);
+                    return isTruthy(l) ? right.evaluate(sr) : l;
+                };
+            case CONDITIONAL_OR:
+                return sr -> {
+                    Object l = left.evaluate(sr);
+                    return isTruthy(l) ? l : right.evaluate(sr);
+                };
+            case EQUAL_TO:
+                return sr -> looseEquals(left.evaluate(sr), right.evaluate(sr));
+            case NOT_EQUAL_TO:
+                return sr -> !looseEquals(left.evaluate(sr), right.evaluate(sr));
+            case STRICT_EQUAL_TO:
+                return sr -> strictEquals(left.evaluate(sr), right.evaluate(sr));
+            case STRICT_NOT_EQUAL_TO:
+                return sr -> !strictEquals(left.evaluate(sr), right.evaluate(sr));
+            case LESS_THAN:
+                return sr -> lessThan(left.evaluate(sr), right.evaluate(sr)) == 1;
+            case GREATER_THAN:
+                return sr -> lessThan(right.evaluate(sr), left.evaluate(sr)) == 1;
+            case LESS_THAN_EQUAL:
+                return sr -> lessThan(right.evaluate(sr), left.evaluate(sr)) == 0;
+            case GREATER_THAN_EQUAL:
+                return sr -> lessThan(left.evaluate(sr), right.evaluate(sr)) == 0;
+            default:
+                throw new UnsupportedExpressionException();
+        }
+    }
+
+    private List<String> propertyPath(ExpressionTree tree) {
+        List<String> path = new ArrayList<>();
+        ExpressionTree node = tree;
+        while (!(node instanceof IdentifierTree)) {
+            if (node instanceof MemberSelectTree) {
+                path.add(((MemberSelectTree) node).getIdentifier());
+                node = ((MemberSelectTree) node).getExpression();
+            } else if (node instanceof ArrayAccessTree
+                    && ((ArrayAccessTree) node).getIndex().getKind() == Tree.Kind.STRING_LITERAL) {
+                path.add((String) ((LiteralTree) ((ArrayAccessTree) node).getIndex()).getValue());
+                node = ((ArrayAccessTree) node).getExpression();
+            } else {
+                throw new UnsupportedExpressionException();
+            }
+        }
+        if (!"target".equals(((IdentifierTree) node).getName())) {
+            throw new UnsupportedExpressionException();
+        }
+        Collections.reverse(path);
+        if (path.stream().anyMatch(MAP_BEAN_PROPERTIES::contains)) {
+            throw new UnsupportedExpressionException();
+        }
+        return path;
+    }
+
+    private Node compileProperty(ExpressionTree tree) {
+        List<String> path = propertyPath(tree);
+
+        if (path.size() == 1) {
+            switch (path.get(0)) {
+                case "connectUrl":
+                    return sr -> sr.getServiceUri().toString();
+                case "jvmId":
+                    return ServiceRef::getJvmId;
+                case "alias":
+                    return sr -> sr.getAlias().orElse(null);
+                default:
+                    break;
+            }
+        } else if (path.size() == 2 && "labels".equals(path.get(0))) {
+            String key = path.get(1);
+            return sr -> undefinedIfNull(sr.getLabel(key));
+        } else if (path.size() == 3 && "annotations".equals(path.get(0))) {
+            String key = path.get(2);
+            switch (path.get(1)) {
+                case "platform":
+                    return sr -> undefinedIfNull(sr.getPlatformAnnotation(key));
+                case "cryostat":
+                    for (ServiceRef.AnnotationKey ak : ServiceRef.AnnotationKey.values()) {
+                        if (ak.name().equals(key)) {
+                            return sr -> undefinedIfNull(sr.getCryostatAnnotation(ak));
+                        }
+                    }
+                    return sr -> UNDEFINED;
+                default:
+                    break;
+            }
+        }
+        throw new UnsupportedExpressionException();
+    }
+
+    private Node compileRegExpTest(FunctionCallTree tree) {
+        if (!(tree.getFunctionSelect() instanceof MemberSelectTree)
+                || tree.getArguments().size() != 1) {
+            throw new UnsupportedExpressionException();
+        }
+        MemberSelectTree select = (MemberSelectTree) tree.getFunctionSelect();
+        if (!"test".equals(select.getIdentifier())
+                || !(select.getExpression() instanceof RegExpLiteralTree)) {
+            throw new UnsupportedExpressionException();
+        }
+        RegExpLiteralTree regexp = (RegExpLiteralTree) select.getExpression();
+        int flags = 0;
+        boolean multiline = false;
+        for (char c : regexp.getOptions().toCharArray()) {
+            switch (c) {
+                case 'i':
+                    flags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+                    break;
+                case 'm':
+                    multiline = true;
+                    break;
+                default:
+                    // 'g' and 'y' make test() stateful
+                    throw new UnsupportedExpressionException();
+            }
+        }
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(translateRegExp(regexp.getPattern(), multiline), flags);
+        } catch (PatternSyntaxException e) {
+            throw new UnsupportedExpressionException();
+        }
+        Node argument = compile(tree.getArguments().get(0));
+        return sr -> pattern.matcher(toJsString(argument.evaluate(sr))).find();
+    }
+
+    /**
+     * Translate a JavaScript RegExp pattern into a {@link Pattern} with the same meaning. The two
+     * syntaxes mostly agree, but differ in which characters {@code .}, {@code \s}, and {@code \v}
+     * match, in where {@code ^} and {@code $} match, and in the meaning of some escapes and
+     * character class syntax. Those constructs are rewritten, and any which cannot be rewritten are
+     * left to the ScriptEngine.
+     */
+    static String translateRegExp(String source, boolean multiline) {
+        StringBuilder sb = new StringBuilder(source.length() + 16);
+        boolean inClass = false;
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i++);
+            if (c == '\\') {
+                if (i >= source.length()) {
+                    throw new UnsupportedExpressionException();
+                }
+                i = translateEscape(source, i, inClass, sb);
+            } else if (inClass) {
+                if (c == ']') {
+                    inClass = false;
+                } else if (c == '[' || c == '&') {
+                    // nested classes and intersections are only special in Java
+                    sb.append('\\');
+                }
+                sb.append(c);
+            } else {
+                switch (c) {
+                    case '[':
+                        inClass = true;
+                        sb.append(c);
+                        if (i < source.length() && source.charAt(i) == '^') {
+                            sb.append(source.charAt(i++));
+                        }
+                        // JavaScript's empty classes [] and [^] are not valid Java
+                        if (i < source.length() && source.charAt(i) == ']') {
+                            throw new UnsupportedExpressionException();
+                        }
+                        break;
+                    case '.':
+                        sb.append("[^").append(JS_LINE_TERMINATORS).append(']');
+                        break;
+                    case '^':
+                        sb.append(
+                                multiline
+                                        ? "(?:^|(?<=[" + JS_LINE_TERMINATORS + "]))"
+                                        : "^");
+                        break;
+                    case '$':
+                        sb.append(
+                                multiline
+                                        ? "(?=[" + JS_LINE_TERMINATORS + "]|\\z)"
+                                        : "\\z");
+                        break;
+                    case '(':
+                        // only non-capturing groups and lookaheads are JavaScript syntax
+                        if (i < source.length()
+                                && source.charAt(i) == '?'
+                                && (i + 1 >= source.length()
+                                        || ":=!".indexOf(source.charAt(i + 1)) < 0)) {
+                            throw new UnsupportedExpressionException();
+                        }
+                        sb.append(c);
+                        break;
+                    case '*':
+                    case '+':
+                    case '?':
+                    case '}':
+                        // possessive quantifiers are only Java syntax
+                        if (i < source.length() && source.charAt(i) == '+') {
+                            throw new UnsupportedExpressionException();
+                        }
+                        sb.append(c);
+                        break;
+                    default:
+                        sb.append(c);
+                        break;
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    // translate the escape sequence at the index just after a backslash, returning the index
+    // after the sequence
+    private static int translateEscape(String source, int i, boolean inClass, StringBuilder sb) {
+        char c = source.charAt(i++);
+        switch (c) {
+            case 's':
+                sb.append(inClass ? JS_WHITESPACE : "[" + JS_WHITESPACE + "]");
+                return i;
+            case 'S':
+                if (inClass) {
+                    throw new UnsupportedExpressionException();
+                }
+                sb.append("[^").append(JS_WHITESPACE).append(']');
+                return i;
+            case 'v':
+                // Java's \v matches any vertical whitespace
+                sb.append("\\u000B");
+                return i;
+            case 'b':
+            case 'B':
+                // \b within a class is a backspace in JavaScript
+                if (inClass) {
+                    throw new UnsupportedExpressionException();
+                }
+                sb.append('\\').append(c);
+                return i;
+            case 'd':
+            case 'D':
+            case 'w':
+            case 'W':
+            case 't':
+            case 'n':
+            case 'r':
+            case 'f':
+                sb.append('\\').append(c);
+                return i;
+            case 'x':
+                return appendHexEscape(source, i, 2, sb);
+            case 'u':
+                return appendHexEscape(source, i, 4, sb);
+            default:
+                // backreferences, \0, \c, and identity escapes of other characters either
+                // differ between the two or are not valid Java
+                if (REGEXP_SYNTAX_CHARACTERS.indexOf(c) < 0) {
+                    throw new UnsupportedExpressionException();
+                }
+                sb.append('\\').append(c);
+                return i;
+        }
+    }
+
+    private static int appendHexEscape(String source, int i, int digits, StringBuilder sb) {
+        if (i + digits > source.length()) {
+            throw new UnsupportedExpressionException();
+        }
+        String hex = source.substring(i, i + digits);
+        for (char d : hex.toCharArray()) {
+            if (Character.digit(d, 16) < 0) {
+                // JavaScript reads a malformed escape as the bare letter
+                throw new UnsupportedExpressionException();
+            }
+        }
+        sb.append("\\u").append(digits == 2 ? "00" : "").append(hex);
+        return i + digits;
+    }
+
+    private static Object undefinedIfNull(Object o) {
+        return o == null ? UNDEFINED : o;
+    }
+
+    static boolean isTruthy(Object o) {
+        if (o == null || o == UNDEFINED) {
+            return false;
+        } else if (o instanceof Boolean) {
+            return (Boolean) o;
+        } else if (o instanceof String) {
+            return !((String) o).isEmpty();
+        }
+        double d = (Double) o;
+        return d != 0 && !Double.isNaN(d);
+    }
+
+    static boolean strictEquals(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == b;
+        } else if (a instanceof Double && b instanceof Double) {
+            return ((Double) a).doubleValue() == ((Double) b).doubleValue();
+        }
+        return a.equals(b);
+    }
+
+    static boolean looseEquals(Object a, Object b) {
+        boolean aNullish = a == null || a == UNDEFINED;
+        boolean bNullish = b == null || b == UNDEFINED;
+        if (aNullish || bNullish) {
+            return aNullish && bNullish;
+        } else if (a.getClass() == b.getClass()) {
+            return strictEquals(a, b);
+        }
+        return toNumber(a) == toNumber(b);
+    }
+
+    // the abstract relational comparison a < b: 1 if true, 0 if false, or -1 if undefined because
+    // either operand is NaN. Both the true and the undefined cases make a <= or >= false.
+    static int lessThan(Object a, Object b) {
+        if (a instanceof String && b instanceof String) {
+            return ((String) a).compareTo((String) b) < 0 ? 1 : 0;
+        }
+        double x = toNumber(a);
+        double y = toNumber(b);
+        if (Double.isNaN(x) || Double.isNaN(y)) {
+            return -1;
+        }
+        return x < y ? 1 : 0;
+    }
+
+    static double toNumber(Object o) {
+        if (o == UNDEFINED) {
+            return Double.NaN;
+        } else if (o == null) {
+            return 0;
+        } else if (o instanceof Boolean) {
+            return ((Boolean) o) ? 1 : 0;
+        } else if (o instanceof Double) {
+            return (Double) o;
+        }
+        String s = ((String) o).strip();
+        if (s.isEmpty()) {
+            return 0;
+        }
+        if (s.startsWith("0x") || s.startsWith("0X")) {
+            try {
+                return Long.parseLong(s.substring(2), 16);
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+        switch (s) {
+            case "Infinity":
+            case "+Infinity":
+                return Double.POSITIVE_INFINITY;
+            case "-Infinity":
+                return Double.NEGATIVE_INFINITY;
+            default:
+                break;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            // reject the Java-only forms that Double.parseDouble would accept, ex. "1f" or "NaN"
+            if (!(Character.isDigit(c)
+                    || c == '.'
+                    || c == 'e'
+                    || c == 'E'
+                    || c == '+'
+                    || c == '-')) {
+                return Double.NaN;
+            }
+        }
+        try {
+            return Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    static String toJsString(Object o) {
+        if (o instanceof Double) {
+            double d = (Double) o;
+            if (d == Math.rint(d) && !Double.isInfinite(d) && Math.abs(d) < 1e21) {
+                return Long.toString((long) d);
+            }
+        }
+        return String.valueOf(o);
+    }
+
+    interface Node {
+        Object evaluate(ServiceRef serviceRef);
+    }
+
+    static class CompiledMatchExpression {
+        private final String matchExpression;
+        private final Node root;
+
+        CompiledMatchExpression(String matchExpression, Node root) {
+            this.matchExpression = matchExpression;
+            this.root = root;
+        }
+
+        boolean applies(ServiceRef serviceRef) throws ScriptException {
+            Object r = root.evaluate(serviceRef);
+            if (r == null || r == UNDEFINED) {
+                throw new ScriptException(
+                        String.format(
+                                "Null match expression evaluation result: %s (%s)",
+                                matchExpression, serviceRef));
+            } else if (r instanceof Boolean) {
+                return (Boolean) r;
+            } else {
+                throw new ScriptException(
+                        String.format(
+                                "Non-boolean match expression evaluation result: %s (%s) -> %s",
+                                matchExpression, serviceRef, r));
+            }
+        }
+    }
+
+    static class RequiredEquality {
+        private final List<String> propertyPath;
+        private final Node property;
+        private final String value;
+
+        RequiredEquality(List<String> propertyPath, Node property, String value) {
+            this.propertyPath = List.copyOf(propertyPath);
+            this.property = property;
+            this.value = value;
+        }
+
+        List<String> getPropertyPath() {
+            return propertyPath;
+        }
+
+        Object getPropertyValue(ServiceRef serviceRef) {
+            return property.evaluate(serviceRef);
+        }
+
+        String getValue() {
+            return value;
+        }
+    }
+
+    private static class UnsupportedExpressionException extends RuntimeException {}
+}
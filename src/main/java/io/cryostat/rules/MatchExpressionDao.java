@@ -15,13 +15,13 @@
  */
 package io.cryostat.rules;
 
-import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 
 import io.cryostat.core.log.Logger;
 import io.cryostat.storage.AbstractDao;
 
 class MatchExpressionDao extends AbstractDao<Integer, MatchExpression> {
-    MatchExpressionDao(EntityManager em, Logger logger) {
-        super(MatchExpression.class, em, logger);
+    MatchExpressionDao(EntityManagerFactory emf, Logger logger) {
+        super(MatchExpression.class, emf, logger);
     }
 }
@@ -19,6 +19,7 @@ import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.CompletionException;
 
 import javax.script.Bindings;
@@ -28,6 +29,7 @@ import javax.script.ScriptException;
 import io.cryostat.configuration.CredentialsManager;
 import io.cryostat.core.log.Logger;
 import io.cryostat.platform.ServiceRef;
+import io.cryostat.rules.MatchExpressionCompiler.CompiledMatchExpression;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
@@ -40,21 +42,30 @@ import org.apache.commons.lang3.tuple.Pair;
 
 public class MatchExpressionEvaluator {
 
+    public static final String ENGINE_NASHORN = "nashorn";
+    public static final String ENGINE_COMPILED = "compiled";
+
     private final ScriptEngine scriptEngine;
+    private final MatchExpressionCompiler compiler;
     private final LoadingCache<Pair<String, ServiceRef>, Boolean> cache;
+    private final LoadingCache<String, Optional<CompiledMatchExpression>> compiled;
     private final Logger logger;
 
     MatchExpressionEvaluator(
             ScriptEngine scriptEngine,
+            MatchExpressionCompiler compiler,
             CredentialsManager credentialsManager,
             RuleRegistry ruleRegistry,
             Logger logger) {
         this.scriptEngine = scriptEngine;
+        this.compiler = compiler;
         this.logger = logger;
         this.cache =
                 Caffeine.newBuilder()
                         .maximumSize(1024) // should this be configurable?
                         .build(k -> compute(k.getKey(), k.getValue()));
+        // keyed by expression alone, so this only needs to be as large as the number of rules
+        this.compiled = Caffeine.newBuilder().maximumSize(1024).build(this::compile);
 
         credentialsManager.addListener(
                 e -> {
@@ -97,7 +108,18 @@ public class MatchExpressionEvaluator {
         }
     }
 
+    private Optional<CompiledMatchExpression> compile(String matchExpression) {
+        Optional<CompiledMatchExpression> c = compiler.compile(matchExpression);
+        if (c.isEmpty()) {
+            logger.trace(
+                    "Match expression cannot be compiled, falling back to ScriptEngine: {}",
+                    matchExpression);
+        }
+        return c;
+    }
+
     private void invalidateCache(String matchExpression) {
+        compiled.invalidate(matchExpression);
         var it = cache.asMap().keySet().iterator();
         while (it.hasNext()) {
             Pair<String, ServiceRef> entry = it.next();
@@ -117,6 +139,12 @@ public class MatchExpressionEvaluator {
         MatchExpressionAppliesEvent evt = new MatchExpressionAppliesEvent(matchExpression);
         try {
             evt.begin();
+            if (compiler != null) {
+                Optional<CompiledMatchExpression> c = compiled.get(matchExpression);
+                if (c.isPresent()) {
+                    return c.get().applies(serviceRef);
+                }
+            }
             Boolean result = cache.get(key);
             if (result == null) {
                 throw new IllegalStateException();
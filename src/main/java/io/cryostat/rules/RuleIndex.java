@@ -0,0 +1,108 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.rules;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import io.cryostat.platform.ServiceRef;
+import io.cryostat.rules.MatchExpressionCompiler.RequiredEquality;
+
+/**
+ * Pre-filter for {@link RuleRegistry#getRules(ServiceRef)}. Rules whose match expressions require
+ * some target property to equal a string literal, ex. {@code target.alias == 'com.example.App' &&
+ * ...}, are bucketed by that property and value. Only the rules in the buckets matching a target's
+ * own property values, plus the rules that could not be bucketed, are candidates which need their
+ * match expressions evaluated against that target.
+ */
+class RuleIndex {
+
+    private final MatchExpressionCompiler compiler;
+    private final Set<Rule> unindexed = new HashSet<>();
+    private final Map<Rule, RequiredEquality> indexed = new HashMap<>();
+    private final Map<List<String>, Buckets> buckets = new HashMap<>();
+
+    RuleIndex(MatchExpressionCompiler compiler) {
+        this.compiler = compiler;
+    }
+
+    synchronized void add(Rule rule) {
+        remove(rule);
+        Optional<RequiredEquality> equality =
+                compiler.findRequiredEquality(rule.getMatchExpression());
+        if (equality.isEmpty()) {
+            unindexed.add(rule);
+            return;
+        }
+        RequiredEquality eq = equality.get();
+        indexed.put(rule, eq);
+        buckets.computeIfAbsent(eq.getPropertyPath(), k -> new Buckets(eq))
+                .rulesByValue
+                .computeIfAbsent(eq.getValue(), k -> new HashSet<>())
+                .add(rule);
+    }
+
+    synchronized void remove(Rule rule) {
+        if (unindexed.remove(rule)) {
+            return;
+        }
+        RequiredEquality eq = indexed.remove(rule);
+        if (eq == null) {
+            return;
+        }
+        Buckets b = buckets.get(eq.getPropertyPath());
+        Set<Rule> rules = b.rulesByValue.get(eq.getValue());
+        rules.remove(rule);
+        if (rules.isEmpty()) {
+            b.rulesByValue.remove(eq.getValue());
+            if (b.rulesByValue.isEmpty()) {
+                buckets.remove(eq.getPropertyPath());
+            }
+        }
+    }
+
+    synchronized Set<Rule> getCandidates(ServiceRef serviceRef) {
+        Set<Rule> candidates = new HashSet<>(unindexed);
+        for (Buckets b : buckets.values()) {
+            Object value = b.property.getPropertyValue(serviceRef);
+            if (value instanceof String) {
+                Set<Rule> rules = b.rulesByValue.get(value);
+                if (rules != null) {
+                    candidates.addAll(rules);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    synchronized int size() {
+        return unindexed.size() + indexed.size();
+    }
+
+    private static class Buckets {
+        // any of the equalities on this property, used to read the property from a target
+        private final RequiredEquality property;
+        private final Map<String, Set<Rule>> rulesByValue = new HashMap<>();
+
+        Buckets(RequiredEquality property) {
+            this.property = property;
+        }
+    }
+}
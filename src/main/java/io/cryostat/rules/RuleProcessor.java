@@ -74,6 +74,7 @@ public class RuleProcessor extends AbstractVerticle implements Consumer<TargetDi
     private final Logger logger;
 
     private final Map<Pair<String, Rule>, Future<?>> tasks;
+    private final Map<Pair<String, Rule>, String> pinnedTargets;
 
     RuleProcessor(
             ScheduledExecutorService executor,
@@ -99,6 +100,7 @@ public class RuleProcessor extends AbstractVerticle implements Consumer<TargetDi
         this.periodicArchiverFactory = periodicArchiverFactory;
         this.logger = logger;
         this.tasks = new ConcurrentHashMap<>();
+        this.pinnedTargets = new ConcurrentHashMap<>();
 
         this.registry.addListener(this.ruleListener());
         this.credentialsManager.addListener(this.credentialsListener());
@@ -114,6 +116,7 @@ public class RuleProcessor extends AbstractVerticle implements Consumer<TargetDi
         this.platformClient.removeTargetDiscoveryListener(this);
         this.tasks.forEach((ruleExecution, task) -> task.cancel(false));
         this.tasks.clear();
+        this.pinnedTargets.keySet().forEach(this::unpin);
     }
 
     EventListener<RuleRegistry.RuleEvent, Rule> ruleListener() {
@@ -297,6 +300,13 @@ public class RuleProcessor extends AbstractVerticle implements Consumer<TargetDi
                                             archivalPeriodSeconds,
                                             TimeUnit.SECONDS);
                             tasks.put(key, task);
+                            // keep the target's connection open between archivals
+                            if (pinnedTargets.putIfAbsent(
+                                            key, serviceRef.getServiceUri().toString())
+                                    == null) {
+                                targetConnectionManager.pin(
+                                        new ConnectionDescriptor(serviceRef, credentials));
+                            }
                         }
                     } catch (ScriptException e) {
                         logger.error(e);
@@ -326,6 +336,7 @@ public class RuleProcessor extends AbstractVerticle implements Consumer<TargetDi
                 try {
                     it.remove();
                     task.cancel(false);
+                    unpin(key);
                 } catch (Exception e) {
                     logger.error(e);
                 }
@@ -338,9 +349,17 @@ public class RuleProcessor extends AbstractVerticle implements Consumer<TargetDi
             tasks.get(key).cancel(false);
         }
         tasks.remove(key);
+        unpin(key);
         return null;
     }
 
+    private void unpin(Pair<String, Rule> key) {
+        String targetId = pinnedTargets.remove(key);
+        if (targetId != null) {
+            targetConnectionManager.unpin(targetId);
+        }
+    }
+
     private void archiveRuleRecording(ConnectionDescriptor connectionDescriptor, Rule rule) {
         try {
             targetConnectionManager
@@ -35,6 +35,11 @@ import io.cryostat.util.events.EventType;
 
 import com.google.gson.Gson;
 import dagger.Lazy;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
 
 public class RuleRegistry extends AbstractEventEmitter<RuleEvent, Rule> {
 
@@ -42,12 +47,14 @@ public class RuleRegistry extends AbstractEventEmitter<RuleEvent, Rule> {
     private final Lazy<MatchExpressionEvaluator> matchExpressionEvaluator;
     private final FileSystem fs;
     private final Set<Rule> rules;
+    private final RuleIndex index;
     private final Gson gson;
     private final Logger logger;
 
     RuleRegistry(
             Path rulesDir,
             Lazy<MatchExpressionEvaluator> matchExpressionEvaluator,
+            MatchExpressionCompiler matchExpressionCompiler,
             FileSystem fs,
             Gson gson,
             Logger logger) {
@@ -57,6 +64,7 @@ public class RuleRegistry extends AbstractEventEmitter<RuleEvent, Rule> {
         this.gson = gson;
         this.logger = logger;
         this.rules = new HashSet<>();
+        this.index = new RuleIndex(matchExpressionCompiler);
     }
 
     public void loadRules() throws IOException {
@@ -83,7 +91,11 @@ public class RuleRegistry extends AbstractEventEmitter<RuleEvent, Rule> {
                             }
                         })
                 .filter(Objects::nonNull)
-                .forEach(rules::add);
+                .forEach(
+                        rule -> {
+                            rules.add(rule);
+                            index.add(rule);
+                        });
     }
 
     public Rule addRule(Rule rule) throws IOException {
@@ -95,6 +107,7 @@ public class RuleRegistry extends AbstractEventEmitter<RuleEvent, Rule> {
                                 rule.getName()));
             }
             rules.add(rule);
+            index.add(rule);
             persistRule(rule);
         }
         emit(RuleEvent.ADDED, rule);
@@ -127,7 +140,16 @@ public class RuleRegistry extends AbstractEventEmitter<RuleEvent, Rule> {
         if (!serviceRef.getAlias().isPresent()) {
             return Set.of();
         }
-        return rules.stream().filter(r -> applies(r, serviceRef)).collect(Collectors.toSet());
+        RuleCandidateSelectionEvent evt = new RuleCandidateSelectionEvent();
+        evt.begin();
+        Set<Rule> candidates = index.getCandidates(serviceRef);
+        evt.candidates = candidates.size();
+        evt.skipped = Math.max(0, index.size() - candidates.size());
+        evt.end();
+        if (evt.shouldCommit()) {
+            evt.commit();
+        }
+        return candidates.stream().filter(r -> applies(r, serviceRef)).collect(Collectors.toSet());
     }
 
     public Set<Rule> getRules() {
@@ -151,6 +173,7 @@ public class RuleRegistry extends AbstractEventEmitter<RuleEvent, Rule> {
             if (Objects.equals(rule.getName(), name)) {
                 emit(RuleEvent.REMOVED, rule);
                 it.remove();
+                index.remove(rule);
                 break;
             }
         }
@@ -181,6 +204,17 @@ public class RuleRegistry extends AbstractEventEmitter<RuleEvent, Rule> {
                 StandardOpenOption.TRUNCATE_EXISTING);
     }
 
+    @Name("io.cryostat.rules.RuleRegistry.RuleCandidateSelectionEvent")
+    @Label("Rule Candidate Selection")
+    @Category("Cryostat")
+    @SuppressFBWarnings(
+            value = "URF_UNREAD_FIELD",
+            justification = "The event fields are recorded with JFR instead of accessed directly")
+    public static class RuleCandidateSelectionEvent extends Event {
+        int candidates;
+        int skipped;
+    }
+
     enum RuleEvent implements EventType {
         ADDED,
         REMOVED,
@@ -22,12 +22,14 @@ import java.util.concurrent.Executors;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
-import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import javax.script.ScriptEngine;
 
 import io.cryostat.configuration.ConfigurationModule;
 import io.cryostat.configuration.CredentialsManager;
+import io.cryostat.configuration.Variables;
 import io.cryostat.core.log.Logger;
+import io.cryostat.core.sys.Environment;
 import io.cryostat.core.sys.FileSystem;
 import io.cryostat.discovery.DiscoveryStorage;
 import io.cryostat.net.TargetConnectionManager;
@@ -51,6 +53,7 @@ public abstract class RulesModule {
     static RuleRegistry provideRuleRegistry(
             @Named(ConfigurationModule.CONFIGURATION_PATH) Path confDir,
             Lazy<MatchExpressionEvaluator> matchExpressionEvaluator,
+            MatchExpressionCompiler matchExpressionCompiler,
             FileSystem fs,
             Gson gson,
             Logger logger) {
@@ -59,7 +62,8 @@ public abstract class RulesModule {
             if (!fs.isDirectory(rulesDir)) {
                 Files.createDirectory(rulesDir);
             }
-            return new RuleRegistry(rulesDir, matchExpressionEvaluator, fs, gson, logger);
+            return new RuleRegistry(
+                    rulesDir, matchExpressionEvaluator, matchExpressionCompiler, fs, gson, logger);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -67,8 +71,8 @@ public abstract class RulesModule {
 
     @Provides
     @Singleton
-    static MatchExpressionDao provideMatchExpressionDao(EntityManager em, Logger logger) {
-        return new MatchExpressionDao(em, logger);
+    static MatchExpressionDao provideMatchExpressionDao(EntityManagerFactory emf, Logger logger) {
+        return new MatchExpressionDao(emf, logger);
     }
 
     @Provides
@@ -90,14 +94,36 @@ public abstract class RulesModule {
         return new MatchExpressionValidator();
     }
 
+    @Provides
+    @Singleton
+    static MatchExpressionCompiler provideMatchExpressionCompiler() {
+        return new MatchExpressionCompiler();
+    }
+
     @Provides
     @Singleton
     static MatchExpressionEvaluator provideMatchExpressionEvaluator(
             ScriptEngine scriptEngine,
+            MatchExpressionCompiler matchExpressionCompiler,
             CredentialsManager credentialsManager,
             RuleRegistry ruleRegistry,
+            Environment env,
             Logger logger) {
-        return new MatchExpressionEvaluator(scriptEngine, credentialsManager, ruleRegistry, logger);
+        String engine =
+                env.getEnv(
+                        Variables.MATCH_EXPRESSION_ENGINE, MatchExpressionEvaluator.ENGINE_NASHORN);
+        MatchExpressionCompiler compiler = null;
+        if (MatchExpressionEvaluator.ENGINE_COMPILED.equalsIgnoreCase(engine)) {
+            compiler = matchExpressionCompiler;
+        } else if (!MatchExpressionEvaluator.ENGINE_NASHORN.equalsIgnoreCase(engine)) {
+            logger.warn(
+                    "Unknown {} \"{}\", using {}",
+                    Variables.MATCH_EXPRESSION_ENGINE,
+                    engine,
+                    MatchExpressionEvaluator.ENGINE_NASHORN);
+        }
+        return new MatchExpressionEvaluator(
+                scriptEngine, compiler, credentialsManager, ruleRegistry, logger);
     }
 
     @Provides
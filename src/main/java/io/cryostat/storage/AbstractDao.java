@@ -18,8 +18,10 @@ package io.cryostat.storage;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityTransaction;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
@@ -28,85 +30,103 @@ import javax.persistence.criteria.Root;
 
 import io.cryostat.core.log.Logger;
 
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+
+/**
+ * Each operation runs in its own short-lived EntityManager, backed by a connection from the JDBC
+ * connection pool, so that operations from different threads proceed concurrently rather than
+ * queueing on a single shared session. Entities returned from any operation are detached.
+ */
 public abstract class AbstractDao<I, T> {
 
     protected final Class<T> klazz;
-    protected final EntityManager entityManager;
+    protected final EntityManagerFactory entityManagerFactory;
     protected final Logger logger;
 
-    protected AbstractDao(Class<T> klazz, EntityManager entityManager, Logger logger) {
+    protected AbstractDao(
+            Class<T> klazz, EntityManagerFactory entityManagerFactory, Logger logger) {
         this.klazz = klazz;
-        this.entityManager = entityManager;
+        this.entityManagerFactory = entityManagerFactory;
         this.logger = logger;
     }
 
     public final T save(T t) {
-        synchronized (entityManager) {
-            Objects.requireNonNull(t);
-            EntityTransaction transaction = entityManager.getTransaction();
-            try {
-                transaction.begin();
-                entityManager.persist(t);
-                transaction.commit();
-                entityManager.detach(t);
-                return t;
-            } catch (Exception e) {
-                if (transaction != null) {
-                    transaction.rollback();
-                }
-                logger.error(e);
-                throw e;
-            }
-        }
+        Objects.requireNonNull(t);
+        return write(
+                entityManager -> {
+                    entityManager.persist(t);
+                    return t;
+                });
     }
 
     public final boolean delete(I id) {
-        synchronized (entityManager) {
-            Objects.requireNonNull(id);
-            EntityTransaction transaction = entityManager.getTransaction();
-            try {
-                transaction.begin();
-                T t = entityManager.find(klazz, id);
-                entityManager.remove(t);
-                transaction.commit();
-                return true;
-            } catch (Exception e) {
-                if (transaction != null) {
-                    transaction.rollback();
-                }
-                logger.error(e);
-                return false;
-            }
+        Objects.requireNonNull(id);
+        try {
+            return write(
+                    entityManager -> {
+                        T t = entityManager.find(klazz, id);
+                        entityManager.remove(t);
+                        return true;
+                    });
+        } catch (Exception e) {
+            return false;
         }
     }
 
     public final Optional<T> get(I id) {
-        synchronized (entityManager) {
-            Objects.requireNonNull(id);
-            EntityTransaction transaction = entityManager.getTransaction();
-            try {
-                T t = entityManager.find(klazz, id);
-                if (t != null) {
-                    entityManager.detach(t);
-                }
-                return Optional.ofNullable(t);
-            } catch (Exception e) {
-                if (transaction != null) {
-                    transaction.rollback();
-                }
-                throw e;
+        Objects.requireNonNull(id);
+        return read(entityManager -> Optional.ofNullable(entityManager.find(klazz, id)));
+    }
+
+    public final List<T> getAll() {
+        return read(
+                entityManager -> {
+                    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+                    CriteriaQuery<T> cq = cb.createQuery(klazz);
+                    Root<T> rootEntry = cq.from(klazz);
+                    CriteriaQuery<T> all = cq.select(rootEntry);
+                    TypedQuery<T> allQuery = entityManager.createQuery(all);
+                    return allQuery.getResultList();
+                });
+    }
+
+    /**
+     * Run the given function within a transaction, which is committed if the function returns
+     * normally and rolled back otherwise. Changes made to managed entities are flushed on commit.
+     */
+    protected final <R> R write(Function<EntityManager, R> fn) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        EntityTransaction transaction = entityManager.getTransaction();
+        try {
+            transaction.begin();
+            R r = fn.apply(entityManager);
+            transaction.commit();
+            return r;
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
             }
+            logger.error(e);
+            throw e;
+        } finally {
+            entityManager.close();
         }
     }
 
-    public final List<T> getAll() {
-        synchronized (entityManager) {
-            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-            CriteriaQuery<T> cq = cb.createQuery(klazz);
-            Root<T> rootEntry = cq.from(klazz);
-            CriteriaQuery<T> all = cq.select(rootEntry);
-            TypedQuery<T> allQuery = entityManager.createQuery(all);
-            return allQuery.getResultList();
+    /**
+     * Run the given function without a transaction. Entities loaded by it are read-only, so
+     * Hibernate neither keeps snapshots of them for dirty checking nor flushes them.
+     */
+    protected final <R> R read(Function<EntityManager, R> fn) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            Session session = entityManager.unwrap(Session.class);
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            return fn.apply(entityManager);
+        } finally {
+            entityManager.close();
         }
     }
 }
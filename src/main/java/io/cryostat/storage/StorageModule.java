@@ -19,7 +19,6 @@ import java.util.Properties;
 
 import javax.inject.Singleton;
 import javax.naming.ConfigurationException;
-import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
 
@@ -35,6 +34,8 @@ import org.jasypt.hibernate5.encryptor.HibernatePBEEncryptorRegistry;
 @Module
 public abstract class StorageModule {
 
+    static final String DEFAULT_JDBC_POOL_SIZE = "20";
+
     @Provides
     @Singleton
     static EntityManagerFactory provideEntityManagerFactory(Environment env) {
@@ -55,6 +56,10 @@ public abstract class StorageModule {
         properties.put(
                 "hibernate.dialect",
                 env.getEnv(Variables.HIBERNATE_DIALECT, "org.hibernate.dialect.H2Dialect"));
+        // each DAO operation takes its own connection from Hibernate's connection pool
+        properties.put(
+                "hibernate.connection.pool_size",
+                env.getEnv(Variables.JDBC_POOL_SIZE, DEFAULT_JDBC_POOL_SIZE));
         properties.put("hibernate.hbm2ddl.auto", env.getEnv(Variables.HBM2DDL, "create"));
         if (env.hasEnv(Variables.LOG_QUERIES)) {
             properties.put("hibernate.show_sql", "true");
@@ -80,10 +85,4 @@ public abstract class StorageModule {
 
         return Persistence.createEntityManagerFactory("io.cryostat", properties);
     }
-
-    @Provides
-    @Singleton
-    static EntityManager provideEntityManager(EntityManagerFactory emf) {
-        return emf.createEntityManager();
-    }
 }
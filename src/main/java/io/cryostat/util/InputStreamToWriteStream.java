@@ -0,0 +1,178 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.cryostat.net.ConnectionDescriptor;
+import io.cryostat.net.TargetConnectionManager;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+
+/**
+ * Streams a blocking {@link InputStream} from a target connection into a Vert.x {@link
+ * WriteStream}, such as an HTTP response.
+ *
+ * <p>The source is read on the given executor in chunks of {@link #CHUNK_SIZE} bytes, and each
+ * chunk is handed to the sink on its Vert.x context without waiting for the previous write to
+ * complete. Only a bounded number of chunks may be in flight at once, and once the sink reports
+ * that its write queue is full the reader is held back until the sink's drain handler fires. The
+ * target connection lease is refreshed by a periodic timer for as long as the transfer is running,
+ * rather than once per write.
+ */
+public class InputStreamToWriteStream {
+
+    static final int CHUNK_SIZE = 64 * 1024; // 64 KB
+    static final int MAX_CHUNKS_IN_FLIGHT = 4;
+    // must be comfortably shorter than the minimum target connection TTL of one second
+    static final Duration LEASE_REFRESH_INTERVAL = Duration.ofMillis(500);
+
+    private final Vertx vertx;
+    private final Context context;
+    private final ExecutorService executor;
+    private final TargetConnectionManager targetConnectionManager;
+    private final ConnectionDescriptor connectionDescriptor;
+
+    public InputStreamToWriteStream(
+            Vertx vertx,
+            ExecutorService executor,
+            TargetConnectionManager targetConnectionManager,
+            ConnectionDescriptor connectionDescriptor) {
+        this.vertx = vertx;
+        this.context = vertx.getOrCreateContext();
+        this.executor = executor;
+        this.targetConnectionManager = targetConnectionManager;
+        this.connectionDescriptor = connectionDescriptor;
+    }
+
+    /**
+     * Copy all of the source's data to the sink, then end the sink and close the source.
+     *
+     * @return a Future that succeeds once the sink has been ended, or fails if reading the source,
+     *     writing to the sink, or keeping the target connection open fails. The Future fails with a
+     *     {@link RejectedExecutionException} if the executor has no room for the transfer.
+     */
+    public Future<Void> pipe(InputStream source, WriteStream<Buffer> sink) {
+        Promise<Void> promise = Promise.promise();
+        try {
+            submit(source, sink, promise);
+        } catch (RejectedExecutionException e) {
+            // the streaming executor is saturated, so the transfer never started
+            try {
+                source.close();
+            } catch (IOException ioe) {
+                e.addSuppressed(ioe);
+            }
+            promise.fail(e);
+        }
+        return promise.future();
+    }
+
+    private void submit(InputStream source, WriteStream<Buffer> sink, Promise<Void> promise) {
+        executor.submit(
+                () -> {
+                    long leaseTimer = -1;
+                    try (InputStream is = source) {
+                        refreshLease();
+                        leaseTimer =
+                                vertx.setPeriodic(
+                                        LEASE_REFRESH_INTERVAL.toMillis(),
+                                        id -> {
+                                            try {
+                                                refreshLease();
+                                            } catch (IOException e) {
+                                                promise.tryFail(e);
+                                            }
+                                        });
+                        transfer(is, sink, promise);
+                    } catch (Exception e) {
+                        context.runOnContext(v -> promise.tryFail(e));
+                    } finally {
+                        if (leaseTimer >= 0) {
+                            vertx.cancelTimer(leaseTimer);
+                        }
+                    }
+                });
+    }
+
+    private void transfer(InputStream is, WriteStream<Buffer> sink, Promise<Void> promise)
+            throws IOException, InterruptedException {
+        Semaphore window = new Semaphore(MAX_CHUNKS_IN_FLIGHT);
+        AtomicInteger awaitingDrain = new AtomicInteger();
+        while (true) {
+            byte[] chunk = is.readNBytes(CHUNK_SIZE);
+            if (chunk.length == 0) {
+                break;
+            }
+            while (!window.tryAcquire(1, TimeUnit.SECONDS)) {
+                if (promise.future().isComplete()) {
+                    return;
+                }
+            }
+            if (promise.future().isComplete()) {
+                return;
+            }
+            Buffer buffer = Buffer.buffer(chunk);
+            context.runOnContext(
+                    v -> {
+                        sink.write(
+                                buffer,
+                                ar -> {
+                                    if (ar.failed()) {
+                                        promise.tryFail(ar.cause());
+                                    }
+                                });
+                        if (sink.writeQueueFull()) {
+                            awaitingDrain.incrementAndGet();
+                            sink.drainHandler(d -> window.release(awaitingDrain.getAndSet(0)));
+                        } else {
+                            window.release();
+                        }
+                    });
+        }
+        // the recording is only complete if the connection survived until the end of the stream
+        refreshLease();
+        context.runOnContext(
+                v ->
+                        sink.end(
+                                ar -> {
+                                    if (ar.succeeded()) {
+                                        promise.tryComplete();
+                                    } else {
+                                        promise.tryFail(ar.cause());
+                                    }
+                                }));
+    }
+
+    private void refreshLease() throws IOException {
+        if (!targetConnectionManager.markConnectionInUse(connectionDescriptor)) {
+            throw new IOException(
+                    "Target connection unexpectedly closed while streaming recording");
+        }
+    }
+}
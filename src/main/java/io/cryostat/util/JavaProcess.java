@@ -29,7 +29,11 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 public class JavaProcess {
 
     static Process exec(
-            Class<?> klazz, Map<String, String> env, List<String> jvmArgs, List<String> processArgs)
+            Class<?> klazz,
+            Map<String, String> env,
+            List<String> jvmArgs,
+            List<String> processArgs,
+            boolean pipeIO)
             throws IOException, InterruptedException {
         String className = klazz.getName();
 
@@ -44,7 +48,17 @@ public class JavaProcess {
         Logger.INSTANCE.trace("Forking process: " + cmd.toString());
         var pb = new ProcessBuilder();
         pb.environment().putAll(env);
-        return pb.command(cmd).inheritIO().start();
+        pb.command(cmd);
+        if (pipeIO) {
+            // stdin and stdout are left for the parent to communicate with the child over, while
+            // stderr is still shared so that the child's logs appear alongside our own
+            pb.redirectInput(ProcessBuilder.Redirect.PIPE)
+                    .redirectOutput(ProcessBuilder.Redirect.PIPE)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT);
+        } else {
+            pb.inheritIO();
+        }
+        return pb.start();
     }
 
     public static class Builder {
@@ -52,6 +66,7 @@ public class JavaProcess {
         private Map<String, String> env;
         private List<String> jvmArgs;
         private List<String> processArgs;
+        private boolean pipeIO;
 
         public Builder klazz(Class<?> klazz) {
             this.klazz = Objects.requireNonNull(klazz);
@@ -76,6 +91,11 @@ public class JavaProcess {
             return this;
         }
 
+        public Builder pipeIO(boolean pipeIO) {
+            this.pipeIO = pipeIO;
+            return this;
+        }
+
         public Process exec() throws IOException, InterruptedException {
             Objects.requireNonNull(klazz, "Class cannot be null");
             if (env == null) {
@@ -87,7 +107,7 @@ public class JavaProcess {
             if (processArgs == null) {
                 processArgs = Collections.emptyList();
             }
-            return JavaProcess.exec(klazz, env, jvmArgs, processArgs);
+            return JavaProcess.exec(klazz, env, jvmArgs, processArgs, pipeIO);
         }
     }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.util;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces concurrent executions of the same asynchronous task. While a task for some key is in
+ * flight, any further callers asking to run a task for that key share the result of the first one
+ * instead of starting their own. Once the task completes the key is forgotten, so results are not
+ * cached beyond the lifetime of the task.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param task starts the asynchronous work for the key. This is called while the key is
+     *     reserved, so it should return as soon as the work has been started.
+     * @return the future of the in-flight task for the key, or of the given task if none was in
+     *     flight
+     */
+    public CompletableFuture<V> run(K key, Callable<CompletableFuture<V>> task) {
+        CompletableFuture<V> f =
+                inFlight.computeIfAbsent(
+                        key,
+                        k -> {
+                            try {
+                                return task.call();
+                            } catch (Exception e) {
+                                return CompletableFuture.failedFuture(e);
+                            }
+                        });
+        f.whenComplete((v, t) -> inFlight.remove(key, f));
+        return f;
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+
+/**
+ * A Vert.x {@link WriteStream} whose data is consumed through a blocking {@link InputStream}, for
+ * example to hand an HTTP client response body to code that expects classic Java IO.
+ *
+ * <p>At most roughly one write queue's worth of data (see {@link #setWriteQueueMaxSize(int)}) is
+ * held in memory. Once that much is queued the stream reports {@link #writeQueueFull()}, so a
+ * {@link io.vertx.core.streams.Pipe} feeding it pauses its source until the reader has consumed
+ * half of the queue and the drain handler has been called.
+ */
+public class WriteStreamToInputStream extends InputStream implements WriteStream<Buffer> {
+
+    public static final int DEFAULT_WRITE_QUEUE_MAX_SIZE = 1024 * 1024; // 1 MB
+
+    private final Deque<Buffer> queue = new ArrayDeque<>();
+    private int writeQueueMaxSize = DEFAULT_WRITE_QUEUE_MAX_SIZE;
+    private long queuedBytes;
+    private boolean full;
+    private Buffer current;
+    private int position;
+    private boolean ended;
+    private boolean closed;
+    private Throwable failure;
+    private Context context;
+    private Handler<Void> drainHandler;
+
+    /**
+     * Fail the stream. Any data not yet read is discarded and the reader receives an {@link
+     * IOException} with the given cause.
+     */
+    public synchronized void fail(Throwable t) {
+        if (failure == null) {
+            failure = t;
+        }
+        notifyAll();
+    }
+
+    /* WriteStream */
+
+    @Override
+    public WriteStreamToInputStream exceptionHandler(Handler<Throwable> handler) {
+        // writes are only ever queued, so there are no asynchronous write failures to report
+        return this;
+    }
+
+    @Override
+    public Future<Void> write(Buffer data) {
+        Promise<Void> promise = Promise.promise();
+        write(data, promise);
+        return promise.future();
+    }
+
+    @Override
+    public void write(Buffer data, Handler<AsyncResult<Void>> handler) {
+        synchronized (this) {
+            if (context == null) {
+                context = Vertx.currentContext();
+            }
+            if (!closed && failure == null) {
+                queue.add(data);
+                queuedBytes += data.length();
+                notifyAll();
+            }
+        }
+        if (handler != null) {
+            handler.handle(Future.succeededFuture());
+        }
+    }
+
+    @Override
+    public void end(Handler<AsyncResult<Void>> handler) {
+        synchronized (this) {
+            ended = true;
+            notifyAll();
+        }
+        if (handler != null) {
+            handler.handle(Future.succeededFuture());
+        }
+    }
+
+    @Override
+    public synchronized WriteStreamToInputStream setWriteQueueMaxSize(int maxSize) {
+        this.writeQueueMaxSize = maxSize;
+        return this;
+    }
+
+    @Override
+    public synchronized boolean writeQueueFull() {
+        if (queuedBytes >= writeQueueMaxSize) {
+            full = true;
+        }
+        return full;
+    }
+
+    @Override
+    public synchronized WriteStreamToInputStream drainHandler(Handler<Void> handler) {
+        this.drainHandler = handler;
+        return this;
+    }
+
+    /* InputStream */
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n = read(b, 0, 1);
+        return n == -1 ? -1 : (b[0] & 0xFF);
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (current == null || position >= current.length()) {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (failure != null) {
+                throw new IOException(failure);
+            }
+            if (!queue.isEmpty()) {
+                current = queue.poll();
+                position = 0;
+                queuedBytes -= current.length();
+                maybeDrain();
+                continue;
+            }
+            if (ended) {
+                return -1;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+        int n = Math.min(len, current.length() - position);
+        current.getBytes(position, position + n, b, off);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public synchronized int available() {
+        int n = current == null ? 0 : current.length() - position;
+        return (int) Math.min(Integer.MAX_VALUE, n + queuedBytes);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.clear();
+        queuedBytes = 0;
+        current = null;
+        // let the writer finish so that the rest of the data is discarded rather than stalling
+        maybeDrain();
+        notifyAll();
+    }
+
+    private void maybeDrain() {
+        if (!full || queuedBytes > writeQueueMaxSize / 2) {
+            return;
+        }
+        full = false;
+        Handler<Void> handler = drainHandler;
+        if (handler == null) {
+            return;
+        }
+        if (context != null) {
+            context.runOnContext(handler);
+        } else {
+            handler.handle(null);
+        }
+    }
+}
@@ -21,13 +21,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import io.cryostat.MainModule;
 import io.cryostat.core.log.Logger;
+import io.cryostat.core.net.discovery.JvmDiscoveryClient.EventKind;
 import io.cryostat.core.net.Credentials;
 import io.cryostat.core.sys.FileSystem;
 import io.cryostat.platform.PlatformClient;
 import io.cryostat.platform.ServiceRef;
+import io.cryostat.platform.TargetDiscoveryEvent;
 import io.cryostat.rules.MatchExpressionEvaluator;
 import io.cryostat.rules.MatchExpressionValidator;
 
@@ -302,4 +305,70 @@ class CredentialsManagerTest {
         MatcherAssert.assertThat(
                 credentialsManager.resolveMatchingTargets(7), Matchers.equalTo(expected));
     }
+
+    @Test
+    void servesCredentialsFromCacheUntilChanged() throws Exception {
+        ServiceRef target = new ServiceRef("id1", new URI("target1"), "target1Alias");
+        String matchExpression = "some expression";
+        Credentials credentials = new Credentials("user", "pass");
+        StoredCredentials stored = new StoredCredentials(1, matchExpression, credentials);
+        Mockito.when(dao.getAll()).thenReturn(List.of(stored));
+        Mockito.when(matchExpressionEvaluator.applies(matchExpression, target)).thenReturn(true);
+
+        MatcherAssert.assertThat(
+                credentialsManager.getCredentials(target), Matchers.equalTo(credentials));
+        MatcherAssert.assertThat(
+                credentialsManager.getCredentials(target), Matchers.equalTo(credentials));
+
+        Mockito.verify(dao, Mockito.times(1)).getAll();
+        Mockito.verify(matchExpressionEvaluator, Mockito.times(1))
+                .applies(matchExpression, target);
+
+        Credentials otherCredentials = new Credentials("other", "secret");
+        StoredCredentials otherStored =
+                new StoredCredentials(2, "other expression", otherCredentials);
+        Mockito.when(dao.save(Mockito.any())).thenReturn(otherStored);
+        Mockito.when(dao.getAll()).thenReturn(List.of(otherStored, stored));
+        Mockito.when(matchExpressionEvaluator.applies("other expression", target))
+                .thenReturn(true);
+
+        credentialsManager.addCredentials("other expression", otherCredentials);
+
+        MatcherAssert.assertThat(
+                credentialsManager.getCredentials(target), Matchers.equalTo(otherCredentials));
+        Mockito.verify(dao, Mockito.times(2)).getAll();
+    }
+
+    @Test
+    void reResolvesCredentialsForModifiedTargets() throws Exception {
+        ArgumentCaptor<Consumer<TargetDiscoveryEvent>> listenerCaptor =
+                ArgumentCaptor.forClass(Consumer.class);
+        Mockito.verify(platformClient).addTargetDiscoveryListener(listenerCaptor.capture());
+
+        ServiceRef target = new ServiceRef("id1", new URI("target1"), "target1Alias");
+        Mockito.when(platformClient.listDiscoverableServices()).thenReturn(List.of(target));
+        String matchExpression = "some expression";
+        Credentials credentials = new Credentials("user", "pass");
+        StoredCredentials stored = new StoredCredentials(1, matchExpression, credentials);
+        Mockito.when(dao.getAll()).thenReturn(List.of(stored));
+        Mockito.when(matchExpressionEvaluator.applies(Mockito.eq(matchExpression), Mockito.any()))
+                .thenAnswer(
+                        invocation ->
+                                !((ServiceRef) invocation.getArgument(1))
+                                        .getLabels()
+                                        .containsKey("excluded"));
+
+        MatcherAssert.assertThat(
+                credentialsManager.getCredentialsByTargetId("target1"),
+                Matchers.equalTo(credentials));
+
+        ServiceRef modified = new ServiceRef(target);
+        modified.setLabels(Map.of("excluded", "true"));
+        Mockito.when(platformClient.listDiscoverableServices()).thenReturn(List.of(modified));
+        listenerCaptor.getValue().accept(new TargetDiscoveryEvent(EventKind.MODIFIED, modified));
+
+        MatcherAssert.assertThat(
+                credentialsManager.getCredentialsByTargetId("target1"), Matchers.nullValue());
+        Mockito.verify(platformClient, Mockito.times(2)).listDiscoverableServices();
+    }
 }
@@ -25,6 +25,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Singleton;
 
@@ -48,6 +49,7 @@ import io.cryostat.platform.internal.CustomTargetPlatformClient;
 import io.cryostat.platform.internal.DefaultPlatformClient;
 import io.cryostat.platform.internal.KubeApiPlatformClient;
 import io.cryostat.recordings.JvmIdHelper;
+import io.cryostat.recordings.JvmIdHelper.JvmIdGetException;
 import io.cryostat.rules.MatchExpressionEvaluator;
 
 import com.google.gson.Gson;
@@ -113,6 +115,7 @@ class DiscoveryStorageTest {
                         new FakeScheduledExecutorService(),
                         new DirectExecutorService(),
                         Duration.ofMinutes(5),
+                        2,
                         () -> builtin,
                         dao,
                         () -> jvmIdHelper,
@@ -443,7 +446,8 @@ class DiscoveryStorageTest {
             TargetNode nextTarget = new TargetNode(BaseNodeType.JVM, nextServiceRef);
             EnvironmentNode next =
                     new EnvironmentNode("next", BaseNodeType.REALM, Map.of(), Set.of(nextTarget));
-            Mockito.when(jvmIdHelper.resolveId(Mockito.any())).thenReturn(nextServiceRef);
+            Mockito.when(jvmIdHelper.resolveIdIfKnown(Mockito.any()))
+                    .thenReturn(Optional.of(nextServiceRef));
 
             UUID id = UUID.randomUUID();
             PluginInfo prevPlugin =
@@ -701,6 +705,114 @@ class DiscoveryStorageTest {
             MatcherAssert.assertThat(servicesList, Matchers.hasSize(4));
             MatcherAssert.assertThat(servicesList, Matchers.containsInAnyOrder(sr1, sr2, sr3, sr4));
         }
+
+        @Test
+        void parsesSubtreesOnlyOnceAcrossLookups() {
+            ServiceRef sr1 =
+                    new ServiceRef(
+                            "id1",
+                            URI.create("service:jmx:rmi:///jndi/rmi://leaf:1/jmxrmi"),
+                            "sr1");
+            EnvironmentNode realm1 =
+                    new EnvironmentNode(
+                            "realm1",
+                            BaseNodeType.REALM,
+                            Map.of(),
+                            Set.of(new TargetNode(BaseNodeType.JVM, sr1)));
+            PluginInfo plugin1 = new PluginInfo();
+            plugin1.setSubtree(gson.toJson(realm1));
+
+            Mockito.when(dao.getAll()).thenReturn(List.of(plugin1));
+
+            storage.listDiscoverableServices();
+            storage.getDiscoveryTree();
+            MatcherAssert.assertThat(
+                    storage.lookupServiceByJvmId("id1"), Matchers.equalTo(Optional.of(sr1)));
+            MatcherAssert.assertThat(
+                    storage.lookupServiceByConnectUrl(sr1.getServiceUri()),
+                    Matchers.equalTo(Optional.of(sr1)));
+            MatcherAssert.assertThat(
+                    storage.lookupServiceByJvmId("unknown"), Matchers.equalTo(Optional.empty()));
+            MatcherAssert.assertThat(storage.contains(sr1), Matchers.is(true));
+
+            Mockito.verify(dao, Mockito.times(1)).getAll();
+        }
+
+        @Test
+        void reflectsPluginUpdatesWithoutReloading() throws Exception {
+            UUID id = UUID.randomUUID();
+            ServiceRef prevRef =
+                    new ServiceRef(
+                            "prev", URI.create("service:jmx:rmi:///jndi/rmi://leaf:1/jmxrmi"), "a");
+            ServiceRef nextRef =
+                    new ServiceRef(
+                            "next", URI.create("service:jmx:rmi:///jndi/rmi://leaf:2/jmxrmi"), "b");
+            TargetNode nextTarget = new TargetNode(BaseNodeType.JVM, nextRef);
+            EnvironmentNode prev =
+                    new EnvironmentNode(
+                            "realm",
+                            BaseNodeType.REALM,
+                            Map.of(),
+                            Set.of(new TargetNode(BaseNodeType.JVM, prevRef)));
+            EnvironmentNode next =
+                    new EnvironmentNode("realm", BaseNodeType.REALM, Map.of(), Set.of(nextTarget));
+            PluginInfo prevPlugin = new PluginInfo("realm", null, gson.toJson(prev));
+            prevPlugin.setId(id);
+            PluginInfo nextPlugin = new PluginInfo("realm", null, gson.toJson(next));
+            nextPlugin.setId(id);
+
+            Mockito.when(dao.getAll()).thenReturn(List.of(prevPlugin));
+            Mockito.when(dao.get(id)).thenReturn(Optional.of(prevPlugin));
+            Mockito.when(dao.update(Mockito.any(), Mockito.any(Collection.class)))
+                    .thenReturn(nextPlugin);
+            Mockito.when(jvmIdHelper.resolveIdIfKnown(Mockito.any()))
+                    .thenReturn(Optional.of(nextRef));
+
+            MatcherAssert.assertThat(
+                    storage.listDiscoverableServices(), Matchers.equalTo(List.of(prevRef)));
+
+            storage.update(id, List.of(nextTarget));
+
+            MatcherAssert.assertThat(
+                    storage.listDiscoverableServices(), Matchers.equalTo(List.of(nextRef)));
+            MatcherAssert.assertThat(
+                    storage.lookupServiceByJvmId("prev"), Matchers.equalTo(Optional.empty()));
+            MatcherAssert.assertThat(
+                    storage.lookupServiceByJvmId("next"), Matchers.equalTo(Optional.of(nextRef)));
+            Mockito.verify(dao, Mockito.times(1)).getAll();
+        }
+
+        @Test
+        void publishesSnapshotsIsolatedFromStoredSubtrees() {
+            UUID id = UUID.randomUUID();
+            ServiceRef sr1 =
+                    new ServiceRef(
+                            "id1",
+                            URI.create("service:jmx:rmi:///jndi/rmi://leaf:1/jmxrmi"),
+                            "sr1");
+            ServiceRef sr2 =
+                    new ServiceRef(
+                            "id2",
+                            URI.create("service:jmx:rmi:///jndi/rmi://leaf:2/jmxrmi"),
+                            "sr2");
+            EnvironmentNode realm =
+                    new EnvironmentNode(
+                            "realm",
+                            BaseNodeType.REALM,
+                            Map.of(),
+                            Set.of(new TargetNode(BaseNodeType.JVM, sr1)));
+            PluginInfo plugin = new PluginInfo("realm", null, gson.toJson(realm));
+            plugin.setId(id);
+
+            Mockito.when(dao.getAll()).thenReturn(List.of(plugin));
+
+            EnvironmentNode published =
+                    (EnvironmentNode) storage.getDiscoveryTree().getChildren().get(0);
+            published.addChildNode(new TargetNode(BaseNodeType.JVM, sr2));
+
+            MatcherAssert.assertThat(
+                    storage.listDiscoverableServices(plugin), Matchers.equalTo(List.of(sr1)));
+        }
     }
 
     @Nested
@@ -710,18 +822,19 @@ class DiscoveryStorageTest {
         void updatesDaoWithModifiedJvmIds() throws Exception {
             UUID id = UUID.randomUUID();
 
-            Mockito.when(jvmIdHelper.resolveId(Mockito.any(ServiceRef.class)))
+            Mockito.when(jvmIdHelper.resolveIdAsync(Mockito.any(ServiceRef.class)))
                     .thenAnswer(
-                            new Answer<ServiceRef>() {
+                            new Answer<CompletableFuture<ServiceRef>>() {
                                 @Override
-                                public ServiceRef answer(InvocationOnMock invocation)
-                                        throws Throwable {
+                                public CompletableFuture<ServiceRef> answer(
+                                        InvocationOnMock invocation) throws Throwable {
                                     ServiceRef ref = invocation.getArgument(0);
                                     // use alias as jvmId in test
-                                    return new ServiceRef(
-                                            ref.getAlias().get(),
-                                            ref.getServiceUri(),
-                                            ref.getAlias().orElse(null));
+                                    return CompletableFuture.completedFuture(
+                                            new ServiceRef(
+                                                    ref.getAlias().get(),
+                                                    ref.getServiceUri(),
+                                                    ref.getAlias().orElse(null)));
                                 }
                             });
 
@@ -784,8 +897,9 @@ class DiscoveryStorageTest {
             PluginInfo prevPlugin =
                     new PluginInfo(
                             "test-realm", URI.create("http://example.com"), gson.toJson(realm1));
+            AtomicReference<PluginInfo> stored = new AtomicReference<>(prevPlugin);
 
-            Mockito.when(dao.get(Mockito.eq(id))).thenReturn(Optional.of(prevPlugin));
+            Mockito.when(dao.get(Mockito.eq(id))).thenAnswer(i -> Optional.of(stored.get()));
             Mockito.when(dao.update(Mockito.any(UUID.class), Mockito.any(Collection.class)))
                     .thenAnswer(
                             new Answer<PluginInfo>() {
@@ -796,17 +910,25 @@ class DiscoveryStorageTest {
                                     EnvironmentNode next =
                                             new EnvironmentNode(
                                                     "next", BaseNodeType.REALM, Map.of(), subtree);
-                                    return new PluginInfo(
-                                            "test-realm",
-                                            URI.create("http://example.com"),
-                                            gson.toJson(next));
+                                    stored.set(
+                                            new PluginInfo(
+                                                    "test-realm",
+                                                    URI.create("http://example.com"),
+                                                    gson.toJson(next)));
+                                    return stored.get();
                                 }
                             });
 
             List<TargetDiscoveryEvent> discoveryEvents = new ArrayList<>();
             storage.addTargetDiscoveryListener(discoveryEvents::add);
 
-            var updatedSubtree = storage.update(id, List.of(realm2));
+            var acceptedSubtree = storage.update(id, List.of(realm2));
+            MatcherAssert.assertThat(acceptedSubtree, Matchers.hasSize(1));
+
+            // the IDs are resolved after the update is accepted and written to the dao as they
+            // arrive
+            var updatedSubtree =
+                    gson.fromJson(stored.get().getSubtree(), EnvironmentNode.class).getChildren();
             MatcherAssert.assertThat(updatedSubtree, Matchers.notNullValue());
             MatcherAssert.assertThat(updatedSubtree, Matchers.hasSize(1));
 
@@ -838,14 +960,75 @@ class DiscoveryStorageTest {
                 }
             }
 
-            MatcherAssert.assertThat(discoveryEvents, Matchers.hasSize(4));
+            MatcherAssert.assertThat(discoveryEvents, Matchers.hasSize(7));
             MatcherAssert.assertThat(
                     discoveryEvents,
                     Matchers.containsInAnyOrder(
-                            new TargetDiscoveryEvent(EventKind.FOUND, updatedServiceRef1),
-                            new TargetDiscoveryEvent(EventKind.FOUND, updatedServiceRef2),
-                            new TargetDiscoveryEvent(EventKind.FOUND, updatedServiceRef3),
+                            new TargetDiscoveryEvent(EventKind.FOUND, serviceRef1),
+                            new TargetDiscoveryEvent(EventKind.FOUND, serviceRef2),
+                            new TargetDiscoveryEvent(EventKind.FOUND, serviceRef3),
+                            new TargetDiscoveryEvent(EventKind.MODIFIED, updatedServiceRef1),
+                            new TargetDiscoveryEvent(EventKind.MODIFIED, updatedServiceRef2),
+                            new TargetDiscoveryEvent(EventKind.MODIFIED, updatedServiceRef3),
                             new TargetDiscoveryEvent(EventKind.MODIFIED, updatedServiceRef4)));
         }
+
+        @Test
+        void retriesFailedResolutions() throws Exception {
+            UUID id = UUID.randomUUID();
+            ServiceRef serviceRef =
+                    new ServiceRef(
+                            null,
+                            URI.create("service:jmx:rmi:///jndi/rmi://localhost:1/jmxrmi"),
+                            "serviceRef");
+            ServiceRef updatedServiceRef =
+                    new ServiceRef("id", serviceRef.getServiceUri(), serviceRef.getAlias().get());
+
+            Mockito.when(jvmIdHelper.resolveIdAsync(Mockito.any(ServiceRef.class)))
+                    .thenReturn(
+                            CompletableFuture.failedFuture(
+                                    new JvmIdGetException(
+                                            new Exception("test"),
+                                            serviceRef.getServiceUri().toString())))
+                    .thenReturn(CompletableFuture.completedFuture(updatedServiceRef));
+
+            EnvironmentNode empty =
+                    new EnvironmentNode("next", BaseNodeType.REALM, Map.of(), Set.of());
+            AtomicReference<PluginInfo> stored =
+                    new AtomicReference<>(
+                            new PluginInfo(
+                                    "test-realm",
+                                    URI.create("http://example.com"),
+                                    gson.toJson(empty)));
+            Mockito.when(dao.get(Mockito.eq(id))).thenAnswer(i -> Optional.of(stored.get()));
+            Mockito.when(dao.update(Mockito.any(UUID.class), Mockito.any(Collection.class)))
+                    .thenAnswer(
+                            i -> {
+                                List<AbstractNode> subtree = i.getArgument(1);
+                                stored.set(
+                                        new PluginInfo(
+                                                "test-realm",
+                                                URI.create("http://example.com"),
+                                                gson.toJson(
+                                                        new EnvironmentNode(
+                                                                "next",
+                                                                BaseNodeType.REALM,
+                                                                Map.of(),
+                                                                subtree))));
+                                return stored.get();
+                            });
+
+            List<TargetDiscoveryEvent> discoveryEvents = new ArrayList<>();
+            storage.addTargetDiscoveryListener(discoveryEvents::add);
+
+            storage.update(id, List.of(new TargetNode(BaseNodeType.JVM, serviceRef)));
+
+            Mockito.verify(jvmIdHelper, Mockito.times(2)).resolveIdAsync(serviceRef);
+            MatcherAssert.assertThat(
+                    discoveryEvents,
+                    Matchers.contains(
+                            new TargetDiscoveryEvent(EventKind.FOUND, serviceRef),
+                            new TargetDiscoveryEvent(EventKind.MODIFIED, updatedServiceRef)));
+        }
     }
 }
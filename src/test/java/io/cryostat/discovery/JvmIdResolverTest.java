@@ -0,0 +1,330 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.discovery;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.cryostat.FakeScheduledExecutorService;
+import io.cryostat.core.log.Logger;
+import io.cryostat.core.sys.Clock;
+import io.cryostat.platform.ServiceRef;
+import io.cryostat.recordings.JvmIdHelper;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class JvmIdResolverTest {
+
+    @Mock JvmIdHelper jvmIdHelper;
+    @Mock ScheduledExecutorService scheduler;
+    @Mock ScheduledFuture<?> timer;
+    @Mock Clock clock;
+    @Mock Logger logger;
+    List<Pair<UUID, ServiceRef>> resolved;
+    UUID pluginId;
+
+    @BeforeEach
+    void setup() {
+        this.resolved = new ArrayList<>();
+        this.pluginId = UUID.randomUUID();
+    }
+
+    JvmIdResolver createResolver(int parallelism) {
+        return createResolver(parallelism, scheduler);
+    }
+
+    JvmIdResolver createResolver(int parallelism, ScheduledExecutorService scheduler) {
+        return new JvmIdResolver(
+                () -> jvmIdHelper,
+                scheduler,
+                parallelism,
+                clock,
+                logger,
+                (id, ref) -> resolved.add(Pair.of(id, ref)));
+    }
+
+    static ServiceRef target(int port) {
+        return new ServiceRef(
+                null,
+                URI.create(
+                        String.format("service:jmx:rmi:///jndi/rmi://localhost:%d/jmxrmi", port)),
+                "target-" + port);
+    }
+
+    static ServiceRef resolved(ServiceRef ref) {
+        return new ServiceRef(ref.getAlias().get(), ref.getServiceUri(), ref.getAlias().get());
+    }
+
+    static CompletableFuture<ServiceRef> failure() {
+        return CompletableFuture.failedFuture(new Exception("test failure"));
+    }
+
+    Runnable captureTimer(long delay) {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(scheduler)
+                .schedule(task.capture(), Mockito.eq(delay), Mockito.eq(TimeUnit.NANOSECONDS));
+        return task.getValue();
+    }
+
+    @Test
+    void shouldLimitConcurrentResolutions() {
+        JvmIdResolver resolver = createResolver(2);
+        ServiceRef first = target(1);
+        ServiceRef second = target(2);
+        ServiceRef third = target(3);
+        CompletableFuture<ServiceRef> firstResult = new CompletableFuture<>();
+        Mockito.when(jvmIdHelper.resolveIdAsync(first)).thenReturn(firstResult);
+        Mockito.when(jvmIdHelper.resolveIdAsync(second)).thenReturn(new CompletableFuture<>());
+        Mockito.when(jvmIdHelper.resolveIdAsync(third)).thenReturn(new CompletableFuture<>());
+
+        resolver.submit(pluginId, first);
+        resolver.submit(pluginId, second);
+        resolver.submit(pluginId, third);
+
+        Mockito.verify(jvmIdHelper).resolveIdAsync(first);
+        Mockito.verify(jvmIdHelper).resolveIdAsync(second);
+        Mockito.verify(jvmIdHelper, Mockito.never()).resolveIdAsync(third);
+        MatcherAssert.assertThat(resolver.getPending(), Matchers.equalTo(3));
+
+        firstResult.complete(resolved(first));
+
+        Mockito.verify(jvmIdHelper).resolveIdAsync(third);
+        MatcherAssert.assertThat(resolved, Matchers.contains(Pair.of(pluginId, resolved(first))));
+        MatcherAssert.assertThat(resolver.getPending(), Matchers.equalTo(2));
+    }
+
+    @Test
+    void shouldNotResubmitPendingTargets() {
+        JvmIdResolver resolver = createResolver(1);
+        ServiceRef ref = target(1);
+        Mockito.when(jvmIdHelper.resolveIdAsync(ref)).thenReturn(new CompletableFuture<>());
+
+        resolver.submit(pluginId, ref);
+        resolver.submit(pluginId, ref);
+
+        Mockito.verify(jvmIdHelper, Mockito.times(1)).resolveIdAsync(ref);
+        MatcherAssert.assertThat(resolver.getPending(), Matchers.equalTo(1));
+    }
+
+    @Test
+    void shouldRetryWithExponentialBackoff() {
+        JvmIdResolver resolver = createResolver(1);
+        ServiceRef ref = target(1);
+        long second = Duration.ofSeconds(1).toNanos();
+        Mockito.when(clock.getMonotonicTime()).thenReturn(0L);
+        Mockito.when(jvmIdHelper.resolveIdAsync(ref))
+                .thenReturn(failure())
+                .thenReturn(failure())
+                .thenReturn(CompletableFuture.completedFuture(resolved(ref)));
+        Mockito.doReturn(timer)
+                .when(scheduler)
+                .schedule(Mockito.any(Runnable.class), Mockito.anyLong(), Mockito.any());
+
+        resolver.submit(pluginId, ref);
+        Runnable firstRetry = captureTimer(second);
+        MatcherAssert.assertThat(resolved, Matchers.empty());
+
+        Mockito.when(clock.getMonotonicTime()).thenReturn(second);
+        firstRetry.run();
+        Runnable secondRetry = captureTimer(2 * second);
+
+        Mockito.when(clock.getMonotonicTime()).thenReturn(second + 2 * second);
+        secondRetry.run();
+
+        Mockito.verify(jvmIdHelper, Mockito.times(3)).resolveIdAsync(ref);
+        MatcherAssert.assertThat(resolved, Matchers.contains(Pair.of(pluginId, resolved(ref))));
+        MatcherAssert.assertThat(resolver.getPending(), Matchers.equalTo(0));
+    }
+
+    @Test
+    void shouldRetryEarliestTargetFirst() {
+        JvmIdResolver resolver = createResolver(2);
+        ServiceRef first = target(1);
+        ServiceRef second = target(2);
+        long nanos = Duration.ofSeconds(1).toNanos();
+        CompletableFuture<ServiceRef> secondResult = new CompletableFuture<>();
+        Mockito.when(jvmIdHelper.resolveIdAsync(first))
+                .thenReturn(failure())
+                .thenReturn(new CompletableFuture<>());
+        Mockito.when(jvmIdHelper.resolveIdAsync(second)).thenReturn(secondResult);
+        Mockito.doReturn(timer)
+                .when(scheduler)
+                .schedule(Mockito.any(Runnable.class), Mockito.anyLong(), Mockito.any());
+
+        Mockito.when(clock.getMonotonicTime()).thenReturn(0L);
+        resolver.submit(pluginId, first);
+        resolver.submit(pluginId, second);
+        Mockito.when(clock.getMonotonicTime()).thenReturn(nanos / 2);
+        secondResult.completeExceptionally(new Exception("test failure"));
+
+        // the timer is only set for the earliest retry, which is the first target's
+        Runnable retry = captureTimer(nanos);
+
+        Mockito.when(clock.getMonotonicTime()).thenReturn(nanos);
+        retry.run();
+
+        Mockito.verify(jvmIdHelper, Mockito.times(2)).resolveIdAsync(first);
+        Mockito.verify(jvmIdHelper, Mockito.times(1)).resolveIdAsync(second);
+        Mockito.verify(scheduler)
+                .schedule(Mockito.any(Runnable.class), Mockito.eq(nanos / 2), Mockito.any());
+    }
+
+    @Test
+    void shouldStopRetryingAfterMaxAttemptsUntilRetried() {
+        ManualScheduler manualScheduler = new ManualScheduler();
+        JvmIdResolver resolver = createResolver(1, manualScheduler);
+        ServiceRef ref = target(1);
+        Mockito.when(jvmIdHelper.resolveIdAsync(ref)).thenAnswer(i -> failure());
+
+        resolver.submit(pluginId, ref);
+        while (manualScheduler.runNext()) {}
+
+        Mockito.verify(jvmIdHelper, Mockito.times(JvmIdResolver.MAX_ATTEMPTS))
+                .resolveIdAsync(ref);
+        MatcherAssert.assertThat(resolver.getPending(), Matchers.equalTo(1));
+
+        Mockito.when(jvmIdHelper.resolveIdAsync(ref))
+                .thenReturn(CompletableFuture.completedFuture(resolved(ref)));
+        resolver.retry(target -> target.getServiceUri().getPort() == 2);
+        MatcherAssert.assertThat(resolved, Matchers.empty());
+
+        resolver.retry(target -> ref.getServiceUri().equals(target.getServiceUri()));
+
+        MatcherAssert.assertThat(resolved, Matchers.contains(Pair.of(pluginId, resolved(ref))));
+        MatcherAssert.assertThat(resolver.getPending(), Matchers.equalTo(0));
+    }
+
+    @Test
+    void shouldRetryTargetByUri() {
+        ManualScheduler manualScheduler = new ManualScheduler();
+        JvmIdResolver resolver = createResolver(2, manualScheduler);
+        ServiceRef first = target(1);
+        ServiceRef second = target(2);
+        Mockito.when(jvmIdHelper.resolveIdAsync(first))
+                .thenReturn(failure())
+                .thenReturn(CompletableFuture.completedFuture(resolved(first)));
+        Mockito.when(jvmIdHelper.resolveIdAsync(second)).thenReturn(failure());
+
+        resolver.submit(pluginId, first);
+        resolver.submit(pluginId, second);
+        resolver.retry(first.getServiceUri());
+
+        Mockito.verify(jvmIdHelper, Mockito.times(2)).resolveIdAsync(first);
+        Mockito.verify(jvmIdHelper, Mockito.times(1)).resolveIdAsync(second);
+        MatcherAssert.assertThat(resolved, Matchers.contains(Pair.of(pluginId, resolved(first))));
+        MatcherAssert.assertThat(resolver.getPending(), Matchers.equalTo(1));
+
+        resolver.retry(URI.create("service:jmx:rmi:///jndi/rmi://localhost:3/jmxrmi"));
+        Mockito.verify(jvmIdHelper, Mockito.times(1)).resolveIdAsync(second);
+    }
+
+    @Test
+    void shouldDiscardRemovedTargets() {
+        JvmIdResolver resolver = createResolver(1);
+        ServiceRef ref = target(1);
+        CompletableFuture<ServiceRef> result = new CompletableFuture<>();
+        Mockito.when(jvmIdHelper.resolveIdAsync(ref)).thenReturn(result);
+
+        resolver.submit(pluginId, ref);
+        resolver.remove(ref.getServiceUri());
+        result.complete(resolved(ref));
+
+        MatcherAssert.assertThat(resolved, Matchers.empty());
+        MatcherAssert.assertThat(resolver.getPending(), Matchers.equalTo(0));
+    }
+
+    @Test
+    void shouldCapBackoff() {
+        MatcherAssert.assertThat(
+                JvmIdResolver.getBackoff(1), Matchers.equalTo(Duration.ofSeconds(1).toNanos()));
+        MatcherAssert.assertThat(
+                JvmIdResolver.getBackoff(2), Matchers.equalTo(Duration.ofSeconds(2).toNanos()));
+        MatcherAssert.assertThat(
+                JvmIdResolver.getBackoff(4), Matchers.equalTo(Duration.ofSeconds(8).toNanos()));
+        MatcherAssert.assertThat(
+                JvmIdResolver.getBackoff(7), Matchers.equalTo(JvmIdResolver.MAX_BACKOFF.toNanos()));
+        MatcherAssert.assertThat(
+                JvmIdResolver.getBackoff(100),
+                Matchers.equalTo(JvmIdResolver.MAX_BACKOFF.toNanos()));
+    }
+
+    /**
+     * Scheduler which only runs its tasks when the test asks it to, in the order they were
+     * scheduled, so that a task may schedule its successor without running it.
+     */
+    static class ManualScheduler extends FakeScheduledExecutorService {
+        final Deque<Task> tasks = new ArrayDeque<>();
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            Task task = new Task(command, unit.toNanos(delay));
+            tasks.add(task);
+            return task;
+        }
+
+        /** Run the next task which has not been cancelled, if there is one. */
+        boolean runNext() {
+            Task task;
+            while ((task = tasks.poll()) != null) {
+                if (!task.isCancelled()) {
+                    task.run();
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    static class Task extends FutureTask<Void> implements ScheduledFuture<Void> {
+        final long delay;
+
+        Task(Runnable command, long delay) {
+            super(command, null);
+            this.delay = delay;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(delay, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            return Long.compare(delay, o.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.discovery;
+
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+
+import io.cryostat.MainModule;
+import io.cryostat.core.log.Logger;
+import io.cryostat.platform.discovery.BaseNodeType;
+import io.cryostat.platform.discovery.EnvironmentNode;
+
+import com.google.gson.Gson;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class PluginInfoDaoTest {
+
+    PluginInfoDao dao;
+    @Mock EntityManagerFactory emf;
+    @Mock EntityManager entityManager;
+    @Mock EntityTransaction transaction;
+    @Mock Logger logger;
+    Gson gson = MainModule.provideGson(logger);
+
+    @BeforeEach
+    void setup() {
+        this.dao = new PluginInfoDao(emf, gson, logger);
+        when(emf.createEntityManager()).thenReturn(entityManager);
+        when(entityManager.getTransaction()).thenReturn(transaction);
+    }
+
+    @Test
+    void shouldUpdateManagedPluginInItsOwnTransaction() {
+        UUID id = UUID.randomUUID();
+        EnvironmentNode original = new EnvironmentNode("realm", BaseNodeType.REALM);
+        PluginInfo plugin =
+                new PluginInfo("realm", URI.create("http://example.com"), gson.toJson(original));
+        when(entityManager.find(PluginInfo.class, id)).thenReturn(plugin);
+
+        EnvironmentNode child = new EnvironmentNode("child", BaseNodeType.REALM);
+        PluginInfo updated = dao.update(id, List.of(child));
+
+        MatcherAssert.assertThat(updated, Matchers.sameInstance(plugin));
+        EnvironmentNode subtree = gson.fromJson(updated.getSubtree(), EnvironmentNode.class);
+        MatcherAssert.assertThat(subtree.getName(), Matchers.equalTo("realm"));
+        MatcherAssert.assertThat(subtree.getChildren(), Matchers.hasSize(1));
+
+        InOrder inOrder = Mockito.inOrder(transaction, entityManager);
+        inOrder.verify(transaction).begin();
+        inOrder.verify(entityManager).find(PluginInfo.class, id);
+        inOrder.verify(transaction).commit();
+        inOrder.verify(entityManager).close();
+        // the managed entity is flushed on commit rather than merged
+        Mockito.verify(entityManager, Mockito.never()).merge(Mockito.any());
+        Mockito.verify(transaction, Mockito.never()).rollback();
+    }
+
+    @Test
+    void shouldRollBackUpdateOfUnknownPlugin() {
+        UUID id = UUID.randomUUID();
+        when(entityManager.find(PluginInfo.class, id)).thenReturn(null);
+        when(transaction.isActive()).thenReturn(true);
+
+        Assertions.assertThrows(
+                NoSuchElementException.class,
+                () -> dao.update(id, new EnvironmentNode("realm", BaseNodeType.REALM)));
+
+        Mockito.verify(transaction, Mockito.never()).commit();
+        Mockito.verify(transaction).rollback();
+        Mockito.verify(entityManager).close();
+    }
+}
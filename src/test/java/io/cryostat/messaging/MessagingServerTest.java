@@ -47,6 +47,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -105,6 +106,7 @@ class MessagingServerTest {
                         authManager,
                         notificationFactory,
                         2,
+                        2,
                         clock,
                         logger,
                         gson);
@@ -219,6 +221,44 @@ class MessagingServerTest {
         verify(sws2).writeTextMessage(gson.toJson(message));
     }
 
+    @Test
+    void shouldQueueMessagesForSlowClients() throws Exception {
+        server.start();
+
+        ArgumentCaptor<Handler> websocketHandlerCaptor = ArgumentCaptor.forClass(Handler.class);
+        Mockito.verify(httpServer).websocketHandler(websocketHandlerCaptor.capture());
+        websocketHandlerCaptor.getValue().handle(sws);
+        verify(sws).accept();
+
+        ArgumentCaptor<Handler> textMessageHandlerCaptor = ArgumentCaptor.forClass(Handler.class);
+        verify(sws).textMessageHandler(textMessageHandlerCaptor.capture());
+        textMessageHandlerCaptor.getValue().handle("irrelevant");
+
+        ArgumentCaptor<Runnable> authSuccessCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(authAction).onSuccess(authSuccessCaptor.capture());
+        authSuccessCaptor.getValue().run();
+
+        when(sws.writeQueueFull()).thenReturn(true);
+        TestMessage first = new TestMessage("first");
+        TestMessage second = new TestMessage("second");
+        TestMessage third = new TestMessage("third");
+        server.writeMessage(first);
+        server.writeMessage(second);
+        server.writeMessage(third);
+        verify(sws, Mockito.never()).writeTextMessage(Mockito.anyString());
+
+        ArgumentCaptor<Handler> drainHandlerCaptor = ArgumentCaptor.forClass(Handler.class);
+        verify(sws).drainHandler(drainHandlerCaptor.capture());
+        when(sws.writeQueueFull()).thenReturn(false);
+        drainHandlerCaptor.getValue().handle(null);
+
+        InOrder inOrder = Mockito.inOrder(sws);
+        inOrder.verify(sws).writeTextMessage(gson.toJson(second));
+        inOrder.verify(sws).writeTextMessage(gson.toJson(third));
+        verify(sws, Mockito.never()).writeTextMessage(gson.toJson(first));
+        verify(sws).drainHandler(null);
+    }
+
     @Test
     void shouldStopHandlingAfterFirstMessage() throws Exception {
         server.start();
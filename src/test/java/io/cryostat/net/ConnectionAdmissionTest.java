@@ -0,0 +1,197 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.cryostat.core.log.Logger;
+import io.cryostat.core.net.JFRConnection;
+import io.cryostat.net.ConnectionAdmission.Priority;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionAdmissionTest {
+
+    static final Duration DEADLINE = Duration.ofSeconds(10);
+
+    @Mock Logger logger;
+    @Mock JFRConnection conn1;
+    @Mock JFRConnection conn2;
+    @Mock JFRConnection conn3;
+    Queue<Runnable> connects;
+
+    @BeforeEach
+    void setup() {
+        this.connects = new ArrayDeque<>();
+    }
+
+    ConnectionAdmission createAdmission(int maxConnections, int maxConnecting, int maxQueued) {
+        return new ConnectionAdmission(
+                maxConnections, maxConnecting, maxQueued, connects::add, logger);
+    }
+
+    @Test
+    void shouldConnectOnExecutorWhenUnderCapacity() throws Exception {
+        ConnectionAdmission admission = createAdmission(-1, 1, 0);
+
+        CompletableFuture<JFRConnection> f =
+                admission.submit("target1", Priority.NORMAL, DEADLINE, () -> conn1);
+
+        MatcherAssert.assertThat(f.isDone(), Matchers.is(false));
+        MatcherAssert.assertThat(connects, Matchers.hasSize(1));
+        connects.remove().run();
+        MatcherAssert.assertThat(f.get(), Matchers.sameInstance(conn1));
+        MatcherAssert.assertThat(admission.getOpenConnections(), Matchers.equalTo(1));
+    }
+
+    @Test
+    void shouldQueueUntilReleasedAndAdmitHigherPriorityFirst() throws Exception {
+        ConnectionAdmission admission = createAdmission(1, 1, 0);
+
+        CompletableFuture<JFRConnection> f1 =
+                admission.submit("target1", Priority.NORMAL, DEADLINE, () -> conn1);
+        connects.remove().run();
+        CompletableFuture<JFRConnection> f2 =
+                admission.submit("target2", Priority.NORMAL, DEADLINE, () -> conn2);
+        CompletableFuture<JFRConnection> f3 =
+                admission.submit("target3", Priority.HIGH, DEADLINE, () -> conn3);
+
+        MatcherAssert.assertThat(f1.get(), Matchers.sameInstance(conn1));
+        MatcherAssert.assertThat(connects, Matchers.empty());
+        MatcherAssert.assertThat(admission.getQueueLength(), Matchers.equalTo(2));
+
+        admission.release();
+        connects.remove().run();
+        MatcherAssert.assertThat(f3.get(), Matchers.sameInstance(conn3));
+        MatcherAssert.assertThat(f2.isDone(), Matchers.is(false));
+
+        admission.release();
+        connects.remove().run();
+        MatcherAssert.assertThat(f2.get(), Matchers.sameInstance(conn2));
+        MatcherAssert.assertThat(admission.getQueueLength(), Matchers.equalTo(0));
+    }
+
+    @Test
+    void shouldLimitConcurrentConnectionAttempts() throws Exception {
+        ConnectionAdmission admission = createAdmission(-1, 1, 0);
+
+        CompletableFuture<JFRConnection> f1 =
+                admission.submit("target1", Priority.NORMAL, DEADLINE, () -> conn1);
+        CompletableFuture<JFRConnection> f2 =
+                admission.submit("target2", Priority.NORMAL, DEADLINE, () -> conn2);
+
+        MatcherAssert.assertThat(connects, Matchers.hasSize(1));
+        connects.remove().run();
+        MatcherAssert.assertThat(f1.get(), Matchers.sameInstance(conn1));
+        MatcherAssert.assertThat(connects, Matchers.hasSize(1));
+        connects.remove().run();
+        MatcherAssert.assertThat(f2.get(), Matchers.sameInstance(conn2));
+        MatcherAssert.assertThat(admission.getOpenConnections(), Matchers.equalTo(2));
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        ConnectionAdmission admission = createAdmission(1, 1, 1);
+
+        admission.submit("target1", Priority.NORMAL, DEADLINE, () -> conn1);
+        admission.submit("target2", Priority.NORMAL, DEADLINE, () -> conn2);
+        CompletableFuture<JFRConnection> f3 =
+                admission.submit("target3", Priority.HIGH, DEADLINE, () -> conn3);
+
+        ExecutionException ee = Assertions.assertThrows(ExecutionException.class, f3::get);
+        MatcherAssert.assertThat(
+                ee.getCause(), Matchers.instanceOf(RejectedExecutionException.class));
+        MatcherAssert.assertThat(admission.getQueueLength(), Matchers.equalTo(1));
+    }
+
+    @Test
+    void shouldExpireQueuedRequestsPastDeadline() throws Exception {
+        ConnectionAdmission admission = createAdmission(1, 1, 0);
+
+        admission.submit("target1", Priority.NORMAL, DEADLINE, () -> conn1);
+        CompletableFuture<JFRConnection> f2 =
+                admission.submit("target2", Priority.NORMAL, Duration.ofMillis(10), () -> conn2);
+
+        ExecutionException ee =
+                Assertions.assertThrows(
+                        ExecutionException.class, () -> f2.get(1, TimeUnit.SECONDS));
+        MatcherAssert.assertThat(ee.getCause(), Matchers.instanceOf(TimeoutException.class));
+        Mockito.verify(logger, Mockito.timeout(1000))
+                .warn("Connection to {} expired while queued", "target2");
+        MatcherAssert.assertThat(admission.getQueueLength(), Matchers.equalTo(0));
+    }
+
+    @Test
+    void shouldReleasePermitWhenConnectFails() throws Exception {
+        ConnectionAdmission admission = createAdmission(1, 1, 0);
+
+        CompletableFuture<JFRConnection> f1 =
+                admission.submit(
+                        "target1",
+                        Priority.NORMAL,
+                        DEADLINE,
+                        () -> {
+                            throw new IOException("refused");
+                        });
+        CompletableFuture<JFRConnection> f2 =
+                admission.submit("target2", Priority.NORMAL, DEADLINE, () -> conn2);
+        connects.remove().run();
+
+        Assertions.assertThrows(ExecutionException.class, f1::get);
+        connects.remove().run();
+        MatcherAssert.assertThat(f2.get(), Matchers.sameInstance(conn2));
+        MatcherAssert.assertThat(admission.getOpenConnections(), Matchers.equalTo(1));
+    }
+
+    @Test
+    void shouldCloseConnectionOpenedPastDeadline() throws Exception {
+        ConnectionAdmission admission = createAdmission(1, 1, 0);
+        AtomicReference<CompletableFuture<JFRConnection>> f1 = new AtomicReference<>();
+
+        f1.set(
+                admission.submit(
+                        "target1",
+                        Priority.NORMAL,
+                        DEADLINE,
+                        () -> {
+                            // the caller gives up while the connection is being opened
+                            f1.get().cancel(false);
+                            return conn1;
+                        }));
+        connects.remove().run();
+
+        Mockito.verify(conn1).close();
+        MatcherAssert.assertThat(admission.getOpenConnections(), Matchers.equalTo(0));
+    }
+}
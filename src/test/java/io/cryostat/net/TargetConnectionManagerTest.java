@@ -15,17 +15,28 @@
  */
 package io.cryostat.net;
 
+import java.net.URI;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 import javax.management.remote.JMXServiceURL;
 
+import org.openjdk.jmc.rjmx.services.jfr.IRecordingDescriptor;
+
 import io.cryostat.DirectExecutor;
 import io.cryostat.core.log.Logger;
+import io.cryostat.core.net.CryostatFlightRecorderService;
 import io.cryostat.core.net.JFRConnection;
 import io.cryostat.core.net.JFRConnectionToolkit;
+import io.cryostat.core.net.discovery.JvmDiscoveryClient.EventKind;
+import io.cryostat.messaging.notifications.Notification;
+import io.cryostat.net.TargetConnectionManager.Consistency;
 import io.cryostat.platform.PlatformClient;
+import io.cryostat.platform.ServiceRef;
+import io.cryostat.platform.TargetDiscoveryEvent;
 
 import com.github.benmanes.caffeine.cache.Scheduler;
 import org.hamcrest.MatcherAssert;
@@ -50,7 +61,9 @@ class TargetConnectionManagerTest {
     @Mock JFRConnectionToolkit jfrConnectionToolkit;
     @Mock AgentConnection.Factory agentConnectionFactory;
     @Mock PlatformClient platformClient;
+    @Mock Notification<Map<String, Object>> notification;
     Duration TTL = Duration.ofMillis(250);
+    Duration RECORDINGS_TTL = Duration.ofSeconds(10);
 
     @BeforeEach
     void setup() {
@@ -62,7 +75,10 @@ class TargetConnectionManagerTest {
                         new DirectExecutor(),
                         Scheduler.disabledScheduler(),
                         TTL,
-                        -1,
+                        RECORDINGS_TTL,
+                        new ConnectionAdmission(-1, 8, 0, new DirectExecutor(), logger),
+                        64,
+                        2,
                         10,
                         logger);
     }
@@ -156,7 +172,10 @@ class TargetConnectionManagerTest {
                         ForkJoinPool.commonPool(),
                         Scheduler.systemScheduler(),
                         Duration.ofNanos(1),
-                        1,
+                        RECORDINGS_TTL,
+                        new ConnectionAdmission(1, 8, 0, new DirectExecutor(), logger),
+                        64,
+                        2,
                         10,
                         logger);
         Mockito.when(jfrConnectionToolkit.connect(Mockito.any(), Mockito.any(), Mockito.any()))
@@ -186,7 +205,10 @@ class TargetConnectionManagerTest {
                         Runnable::run,
                         Scheduler.disabledScheduler(),
                         Duration.ofNanos(1),
-                        -1,
+                        RECORDINGS_TTL,
+                        new ConnectionAdmission(-1, 8, 0, new DirectExecutor(), logger),
+                        64,
+                        2,
                         10,
                         logger);
         Mockito.when(jfrConnectionToolkit.connect(Mockito.any(), Mockito.any(), Mockito.any()))
@@ -225,11 +247,213 @@ class TargetConnectionManagerTest {
                         Runnable::run,
                         Scheduler.disabledScheduler(),
                         Duration.ofNanos(1),
-                        -1,
+                        RECORDINGS_TTL,
+                        new ConnectionAdmission(-1, 8, 0, new DirectExecutor(), logger),
+                        64,
+                        2,
                         10,
                         logger);
         ConnectionDescriptor desc = new ConnectionDescriptor(url);
         JFRConnection conn = mgr.executeConnectedTask(desc, a -> a);
         MatcherAssert.assertThat(conn, Matchers.sameInstance(agentConn));
     }
+
+    @Test
+    void shouldMarkReadOnlyTasks() throws Exception {
+        Mockito.when(jfrConnectionToolkit.connect(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenAnswer(
+                        new Answer<JFRConnection>() {
+                            @Override
+                            public JFRConnection answer(InvocationOnMock invocation)
+                                    throws Throwable {
+                                return Mockito.mock(JFRConnection.class);
+                            }
+                        });
+        ConnectionDescriptor desc =
+                new ConnectionDescriptor("service:jmx:rmi:///jndi/rmi://localhost:0/jmxrmi");
+        TargetConnectionManager.ConnectedTask<JFRConnection> task =
+                TargetConnectionManager.ConnectedTask.readOnly(a -> a);
+
+        JFRConnection conn1 = mgr.executeConnectedTask(desc, task);
+        JFRConnection conn2 = mgr.executeConnectedTask(desc, a -> a);
+
+        MatcherAssert.assertThat(task.isReadOnly(), Matchers.is(true));
+        MatcherAssert.assertThat(conn1, Matchers.sameInstance(conn2));
+    }
+
+    @Test
+    void shouldShareCachedRecordingListings() throws Exception {
+        CryostatFlightRecorderService service = mockRecordingsService();
+        ConnectionDescriptor desc =
+                new ConnectionDescriptor("service:jmx:rmi:///jndi/rmi://localhost:0/jmxrmi");
+
+        List<IRecordingDescriptor> list1 = mgr.getRecordings(desc, Consistency.CACHED);
+        List<IRecordingDescriptor> list2 = mgr.getRecordings(desc, Consistency.CACHED);
+
+        MatcherAssert.assertThat(list1, Matchers.hasSize(1));
+        MatcherAssert.assertThat(list2, Matchers.equalTo(list1));
+        Mockito.verify(service, Mockito.times(1)).getAvailableRecordings();
+    }
+
+    @Test
+    void shouldReadFreshRecordingListingsOnRequest() throws Exception {
+        CryostatFlightRecorderService service = mockRecordingsService();
+        ConnectionDescriptor desc =
+                new ConnectionDescriptor("service:jmx:rmi:///jndi/rmi://localhost:0/jmxrmi");
+
+        mgr.getRecordings(desc, Consistency.CACHED);
+        mgr.getRecordings(desc, Consistency.FRESH);
+
+        Mockito.verify(service, Mockito.times(2)).getAvailableRecordings();
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "ActiveRecordingCreated",
+                "ActiveRecordingStopped",
+                "ActiveRecordingDeleted",
+                "SnapshotCreated",
+                "SnapshotDeleted",
+            })
+    void shouldDiscardCachedRecordingListingsOnRecordingNotifications(String category)
+            throws Exception {
+        CryostatFlightRecorderService service = mockRecordingsService();
+        String targetId = "service:jmx:rmi:///jndi/rmi://localhost:0/jmxrmi";
+        ConnectionDescriptor desc = new ConnectionDescriptor(targetId);
+        Mockito.when(notification.getCategory()).thenReturn(category);
+        Mockito.when(notification.getMessage()).thenReturn(Map.of("target", targetId));
+
+        mgr.getRecordings(desc, Consistency.CACHED);
+        mgr.onNotification(notification);
+        mgr.getRecordings(desc, Consistency.CACHED);
+
+        Mockito.verify(service, Mockito.times(2)).getAvailableRecordings();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldDiscardCachedRecordingListingsWhenTargetLost() throws Exception {
+        ArgumentCaptor<Consumer<TargetDiscoveryEvent>> listener =
+                ArgumentCaptor.forClass(Consumer.class);
+        Mockito.verify(platformClient).addTargetDiscoveryListener(listener.capture());
+        CryostatFlightRecorderService service = mockRecordingsService();
+        String targetId = "service:jmx:rmi:///jndi/rmi://localhost:0/jmxrmi";
+        ConnectionDescriptor desc = new ConnectionDescriptor(targetId);
+
+        mgr.getRecordings(desc, Consistency.CACHED);
+        listener.getValue()
+                .accept(
+                        new TargetDiscoveryEvent(
+                                EventKind.LOST,
+                                new ServiceRef("id", URI.create(targetId), "localhost")));
+        mgr.getRecordings(desc, Consistency.CACHED);
+
+        Mockito.verify(service, Mockito.times(2)).getAvailableRecordings();
+    }
+
+    @Test
+    void shouldKeepCachedRecordingListingsOnOtherNotifications() throws Exception {
+        CryostatFlightRecorderService service = mockRecordingsService();
+        ConnectionDescriptor desc =
+                new ConnectionDescriptor("service:jmx:rmi:///jndi/rmi://localhost:0/jmxrmi");
+        Mockito.when(notification.getCategory()).thenReturn("ActiveRecordingSaved");
+
+        mgr.getRecordings(desc, Consistency.CACHED);
+        mgr.onNotification(notification);
+        mgr.getRecordings(desc, Consistency.CACHED);
+
+        Mockito.verify(service, Mockito.times(1)).getAvailableRecordings();
+    }
+
+    @Test
+    void shouldKeepPinnedConnectionsPastTTL() throws Exception {
+        TargetConnectionManager mgr = createShortLivedManager();
+        ConnectionDescriptor desc =
+                new ConnectionDescriptor("service:jmx:rmi:///jndi/rmi://localhost:0/jmxrmi");
+
+        mgr.pin(desc);
+        JFRConnection conn1 = mgr.executeConnectedTask(desc, a -> a);
+        Thread.sleep(10);
+        JFRConnection conn2 = mgr.executeConnectedTask(desc, a -> a);
+
+        MatcherAssert.assertThat(conn1, Matchers.sameInstance(conn2));
+        Mockito.verify(jfrConnectionToolkit, Mockito.times(1))
+                .connect(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void shouldExpireConnectionsOnceAllPinsReleased() throws Exception {
+        TargetConnectionManager mgr = createShortLivedManager();
+        String targetId = "service:jmx:rmi:///jndi/rmi://localhost:0/jmxrmi";
+        ConnectionDescriptor desc = new ConnectionDescriptor(targetId);
+
+        mgr.pin(desc);
+        mgr.pin(desc);
+        JFRConnection conn1 = mgr.executeConnectedTask(desc, a -> a);
+        mgr.unpin(targetId);
+        MatcherAssert.assertThat(mgr.isWarm(targetId), Matchers.is(true));
+        mgr.unpin(targetId);
+        MatcherAssert.assertThat(mgr.isWarm(targetId), Matchers.is(false));
+        Thread.sleep(10);
+        JFRConnection conn2 = mgr.executeConnectedTask(desc, a -> a);
+
+        MatcherAssert.assertThat(conn1, Matchers.not(Matchers.sameInstance(conn2)));
+    }
+
+    @Test
+    void shouldDemoteLeastRecentlyUsedPinsOverBudget() throws Exception {
+        TargetConnectionManager mgr = createShortLivedManager();
+        ConnectionDescriptor desc1 =
+                new ConnectionDescriptor("service:jmx:rmi:///jndi/rmi://example1:9091/jmxrmi");
+        ConnectionDescriptor desc2 =
+                new ConnectionDescriptor("service:jmx:rmi:///jndi/rmi://example2:9091/jmxrmi");
+        ConnectionDescriptor desc3 =
+                new ConnectionDescriptor("service:jmx:rmi:///jndi/rmi://example3:9091/jmxrmi");
+
+        mgr.pin(desc1);
+        mgr.pin(desc2);
+        mgr.executeConnectedTask(desc1, a -> a);
+        mgr.pin(desc3);
+
+        MatcherAssert.assertThat(mgr.isWarm(desc1.getTargetId()), Matchers.is(true));
+        MatcherAssert.assertThat(mgr.isWarm(desc2.getTargetId()), Matchers.is(false));
+        MatcherAssert.assertThat(mgr.isWarm(desc3.getTargetId()), Matchers.is(true));
+
+        // a demoted target is promoted again when it is used
+        mgr.executeConnectedTask(desc2, a -> a);
+
+        MatcherAssert.assertThat(mgr.isWarm(desc1.getTargetId()), Matchers.is(false));
+        MatcherAssert.assertThat(mgr.isWarm(desc2.getTargetId()), Matchers.is(true));
+        MatcherAssert.assertThat(mgr.isWarm(desc3.getTargetId()), Matchers.is(true));
+    }
+
+    private TargetConnectionManager createShortLivedManager() throws Exception {
+        Mockito.when(jfrConnectionToolkit.connect(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> Mockito.mock(JFRConnection.class));
+        return new TargetConnectionManager(
+                () -> jfrConnectionToolkit,
+                () -> agentConnectionFactory,
+                platformClient,
+                new DirectExecutor(),
+                Scheduler.disabledScheduler(),
+                Duration.ofNanos(1),
+                RECORDINGS_TTL,
+                new ConnectionAdmission(-1, 8, 0, new DirectExecutor(), logger),
+                64,
+                2,
+                10,
+                logger);
+    }
+
+    private CryostatFlightRecorderService mockRecordingsService() throws Exception {
+        JFRConnection conn = Mockito.mock(JFRConnection.class);
+        CryostatFlightRecorderService service = Mockito.mock(CryostatFlightRecorderService.class);
+        Mockito.when(jfrConnectionToolkit.connect(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(conn);
+        Mockito.when(conn.getService()).thenReturn(service);
+        Mockito.when(service.getAvailableRecordings())
+                .thenAnswer(invocation -> List.of(Mockito.mock(IRecordingDescriptor.class)));
+        return service;
+    }
 }
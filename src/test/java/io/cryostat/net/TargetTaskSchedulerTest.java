@@ -0,0 +1,177 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TargetTaskSchedulerTest {
+
+    static final String TARGET = "service:jmx:rmi:///jndi/rmi://localhost:9091/jmxrmi";
+
+    TargetTaskScheduler scheduler;
+    ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        this.scheduler = new TargetTaskScheduler(2);
+        this.executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldRunReadOnlyTasksConcurrently() throws Exception {
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        Future<Boolean> first =
+                executor.submit(
+                        () ->
+                                scheduler.run(
+                                        TARGET,
+                                        true,
+                                        () -> {
+                                            bothRunning.countDown();
+                                            return bothRunning.await(5, TimeUnit.SECONDS);
+                                        }));
+        Future<Boolean> second =
+                executor.submit(
+                        () ->
+                                scheduler.run(
+                                        TARGET,
+                                        true,
+                                        () -> {
+                                            bothRunning.countDown();
+                                            return bothRunning.await(5, TimeUnit.SECONDS);
+                                        }));
+
+        MatcherAssert.assertThat(first.get(), Matchers.is(true));
+        MatcherAssert.assertThat(second.get(), Matchers.is(true));
+    }
+
+    @Test
+    void shouldRunMutatingTasksAlone() throws Exception {
+        CountDownLatch mutating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> writer =
+                executor.submit(
+                        () ->
+                                scheduler.run(
+                                        TARGET,
+                                        false,
+                                        () -> {
+                                            mutating.countDown();
+                                            release.await();
+                                            return null;
+                                        }));
+        mutating.await();
+        Future<String> reader = executor.submit(() -> scheduler.run(TARGET, true, () -> "read"));
+
+        Assertions.assertThrows(
+                TimeoutException.class, () -> reader.get(100, TimeUnit.MILLISECONDS));
+        MatcherAssert.assertThat(scheduler.getQueueDepth(TARGET), Matchers.equalTo(1));
+
+        release.countDown();
+        writer.get();
+        MatcherAssert.assertThat(reader.get(), Matchers.equalTo("read"));
+        MatcherAssert.assertThat(scheduler.getQueueDepth(TARGET), Matchers.equalTo(0));
+    }
+
+    @Test
+    void shouldNotBlockTasksForOtherTargets() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(
+                () ->
+                        scheduler.run(
+                                TARGET,
+                                false,
+                                () -> {
+                                    release.await();
+                                    return null;
+                                }));
+
+        String result =
+                executor.submit(() -> scheduler.run("localhost:0", false, () -> "other"))
+                        .get(5, TimeUnit.SECONDS);
+
+        MatcherAssert.assertThat(result, Matchers.equalTo("other"));
+        release.countDown();
+    }
+
+    @Test
+    void shouldRejectTasksBeyondQueueLimit() throws Exception {
+        CountDownLatch mutating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(
+                () ->
+                        scheduler.run(
+                                TARGET,
+                                false,
+                                () -> {
+                                    mutating.countDown();
+                                    release.await();
+                                    return null;
+                                }));
+        mutating.await();
+        executor.submit(() -> scheduler.run(TARGET, false, () -> null));
+        executor.submit(() -> scheduler.run(TARGET, false, () -> null));
+        while (scheduler.getQueueDepth(TARGET) < 2) {
+            Thread.sleep(10);
+        }
+
+        Assertions.assertThrows(
+                RejectedExecutionException.class, () -> scheduler.run(TARGET, true, () -> null));
+        // the rejected task is not left waiting
+        MatcherAssert.assertThat(scheduler.getQueueDepth(TARGET), Matchers.equalTo(2));
+        release.countDown();
+    }
+
+    @Test
+    void shouldAllowNestedTasks() throws Exception {
+        String result =
+                scheduler.run(
+                        TARGET,
+                        false,
+                        () ->
+                                scheduler.run(
+                                        TARGET,
+                                        true,
+                                        () -> scheduler.run(TARGET, false, () -> "nested")));
+
+        MatcherAssert.assertThat(result, Matchers.equalTo("nested"));
+    }
+
+    @Test
+    void shouldNotAllowMutatingTaskNestedInReadOnlyTask() {
+        Assertions.assertThrows(
+                IllegalStateException.class,
+                () -> scheduler.run(TARGET, true, () -> scheduler.run(TARGET, false, () -> null)));
+    }
+}
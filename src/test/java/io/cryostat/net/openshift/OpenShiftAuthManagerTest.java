@@ -27,6 +27,7 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -130,6 +131,7 @@ class OpenShiftAuthManagerTest {
     TokenProvider tokenProvider;
     Gson gson = MainModule.provideGson(logger);
     @Mock CompletableFuture<String> redirectUrl;
+    AtomicLong ticker = new AtomicLong();
 
     @BeforeEach
     void setup() throws IOException {
@@ -149,6 +151,7 @@ class OpenShiftAuthManagerTest {
                         gson,
                         Runnable::run,
                         Scheduler.disabledScheduler(),
+                        ticker::get,
                         logger);
     }
 
@@ -301,6 +304,113 @@ class OpenShiftAuthManagerTest {
                 Matchers.is(true));
     }
 
+    @Test
+    void shouldCacheAccessReviewDecisions() throws Exception {
+        SelfSubjectAccessReview accessReview =
+                new SelfSubjectAccessReviewBuilder()
+                        .withNewStatus()
+                        .withAllowed(true)
+                        .endStatus()
+                        .build();
+        server.expect()
+                .post()
+                .withPath(SUBJECT_REVIEW_API_PATH)
+                .andReturn(HttpURLConnection.HTTP_CREATED, accessReview)
+                .once();
+
+        for (int i = 0; i < 3; i++) {
+            MatcherAssert.assertThat(
+                    mgr.validateToken(() -> "token", Set.of(ResourceAction.READ_RECORDING)).get(),
+                    Matchers.is(true));
+        }
+
+        MatcherAssert.assertThat(server.getRequestCount(), Matchers.equalTo(1));
+    }
+
+    @Test
+    void shouldExpireDeniedDecisionsAfterNegativeTtl() throws Exception {
+        SelfSubjectAccessReview accessReview =
+                new SelfSubjectAccessReviewBuilder()
+                        .withNewStatus()
+                        .withAllowed(false)
+                        .endStatus()
+                        .build();
+        server.expect()
+                .post()
+                .withPath(SUBJECT_REVIEW_API_PATH)
+                .andReturn(HttpURLConnection.HTTP_CREATED, accessReview)
+                .times(2);
+
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertThrows(
+                    ExecutionException.class,
+                    () ->
+                            mgr.validateToken(() -> "token", Set.of(ResourceAction.READ_RECORDING))
+                                    .get());
+        }
+        MatcherAssert.assertThat(server.getRequestCount(), Matchers.equalTo(1));
+
+        ticker.addAndGet(OpenShiftAuthManager.ACCESS_REVIEW_DENIED_TTL.toNanos());
+        Assertions.assertThrows(
+                ExecutionException.class,
+                () ->
+                        mgr.validateToken(() -> "token", Set.of(ResourceAction.READ_RECORDING))
+                                .get());
+        MatcherAssert.assertThat(server.getRequestCount(), Matchers.equalTo(2));
+    }
+
+    @Test
+    void shouldInvalidateCachedDecisionsOfDeletedToken() throws Exception {
+        SelfSubjectAccessReview accessReview =
+                new SelfSubjectAccessReviewBuilder()
+                        .withNewStatus()
+                        .withAllowed(true)
+                        .endStatus()
+                        .build();
+        server.expect()
+                .post()
+                .withPath(SUBJECT_REVIEW_API_PATH)
+                .andReturn(HttpURLConnection.HTTP_CREATED, accessReview)
+                .times(3);
+
+        Resource<OAuthAccessToken> token = Mockito.mock(Resource.class);
+        NonNamespaceOperation<OAuthAccessToken, OAuthAccessTokenList, Resource<OAuthAccessToken>>
+                tokens = Mockito.mock(NonNamespaceOperation.class);
+        Mockito.when(client.oAuthAccessTokens()).thenReturn(tokens);
+        Mockito.when(tokens.withName(Mockito.anyString())).thenReturn(token);
+        Mockito.when(token.delete()).thenReturn(List.of());
+
+        Mockito.when(client.getHttpClient()).thenReturn(httpClient);
+        Mockito.when(client.getMasterUrl()).thenReturn(new URL("https://example.com"));
+        HttpRequest.Builder requestBuilder = Mockito.mock(HttpRequest.Builder.class);
+        Mockito.when(requestBuilder.uri(Mockito.any(URI.class))).thenReturn(requestBuilder);
+        Mockito.when(requestBuilder.header(Mockito.anyString(), Mockito.anyString()))
+                .thenReturn(requestBuilder);
+        HttpRequest request = Mockito.mock(HttpRequest.class);
+        Mockito.when(requestBuilder.build()).thenReturn(request);
+        Mockito.when(httpClient.newHttpRequestBuilder()).thenReturn(requestBuilder);
+        HttpResponse<String> resp = Mockito.mock(HttpResponse.class);
+        Mockito.when(resp.body()).thenReturn(OAUTH_METADATA);
+        Mockito.when(httpClient.sendAsync(request, String.class))
+                .thenReturn(CompletableFuture.completedFuture(resp));
+
+        for (String t : List.of("myToken", "otherToken", "myToken", "otherToken")) {
+            MatcherAssert.assertThat(
+                    mgr.validateToken(() -> t, Set.of(ResourceAction.READ_RECORDING)).get(),
+                    Matchers.is(true));
+        }
+        MatcherAssert.assertThat(server.getRequestCount(), Matchers.equalTo(2));
+
+        mgr.logout(() -> "Bearer myToken").get();
+
+        for (String t : List.of("myToken", "otherToken")) {
+            MatcherAssert.assertThat(
+                    mgr.validateToken(() -> t, Set.of(ResourceAction.READ_RECORDING)).get(),
+                    Matchers.is(true));
+        }
+        MatcherAssert.assertThat(server.getRequestCount(), Matchers.equalTo(3));
+    }
+
     @Test
     void shouldNotValidateTokenWithInsufficientPermissions() throws Exception {
         SelfSubjectAccessReview accessReview =
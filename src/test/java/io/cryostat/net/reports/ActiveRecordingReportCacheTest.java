@@ -19,6 +19,8 @@ import static org.mockito.ArgumentMatchers.anyString;
 
 import java.nio.file.Path;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
@@ -59,9 +61,13 @@ class ActiveRecordingReportCacheTest {
     @Mock CompletableFuture<Path> pathFuture;
     @Mock Path destinationFile;
     @Mock JavaProcess.Builder javaProcessBuilder;
+    @Mock ReportFilter reportFilter;
     Provider<JavaProcess.Builder> javaProcessBuilderProvider = () -> javaProcessBuilder;
     final String REPORT_DOC = "<html><body><p>This is a report</p></body></html>";
     final String REPORT_JSON = "{\"report\": \"This is an unformatted report\"";
+    final String RESULTS_JSON =
+            "{\"HeapContent\":{\"topic\":\"heap\",\"score\":25.0},"
+                    + "\"GcPauseRatio\":{\"topic\":\"gc\",\"score\":0.5}}";
 
     @BeforeEach
     void setup() {
@@ -73,6 +79,7 @@ class ActiveRecordingReportCacheTest {
                         30,
                         30,
                         30,
+                        reportFilter,
                         logger);
     }
 
@@ -180,6 +187,79 @@ class ActiveRecordingReportCacheTest {
                 .exec(Mockito.any(RecordingDescriptor.class), anyString());
     }
 
+    @Test
+    void shouldReturnFullReportAsGenerated() throws Exception {
+        String formatted = "{\n  \"HeapContent\": {\"topic\": \"heap\", \"score\": 25}\n}";
+        Mockito.when(pathFuture.get(Mockito.anyLong(), Mockito.any())).thenReturn(destinationFile);
+        Mockito.when(
+                        subprocessReportGenerator.exec(
+                                Mockito.any(RecordingDescriptor.class), anyString()))
+                .thenReturn(pathFuture);
+        Mockito.when(fs.readString(destinationFile)).thenReturn(formatted);
+
+        ConnectionDescriptor connectionDescriptor = new ConnectionDescriptor("foo");
+        String rules =
+                cache.getRules(connectionDescriptor, "bar", Set.of("HeapContent"), true).get();
+        String report = cache.get(connectionDescriptor, "bar", "").get();
+
+        MatcherAssert.assertThat(rules, Matchers.equalTo("{\"HeapContent\":25.0}"));
+        MatcherAssert.assertThat(report, Matchers.equalTo(formatted));
+    }
+
+    @Test
+    void shouldDeriveFilteredReportFromCachedReport() throws Exception {
+        Mockito.when(pathFuture.get(Mockito.anyLong(), Mockito.any())).thenReturn(destinationFile);
+        Mockito.when(
+                        subprocessReportGenerator.exec(
+                                Mockito.any(RecordingDescriptor.class), anyString()))
+                .thenReturn(pathFuture);
+        Mockito.when(fs.readString(destinationFile)).thenReturn(RESULTS_JSON);
+        Mockito.when(reportFilter.select(Mockito.any(IndexedReport.class), Mockito.eq("heap")))
+                .thenReturn(Optional.of(Set.of("HeapContent")));
+
+        ConnectionDescriptor connectionDescriptor = new ConnectionDescriptor("foo");
+        String report1 = cache.get(connectionDescriptor, "bar", "").get();
+        MatcherAssert.assertThat(report1, Matchers.equalTo(RESULTS_JSON));
+        String report2 = cache.get(connectionDescriptor, "bar", "heap").get();
+        MatcherAssert.assertThat(
+                report2, Matchers.equalTo("{\"HeapContent\":{\"topic\":\"heap\",\"score\":25.0}}"));
+        String report3 = cache.get(connectionDescriptor, "bar", "heap").get();
+        MatcherAssert.assertThat(report3, Matchers.equalTo(report2));
+
+        Mockito.verify(subprocessReportGenerator, Mockito.times(1))
+                .exec(Mockito.any(RecordingDescriptor.class), Mockito.eq(""));
+        Mockito.verify(reportFilter, Mockito.times(1))
+                .select(Mockito.any(IndexedReport.class), Mockito.eq("heap"));
+    }
+
+    @Test
+    void shouldGetSelectedRulesFromCachedReport() throws Exception {
+        Mockito.when(pathFuture.get(Mockito.anyLong(), Mockito.any())).thenReturn(destinationFile);
+        Mockito.when(
+                        subprocessReportGenerator.exec(
+                                Mockito.any(RecordingDescriptor.class), anyString()))
+                .thenReturn(pathFuture);
+        Mockito.when(fs.readString(destinationFile)).thenReturn(RESULTS_JSON);
+
+        ConnectionDescriptor connectionDescriptor = new ConnectionDescriptor("foo");
+        String rules =
+                cache.getRules(connectionDescriptor, "bar", Set.of("GcPauseRatio"), false).get();
+        String scores =
+                cache.getRules(
+                                connectionDescriptor,
+                                "bar",
+                                Set.of("HeapContent", "GcPauseRatio"),
+                                true)
+                        .get();
+
+        MatcherAssert.assertThat(
+                rules, Matchers.equalTo("{\"GcPauseRatio\":{\"topic\":\"gc\",\"score\":0.5}}"));
+        MatcherAssert.assertThat(
+                scores, Matchers.equalTo("{\"HeapContent\":25.0,\"GcPauseRatio\":0.5}"));
+        Mockito.verify(subprocessReportGenerator, Mockito.times(1))
+                .exec(Mockito.any(RecordingDescriptor.class), Mockito.eq(""));
+    }
+
     @SuppressWarnings("rawtypes")
     @Test
     void shouldReturnUncachedReportWhenRecordingStopped() throws Exception {
@@ -16,11 +16,23 @@
 package io.cryostat.net.reports;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import io.cryostat.core.log.Logger;
 import io.cryostat.core.sys.FileSystem;
@@ -35,6 +47,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -46,18 +59,23 @@ class ArchivedRecordingReportCacheTest {
     String sourceTarget;
     String recordingName;
 
-    @Mock CompletableFuture<Path> pathFuture;
     @Mock Path destinationFile;
     @Mock FileSystem fs;
     @Mock SubprocessReportGenerator subprocessReportGenerator;
     @Mock Logger logger;
     @Mock RecordingArchiveHelper recordingArchiveHelper;
+    @Mock ReportFilter reportFilter;
 
     @BeforeEach
     void setup() {
         this.cache =
                 new ArchivedRecordingReportCache(
-                        fs, () -> subprocessReportGenerator, recordingArchiveHelper, 30, logger);
+                        fs,
+                        () -> subprocessReportGenerator,
+                        recordingArchiveHelper,
+                        30,
+                        reportFilter,
+                        logger);
         this.sourceTarget = "service:jmx:rmi://localhost:9091/jndi/rmi://fooHost:9091/jmxrmi";
         this.recordingName = "foo";
     }
@@ -71,7 +89,6 @@ class ArchivedRecordingReportCacheTest {
                 .thenReturn(future1);
 
         Mockito.when(fs.isReadable(Mockito.any(Path.class))).thenReturn(false);
-        Mockito.when(fs.deleteIfExists(Mockito.any(Path.class))).thenReturn(false);
 
         CompletableFuture<Path> future2 = Mockito.mock(CompletableFuture.class);
         Mockito.when(future2.get())
@@ -94,7 +111,7 @@ class ArchivedRecordingReportCacheTest {
                 ExceptionUtils.getRootCause(ee),
                 Matchers.instanceOf(RecordingNotFoundException.class));
         Mockito.verify(fs, Mockito.atLeastOnce()).isReadable(destinationFile);
-        Mockito.verify(fs, Mockito.atLeastOnce()).deleteIfExists(destinationFile);
+        Mockito.verify(fs, Mockito.never()).deleteIfExists(Mockito.any(Path.class));
     }
 
     @Test
@@ -116,14 +133,12 @@ class ArchivedRecordingReportCacheTest {
                                 Mockito.nullable(String.class), Mockito.anyString()))
                 .thenReturn(future2);
 
-        Mockito.when(pathFuture.get(Mockito.anyLong(), Mockito.any())).thenReturn(destinationFile);
-
         Mockito.when(
                         subprocessReportGenerator.exec(
                                 Mockito.any(Path.class),
                                 Mockito.any(Path.class),
                                 Mockito.anyString()))
-                .thenReturn(pathFuture);
+                .thenReturn(CompletableFuture.completedFuture(destinationFile));
 
         Future<Path> res = cache.get(sourceTarget, recordingName, "");
 
@@ -141,6 +156,8 @@ class ArchivedRecordingReportCacheTest {
                         recordingArchiveHelper.getCachedReportPath(
                                 sourceTarget, recordingName, "someFilter"))
                 .thenReturn(future1);
+        Mockito.when(recordingArchiveHelper.getCachedReportPath(sourceTarget, recordingName, ""))
+                .thenReturn(future1);
 
         Mockito.when(fs.isReadable(Mockito.any(Path.class))).thenReturn(false);
 
@@ -153,14 +170,12 @@ class ArchivedRecordingReportCacheTest {
                                 Mockito.nullable(String.class), Mockito.anyString()))
                 .thenReturn(future2);
 
-        Mockito.when(pathFuture.get(Mockito.anyLong(), Mockito.any())).thenReturn(destinationFile);
-
         Mockito.when(
                         subprocessReportGenerator.exec(
                                 Mockito.any(Path.class),
                                 Mockito.any(Path.class),
                                 Mockito.anyString()))
-                .thenReturn(pathFuture);
+                .thenReturn(CompletableFuture.completedFuture(destinationFile));
 
         Future<Path> res = cache.get(sourceTarget, recordingName, "someFilter");
 
@@ -178,6 +193,8 @@ class ArchivedRecordingReportCacheTest {
                         recordingArchiveHelper.getCachedReportPath(
                                 sourceTarget, recordingName, "someFilter"))
                 .thenReturn(future1);
+        Mockito.when(recordingArchiveHelper.getCachedReportPath(sourceTarget, recordingName, ""))
+                .thenReturn(future1);
 
         Mockito.when(fs.isReadable(Mockito.any(Path.class))).thenReturn(false);
 
@@ -190,14 +207,12 @@ class ArchivedRecordingReportCacheTest {
                                 Mockito.nullable(String.class), Mockito.anyString()))
                 .thenReturn(future2);
 
-        Mockito.when(pathFuture.get(Mockito.anyLong(), Mockito.any())).thenReturn(destinationFile);
-
         Mockito.when(
                         subprocessReportGenerator.exec(
                                 Mockito.any(Path.class),
                                 Mockito.any(Path.class),
                                 Mockito.anyString()))
-                .thenReturn(pathFuture);
+                .thenReturn(CompletableFuture.completedFuture(destinationFile));
 
         Future<Path> res = cache.get(sourceTarget, recordingName, "someFilter");
 
@@ -206,6 +221,134 @@ class ArchivedRecordingReportCacheTest {
         Mockito.verify(fs, Mockito.atLeastOnce()).isReadable(destinationFile);
     }
 
+    @Test
+    void getShouldDeriveFilteredReportFromCachedUnfilteredReport(@TempDir Path tempDir)
+            throws Exception {
+        Path filteredFile = tempDir.resolve("foo-1.report.json");
+        Mockito.when(
+                        recordingArchiveHelper.getCachedReportPath(
+                                sourceTarget, recordingName, "someFilter"))
+                .thenReturn(CompletableFuture.completedFuture(filteredFile));
+
+        Path unfilteredFile = tempDir.resolve("foo-0.report.json");
+        Mockito.when(recordingArchiveHelper.getCachedReportPath(sourceTarget, recordingName, ""))
+                .thenReturn(CompletableFuture.completedFuture(unfilteredFile));
+
+        Mockito.when(fs.isReadable(filteredFile)).thenReturn(false);
+        Mockito.when(fs.isReadable(unfilteredFile)).thenReturn(true);
+        Mockito.when(fs.isRegularFile(unfilteredFile)).thenReturn(true);
+        Mockito.when(fs.readString(unfilteredFile)).thenReturn("{\"a\":{},\"b\":{}}");
+        Mockito.when(reportFilter.apply("{\"a\":{},\"b\":{}}", "someFilter"))
+                .thenReturn(Optional.of("{\"a\":{}}"));
+        Mockito.when(
+                        fs.writeString(
+                                Mockito.any(Path.class),
+                                Mockito.anyString(),
+                                Mockito.any(OpenOption[].class)))
+                .thenAnswer(
+                        invocation ->
+                                Files.writeString(
+                                        invocation.getArgument(0, Path.class),
+                                        invocation.getArgument(1, String.class)));
+
+        Future<Path> res = cache.get(sourceTarget, recordingName, "someFilter");
+
+        MatcherAssert.assertThat(res.get(), Matchers.equalTo(filteredFile));
+        MatcherAssert.assertThat(Files.readString(filteredFile), Matchers.equalTo("{\"a\":{}}"));
+        // the report is written beside its destination and moved into place
+        Mockito.verify(fs, Mockito.never())
+                .writeString(
+                        Mockito.eq(filteredFile),
+                        Mockito.anyString(),
+                        Mockito.any(OpenOption[].class));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            MatcherAssert.assertThat(
+                    files.collect(Collectors.toList()), Matchers.contains(filteredFile));
+        }
+        Mockito.verifyNoInteractions(subprocessReportGenerator);
+    }
+
+    @Test
+    void getShouldCoalesceConcurrentGenerationsOfSameReport() throws Exception {
+        CompletableFuture<Path> future1 = Mockito.mock(CompletableFuture.class);
+        Mockito.when(future1.get()).thenReturn(destinationFile);
+        Mockito.when(recordingArchiveHelper.getCachedReportPath(sourceTarget, recordingName, ""))
+                .thenReturn(future1);
+
+        Mockito.when(fs.isReadable(Mockito.any(Path.class))).thenReturn(false);
+
+        CompletableFuture<Path> future2 = Mockito.mock(CompletableFuture.class);
+        Path recording = Mockito.mock(Path.class);
+        Mockito.when(future2.get()).thenReturn(recording);
+        Mockito.when(
+                        recordingArchiveHelper.getRecordingPath(
+                                Mockito.nullable(String.class), Mockito.anyString()))
+                .thenReturn(future2);
+
+        CompletableFuture<Path> generation = new CompletableFuture<>();
+        Mockito.when(subprocessReportGenerator.exec(recording, destinationFile, ""))
+                .thenReturn(generation);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Future<Path>> res1 =
+                    executor.submit(() -> cache.get(sourceTarget, recordingName, ""));
+            Future<Future<Path>> res2 =
+                    executor.submit(() -> cache.get(sourceTarget, recordingName, ""));
+
+            // only the first caller resolves the recording to generate the report from
+            Mockito.verify(future1, Mockito.timeout(1_000).times(2)).get();
+            Thread.sleep(100);
+            generation.complete(destinationFile);
+
+            MatcherAssert.assertThat(
+                    res1.get(1, TimeUnit.SECONDS).get(), Matchers.sameInstance(destinationFile));
+            MatcherAssert.assertThat(
+                    res2.get(1, TimeUnit.SECONDS).get(), Matchers.sameInstance(destinationFile));
+            Mockito.verify(subprocessReportGenerator, Mockito.times(1))
+                    .exec(recording, destinationFile, "");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getRulesShouldIndexCachedReportAndReadSelectedRules(@TempDir Path tempDir)
+            throws Exception {
+        Path report = tempDir.resolve("foo-0.report.json");
+        Path index = tempDir.resolve("foo-0.report.idx");
+        Mockito.when(recordingArchiveHelper.getCachedReportPath(sourceTarget, recordingName, ""))
+                .thenReturn(CompletableFuture.completedFuture(report));
+        Mockito.when(fs.isReadable(report)).thenReturn(true);
+        Mockito.when(fs.isRegularFile(report)).thenReturn(true);
+        Mockito.when(fs.isReadable(index)).thenReturn(false).thenReturn(true);
+        Mockito.when(fs.isRegularFile(index)).thenReturn(true);
+        Mockito.when(fs.readString(report))
+                .thenReturn(
+                        "{\"HeapContent\":{\"topic\":\"heap\",\"score\":25.0},"
+                                + "\"GcPauseRatio\":{\"topic\":\"gc\",\"score\":0.5}}");
+        Mockito.when(fs.copy(Mockito.any(InputStream.class), Mockito.eq(index), Mockito.any()))
+                .thenAnswer(
+                        invocation ->
+                                Files.copy(
+                                        invocation.getArgument(0, InputStream.class),
+                                        index,
+                                        StandardCopyOption.REPLACE_EXISTING));
+
+        String rules =
+                cache.getRules(sourceTarget, recordingName, Set.of("HeapContent"), false).get();
+        // the index is kept mapped, so it is not read from the file again
+        Files.delete(index);
+        String scores =
+                cache.getRules(sourceTarget, recordingName, Set.of("GcPauseRatio"), true).get();
+
+        MatcherAssert.assertThat(
+                rules, Matchers.equalTo("{\"HeapContent\":{\"topic\":\"heap\",\"score\":25.0}}"));
+        MatcherAssert.assertThat(scores, Matchers.equalTo("{\"GcPauseRatio\":0.5}"));
+        Mockito.verify(fs, Mockito.times(1)).readString(report);
+        Mockito.verifyNoInteractions(subprocessReportGenerator);
+    }
+
     @Test
     void getShouldReturnCachedFileIfAvailable() throws Exception {
         CompletableFuture<Path> future = Mockito.mock(CompletableFuture.class);
@@ -263,6 +406,40 @@ class ArchivedRecordingReportCacheTest {
                 Matchers.instanceOf(
                         SubprocessReportGenerator.SubprocessReportGenerationException.class));
         Mockito.verify(fs, Mockito.atLeastOnce()).isReadable(destinationFile);
+        Mockito.verify(fs).deleteIfExists(destinationFile);
+    }
+
+    @Test
+    void shouldOnlyCleanUpWhenGenerationFails() throws Exception {
+        this.cache =
+                new ArchivedRecordingReportCache(
+                        fs,
+                        () -> subprocessReportGenerator,
+                        recordingArchiveHelper,
+                        0,
+                        reportFilter,
+                        logger);
+        Mockito.when(recordingArchiveHelper.getCachedReportPath(sourceTarget, recordingName, ""))
+                .thenReturn(CompletableFuture.completedFuture(destinationFile));
+        Mockito.when(fs.isReadable(destinationFile)).thenReturn(false);
+        Path recording = Mockito.mock(Path.class);
+        Mockito.when(recordingArchiveHelper.getRecordingPath(sourceTarget, recordingName))
+                .thenReturn(CompletableFuture.completedFuture(recording));
+        CompletableFuture<Path> generation = new CompletableFuture<>();
+        Mockito.when(subprocessReportGenerator.exec(recording, destinationFile, ""))
+                .thenReturn(generation);
+
+        ExecutionException ee =
+                Assertions.assertThrows(
+                        ExecutionException.class,
+                        () -> cache.get(sourceTarget, recordingName, "").get());
+        MatcherAssert.assertThat(ee.getCause(), Matchers.instanceOf(TimeoutException.class));
+        // the generation is still writing the report, so a caller giving up must not remove it
+        Mockito.verify(fs, Mockito.never()).deleteIfExists(Mockito.any(Path.class));
+
+        generation.completeExceptionally(new IOException("generation failed"));
+
+        Mockito.verify(fs).deleteIfExists(destinationFile);
     }
 
     @Test
@@ -273,15 +450,13 @@ class ArchivedRecordingReportCacheTest {
         Mockito.when(recordingArchiveHelper.getCachedReportPath(sourceTarget, recordingName, ""))
                 .thenReturn(future1);
 
-        Mockito.when(fs.deleteIfExists(Mockito.nullable(Path.class))).thenReturn(false);
-
         ExecutionException ee =
                 Assertions.assertThrows(
                         ExecutionException.class, () -> cache.get(sourceTarget, "foo", "").get());
         MatcherAssert.assertThat(
                 ExceptionUtils.getRootCause(ee), Matchers.instanceOf(IOException.class));
 
-        Mockito.verify(fs, Mockito.atLeastOnce()).deleteIfExists(null);
+        Mockito.verify(fs, Mockito.never()).deleteIfExists(Mockito.nullable(Path.class));
     }
 
     @Test
@@ -302,7 +477,6 @@ class ArchivedRecordingReportCacheTest {
                 .thenReturn(future2);
 
         Mockito.when(fs.isReadable(Mockito.any(Path.class))).thenReturn(true);
-        Mockito.when(fs.deleteIfExists(Mockito.nullable(Path.class))).thenReturn(false);
 
         ExecutionException ee =
                 Assertions.assertThrows(
@@ -310,6 +484,6 @@ class ArchivedRecordingReportCacheTest {
         MatcherAssert.assertThat(
                 ExceptionUtils.getRootCause(ee), Matchers.instanceOf(ArchivePathException.class));
 
-        Mockito.verify(fs, Mockito.atLeastOnce()).deleteIfExists(destinationFile);
+        Mockito.verify(fs, Mockito.never()).deleteIfExists(Mockito.nullable(Path.class));
     }
 }
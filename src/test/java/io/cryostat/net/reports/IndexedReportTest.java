@@ -0,0 +1,103 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net.reports;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IndexedReportTest {
+
+    static final String REPORT =
+            "{\"HeapContent\":{\"topic\":\"heap\",\"name\":\"Heap Content\",\"score\":25.0},"
+                    + "\"GcPauseRatio\":{\"topic\":\"gc\",\"score\":0.5},"
+                    + "\"Unscored\":{\"topic\":\"misc\",\"description\":\"naïve\"}}";
+
+    @Test
+    void shouldIndexResults() {
+        IndexedReport report = IndexedReport.of(REPORT);
+
+        MatcherAssert.assertThat(report.isIndexed(), Matchers.is(true));
+        MatcherAssert.assertThat(
+                report.getEntries().stream()
+                        .map(IndexedReport.Entry::getId)
+                        .collect(Collectors.toList()),
+                Matchers.equalTo(List.of("HeapContent", "GcPauseRatio", "Unscored")));
+        IndexedReport.Entry heap = report.getEntries().iterator().next();
+        MatcherAssert.assertThat(heap.getTopic().get(), Matchers.equalTo("heap"));
+        MatcherAssert.assertThat(heap.getName().get(), Matchers.equalTo("Heap Content"));
+        MatcherAssert.assertThat(heap.getScore(), Matchers.equalTo(25.0));
+    }
+
+    @Test
+    void shouldReadSelectedResultsAndScores() {
+        IndexedReport report = IndexedReport.of(REPORT);
+
+        MatcherAssert.assertThat(
+                report.toJson(Set.of("GcPauseRatio", "Unscored", "Missing")),
+                Matchers.equalTo(
+                        "{\"GcPauseRatio\":{\"topic\":\"gc\",\"score\":0.5},"
+                                + "\"Unscored\":{\"topic\":\"misc\",\"description\":\"naïve\"}}"));
+        MatcherAssert.assertThat(
+                report.scoresToJson(Set.of("HeapContent", "Unscored")),
+                Matchers.equalTo("{\"HeapContent\":25.0,\"Unscored\":null}"));
+        MatcherAssert.assertThat(report.toJson(Set.of()), Matchers.equalTo("{}"));
+    }
+
+    @Test
+    void shouldRoundTripThroughMappedFile(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("report.idx");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            IndexedReport.write(REPORT, out);
+        }
+
+        IndexedReport report = IndexedReport.map(file);
+
+        MatcherAssert.assertThat(report.toJson(), Matchers.equalTo(REPORT));
+        MatcherAssert.assertThat(
+                report.scoresToJson(Set.of("GcPauseRatio")),
+                Matchers.equalTo("{\"GcPauseRatio\":0.5}"));
+    }
+
+    @Test
+    void shouldKeepOtherDocumentsUnindexed() {
+        String html = "<html><body><p>This is a report</p></body></html>";
+
+        IndexedReport report = IndexedReport.of(html);
+
+        MatcherAssert.assertThat(report.isIndexed(), Matchers.is(false));
+        MatcherAssert.assertThat(report.getEntries(), Matchers.empty());
+        MatcherAssert.assertThat(report.toJson(), Matchers.equalTo(html));
+        MatcherAssert.assertThat(report.toJson(Set.of("HeapContent")), Matchers.equalTo("{}"));
+    }
+
+    @Test
+    void shouldRejectOtherFiles(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("report.json");
+        Files.writeString(file, REPORT);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IndexedReport.map(file));
+    }
+}
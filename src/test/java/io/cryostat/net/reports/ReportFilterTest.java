@@ -0,0 +1,116 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net.reports;
+
+import java.util.Optional;
+import java.util.Set;
+
+import io.cryostat.core.util.RuleFilterParser;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ReportFilterTest {
+
+    static final String REPORT =
+            "{\"HeapContent\":{\"name\":\"Heap"
+                    + " Content\",\"topic\":\"heap\",\"score\":0.0},\"GcFreedRatio\":{\"name\":\"GC"
+                    + " Freed Ratio\",\"topic\":\"garbage_collection\","
+                    + "\"score\":25.5},\"LongGcPause\":{\"name\":\"GC"
+                    + " Pauses\",\"topic\":\"garbage_collection\",\"score\":-1.0}}";
+
+    @Mock RuleFilterParser ruleFilterParser;
+    ReportFilter filter;
+
+    @BeforeEach
+    void setup() {
+        this.filter = new ReportFilter(ruleFilterParser);
+    }
+
+    @Test
+    void shouldKeepResultsOfMatchingRules() {
+        Mockito.when(ruleFilterParser.parse("garbage_collection,HeapContent"))
+                .thenReturn(
+                        r ->
+                                r.getTopic().equals("garbage_collection")
+                                        && !r.getId().equals("LongGcPause"));
+
+        Optional<String> filtered = filter.apply(REPORT, "garbage_collection,HeapContent");
+
+        MatcherAssert.assertThat(filtered.isPresent(), Matchers.is(true));
+        JsonObject obj = JsonParser.parseString(filtered.get()).getAsJsonObject();
+        MatcherAssert.assertThat(obj.keySet(), Matchers.contains("GcFreedRatio"));
+        MatcherAssert.assertThat(
+                obj.getAsJsonObject("GcFreedRatio"),
+                Matchers.equalTo(
+                        JsonParser.parseString(REPORT)
+                                .getAsJsonObject()
+                                .getAsJsonObject("GcFreedRatio")));
+    }
+
+    @Test
+    void shouldExposeRuleIdentityToFilter() {
+        Mockito.when(ruleFilterParser.parse("Heap Content"))
+                .thenReturn(r -> r.getName().equals("Heap Content"));
+
+        Optional<String> filtered = filter.apply(REPORT, "Heap Content");
+
+        MatcherAssert.assertThat(
+                JsonParser.parseString(filtered.get()).getAsJsonObject().keySet(),
+                Matchers.contains("HeapContent"));
+    }
+
+    @Test
+    void shouldNotDeriveFromMalformedReport() {
+        MatcherAssert.assertThat(
+                filter.apply("<html></html>", "heap"), Matchers.equalTo(Optional.empty()));
+        MatcherAssert.assertThat(filter.apply("[]", "heap"), Matchers.equalTo(Optional.empty()));
+        Mockito.verifyNoInteractions(ruleFilterParser);
+    }
+
+    @Test
+    void shouldNotDeriveFromResultsWithoutTopics() {
+        Mockito.when(ruleFilterParser.parse("heap")).thenReturn(r -> true);
+
+        MatcherAssert.assertThat(
+                filter.apply("{\"HeapContent\":{\"score\":0.0}}", "heap"),
+                Matchers.equalTo(Optional.empty()));
+    }
+
+    @Test
+    void shouldSelectMatchingRulesFromIndexedReport() {
+        Mockito.when(ruleFilterParser.parse("garbage_collection"))
+                .thenReturn(r -> r.getTopic().equals("garbage_collection"));
+
+        Optional<Set<String>> selected =
+                filter.select(IndexedReport.of(REPORT), "garbage_collection");
+
+        MatcherAssert.assertThat(
+                selected.get(), Matchers.containsInAnyOrder("GcFreedRatio", "LongGcPause"));
+        MatcherAssert.assertThat(
+                filter.select(IndexedReport.of("<html></html>"), "garbage_collection"),
+                Matchers.equalTo(Optional.empty()));
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net.reports;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.cryostat.core.log.Logger;
+import io.cryostat.net.reports.SubprocessReportGenerator.ExitStatus;
+import io.cryostat.util.JavaProcess;
+
+import com.google.gson.Gson;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ReportWorkerPoolTest {
+
+    @Mock JavaProcess.Builder javaProcessBuilder;
+    @Mock Process proc1;
+    @Mock Process proc2;
+    @Mock Logger logger;
+    List<String> jvmArgs = List.of("-XX:+ExitOnOutOfMemoryError");
+    Path recording = Paths.get("/recordings/foo.jfr");
+    Path saveFile = Paths.get("/reports/foo.report.json");
+
+    @BeforeEach
+    void setup() throws Exception {
+        Mockito.lenient()
+                .when(javaProcessBuilder.klazz(Mockito.any(Class.class)))
+                .thenReturn(javaProcessBuilder);
+        Mockito.lenient()
+                .when(javaProcessBuilder.jvmArgs(Mockito.anyList()))
+                .thenReturn(javaProcessBuilder);
+        Mockito.lenient()
+                .when(javaProcessBuilder.processArgs(Mockito.anyList()))
+                .thenReturn(javaProcessBuilder);
+        Mockito.lenient()
+                .when(javaProcessBuilder.pipeIO(Mockito.anyBoolean()))
+                .thenReturn(javaProcessBuilder);
+    }
+
+    ReportWorkerPool createPool(int workers, int maxJobsPerWorker) {
+        return new ReportWorkerPool(
+                () -> javaProcessBuilder, jvmArgs, workers, maxJobsPerWorker, 30, logger);
+    }
+
+    @Test
+    void shouldBeDisabledWithoutWorkers() {
+        ReportWorkerPool pool = createPool(0, 50);
+
+        MatcherAssert.assertThat(pool.isEnabled(), Matchers.is(false));
+        Mockito.verifyNoInteractions(javaProcessBuilder);
+    }
+
+    @Test
+    void shouldSendJobToWorkerAndReturnStatus() throws Exception {
+        ByteArrayOutputStream jobs = new ByteArrayOutputStream();
+        Mockito.when(javaProcessBuilder.exec()).thenReturn(proc1);
+        Mockito.when(proc1.getOutputStream()).thenReturn(jobs);
+        Mockito.when(proc1.getInputStream())
+                .thenReturn(statuses(ReportWorkerPool.STATUS_PREFIX + "0"));
+        ReportWorkerPool pool = createPool(1, 50);
+
+        ExitStatus status = pool.submit(recording, saveFile, "heap").get(1, TimeUnit.SECONDS);
+
+        MatcherAssert.assertThat(status, Matchers.equalTo(ExitStatus.OK));
+        Mockito.verify(javaProcessBuilder).klazz(SubprocessReportGenerator.class);
+        Mockito.verify(javaProcessBuilder).jvmArgs(jvmArgs);
+        Mockito.verify(javaProcessBuilder).processArgs(List.of(ReportWorkerPool.WORKER_ARG));
+        Mockito.verify(javaProcessBuilder).pipeIO(true);
+        ReportWorkerPool.Job job =
+                new Gson()
+                        .fromJson(
+                                jobs.toString(StandardCharsets.UTF_8).trim(),
+                                ReportWorkerPool.Job.class);
+        MatcherAssert.assertThat(job.getRecording(), Matchers.equalTo("/recordings/foo.jfr"));
+        MatcherAssert.assertThat(job.getSaveFile(), Matchers.equalTo("/reports/foo.report.json"));
+        MatcherAssert.assertThat(job.getFilter(), Matchers.equalTo("heap"));
+        Mockito.verify(proc1, Mockito.never()).destroyForcibly();
+        Mockito.verify(javaProcessBuilder, Mockito.times(1)).exec();
+    }
+
+    @Test
+    void shouldRecycleWorkerAfterMaxJobs() throws Exception {
+        Mockito.when(javaProcessBuilder.exec()).thenReturn(proc1).thenReturn(proc2);
+        Mockito.when(proc1.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+        Mockito.when(proc1.getInputStream())
+                .thenReturn(statuses(ReportWorkerPool.STATUS_PREFIX + "0"));
+        Mockito.when(proc2.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+        Mockito.when(proc2.getInputStream()).thenReturn(statuses());
+        ReportWorkerPool pool = createPool(1, 1);
+
+        ExitStatus status = pool.submit(recording, saveFile, "").get(1, TimeUnit.SECONDS);
+
+        MatcherAssert.assertThat(status, Matchers.equalTo(ExitStatus.OK));
+        Mockito.verify(proc1).destroyForcibly();
+        Mockito.verify(javaProcessBuilder, Mockito.times(2)).exec();
+    }
+
+    @Test
+    void shouldReportExitStatusAndRecycleWhenWorkerDies() throws Exception {
+        Mockito.when(javaProcessBuilder.exec()).thenReturn(proc1).thenReturn(proc2);
+        Mockito.when(proc1.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+        Mockito.when(proc1.getInputStream()).thenReturn(statuses());
+        Mockito.when(proc1.waitFor(1, TimeUnit.SECONDS)).thenReturn(true);
+        Mockito.when(proc1.exitValue()).thenReturn(ExitStatus.OUT_OF_MEMORY.code);
+        Mockito.when(proc2.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+        Mockito.when(proc2.getInputStream()).thenReturn(statuses());
+        ReportWorkerPool pool = createPool(1, 50);
+
+        ExitStatus status = pool.submit(recording, saveFile, "").get(1, TimeUnit.SECONDS);
+
+        MatcherAssert.assertThat(status, Matchers.equalTo(ExitStatus.OUT_OF_MEMORY));
+        Mockito.verify(proc1).destroyForcibly();
+        Mockito.verify(javaProcessBuilder, Mockito.times(2)).exec();
+    }
+
+    @Test
+    void shouldTimeOutQueuedJobsFromSubmission() throws Exception {
+        ByteArrayOutputStream jobs = new ByteArrayOutputStream();
+        ByteArrayOutputStream replacementJobs = new ByteArrayOutputStream();
+        Mockito.when(javaProcessBuilder.exec()).thenReturn(proc1).thenReturn(proc2);
+        Mockito.when(proc1.getOutputStream()).thenReturn(jobs);
+        // the first worker never replies
+        Mockito.when(proc1.getInputStream())
+                .thenReturn(new PipedInputStream(new PipedOutputStream()));
+        Mockito.when(proc2.getOutputStream()).thenReturn(replacementJobs);
+        Mockito.when(proc2.getInputStream()).thenReturn(statuses());
+        ReportWorkerPool pool =
+                new ReportWorkerPool(() -> javaProcessBuilder, jvmArgs, 1, 50, 2, logger);
+
+        CompletableFuture<ExitStatus> first = pool.submit(recording, saveFile, "");
+        CompletableFuture<ExitStatus> second = pool.submit(recording, saveFile, "");
+
+        MatcherAssert.assertThat(
+                first.get(2, TimeUnit.SECONDS), Matchers.equalTo(ExitStatus.TIMED_OUT));
+        // the second job waited out its own deadline behind the first, so it is not sent
+        MatcherAssert.assertThat(
+                second.get(2, TimeUnit.SECONDS), Matchers.equalTo(ExitStatus.TIMED_OUT));
+        MatcherAssert.assertThat(replacementJobs.size(), Matchers.equalTo(0));
+        Mockito.verify(proc1).destroyForcibly();
+    }
+
+    private static ByteArrayInputStream statuses(String... lines) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) {
+            sb.append(line).append('\n');
+        }
+        return new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -18,6 +18,7 @@ package io.cryostat.net.reports;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -50,6 +51,7 @@ class SubprocessReportGeneratorTest {
     @Mock FileSystem fs;
     @Mock TargetConnectionManager targetConnectionManager;
     @Mock JavaProcess.Builder javaProcessBuilder;
+    @Mock ReportWorkerPool workerPool;
     @Mock Logger logger;
     @Mock Process proc;
     ConnectionDescriptor connectionDescriptor;
@@ -97,7 +99,13 @@ class SubprocessReportGeneratorTest {
                 .thenReturn("200");
         this.generator =
                 new SubprocessReportGenerator(
-                        env, fs, targetConnectionManager, () -> javaProcessBuilder, 30, logger);
+                        env,
+                        fs,
+                        targetConnectionManager,
+                        () -> javaProcessBuilder,
+                        workerPool,
+                        30,
+                        logger);
     }
 
     @Test
@@ -235,6 +243,43 @@ class SubprocessReportGeneratorTest {
                 });
     }
 
+    @Test
+    void shouldSubmitToWorkerPoolWhenEnabled() throws Exception {
+        Path dest = Mockito.mock(Path.class);
+        Mockito.when(workerPool.isEnabled()).thenReturn(true);
+        Mockito.when(workerPool.submit(recordingFile, dest, "someFilter"))
+                .thenReturn(
+                        CompletableFuture.completedFuture(SubprocessReportGenerator.ExitStatus.OK));
+
+        Path result = generator.exec(recordingFile, dest, "someFilter").get();
+
+        MatcherAssert.assertThat(result, Matchers.sameInstance(dest));
+        Mockito.verifyNoInteractions(javaProcessBuilder);
+    }
+
+    @Test
+    void shouldThrowExceptionOnWorkerPoolNonOkStatus() throws Exception {
+        Path dest = Mockito.mock(Path.class);
+        Mockito.when(workerPool.isEnabled()).thenReturn(true);
+        Mockito.when(workerPool.submit(recordingFile, dest, ""))
+                .thenReturn(
+                        CompletableFuture.completedFuture(
+                                SubprocessReportGenerator.ExitStatus.OUT_OF_MEMORY));
+
+        ExecutionException ex =
+                Assertions.assertThrows(
+                        ExecutionException.class,
+                        () -> generator.exec(recordingFile, dest, "").get());
+        MatcherAssert.assertThat(
+                ex.getCause(),
+                Matchers.instanceOf(
+                        SubprocessReportGenerator.SubprocessReportGenerationException.class));
+        MatcherAssert.assertThat(
+                ((SubprocessReportGenerator.SubprocessReportGenerationException) ex.getCause())
+                        .getStatus(),
+                Matchers.equalTo(SubprocessReportGenerator.ExitStatus.OUT_OF_MEMORY));
+    }
+
     @Test
     void shouldExecuteProcessAndDeleteRecordingOnCompletion() throws Exception {
         Mockito.when(proc.waitFor(29, TimeUnit.SECONDS)).thenReturn(true);
@@ -0,0 +1,170 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net.web;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import io.cryostat.core.log.Logger;
+import io.cryostat.net.web.http.RequestHandler;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.Route;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.HttpException;
+import io.vertx.ext.web.impl.BlockingHandlerDecorator;
+import io.vertx.ext.web.impl.RoutingContextDecorator;
+import io.vertx.ext.web.impl.RoutingContextInternal;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BlockingHandlerExecutorTest {
+
+    @Mock RequestHandler handler;
+    @Mock Logger logger;
+    @Mock Vertx vertx;
+    @Mock Context context;
+    @Mock Route route;
+    Queue<Runnable> tasks;
+
+    @BeforeEach
+    void setup() {
+        this.tasks = new ArrayDeque<>();
+    }
+
+    @Test
+    void shouldUseWorkerPoolInWorkerMode() {
+        BlockingHandlerExecutor executor =
+                new BlockingHandlerExecutor(
+                        BlockingHandlerExecutor.Mode.WORKER,
+                        () -> {
+                            throw new AssertionError("executor should not be requested");
+                        },
+                        1,
+                        1,
+                        logger);
+
+        MatcherAssert.assertThat(
+                executor.decorate(handler),
+                Matchers.instanceOf(BlockingHandlerDecorator.class));
+    }
+
+    @Test
+    void shouldLimitConcurrentRequestsPerHandler() {
+        BlockingHandlerExecutor executor =
+                new BlockingHandlerExecutor(
+                        BlockingHandlerExecutor.Mode.EXECUTOR, () -> tasks::add, 1, 1, logger);
+        Handler<RoutingContext> decorated = executor.decorate(handler);
+
+        RoutingContext first = mockRequest();
+        RoutingContext second = mockRequest();
+        RoutingContext third = mockRequest();
+        decorated.handle(first);
+        decorated.handle(second);
+        decorated.handle(third);
+
+        MatcherAssert.assertThat(tasks, Matchers.hasSize(1));
+        ArgumentCaptor<Throwable> failure = ArgumentCaptor.forClass(Throwable.class);
+        Mockito.verify(third).fail(failure.capture());
+        MatcherAssert.assertThat(
+                ((HttpException) failure.getValue()).getStatusCode(), Matchers.equalTo(503));
+        Mockito.verify(first, Mockito.never()).fail(Mockito.any(Throwable.class));
+        Mockito.verify(second, Mockito.never()).fail(Mockito.any(Throwable.class));
+
+        ArgumentCaptor<RoutingContext> handled = ArgumentCaptor.forClass(RoutingContext.class);
+        tasks.remove().run();
+        Mockito.verify(handler).handle(handled.capture());
+        MatcherAssert.assertThat(
+                handled.getValue(), Matchers.instanceOf(RoutingContextDecorator.class));
+        MatcherAssert.assertThat(tasks, Matchers.hasSize(1));
+
+        tasks.remove().run();
+        Mockito.verify(handler, Mockito.times(2)).handle(Mockito.any());
+        MatcherAssert.assertThat(tasks, Matchers.empty());
+
+        // both requests have finished, so the next one starts without waiting
+        decorated.handle(mockRequest());
+        MatcherAssert.assertThat(tasks, Matchers.hasSize(1));
+    }
+
+    @Test
+    void shouldFailRequestWhenHandlerThrows() {
+        BlockingHandlerExecutor executor =
+                new BlockingHandlerExecutor(
+                        BlockingHandlerExecutor.Mode.EXECUTOR, () -> tasks::add, 1, 1, logger);
+        Handler<RoutingContext> decorated = executor.decorate(handler);
+        RoutingContext ctx = mockRequest();
+        Mockito.doAnswer(
+                        invocation -> {
+                            invocation.getArgument(0, Handler.class).handle(null);
+                            return null;
+                        })
+                .when(context)
+                .runOnContext(Mockito.any());
+        RuntimeException exception = new RuntimeException("test");
+        Mockito.doThrow(exception).when(handler).handle(Mockito.any());
+
+        decorated.handle(ctx);
+        tasks.remove().run();
+
+        Mockito.verify(ctx).fail(exception);
+        decorated.handle(mockRequest());
+        MatcherAssert.assertThat(tasks, Matchers.hasSize(1));
+    }
+
+    @Test
+    void shouldContinueRoutingOnRequestContext() {
+        BlockingHandlerExecutor executor =
+                new BlockingHandlerExecutor(
+                        BlockingHandlerExecutor.Mode.EXECUTOR, () -> tasks::add, 1, 1, logger);
+        Handler<RoutingContext> decorated = executor.decorate(handler);
+        RoutingContext ctx = mockRequest();
+        Mockito.doAnswer(
+                        invocation -> {
+                            invocation.getArgument(0, RoutingContext.class).next();
+                            return null;
+                        })
+                .when(handler)
+                .handle(Mockito.any());
+
+        decorated.handle(ctx);
+        tasks.remove().run();
+
+        ArgumentCaptor<Handler<Void>> onContext = ArgumentCaptor.forClass(Handler.class);
+        Mockito.verify(context).runOnContext(onContext.capture());
+        Mockito.verify(ctx, Mockito.never()).next();
+        onContext.getValue().handle(null);
+        Mockito.verify(ctx).next();
+    }
+
+    RoutingContext mockRequest() {
+        RoutingContext ctx = Mockito.mock(RoutingContextInternal.class);
+        Mockito.when(ctx.currentRoute()).thenReturn(route);
+        Mockito.when(ctx.vertx()).thenReturn(vertx);
+        Mockito.when(vertx.getOrCreateContext()).thenReturn(context);
+        return ctx;
+    }
+}
@@ -57,6 +57,7 @@ class WebServerTest {
     @Mock HttpServer httpServer;
     @Mock NetworkConfiguration netConf;
     @Mock AuthManager authManager;
+    @Mock BlockingHandlerExecutor blockingExecutor;
     @Mock Logger logger;
     @Mock JFRConnection connection;
     @Mock IFlightRecorderService service;
@@ -68,7 +69,14 @@ class WebServerTest {
     void setup() {
         exporter =
                 new WebServer(
-                        httpServer, netConf, Set.of(), gson, authManager, logger, recordingsPath);
+                        httpServer,
+                        netConf,
+                        Set.of(),
+                        gson,
+                        authManager,
+                        blockingExecutor,
+                        logger,
+                        recordingsPath);
     }
 
     @Test
@@ -88,6 +96,7 @@ class WebServerTest {
                                 Set.of(),
                                 gson,
                                 authManager,
+                                blockingExecutor,
                                 logger,
                                 recordingsPath));
     }
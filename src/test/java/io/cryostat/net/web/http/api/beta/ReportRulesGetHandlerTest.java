@@ -0,0 +1,221 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net.web.http.api.beta;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import io.cryostat.configuration.CredentialsManager;
+import io.cryostat.net.AuthManager;
+import io.cryostat.net.reports.ReportService;
+import io.cryostat.net.security.ResourceAction;
+import io.cryostat.net.web.http.HttpMimeType;
+import io.cryostat.net.web.http.api.ApiVersion;
+import io.cryostat.net.web.http.api.v2.ApiException;
+import io.cryostat.net.web.http.api.v2.IntermediateResponse;
+import io.cryostat.net.web.http.api.v2.RequestParameters;
+import io.cryostat.recordings.RecordingArchiveHelper;
+import io.cryostat.recordings.RecordingNotFoundException;
+
+import com.google.gson.Gson;
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpMethod;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ReportRulesGetHandlerTest {
+
+    ReportRulesGetHandler handler;
+    @Mock AuthManager authManager;
+    @Mock CredentialsManager credentialsManager;
+    @Mock Gson gson;
+    @Mock ReportService reportService;
+    @Mock RecordingArchiveHelper archiveHelper;
+
+    @BeforeEach
+    void setup() {
+        this.handler =
+                new ReportRulesGetHandler(
+                        authManager, credentialsManager, gson, reportService, archiveHelper, 30);
+    }
+
+    @Nested
+    class ApiSpec {
+
+        @Test
+        void shouldRequireAuthentication() {
+            Assertions.assertTrue(handler.requiresAuthentication());
+        }
+
+        @Test
+        void shouldBeBetaHandler() {
+            MatcherAssert.assertThat(handler.apiVersion(), Matchers.equalTo(ApiVersion.BETA));
+        }
+
+        @Test
+        void shouldHandleGETRequest() {
+            MatcherAssert.assertThat(handler.httpMethod(), Matchers.equalTo(HttpMethod.GET));
+        }
+
+        @Test
+        void shouldHaveExpectedRequiredPermissions() {
+            MatcherAssert.assertThat(
+                    handler.resourceActions(),
+                    Matchers.equalTo(
+                            Set.of(
+                                    ResourceAction.READ_REPORT,
+                                    ResourceAction.CREATE_REPORT,
+                                    ResourceAction.READ_RECORDING)));
+        }
+
+        @Test
+        void shouldHandleCorrectPath() {
+            MatcherAssert.assertThat(
+                    handler.path(),
+                    Matchers.equalTo("/api/beta/reports/:sourceTarget/:recordingName/rules"));
+        }
+
+        @Test
+        void shouldProduceRawJson() {
+            MatcherAssert.assertThat(
+                    handler.produces(), Matchers.containsInAnyOrder(HttpMimeType.JSON_RAW));
+        }
+
+        @Test
+        void shouldNotBeAsync() {
+            Assertions.assertFalse(handler.isAsync());
+        }
+    }
+
+    @Nested
+    class Behaviour {
+
+        @Mock RequestParameters params;
+
+        @Test
+        void shouldThrow400IfNoRuleIdsGiven() throws Exception {
+            MultiMap queryParams = MultiMap.caseInsensitiveMultiMap();
+            when(params.getPathParams())
+                    .thenReturn(
+                            Map.of("sourceTarget", "someTarget", "recordingName", "someRecording"));
+            when(params.getQueryParams()).thenReturn(queryParams);
+
+            ApiException ex =
+                    Assertions.assertThrows(ApiException.class, () -> handler.handle(params));
+            MatcherAssert.assertThat(ex.getStatusCode(), Matchers.equalTo(400));
+
+            Mockito.verifyNoInteractions(reportService);
+        }
+
+        @Test
+        void shouldThrow404IfNoMatchingRecordingFound() throws Exception {
+            MultiMap queryParams = MultiMap.caseInsensitiveMultiMap();
+            queryParams.add("ids", "HeapContent");
+            String recordingName = "someRecording";
+            String sourceTarget = "someTarget";
+            when(params.getPathParams())
+                    .thenReturn(
+                            Map.of("sourceTarget", sourceTarget, "recordingName", recordingName));
+            when(params.getQueryParams()).thenReturn(queryParams);
+
+            when(reportService.getRules(
+                            Mockito.anyString(),
+                            Mockito.anyString(),
+                            Mockito.anyCollection(),
+                            Mockito.anyBoolean()))
+                    .thenReturn(
+                            CompletableFuture.failedFuture(
+                                    new RecordingNotFoundException(sourceTarget, recordingName)));
+
+            ApiException ex =
+                    Assertions.assertThrows(ApiException.class, () -> handler.handle(params));
+            MatcherAssert.assertThat(ex.getStatusCode(), Matchers.equalTo(404));
+        }
+
+        @Test
+        void shouldRespondWithSelectedRules() throws Exception {
+            MultiMap queryParams = MultiMap.caseInsensitiveMultiMap();
+            queryParams.add("ids", "HeapContent,GcPauseRatio");
+            queryParams.add("ids", "Allocations");
+            String recordingName = "someRecording";
+            String sourceTarget = "someTarget";
+            when(params.getPathParams())
+                    .thenReturn(
+                            Map.of("sourceTarget", sourceTarget, "recordingName", recordingName));
+            when(params.getQueryParams()).thenReturn(queryParams);
+
+            when(reportService.getRules(
+                            Mockito.anyString(),
+                            Mockito.anyString(),
+                            Mockito.anyCollection(),
+                            Mockito.anyBoolean()))
+                    .thenReturn(CompletableFuture.completedFuture("{}"));
+
+            IntermediateResponse<String> response = handler.handle(params);
+
+            MatcherAssert.assertThat(response.getStatusCode(), Matchers.equalTo(200));
+            MatcherAssert.assertThat(response.getBody(), Matchers.equalTo("{}"));
+
+            verify(reportService)
+                    .getRules(
+                            sourceTarget,
+                            recordingName,
+                            Set.of("HeapContent", "GcPauseRatio", "Allocations"),
+                            false);
+        }
+
+        @Test
+        void shouldRespondWithSelectedScores() throws Exception {
+            MultiMap queryParams = MultiMap.caseInsensitiveMultiMap();
+            queryParams.add("ids", "HeapContent");
+            queryParams.add("scores", "true");
+            String recordingName = "someRecording";
+            String sourceTarget = "someTarget";
+            when(params.getPathParams())
+                    .thenReturn(
+                            Map.of("sourceTarget", sourceTarget, "recordingName", recordingName));
+            when(params.getQueryParams()).thenReturn(queryParams);
+
+            when(reportService.getRules(
+                            Mockito.anyString(),
+                            Mockito.anyString(),
+                            Mockito.anyCollection(),
+                            Mockito.anyBoolean()))
+                    .thenReturn(CompletableFuture.completedFuture("{\"HeapContent\":25.0}"));
+
+            IntermediateResponse<String> response = handler.handle(params);
+
+            MatcherAssert.assertThat(
+                    response.getBody(), Matchers.equalTo("{\"HeapContent\":25.0}"));
+
+            verify(reportService)
+                    .getRules(sourceTarget, recordingName, Set.of("HeapContent"), true);
+        }
+    }
+}
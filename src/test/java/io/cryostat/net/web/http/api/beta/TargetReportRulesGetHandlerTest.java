@@ -0,0 +1,153 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net.web.http.api.beta;
+
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import io.cryostat.configuration.CredentialsManager;
+import io.cryostat.net.AuthManager;
+import io.cryostat.net.ConnectionDescriptor;
+import io.cryostat.net.reports.ReportService;
+import io.cryostat.net.reports.SubprocessReportGenerator;
+import io.cryostat.net.security.ResourceAction;
+import io.cryostat.net.web.http.api.ApiVersion;
+import io.cryostat.net.web.http.api.v2.ApiException;
+import io.cryostat.net.web.http.api.v2.IntermediateResponse;
+import io.cryostat.net.web.http.api.v2.RequestParameters;
+
+import com.google.gson.Gson;
+import io.vertx.core.MultiMap;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TargetReportRulesGetHandlerTest {
+
+    TargetReportRulesGetHandler handler;
+    @Mock AuthManager authManager;
+    @Mock CredentialsManager credentialsManager;
+    @Mock Gson gson;
+    @Mock ReportService reportService;
+
+    @BeforeEach
+    void setup() {
+        this.handler =
+                new TargetReportRulesGetHandler(
+                        authManager, credentialsManager, gson, reportService, 30);
+    }
+
+    @Nested
+    class ApiSpec {
+
+        @Test
+        void shouldBeBetaHandler() {
+            MatcherAssert.assertThat(handler.apiVersion(), Matchers.equalTo(ApiVersion.BETA));
+        }
+
+        @Test
+        void shouldHaveExpectedRequiredPermissions() {
+            MatcherAssert.assertThat(
+                    handler.resourceActions(),
+                    Matchers.equalTo(
+                            Set.of(
+                                    ResourceAction.READ_TARGET,
+                                    ResourceAction.READ_REPORT,
+                                    ResourceAction.CREATE_REPORT,
+                                    ResourceAction.READ_RECORDING)));
+        }
+
+        @Test
+        void shouldHandleCorrectPath() {
+            MatcherAssert.assertThat(
+                    handler.path(),
+                    Matchers.equalTo("/api/beta/targets/:targetId/reports/:recordingName/rules"));
+        }
+    }
+
+    @Nested
+    class Behaviour {
+
+        @Mock RequestParameters params;
+
+        @BeforeEach
+        void setup() {
+            MultiMap queryParams = MultiMap.caseInsensitiveMultiMap();
+            queryParams.add("ids", "HeapContent");
+            queryParams.add("scores", "true");
+            when(params.getPathParams())
+                    .thenReturn(Map.of("targetId", "someTarget", "recordingName", "someRecording"));
+            when(params.getQueryParams()).thenReturn(queryParams);
+            when(params.getHeaders()).thenReturn(MultiMap.caseInsensitiveMultiMap());
+        }
+
+        @Test
+        void shouldRespondWithSelectedScores() throws Exception {
+            when(reportService.getRules(
+                            Mockito.any(ConnectionDescriptor.class),
+                            Mockito.anyString(),
+                            Mockito.anyCollection(),
+                            Mockito.anyBoolean()))
+                    .thenReturn(CompletableFuture.completedFuture("{\"HeapContent\":25.0}"));
+
+            IntermediateResponse<String> response = handler.handle(params);
+
+            MatcherAssert.assertThat(
+                    response.getBody(), Matchers.equalTo("{\"HeapContent\":25.0}"));
+            ArgumentCaptor<ConnectionDescriptor> descriptor =
+                    ArgumentCaptor.forClass(ConnectionDescriptor.class);
+            Mockito.verify(reportService)
+                    .getRules(
+                            descriptor.capture(),
+                            Mockito.eq("someRecording"),
+                            Mockito.eq(Set.of("HeapContent")),
+                            Mockito.eq(true));
+            MatcherAssert.assertThat(
+                    descriptor.getValue().getTargetId(), Matchers.equalTo("someTarget"));
+        }
+
+        @Test
+        void shouldThrow404IfRecordingNotFound() throws Exception {
+            when(reportService.getRules(
+                            Mockito.any(ConnectionDescriptor.class),
+                            Mockito.anyString(),
+                            Mockito.anyCollection(),
+                            Mockito.anyBoolean()))
+                    .thenReturn(
+                            CompletableFuture.failedFuture(
+                                    new SubprocessReportGenerator
+                                            .SubprocessReportGenerationException(
+                                            SubprocessReportGenerator.ExitStatus
+                                                    .NO_SUCH_RECORDING)));
+
+            ApiException ex =
+                    Assertions.assertThrows(ApiException.class, () -> handler.handle(params));
+            MatcherAssert.assertThat(ex.getStatusCode(), Matchers.equalTo(404));
+        }
+    }
+}
@@ -27,7 +27,10 @@ import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import io.cryostat.DirectExecutorService;
 import io.cryostat.configuration.CredentialsManager;
 import io.cryostat.core.log.Logger;
 import io.cryostat.core.net.CryostatFlightRecorderService;
@@ -59,6 +62,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -89,6 +93,7 @@ class TargetRecordingGetHandlerTest {
                         targetConnectionManager,
                         httpServer,
                         recordingTargetHelper,
+                        new DirectExecutorService(),
                         logger);
     }
 
@@ -202,7 +207,7 @@ class TargetRecordingGetHandlerTest {
         ByteArrayInputStream source = new ByteArrayInputStream(src);
         when(future.get()).thenReturn(Optional.of(source));
 
-        // **************Mocking specific to OutputToReadStream****************
+        // **************Mocking specific to InputStreamToWriteStream****************
         Context context = mock(Context.class);
         when(vertx.getOrCreateContext()).thenReturn(context);
         doAnswer(
@@ -217,14 +222,61 @@ class TargetRecordingGetHandlerTest {
         when(targetConnectionManager.markConnectionInUse(Mockito.any())).thenReturn(false);
         // ********************************************************************
 
-        HttpException ex = Assertions.assertThrows(HttpException.class, () -> handler.handle(ctx));
+        handler.handle(ctx);
+
+        ArgumentCaptor<Throwable> failure = ArgumentCaptor.forClass(Throwable.class);
+        verify(ctx).fail(failure.capture());
+        MatcherAssert.assertThat(failure.getValue(), Matchers.instanceOf(HttpException.class));
+        HttpException ex = (HttpException) failure.getValue();
         MatcherAssert.assertThat(ex.getStatusCode(), Matchers.equalTo(500));
         MatcherAssert.assertThat(
-                ex.getCause().getCause().getMessage(),
+                ex.getCause().getMessage(),
                 Matchers.equalTo(
                         "Target connection unexpectedly closed while streaming recording"));
     }
 
+    @Test
+    void shouldRespond503IfStreamingExecutorRejectsDownload() throws Exception {
+        ExecutorService saturated = Executors.newSingleThreadExecutor();
+        saturated.shutdown();
+        TargetRecordingGetHandler handler =
+                new TargetRecordingGetHandler(
+                        authManager,
+                        credentialsManager,
+                        targetConnectionManager,
+                        httpServer,
+                        recordingTargetHelper,
+                        saturated,
+                        logger);
+        when(authManager.validateHttpHeader(Mockito.any(), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        RoutingContext ctx = mock(RoutingContext.class);
+        HttpServerResponse resp = mock(HttpServerResponse.class);
+        when(ctx.response()).thenReturn(resp);
+        when(resp.putHeader(Mockito.any(CharSequence.class), Mockito.any(CharSequence.class)))
+                .thenReturn(resp);
+        HttpServerRequest req = mock(HttpServerRequest.class);
+        when(ctx.request()).thenReturn(req);
+        when(ctx.request().headers()).thenReturn(MultiMap.caseInsensitiveMultiMap());
+
+        when(ctx.pathParam("targetId")).thenReturn("fooHost:0");
+        when(ctx.pathParam("recordingName")).thenReturn("someRecording");
+
+        InputStream source = mock(InputStream.class);
+        when(recordingTargetHelper.getRecording(Mockito.any(), Mockito.eq("someRecording")))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(source)));
+
+        handler.handle(ctx);
+
+        ArgumentCaptor<Throwable> failure = ArgumentCaptor.forClass(Throwable.class);
+        verify(ctx).fail(failure.capture());
+        MatcherAssert.assertThat(failure.getValue(), Matchers.instanceOf(HttpException.class));
+        MatcherAssert.assertThat(
+                ((HttpException) failure.getValue()).getStatusCode(), Matchers.equalTo(503));
+        verify(source).close();
+    }
+
     @Test
     void shouldHandleRecordingDownloadRequest() throws Exception {
         shouldHandleRecordingDownloadRequest("someRecording");
@@ -259,7 +311,7 @@ class TargetRecordingGetHandlerTest {
         ByteArrayInputStream source = new ByteArrayInputStream(src);
         when(future.get()).thenReturn(Optional.of(source));
 
-        // **************Mocking specific to OutputToReadStream***************
+        // **************Mocking specific to InputStreamToWriteStream***************
         Buffer dst = Buffer.buffer(1024 * 1024);
         doAnswer(
                         invocation -> {
@@ -19,12 +19,12 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.EnumSet;
 import java.util.List;
-import java.util.Optional;
 import java.util.Random;
 
 import org.openjdk.jmc.rjmx.services.jfr.FlightRecorderException;
 import org.openjdk.jmc.rjmx.services.jfr.IRecordingDescriptor;
 
+import io.cryostat.DirectExecutorService;
 import io.cryostat.configuration.CredentialsManager;
 import io.cryostat.core.log.Logger;
 import io.cryostat.core.net.CryostatFlightRecorderService;
@@ -33,6 +33,7 @@ import io.cryostat.net.AuthManager;
 import io.cryostat.net.ConnectionDescriptor;
 import io.cryostat.net.HttpServer;
 import io.cryostat.net.TargetConnectionManager;
+import io.cryostat.net.TargetConnectionManager.Consistency;
 import io.cryostat.net.security.ResourceAction;
 import io.cryostat.net.security.jwt.AssetJwtHelper;
 import io.cryostat.net.web.WebServer;
@@ -54,12 +55,12 @@ import io.vertx.core.http.HttpServerResponse;
 import io.vertx.ext.web.RoutingContext;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
-import org.jsoup.nodes.Document;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -91,6 +92,7 @@ class TargetRecordingGetHandlerTest {
                         () -> webServer,
                         httpServer,
                         targetConnectionManager,
+                        new DirectExecutorService(),
                         logger);
     }
 
@@ -148,21 +150,10 @@ class TargetRecordingGetHandlerTest {
             Mockito.when(claims.getStringClaim(Mockito.anyString())).thenReturn(null);
             Mockito.when(token.getJWTClaimsSet()).thenReturn(claims);
             Mockito.when(
-                            targetConnectionManager.executeConnectedTask(
-                                    Mockito.any(ConnectionDescriptor.class), Mockito.any()))
-                    .thenAnswer(
-                            new Answer<>() {
-                                @Override
-                                public Optional<InputStream> answer(InvocationOnMock args)
-                                        throws Throwable {
-                                    TargetConnectionManager.ConnectedTask ct =
-                                            (TargetConnectionManager.ConnectedTask)
-                                                    args.getArguments()[1];
-                                    return (Optional<InputStream>) ct.execute(conn);
-                                }
-                            });
-            Mockito.when(conn.getService()).thenReturn(svc);
-            Mockito.when(svc.getAvailableRecordings()).thenReturn(List.of());
+                            targetConnectionManager.getRecordings(
+                                    Mockito.any(ConnectionDescriptor.class),
+                                    Mockito.eq(Consistency.CACHED)))
+                    .thenReturn(List.of());
             ApiException ex =
                     Assertions.assertThrows(
                             ApiException.class, () -> handler.handleWithValidJwt(ctx, token));
@@ -181,18 +172,21 @@ class TargetRecordingGetHandlerTest {
                     .thenAnswer(
                             new Answer<>() {
                                 @Override
-                                public Optional<InputStream> answer(InvocationOnMock args)
-                                        throws Throwable {
+                                public InputStream answer(InvocationOnMock args) throws Throwable {
                                     TargetConnectionManager.ConnectedTask ct =
                                             (TargetConnectionManager.ConnectedTask)
                                                     args.getArguments()[1];
-                                    return (Optional<InputStream>) ct.execute(conn);
+                                    return (InputStream) ct.execute(conn);
                                 }
                             });
             Mockito.when(conn.getService()).thenReturn(svc);
             IRecordingDescriptor desc = Mockito.mock(IRecordingDescriptor.class);
             Mockito.when(desc.getName()).thenReturn("myrecording");
-            Mockito.when(svc.getAvailableRecordings()).thenReturn(List.of(desc));
+            Mockito.when(
+                            targetConnectionManager.getRecordings(
+                                    Mockito.any(ConnectionDescriptor.class),
+                                    Mockito.eq(Consistency.CACHED)))
+                    .thenReturn(List.of(desc));
             Mockito.when(svc.openStream(Mockito.any(), Mockito.eq(false)))
                     .thenThrow(new FlightRecorderException(""));
             ApiException ex =
@@ -215,24 +209,27 @@ class TargetRecordingGetHandlerTest {
                     .thenAnswer(
                             new Answer<>() {
                                 @Override
-                                public Optional<Document> answer(InvocationOnMock args)
-                                        throws Throwable {
+                                public InputStream answer(InvocationOnMock args) throws Throwable {
                                     TargetConnectionManager.ConnectedTask ct =
                                             (TargetConnectionManager.ConnectedTask)
                                                     args.getArguments()[1];
-                                    return (Optional<Document>) ct.execute(conn);
+                                    return (InputStream) ct.execute(conn);
                                 }
                             });
             Mockito.when(conn.getService()).thenReturn(svc);
             IRecordingDescriptor desc = Mockito.mock(IRecordingDescriptor.class);
             Mockito.when(desc.getName()).thenReturn("myrecording");
-            Mockito.when(svc.getAvailableRecordings()).thenReturn(List.of(desc));
+            Mockito.when(
+                            targetConnectionManager.getRecordings(
+                                    Mockito.any(ConnectionDescriptor.class),
+                                    Mockito.eq(Consistency.CACHED)))
+                    .thenReturn(List.of(desc));
             byte[] src = new byte[1024 * 1024];
             new Random(123456).nextBytes(src);
             InputStream stream = new ByteArrayInputStream(src);
             Mockito.when(svc.openStream(Mockito.any(), Mockito.eq(false))).thenReturn(stream);
 
-            // **************Mocking specific to OutputToReadStream***************
+            // **************Mocking specific to InputStreamToWriteStream***************
             Context context = Mockito.mock(Context.class);
             Mockito.when(vertx.getOrCreateContext()).thenReturn(context);
             Mockito.doAnswer(
@@ -248,12 +245,15 @@ class TargetRecordingGetHandlerTest {
                     .thenReturn(false);
             // ********************************************************************
 
-            ApiException ex =
-                    Assertions.assertThrows(
-                            ApiException.class, () -> handler.handleWithValidJwt(ctx, token));
+            handler.handleWithValidJwt(ctx, token);
+
+            ArgumentCaptor<Throwable> failure = ArgumentCaptor.forClass(Throwable.class);
+            Mockito.verify(ctx).fail(failure.capture());
+            MatcherAssert.assertThat(failure.getValue(), Matchers.instanceOf(ApiException.class));
+            ApiException ex = (ApiException) failure.getValue();
             MatcherAssert.assertThat(ex.getStatusCode(), Matchers.equalTo(500));
             MatcherAssert.assertThat(
-                    ex.getCause().getCause().getMessage(),
+                    ex.getCause().getMessage(),
                     Matchers.equalTo(
                             "Target connection unexpectedly closed while streaming recording"));
         }
@@ -272,24 +272,27 @@ class TargetRecordingGetHandlerTest {
                     .thenAnswer(
                             new Answer<>() {
                                 @Override
-                                public Optional<Document> answer(InvocationOnMock args)
-                                        throws Throwable {
+                                public InputStream answer(InvocationOnMock args) throws Throwable {
                                     TargetConnectionManager.ConnectedTask ct =
                                             (TargetConnectionManager.ConnectedTask)
                                                     args.getArguments()[1];
-                                    return (Optional<Document>) ct.execute(conn);
+                                    return (InputStream) ct.execute(conn);
                                 }
                             });
             Mockito.when(conn.getService()).thenReturn(svc);
             IRecordingDescriptor desc = Mockito.mock(IRecordingDescriptor.class);
             Mockito.when(desc.getName()).thenReturn("myrecording");
-            Mockito.when(svc.getAvailableRecordings()).thenReturn(List.of(desc));
+            Mockito.when(
+                            targetConnectionManager.getRecordings(
+                                    Mockito.any(ConnectionDescriptor.class),
+                                    Mockito.eq(Consistency.CACHED)))
+                    .thenReturn(List.of(desc));
             byte[] src = new byte[1024 * 1024];
             new Random(123456).nextBytes(src);
             InputStream stream = new ByteArrayInputStream(src);
             Mockito.when(svc.openStream(Mockito.any(), Mockito.eq(false))).thenReturn(stream);
 
-            // **************Mocking specific to OutputToReadStream***************
+            // **************Mocking specific to InputStreamToWriteStream***************
             Buffer dst = Buffer.buffer(1024 * 1024);
             Mockito.doAnswer(
                             invocation -> {
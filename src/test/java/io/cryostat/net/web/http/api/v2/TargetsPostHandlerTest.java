@@ -151,7 +151,7 @@ class TargetsPostHandlerTest {
         Mockito.when(params.getFormAttributes()).thenReturn(attrs);
         Mockito.when(params.getQueryParams()).thenReturn(MultiMap.caseInsensitiveMultiMap());
         Mockito.when(customTargetPlatformClient.addTarget(Mockito.any())).thenReturn(true);
-        Mockito.when(storage.listDiscoverableServices()).thenReturn(List.of());
+        Mockito.when(storage.lookupServiceByConnectUrl(Mockito.any())).thenReturn(Optional.empty());
         Mockito.when(
                         jvmIdHelper.getJvmId(
                                 Mockito.anyString(),
@@ -191,7 +191,7 @@ class TargetsPostHandlerTest {
                                 Mockito.anyString(), Mockito.any(Credentials.class)))
                 .thenReturn(1001);
         Mockito.when(customTargetPlatformClient.addTarget(Mockito.any())).thenReturn(true);
-        Mockito.when(storage.listDiscoverableServices()).thenReturn(List.of());
+        Mockito.when(storage.lookupServiceByConnectUrl(Mockito.any())).thenReturn(Optional.empty());
         Mockito.when(
                         jvmIdHelper.getJvmId(
                                 Mockito.anyString(),
@@ -259,7 +259,7 @@ class TargetsPostHandlerTest {
         RequestParameters params = Mockito.mock(RequestParameters.class);
         Mockito.when(params.getFormAttributes()).thenReturn(attrs);
         Mockito.when(params.getQueryParams()).thenReturn(MultiMap.caseInsensitiveMultiMap());
-        Mockito.when(storage.listDiscoverableServices()).thenReturn(List.of());
+        Mockito.when(storage.lookupServiceByConnectUrl(Mockito.any())).thenReturn(Optional.empty());
         Mockito.when(
                         jvmIdHelper.getJvmId(
                                 Mockito.anyString(),
@@ -277,13 +277,32 @@ class TargetsPostHandlerTest {
         MatcherAssert.assertThat(ex.getStatusCode(), Matchers.equalTo(400));
     }
 
+    @Test
+    void testRequestWithDuplicateConnectUrl() throws Exception {
+        MultiMap attrs = MultiMap.caseInsensitiveMultiMap();
+        RequestParameters params = Mockito.mock(RequestParameters.class);
+        Mockito.when(params.getFormAttributes()).thenReturn(attrs);
+        String connectUrl = "service:jmx:rmi:///jndi/rmi://cryostat:9099/jmxrmi";
+        ServiceRef existing = new ServiceRef("id", new URI(connectUrl), "ExistingTarget");
+        Mockito.when(storage.lookupServiceByConnectUrl(new URI(connectUrl)))
+                .thenReturn(Optional.of(existing));
+
+        attrs.set("connectUrl", connectUrl);
+        attrs.set("alias", "TestTarget");
+
+        ApiException ex = Assertions.assertThrows(ApiException.class, () -> handler.handle(params));
+        MatcherAssert.assertThat(ex.getStatusCode(), Matchers.equalTo(400));
+        MatcherAssert.assertThat(ex.getFailureReason(), Matchers.equalTo("Duplicate connectUrl"));
+        Mockito.verify(customTargetPlatformClient, Mockito.never()).addTarget(Mockito.any());
+    }
+
     @Test
     void testRequestWithAdditionalAnnotations() throws Exception {
         MultiMap attrs = MultiMap.caseInsensitiveMultiMap();
         RequestParameters params = Mockito.mock(RequestParameters.class);
         Mockito.when(params.getFormAttributes()).thenReturn(attrs);
         Mockito.when(params.getQueryParams()).thenReturn(MultiMap.caseInsensitiveMultiMap());
-        Mockito.when(storage.listDiscoverableServices()).thenReturn(List.of());
+        Mockito.when(storage.lookupServiceByConnectUrl(Mockito.any())).thenReturn(Optional.empty());
         Mockito.when(customTargetPlatformClient.addTarget(Mockito.any())).thenReturn(true);
         Mockito.when(
                         jvmIdHelper.getJvmId(
@@ -354,7 +373,7 @@ class TargetsPostHandlerTest {
         RequestParameters params = Mockito.mock(RequestParameters.class);
         Mockito.when(params.getFormAttributes()).thenReturn(attrs);
         Mockito.when(params.getQueryParams()).thenReturn(queries);
-        Mockito.when(storage.listDiscoverableServices()).thenReturn(List.of());
+        Mockito.when(storage.lookupServiceByConnectUrl(Mockito.any())).thenReturn(Optional.empty());
         Mockito.when(
                         jvmIdHelper.getJvmId(
                                 Mockito.anyString(),
@@ -392,7 +411,7 @@ class TargetsPostHandlerTest {
         RequestParameters params = Mockito.mock(RequestParameters.class);
         Mockito.when(params.getFormAttributes()).thenReturn(attrs);
         Mockito.when(params.getQueryParams()).thenReturn(queries);
-        Mockito.when(storage.listDiscoverableServices()).thenReturn(List.of());
+        Mockito.when(storage.lookupServiceByConnectUrl(Mockito.any())).thenReturn(Optional.empty());
         Mockito.when(customTargetPlatformClient.addTarget(Mockito.any())).thenReturn(true);
         Mockito.when(
                         jvmIdHelper.getJvmId(
@@ -431,7 +450,7 @@ class TargetsPostHandlerTest {
         RequestParameters params = Mockito.mock(RequestParameters.class);
         Mockito.when(params.getFormAttributes()).thenReturn(attrs);
         Mockito.when(params.getQueryParams()).thenReturn(queries);
-        Mockito.when(storage.listDiscoverableServices()).thenReturn(List.of());
+        Mockito.when(storage.lookupServiceByConnectUrl(Mockito.any())).thenReturn(Optional.empty());
         Mockito.when(
                         jvmIdHelper.getJvmId(
                                 Mockito.anyString(),
@@ -472,7 +491,7 @@ class TargetsPostHandlerTest {
         RequestParameters params = Mockito.mock(RequestParameters.class);
         Mockito.when(params.getFormAttributes()).thenReturn(attrs);
         Mockito.when(params.getQueryParams()).thenReturn(queries);
-        Mockito.when(storage.listDiscoverableServices()).thenReturn(List.of());
+        Mockito.when(storage.lookupServiceByConnectUrl(Mockito.any())).thenReturn(Optional.empty());
         Mockito.when(customTargetPlatformClient.addTarget(Mockito.any())).thenReturn(true);
         Mockito.when(
                         jvmIdHelper.getJvmId(
@@ -513,7 +532,7 @@ class TargetsPostHandlerTest {
         RequestParameters params = Mockito.mock(RequestParameters.class);
         Mockito.when(params.getFormAttributes()).thenReturn(attrs);
         Mockito.when(params.getQueryParams()).thenReturn(queries);
-        Mockito.when(storage.listDiscoverableServices()).thenReturn(List.of());
+        Mockito.when(storage.lookupServiceByConnectUrl(Mockito.any())).thenReturn(Optional.empty());
 
         String connectUrl = "service:jmx:rmi:///jndi/rmi://cryostat:9099/jmxrmi";
         String alias = "TestTarget";
@@ -547,7 +566,7 @@ class TargetsPostHandlerTest {
         RequestParameters params = Mockito.mock(RequestParameters.class);
         Mockito.when(params.getFormAttributes()).thenReturn(attrs);
         Mockito.when(params.getQueryParams()).thenReturn(queries);
-        Mockito.when(storage.listDiscoverableServices()).thenReturn(List.of());
+        Mockito.when(storage.lookupServiceByConnectUrl(Mockito.any())).thenReturn(Optional.empty());
 
         String connectUrl = "service:jmx:rmi:///jndi/rmi://cryostat:9099/jmxrmi";
         String alias = "TestTarget";
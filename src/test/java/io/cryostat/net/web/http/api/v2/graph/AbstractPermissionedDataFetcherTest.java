@@ -19,6 +19,7 @@ import static org.mockito.Mockito.when;
 
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import io.cryostat.net.AuthManager;
 import io.cryostat.net.AuthenticationErrorException;
@@ -70,6 +71,115 @@ class AbstractPermissionedDataFetcherTest {
         MatcherAssert.assertThat(ex.getMessage(), Matchers.equalTo("Unauthorized"));
     }
 
+    @Test
+    void shouldFailNonBlockingFetcherAsynchronously() throws Exception {
+        GraphQLContext graphCtx = GraphQLContext.newContext().build();
+        when(env.getGraphQlContext()).thenReturn(graphCtx);
+        CompletableFuture<Boolean> validation = new CompletableFuture<>();
+        when(auth.validateHttpHeader(Mockito.any(), Mockito.any())).thenReturn(validation);
+        NonBlockingDataFetcher fetcher = new NonBlockingDataFetcher(auth);
+
+        CompletableFuture<String> first = fetcher.get(env);
+        CompletableFuture<String> second = fetcher.get(env);
+        MatcherAssert.assertThat(first.isDone(), Matchers.equalTo(false));
+
+        validation.complete(false);
+
+        ExecutionException ee = Assertions.assertThrows(ExecutionException.class, first::get);
+        MatcherAssert.assertThat(
+                ee.getCause(), Matchers.instanceOf(AuthenticationErrorException.class));
+        Assertions.assertThrows(ExecutionException.class, second::get);
+        Mockito.verify(auth, Mockito.times(1)).validateHttpHeader(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void shouldReturnPlainValueFromNonBlockingFetcher() throws Exception {
+        when(env.getGraphQlContext()).thenReturn(graphCtx);
+        when(auth.validateHttpHeader(Mockito.any(), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        PlainValueDataFetcher fetcher = new PlainValueDataFetcher(auth);
+
+        MatcherAssert.assertThat(fetcher.get(env), Matchers.equalTo("foo"));
+    }
+
+    @Test
+    void shouldThrowAuthorizationErrorFromNonBlockingPlainValueFetcher() throws Exception {
+        when(env.getGraphQlContext()).thenReturn(graphCtx);
+        when(auth.validateHttpHeader(Mockito.any(), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(false));
+        PlainValueDataFetcher fetcher = new PlainValueDataFetcher(auth);
+
+        Assertions.assertThrows(AuthenticationErrorException.class, () -> fetcher.get(env));
+    }
+
+    static class NonBlockingDataFetcher
+            extends AbstractPermissionedDataFetcher<CompletableFuture<String>> {
+        NonBlockingDataFetcher(AuthManager auth) {
+            super(auth);
+        }
+
+        @Override
+        public Set<ResourceAction> resourceActions() {
+            return ResourceAction.NONE;
+        }
+
+        @Override
+        boolean blocking() {
+            return false;
+        }
+
+        @Override
+        boolean async() {
+            return true;
+        }
+
+        @Override
+        CompletableFuture<String> getAuthenticated(DataFetchingEnvironment environment) {
+            return CompletableFuture.completedFuture("foo");
+        }
+
+        @Override
+        Set<String> applicableContexts() {
+            return null;
+        }
+
+        @Override
+        String name() {
+            return null;
+        }
+    }
+
+    static class PlainValueDataFetcher extends AbstractPermissionedDataFetcher<String> {
+        PlainValueDataFetcher(AuthManager auth) {
+            super(auth);
+        }
+
+        @Override
+        public Set<ResourceAction> resourceActions() {
+            return ResourceAction.NONE;
+        }
+
+        @Override
+        boolean blocking() {
+            return false;
+        }
+
+        @Override
+        String getAuthenticated(DataFetchingEnvironment environment) {
+            return "foo";
+        }
+
+        @Override
+        Set<String> applicableContexts() {
+            return null;
+        }
+
+        @Override
+        String name() {
+            return null;
+        }
+    }
+
     static class PermissionedDataFetcher extends AbstractPermissionedDataFetcher<String> {
         PermissionedDataFetcher(AuthManager auth) {
             super(auth);
@@ -18,7 +18,6 @@ package io.cryostat.net.web.http.api.v2.graph;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
@@ -28,7 +27,6 @@ import io.cryostat.net.AuthManager;
 import io.cryostat.net.security.ResourceAction;
 import io.cryostat.net.web.http.api.v2.graph.ArchivedRecordingsFetcher.Archived;
 import io.cryostat.recordings.RecordingArchiveHelper;
-import io.cryostat.recordings.RecordingMetadataManager.Metadata;
 import io.cryostat.rules.ArchivedRecordingInfo;
 
 import graphql.GraphQLContext;
@@ -173,27 +171,20 @@ class AllArchivedRecordingsFetcherTest {
             when(auth.validateHttpHeader(Mockito.any(), Mockito.any()))
                     .thenReturn(CompletableFuture.completedFuture(true));
 
-            ArchivedRecordingInfo recording1 = Mockito.mock(ArchivedRecordingInfo.class);
-            ArchivedRecordingInfo recording2 = Mockito.mock(ArchivedRecordingInfo.class);
-            ArchivedRecordingInfo recording3 = Mockito.mock(ArchivedRecordingInfo.class);
-
-            when(recording1.getMetadata()).thenReturn(new Metadata(Map.of("foo", "bar")));
-            when(recording2.getMetadata())
-                    .thenReturn(new Metadata(Map.of("foo", "baz", "bar", "qux")));
-            when(recording3.getMetadata())
-                    .thenReturn(new Metadata(Map.of("", "foo", "bar", "foo")));
+            ArchivedRecordingInfo recording = Mockito.mock(ArchivedRecordingInfo.class);
 
             when(filter.contains(Mockito.any())).thenReturn(false);
             when(filter.contains(FilterInput.Key.LABELS)).thenReturn(true);
             when(filter.get(FilterInput.Key.LABELS)).thenReturn(List.of("foo", "bar"));
 
-            when(archiveHelper.getRecordings()).thenReturn(future);
-            when(future.get()).thenReturn(List.of(recording1, recording2, recording3));
+            when(archiveHelper.getRecordingsMatching(List.of("foo", "bar"))).thenReturn(future);
+            when(future.get()).thenReturn(List.of(recording));
 
             Archived recordings = fetcher.get(env);
 
             MatcherAssert.assertThat(recordings, Matchers.notNullValue());
-            MatcherAssert.assertThat(recordings.data, Matchers.contains(recording2));
+            MatcherAssert.assertThat(recordings.data, Matchers.contains(recording));
+            Mockito.verify(archiveHelper, Mockito.never()).getRecordings();
         }
     }
 
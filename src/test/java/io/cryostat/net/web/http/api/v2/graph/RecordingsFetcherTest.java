@@ -19,12 +19,14 @@ import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.when;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 import javax.inject.Provider;
 
+import io.cryostat.DirectExecutor;
 import io.cryostat.configuration.CredentialsManager;
 import io.cryostat.core.log.Logger;
 import io.cryostat.net.AuthManager;
@@ -74,7 +76,7 @@ class RecordingsFetcherTest {
     @Mock Logger logger;
 
     @Mock DataFetchingEnvironment env;
-    @Mock GraphQLContext graphCtx;
+    GraphQLContext graphCtx = GraphQLContext.newContext().build();
     @Mock RoutingContext ctx;
     @Mock FilterInput filter;
     @Mock CompletableFuture<List<ArchivedRecordingInfo>> archivedFuture;
@@ -95,6 +97,7 @@ class RecordingsFetcherTest {
                         credentialsManager,
                         metadataManager,
                         webServer,
+                        new TargetFanOut(new DirectExecutor(), Duration.ofSeconds(10)),
                         logger);
     }
 
@@ -127,7 +130,7 @@ class RecordingsFetcherTest {
         when(source.getTarget()).thenReturn(target);
         when(target.getServiceUri()).thenReturn(EXAMPLE_URI);
 
-        Recordings recordings = fetcher.get(env);
+        Recordings recordings = fetcher.get(env).get();
 
         MatcherAssert.assertThat(recordings, Matchers.notNullValue());
         // should be null ?
@@ -162,7 +165,7 @@ class RecordingsFetcherTest {
         when(archiveHelper.getRecordings(Mockito.any())).thenReturn(archivedFuture);
         when(archivedFuture.get()).thenReturn(List.of());
 
-        Recordings recordings = fetcher.get(env);
+        Recordings recordings = fetcher.get(env).get();
 
         MatcherAssert.assertThat(recordings, Matchers.notNullValue());
         MatcherAssert.assertThat(recordings.active, Matchers.empty());
@@ -196,7 +199,7 @@ class RecordingsFetcherTest {
         lenient().when(archiveHelper.getRecordings(Mockito.any())).thenReturn(archivedFuture);
         lenient().when(archivedFuture.get()).thenReturn(List.of(archivedRecording));
 
-        Recordings recordings = fetcher.get(env);
+        Recordings recordings = fetcher.get(env).get();
 
         MatcherAssert.assertThat(recordings, Matchers.notNullValue());
         MatcherAssert.assertThat(recordings.active, Matchers.contains(activeRecording));
@@ -233,7 +236,7 @@ class RecordingsFetcherTest {
         when(archiveHelper.getRecordings(Mockito.any())).thenReturn(archivedFuture);
         when(archivedFuture.get()).thenReturn(List.of(archivedRecording));
 
-        Recordings recordings = fetcher.get(env);
+        Recordings recordings = fetcher.get(env).get();
 
         MatcherAssert.assertThat(recordings, Matchers.notNullValue());
         MatcherAssert.assertThat(recordings.active, Matchers.nullValue());
@@ -272,7 +275,7 @@ class RecordingsFetcherTest {
         when(archivedFuture.get())
                 .thenReturn(List.of(archivedRecording1, archivedRecording2, archivedRecording3));
 
-        Recordings recordings = fetcher.get(env);
+        Recordings recordings = fetcher.get(env).get();
 
         MatcherAssert.assertThat(recordings, Matchers.notNullValue());
         MatcherAssert.assertThat(
@@ -0,0 +1,234 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net.web.http.api.v2.graph;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.cryostat.DirectExecutor;
+import io.cryostat.platform.ServiceRef;
+
+import graphql.schema.DataFetchingEnvironment;
+import org.dataloader.DataLoaderRegistry;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TargetFanOutTest {
+
+    @Mock DataFetchingEnvironment env;
+    @Mock ServiceRef target1;
+    @Mock ServiceRef target2;
+
+    @Test
+    void shouldLoadDirectlyWithoutRegistry() throws Exception {
+        TargetFanOut fanOut = new TargetFanOut(new DirectExecutor(), Duration.ofSeconds(10));
+
+        String result = fanOut.load(env, "foo", target1, t -> "bar").get();
+
+        MatcherAssert.assertThat(result, Matchers.equalTo("bar"));
+    }
+
+    @Test
+    void shouldBatchLoadsUntilDispatched() throws Exception {
+        DataLoaderRegistry registry = new DataLoaderRegistry();
+        Mockito.when(env.getDataLoaderRegistry()).thenReturn(registry);
+        TargetFanOut fanOut = new TargetFanOut(new DirectExecutor(), Duration.ofSeconds(10));
+        List<ServiceRef> loaded = new ArrayList<>();
+        TargetFanOut.TargetTask<ServiceRef> task =
+                t -> {
+                    loaded.add(t);
+                    return t;
+                };
+
+        CompletableFuture<ServiceRef> f1 = fanOut.load(env, "foo", target1, task);
+        CompletableFuture<ServiceRef> f2 = fanOut.load(env, "foo", target2, task);
+        CompletableFuture<ServiceRef> f3 = fanOut.load(env, "foo", target1, task);
+
+        MatcherAssert.assertThat(loaded, Matchers.empty());
+        registry.dispatchAll();
+
+        MatcherAssert.assertThat(f1.get(), Matchers.sameInstance(target1));
+        MatcherAssert.assertThat(f2.get(), Matchers.sameInstance(target2));
+        MatcherAssert.assertThat(f3.get(), Matchers.sameInstance(target1));
+        MatcherAssert.assertThat(loaded, Matchers.contains(target1, target2));
+    }
+
+    @Test
+    void shouldFailOnlyFailedTargets() throws Exception {
+        DataLoaderRegistry registry = new DataLoaderRegistry();
+        Mockito.when(env.getDataLoaderRegistry()).thenReturn(registry);
+        TargetFanOut fanOut = new TargetFanOut(new DirectExecutor(), Duration.ofSeconds(10));
+        TargetFanOut.TargetTask<String> task =
+                t -> {
+                    if (t == target1) {
+                        throw new IllegalStateException("unreachable");
+                    }
+                    return "ok";
+                };
+
+        CompletableFuture<String> f1 = fanOut.load(env, "foo", target1, task);
+        CompletableFuture<String> f2 = fanOut.load(env, "foo", target2, task);
+        registry.dispatchAll();
+
+        ExecutionException ee = Assertions.assertThrows(ExecutionException.class, f1::get);
+        MatcherAssert.assertThat(ee.getCause(), Matchers.instanceOf(IllegalStateException.class));
+        MatcherAssert.assertThat(f2.get(), Matchers.equalTo("ok"));
+    }
+
+    @Test
+    void shouldTimeOutSlowTargets() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            TargetFanOut fanOut = new TargetFanOut(executor, Duration.ofMillis(100));
+
+            CompletableFuture<String> slow =
+                    fanOut.submit(
+                            () -> {
+                                latch.await();
+                                return "slow";
+                            });
+            CompletableFuture<String> fast = fanOut.submit(() -> "fast");
+
+            MatcherAssert.assertThat(fast.get(1, TimeUnit.SECONDS), Matchers.equalTo("fast"));
+            ExecutionException ee =
+                    Assertions.assertThrows(
+                            ExecutionException.class, () -> slow.get(1, TimeUnit.SECONDS));
+            MatcherAssert.assertThat(ee.getCause(), Matchers.instanceOf(TimeoutException.class));
+        } finally {
+            latch.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldTimeOutTasksWaitingForExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            TargetFanOut fanOut = new TargetFanOut(executor, Duration.ofMillis(100));
+
+            CompletableFuture<String> slow =
+                    fanOut.submit(
+                            () -> {
+                                latch.await();
+                                return "slow";
+                            });
+            CompletableFuture<String> queued = fanOut.submit(() -> "queued");
+
+            ExecutionException ee =
+                    Assertions.assertThrows(
+                            ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+            MatcherAssert.assertThat(ee.getCause(), Matchers.instanceOf(TimeoutException.class));
+            Assertions.assertThrows(ExecutionException.class, () -> slow.get(1, TimeUnit.SECONDS));
+        } finally {
+            latch.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldInterruptTimedOutTasks() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try {
+            TargetFanOut fanOut = new TargetFanOut(executor, Duration.ofMillis(100));
+
+            CompletableFuture<String> slow =
+                    fanOut.submit(
+                            () -> {
+                                try {
+                                    new CountDownLatch(1).await();
+                                } catch (InterruptedException e) {
+                                    interrupted.countDown();
+                                    throw e;
+                                }
+                                return "slow";
+                            });
+
+            Assertions.assertThrows(ExecutionException.class, () -> slow.get(1, TimeUnit.SECONDS));
+            MatcherAssert.assertThat(
+                    interrupted.await(1, TimeUnit.SECONDS), Matchers.equalTo(true));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldNotStartWorkUntilGateCompletes() throws Exception {
+        DataLoaderRegistry registry = new DataLoaderRegistry();
+        Mockito.when(env.getDataLoaderRegistry()).thenReturn(registry);
+        TargetFanOut fanOut = new TargetFanOut(new DirectExecutor(), Duration.ofSeconds(10));
+        CompletableFuture<Void> gate = new CompletableFuture<>();
+        List<ServiceRef> loaded = new ArrayList<>();
+
+        CompletableFuture<ServiceRef> f1 =
+                fanOut.load(
+                        env,
+                        "foo",
+                        target1,
+                        gate,
+                        t -> {
+                            loaded.add(t);
+                            return t;
+                        });
+        registry.dispatchAll();
+
+        MatcherAssert.assertThat(loaded, Matchers.empty());
+        MatcherAssert.assertThat(f1.isDone(), Matchers.equalTo(false));
+
+        gate.complete(null);
+
+        MatcherAssert.assertThat(f1.get(), Matchers.sameInstance(target1));
+        MatcherAssert.assertThat(loaded, Matchers.contains(target1));
+    }
+
+    @Test
+    void shouldFailWorkWithGate() throws Exception {
+        TargetFanOut fanOut = new TargetFanOut(new DirectExecutor(), Duration.ofSeconds(10));
+        List<ServiceRef> loaded = new ArrayList<>();
+
+        CompletableFuture<ServiceRef> f1 =
+                fanOut.load(
+                        env,
+                        "foo",
+                        target1,
+                        CompletableFuture.failedFuture(new IllegalStateException("denied")),
+                        t -> {
+                            loaded.add(t);
+                            return t;
+                        });
+
+        ExecutionException ee = Assertions.assertThrows(ExecutionException.class, f1::get);
+        MatcherAssert.assertThat(ee.getCause(), Matchers.instanceOf(IllegalStateException.class));
+        MatcherAssert.assertThat(loaded, Matchers.empty());
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.net.web.http.api.v2.graph.labels;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class LabelIndexTest {
+
+    LabelIndex<String> index;
+
+    @BeforeEach
+    void setup() {
+        this.index = new LabelIndex<>();
+        index.put("a", Map.of("team", "payments", "env", "prod"));
+        index.put("b", Map.of("team", "payments", "env", "qa"));
+        index.put("c", Map.of("team", "search", "env", "prod"));
+        index.put("d", Map.of("env", "prod"));
+    }
+
+    @ParameterizedTest
+    @CsvSource(
+            value = {
+                "team=payments : a,b",
+                "team==search : c",
+                "team=unknown : ",
+                "team in (payments, search) : a,b,c",
+                "team : a,b,c",
+                "unknown : ",
+                "team=payments; env=prod : a",
+                "env=prod; !team : d",
+                "team; env!=prod : b",
+                "env in (prod); team notin (search) : a,d",
+            },
+            delimiter = ':')
+    void shouldSelectIndexedItems(String selectors, String expected) {
+        MatcherAssert.assertThat(
+                selectors,
+                index.select(
+                        Arrays.stream(selectors.split(";"))
+                                .map(String::trim)
+                                .map(LabelSelectorMatcher::parse)
+                                .collect(Collectors.toList())),
+                Matchers.equalTo(
+                        Optional.of(
+                                expected == null
+                                        ? Set.of()
+                                        : Set.of(expected.split(",")))));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"team!=payments", "!team", "team notin (payments)"})
+    void shouldNotAnswerNegatedSelectors(String selector) {
+        MatcherAssert.assertThat(
+                index.select(Set.of(LabelSelectorMatcher.parse(selector))),
+                Matchers.equalTo(Optional.empty()));
+    }
+
+    @Test
+    void shouldReplaceLabelsOnPut() {
+        index.put("a", Map.of("team", "search"));
+
+        MatcherAssert.assertThat(
+                index.select(Set.of(LabelSelectorMatcher.parse("team=payments"))),
+                Matchers.equalTo(Optional.of(Set.of("b"))));
+        MatcherAssert.assertThat(
+                index.select(Set.of(LabelSelectorMatcher.parse("team=search"))),
+                Matchers.equalTo(Optional.of(Set.of("a", "c"))));
+        MatcherAssert.assertThat(
+                index.select(Set.of(LabelSelectorMatcher.parse("env=prod"))),
+                Matchers.equalTo(Optional.of(Set.of("c", "d"))));
+    }
+
+    @Test
+    void shouldNotSelectRemovedItems() {
+        index.remove("a");
+        index.remove("unknown");
+
+        MatcherAssert.assertThat(
+                index.select(Set.of(LabelSelectorMatcher.parse("team=payments"))),
+                Matchers.equalTo(Optional.of(Set.of("b"))));
+        MatcherAssert.assertThat(
+                index.select(Set.of(LabelSelectorMatcher.parse("env"))),
+                Matchers.equalTo(Optional.of(Set.of("b", "c", "d"))));
+    }
+}
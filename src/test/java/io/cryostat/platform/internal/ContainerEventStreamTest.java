@@ -0,0 +1,145 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.platform.internal;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import io.cryostat.MainModule;
+import io.cryostat.core.log.Logger;
+
+import com.google.gson.Gson;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.web.client.WebClient;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ContainerEventStreamTest {
+
+    @Mock Logger logger;
+    Gson gson = MainModule.provideGson(logger);
+    Vertx vertx;
+    WebClient webClient;
+    HttpServer server;
+    BlockingQueue<HttpServerRequest> requests;
+    BlockingQueue<String> containers;
+    ContainerEventStream stream;
+
+    @BeforeEach
+    void setup() throws Exception {
+        this.vertx = Vertx.vertx();
+        this.webClient = WebClient.create(vertx);
+        this.requests = new LinkedBlockingQueue<>();
+        this.containers = new LinkedBlockingQueue<>();
+        this.server =
+                vertx.createHttpServer()
+                        .requestHandler(requests::add)
+                        .listen(0)
+                        .toCompletionStage()
+                        .toCompletableFuture()
+                        .get(5, TimeUnit.SECONDS);
+        this.stream =
+                new ContainerEventStream(
+                        () -> webClient,
+                        () -> vertx,
+                        SocketAddress.inetSocketAddress(server.actualPort(), "localhost"),
+                        "/v1.41/events",
+                        "io.cryostat.discovery",
+                        List.of("start", "die"),
+                        gson,
+                        logger,
+                        containers::add,
+                        10);
+    }
+
+    @AfterEach
+    void teardown() throws Exception {
+        stream.stop();
+        webClient.close();
+        vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldPassOnStreamedEventsAndResumeAfterReconnecting() throws Exception {
+        stream.start(100);
+
+        HttpServerRequest first = requests.poll(5, TimeUnit.SECONDS);
+        MatcherAssert.assertThat(first, Matchers.notNullValue());
+        MatcherAssert.assertThat(first.path(), Matchers.equalTo("/v1.41/events"));
+        MatcherAssert.assertThat(first.getParam("since"), Matchers.equalTo("100"));
+        MatcherAssert.assertThat(
+                first.getParam("filters"),
+                Matchers.equalTo(
+                        gson.toJson(
+                                Map.of(
+                                        "type",
+                                        List.of("container"),
+                                        "label",
+                                        List.of("io.cryostat.discovery"),
+                                        "event",
+                                        List.of("start", "die")))));
+
+        first.response().setChunked(true);
+        first.response().write(event("abc", "start", 101) + "\n");
+        MatcherAssert.assertThat(containers.poll(5, TimeUnit.SECONDS), Matchers.equalTo("abc"));
+        first.response().write(event("def", "die", 105) + "\n" + event("abc", "die", 103));
+        MatcherAssert.assertThat(containers.poll(5, TimeUnit.SECONDS), Matchers.equalTo("def"));
+        MatcherAssert.assertThat(containers.poll(5, TimeUnit.SECONDS), Matchers.equalTo("abc"));
+        first.response().end();
+
+        HttpServerRequest second = requests.poll(5, TimeUnit.SECONDS);
+        MatcherAssert.assertThat(second, Matchers.notNullValue());
+        MatcherAssert.assertThat(second.getParam("since"), Matchers.equalTo("105"));
+    }
+
+    @Test
+    void shouldNotReconnectOnceStopped() throws Exception {
+        stream.start(100);
+
+        HttpServerRequest first = requests.poll(5, TimeUnit.SECONDS);
+        MatcherAssert.assertThat(first, Matchers.notNullValue());
+        stream.stop();
+        first.response().end();
+
+        MatcherAssert.assertThat(requests.poll(500, TimeUnit.MILLISECONDS), Matchers.nullValue());
+    }
+
+    private String event(String id, String action, long time) {
+        return gson.toJson(
+                Map.of(
+                        "Type",
+                        "container",
+                        "Action",
+                        action,
+                        "Actor",
+                        Map.of("ID", id, "Attributes", Map.of()),
+                        "time",
+                        time));
+    }
+}
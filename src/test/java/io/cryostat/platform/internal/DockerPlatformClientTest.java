@@ -0,0 +1,211 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.platform.internal;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import io.cryostat.MainModule;
+import io.cryostat.core.log.Logger;
+import io.cryostat.core.net.discovery.JvmDiscoveryClient.EventKind;
+import io.cryostat.platform.TargetDiscoveryEvent;
+import io.cryostat.platform.internal.DockerPlatformClient.ContainerSpec;
+
+import com.google.gson.Gson;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.web.client.WebClient;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DockerPlatformClientTest {
+
+    static final String JMX_URL = "service:jmx:rmi:///jndi/rmi://app:9091/jmxrmi";
+
+    @Mock Logger logger;
+    Gson gson = MainModule.provideGson(logger);
+    Vertx vertx;
+    WebClient webClient;
+    HttpServer server;
+    BlockingQueue<String> listRequests;
+    BlockingQueue<HttpServerRequest> eventRequests;
+    BlockingQueue<TargetDiscoveryEvent> discoveries;
+    volatile List<ContainerSpec> listed;
+    DockerPlatformClient client;
+
+    @BeforeEach
+    void setup() throws Exception {
+        this.vertx = Vertx.vertx();
+        this.webClient = WebClient.create(vertx);
+        this.listRequests = new LinkedBlockingQueue<>();
+        this.eventRequests = new LinkedBlockingQueue<>();
+        this.discoveries = new LinkedBlockingQueue<>();
+        this.listed = List.of();
+        this.server =
+                vertx.createHttpServer()
+                        .requestHandler(
+                                req -> {
+                                    if (req.path().equals("/v1.41/events")) {
+                                        eventRequests.add(req);
+                                    } else if (req.path().equals("/v1.41/containers/json")) {
+                                        listRequests.add(req.getParam("filters"));
+                                        req.response().end(gson.toJson(listed));
+                                    } else {
+                                        req.response().setStatusCode(404).end();
+                                    }
+                                })
+                        .listen(0)
+                        .toCompletionStage()
+                        .toCompletableFuture()
+                        .get(5, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void teardown() throws Exception {
+        if (client != null) {
+            client.stop();
+        }
+        webClient.close();
+        vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    DockerPlatformClient createClient(boolean subscribeEvents, long resyncPeriodMs) {
+        DockerPlatformClient client =
+                new DockerPlatformClient(
+                        () -> webClient,
+                        () -> vertx,
+                        SocketAddress.inetSocketAddress(server.actualPort(), "localhost"),
+                        subscribeEvents,
+                        resyncPeriodMs,
+                        () -> null,
+                        gson,
+                        logger);
+        client.addTargetDiscoveryListener(discoveries::add);
+        return client;
+    }
+
+    @Test
+    void shouldUpdateContainersFromEvents() throws Exception {
+        this.client = createClient(true, 60_000);
+        client.start();
+
+        MatcherAssert.assertThat(listRequests.poll(5, TimeUnit.SECONDS), Matchers.notNullValue());
+        HttpServerRequest events = eventRequests.poll(5, TimeUnit.SECONDS);
+        MatcherAssert.assertThat(events, Matchers.notNullValue());
+        events.response().setChunked(true);
+
+        listed = List.of(container("abc", "app"));
+        events.response().write(event("abc", "start", 101) + "\n");
+        MatcherAssert.assertThat(
+                listRequests.poll(5, TimeUnit.SECONDS), Matchers.containsString("abc"));
+        TargetDiscoveryEvent found = discoveries.poll(5, TimeUnit.SECONDS);
+        MatcherAssert.assertThat(found, Matchers.notNullValue());
+        MatcherAssert.assertThat(found.getEventKind(), Matchers.equalTo(EventKind.FOUND));
+        MatcherAssert.assertThat(
+                found.getServiceRef().getServiceUri(), Matchers.equalTo(URI.create(JMX_URL)));
+        MatcherAssert.assertThat(
+                found.getServiceRef().getLabels(),
+                Matchers.hasEntry(DockerPlatformClient.DISCOVERY_LABEL, ""));
+
+        listed = List.of(container("abc", "renamed"));
+        events.response().write(event("abc", "rename", 102) + "\n");
+        TargetDiscoveryEvent modified = discoveries.poll(5, TimeUnit.SECONDS);
+        MatcherAssert.assertThat(modified, Matchers.notNullValue());
+        MatcherAssert.assertThat(modified.getEventKind(), Matchers.equalTo(EventKind.MODIFIED));
+        MatcherAssert.assertThat(
+                modified.getServiceRef().getServiceUri(), Matchers.equalTo(URI.create(JMX_URL)));
+
+        listed = List.of();
+        events.response().write(event("abc", "die", 103) + "\n");
+        TargetDiscoveryEvent lost = discoveries.poll(5, TimeUnit.SECONDS);
+        MatcherAssert.assertThat(lost, Matchers.notNullValue());
+        MatcherAssert.assertThat(lost.getEventKind(), Matchers.equalTo(EventKind.LOST));
+        MatcherAssert.assertThat(
+                lost.getServiceRef().getServiceUri(), Matchers.equalTo(URI.create(JMX_URL)));
+
+        MatcherAssert.assertThat(client.listDiscoverableServices(), Matchers.empty());
+    }
+
+    @Test
+    void shouldIgnoreEventsWhichDoNotChangeContainer() throws Exception {
+        listed = List.of(container("abc", "app"));
+        this.client = createClient(true, 60_000);
+        client.start();
+
+        TargetDiscoveryEvent found = discoveries.poll(5, TimeUnit.SECONDS);
+        MatcherAssert.assertThat(found, Matchers.notNullValue());
+        MatcherAssert.assertThat(found.getEventKind(), Matchers.equalTo(EventKind.FOUND));
+        HttpServerRequest events = eventRequests.poll(5, TimeUnit.SECONDS);
+        MatcherAssert.assertThat(events, Matchers.notNullValue());
+        listRequests.clear();
+
+        events.response().setChunked(true);
+        events.response().write(event("abc", "start", 101) + "\n");
+        MatcherAssert.assertThat(listRequests.poll(5, TimeUnit.SECONDS), Matchers.notNullValue());
+        MatcherAssert.assertThat(
+                discoveries.poll(500, TimeUnit.MILLISECONDS), Matchers.nullValue());
+    }
+
+    @Test
+    void shouldPollAtResyncPeriodWithoutEvents() throws Exception {
+        this.client = createClient(false, 50);
+        client.start();
+
+        for (int i = 0; i < 3; i++) {
+            MatcherAssert.assertThat(
+                    listRequests.poll(5, TimeUnit.SECONDS), Matchers.notNullValue());
+        }
+        MatcherAssert.assertThat(eventRequests, Matchers.empty());
+    }
+
+    private ContainerSpec container(String id, String name) {
+        return new ContainerSpec(
+                id,
+                "image",
+                Map.of(DockerPlatformClient.DISCOVERY_LABEL, "", "io.cryostat.jmxUrl", JMX_URL),
+                List.of(name),
+                1,
+                List.of(),
+                100,
+                "running");
+    }
+
+    private String event(String id, String action, long time) {
+        return gson.toJson(
+                Map.of(
+                        "Type",
+                        "container",
+                        "Action",
+                        action,
+                        "Actor",
+                        Map.of("ID", id, "Attributes", Map.of()),
+                        "time",
+                        time));
+    }
+}
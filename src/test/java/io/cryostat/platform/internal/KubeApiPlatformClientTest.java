@@ -21,6 +21,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
@@ -42,8 +43,13 @@ import io.fabric8.kubernetes.api.model.EndpointAddressBuilder;
 import io.fabric8.kubernetes.api.model.EndpointPortBuilder;
 import io.fabric8.kubernetes.api.model.Endpoints;
 import io.fabric8.kubernetes.api.model.EndpointsBuilder;
+import io.fabric8.kubernetes.api.model.OwnerReferenceBuilder;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.api.model.apps.ReplicaSet;
+import io.fabric8.kubernetes.api.model.apps.ReplicaSetBuilder;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
 import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
@@ -508,6 +514,132 @@ class KubeApiPlatformClientTest {
         MatcherAssert.assertThat(podB.getChildren(), Matchers.contains(sr2Matcher));
     }
 
+    @Test
+    void shouldShareOwnerNodesFromInformerCaches() throws Exception {
+        Deployment deployment =
+                new DeploymentBuilder()
+                        .withNewMetadata()
+                        .withName("deployment")
+                        .withNamespace(NAMESPACE)
+                        .withUid("deployment-uid")
+                        .endMetadata()
+                        .build();
+        k8sClient.apps().deployments().inNamespace(NAMESPACE).resource(deployment).create();
+        ReplicaSet replicaSet =
+                new ReplicaSetBuilder()
+                        .withNewMetadata()
+                        .withName("replicaset")
+                        .withNamespace(NAMESPACE)
+                        .withUid("replicaset-uid")
+                        .withOwnerReferences(
+                                new OwnerReferenceBuilder()
+                                        .withKind("Deployment")
+                                        .withName("deployment")
+                                        .withUid("deployment-uid")
+                                        .build())
+                        .endMetadata()
+                        .build();
+        k8sClient.apps().replicaSets().inNamespace(NAMESPACE).resource(replicaSet).create();
+        for (String name : List.of("targetA", "targetB", "targetC")) {
+            Pod pod =
+                    new PodBuilder()
+                            .withNewMetadata()
+                            .withName(name)
+                            .withNamespace(NAMESPACE)
+                            .withOwnerReferences(
+                                    new OwnerReferenceBuilder()
+                                            .withKind("ReplicaSet")
+                                            .withName("replicaset")
+                                            .withUid("replicaset-uid")
+                                            .build())
+                            .endMetadata()
+                            .build();
+            k8sClient.pods().inNamespace(NAMESPACE).resource(pod).create();
+        }
+        k8sClient
+                .endpoints()
+                .inNamespace(NAMESPACE)
+                .resource(jmxEndpoints("endpoints1", Map.of("targetA", "127.0.0.2")))
+                .create();
+        k8sClient
+                .endpoints()
+                .inNamespace(NAMESPACE)
+                .resource(jmxEndpoints("endpoints2", Map.of("targetB", "127.0.0.3")))
+                .create();
+
+        platformClient.start();
+        EnvironmentNode namespaceNode =
+                (EnvironmentNode) platformClient.getDiscoveryTree().getChildren().get(0);
+
+        MatcherAssert.assertThat(namespaceNode.getChildren(), Matchers.hasSize(1));
+        EnvironmentNode deploymentNode = (EnvironmentNode) namespaceNode.getChildren().get(0);
+        MatcherAssert.assertThat(
+                deploymentNode.getNodeType(), Matchers.equalTo(KubernetesNodeType.DEPLOYMENT));
+        MatcherAssert.assertThat(deploymentNode.getChildren(), Matchers.hasSize(1));
+        EnvironmentNode replicaSetNode = (EnvironmentNode) deploymentNode.getChildren().get(0);
+        MatcherAssert.assertThat(
+                replicaSetNode.getNodeType(), Matchers.equalTo(KubernetesNodeType.REPLICASET));
+        MatcherAssert.assertThat(
+                replicaSetNode.getChildren(),
+                Matchers.contains(
+                        Matchers.hasProperty("name", Matchers.equalTo("targetA")),
+                        Matchers.hasProperty("name", Matchers.equalTo("targetB"))));
+
+        CompletableFuture<TargetDiscoveryEvent> eventFuture = new CompletableFuture<>();
+        platformClient.addTargetDiscoveryListener(
+                evt -> {
+                    if (evt.getServiceRef().getAlias().equals(Optional.of("targetC"))) {
+                        eventFuture.complete(evt);
+                    }
+                });
+        k8sClient
+                .endpoints()
+                .inNamespace(NAMESPACE)
+                .resource(jmxEndpoints("endpoints3", Map.of("targetC", "127.0.0.4")))
+                .create();
+        MatcherAssert.assertThat(
+                eventFuture.get(5, TimeUnit.SECONDS).getEventKind(),
+                Matchers.equalTo(EventKind.FOUND));
+
+        namespaceNode = (EnvironmentNode) platformClient.getDiscoveryTree().getChildren().get(0);
+        replicaSetNode =
+                (EnvironmentNode)
+                        ((EnvironmentNode) namespaceNode.getChildren().get(0))
+                                .getChildren()
+                                .get(0);
+        MatcherAssert.assertThat(replicaSetNode.getChildren(), Matchers.hasSize(3));
+    }
+
+    private Endpoints jmxEndpoints(String name, Map<String, String> podIps) {
+        EndpointsBuilder builder =
+                new EndpointsBuilder()
+                        .withNewMetadata()
+                        .withName(name)
+                        .withNamespace(NAMESPACE)
+                        .endMetadata();
+        podIps.forEach(
+                (pod, ip) ->
+                        builder.addNewSubset()
+                                .withAddresses(
+                                        new EndpointAddressBuilder()
+                                                .withIp(ip)
+                                                .withHostname(pod)
+                                                .withNewTargetRef()
+                                                .withName(pod)
+                                                .withKind("Pod")
+                                                .withNamespace(NAMESPACE)
+                                                .endTargetRef()
+                                                .build())
+                                .withPorts(
+                                        new EndpointPortBuilder()
+                                                .withName("jfr-jmx")
+                                                .withPort(9091)
+                                                .withProtocol("tcp")
+                                                .build())
+                                .endSubset());
+        return builder.build();
+    }
+
     @Test
     public void shouldNotifyOnAsyncAdded() throws Exception {
         CompletableFuture<TargetDiscoveryEvent> eventFuture = new CompletableFuture<>();
@@ -0,0 +1,172 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.recordings;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import io.cryostat.core.log.Logger;
+import io.cryostat.core.sys.FileSystem;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ArchivedRecordingCatalogTest {
+
+    ArchivedRecordingCatalog catalog;
+    @Mock FileSystem fs;
+    @Mock Logger logger;
+
+    Path archivedRecordingsPath = Path.of("/archives");
+
+    @BeforeEach
+    void setup() {
+        this.catalog =
+                new ArchivedRecordingCatalog(
+                        fs, archivedRecordingsPath, Function.identity(), logger);
+    }
+
+    @Test
+    void shouldListEachSubdirectoryOnlyOnce() throws Exception {
+        Mockito.when(fs.listDirectoryChildren(archivedRecordingsPath))
+                .thenReturn(List.of("jvmA", "file-uploads"));
+        Mockito.when(fs.exists(Mockito.any(Path.class))).thenReturn(true);
+        Mockito.when(fs.listDirectoryChildren(archivedRecordingsPath.resolve("jvmA")))
+                .thenReturn(List.of("connectUrl", "foo.jfr", "bar.jfr"));
+
+        List<ArchivedRecordingCatalog.Directory> directories = catalog.getDirectories();
+        MatcherAssert.assertThat(directories, Matchers.hasSize(1));
+        MatcherAssert.assertThat(
+                directories.get(0).getSubdirectoryName(), Matchers.equalTo("jvmA"));
+        MatcherAssert.assertThat(
+                catalog.getEntries(directories.get(0)).stream()
+                        .map(ArchivedRecordingCatalog.Entry::getFilename)
+                        .collect(Collectors.toList()),
+                Matchers.contains("foo.jfr", "bar.jfr"));
+
+        catalog.getDirectories();
+        catalog.find("bar.jfr");
+        catalog.find("jvmA", "foo.jfr");
+
+        Mockito.verify(fs, Mockito.times(1)).listDirectoryChildren(archivedRecordingsPath);
+        Mockito.verify(fs, Mockito.times(1))
+                .listDirectoryChildren(archivedRecordingsPath.resolve("jvmA"));
+        Mockito.verify(fs, Mockito.never())
+                .listDirectoryChildren(archivedRecordingsPath.resolve("file-uploads"));
+    }
+
+    @Test
+    void shouldTrackAddedAndRemovedEntries() throws Exception {
+        Mockito.when(fs.exists(Mockito.any(Path.class))).thenReturn(true);
+        Mockito.when(fs.listDirectoryChildren(archivedRecordingsPath.resolve("jvmA")))
+                .thenReturn(List.of("connectUrl"));
+
+        Path path = archivedRecordingsPath.resolve("jvmA").resolve("foo.jfr");
+        catalog.add("jvmA", "jvmA", "foo.jfr", path, 100L, 200L);
+
+        Optional<ArchivedRecordingCatalog.Entry> entry = catalog.get("jvmA", "foo.jfr");
+        MatcherAssert.assertThat(entry.isPresent(), Matchers.is(true));
+        MatcherAssert.assertThat(entry.get().getPath(), Matchers.equalTo(path));
+        MatcherAssert.assertThat(entry.get().getSize(), Matchers.equalTo(100L));
+        MatcherAssert.assertThat(entry.get().getArchivedTime(), Matchers.equalTo(200L));
+
+        Optional<ArchivedRecordingCatalog.Entry> removed = catalog.remove("jvmA", "foo.jfr");
+        MatcherAssert.assertThat(removed, Matchers.equalTo(entry));
+        MatcherAssert.assertThat(
+                catalog.get("jvmA", "foo.jfr"), Matchers.equalTo(Optional.empty()));
+    }
+
+    @Test
+    void shouldLookUpSingleFileOnMiss() throws Exception {
+        Mockito.when(fs.exists(Mockito.any(Path.class))).thenReturn(true);
+        Mockito.when(fs.listDirectoryChildren(archivedRecordingsPath.resolve("jvmA")))
+                .thenReturn(List.of("connectUrl"));
+        Path path = archivedRecordingsPath.resolve("jvmA").resolve("foo.jfr");
+        Mockito.when(fs.isRegularFile(path)).thenReturn(true);
+
+        MatcherAssert.assertThat(catalog.getDirectory("jvmA").isPresent(), Matchers.is(true));
+        Optional<ArchivedRecordingCatalog.Entry> entry = catalog.find("jvmA", "foo.jfr");
+
+        MatcherAssert.assertThat(entry.isPresent(), Matchers.is(true));
+        MatcherAssert.assertThat(entry.get().getJvmId(), Matchers.equalTo("jvmA"));
+        MatcherAssert.assertThat(entry.get().getPath(), Matchers.equalTo(path));
+        MatcherAssert.assertThat(catalog.get("jvmA", "foo.jfr"), Matchers.equalTo(entry));
+        Mockito.verify(fs, Mockito.times(1))
+                .listDirectoryChildren(archivedRecordingsPath.resolve("jvmA"));
+    }
+
+    @Test
+    void shouldNotRelistArchivesOnMissingRecording() throws Exception {
+        Mockito.when(fs.listDirectoryChildren(archivedRecordingsPath)).thenReturn(List.of("jvmA"));
+        Mockito.when(fs.exists(Mockito.any(Path.class))).thenReturn(true);
+        Mockito.when(fs.listDirectoryChildren(archivedRecordingsPath.resolve("jvmA")))
+                .thenReturn(List.of("connectUrl", "foo.jfr"));
+
+        for (int i = 0; i < 3; i++) {
+            MatcherAssert.assertThat(
+                    catalog.find("missing.jfr"), Matchers.equalTo(Optional.empty()));
+            MatcherAssert.assertThat(
+                    catalog.find("jvmA", "missing.jfr"), Matchers.equalTo(Optional.empty()));
+        }
+
+        Mockito.verify(fs, Mockito.times(1))
+                .listDirectoryChildren(archivedRecordingsPath.resolve("jvmA"));
+        Mockito.verify(fs, Mockito.times(6))
+                .isRegularFile(archivedRecordingsPath.resolve("jvmA").resolve("missing.jfr"));
+    }
+
+    @Test
+    void shouldNotLookUpRecordingsOutsideArchives() throws Exception {
+        Mockito.when(fs.exists(Mockito.any(Path.class))).thenReturn(true);
+        Mockito.when(fs.listDirectoryChildren(archivedRecordingsPath.resolve("jvmA")))
+                .thenReturn(List.of("connectUrl"));
+
+        MatcherAssert.assertThat(
+                catalog.find("jvmA", "../../etc/passwd"), Matchers.equalTo(Optional.empty()));
+        MatcherAssert.assertThat(catalog.find("..", "passwd"), Matchers.equalTo(Optional.empty()));
+
+        Mockito.verify(fs, Mockito.never()).isRegularFile(Mockito.any());
+        Mockito.verify(fs, Mockito.never()).listDirectoryChildren(Path.of("/"));
+    }
+
+    @Test
+    void shouldNotHoldLockWhileListing() throws Exception {
+        Mockito.when(fs.exists(Mockito.any(Path.class))).thenReturn(true);
+        Mockito.when(fs.listDirectoryChildren(archivedRecordingsPath.resolve("jvmA")))
+                .thenAnswer(
+                        invocation -> {
+                            // another thread can read the catalog while the listing is slow
+                            CompletableFuture.supplyAsync(() -> catalog.get("jvmB", "foo.jfr"))
+                                    .get(5, TimeUnit.SECONDS);
+                            return List.of("foo.jfr");
+                        });
+
+        MatcherAssert.assertThat(catalog.getDirectory("jvmA").isPresent(), Matchers.is(true));
+        MatcherAssert.assertThat(catalog.get("jvmA", "foo.jfr").isPresent(), Matchers.is(true));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.recordings;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.cryostat.platform.ServiceRef;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JvmIdIndexTest {
+
+    JvmIdIndex index;
+
+    @BeforeEach
+    void setup() {
+        this.index = new JvmIdIndex();
+    }
+
+    static ServiceRef ref(String jvmId, String uri) {
+        return new ServiceRef(jvmId, URI.create(uri), uri);
+    }
+
+    @Test
+    void shouldLookUpBothDirections() {
+        ServiceRef ref = ref("id1", "service:jmx:rmi:///jndi/rmi://a:9091/jmxrmi");
+        index.put(ref);
+
+        String targetId = ref.getServiceUri().toString();
+        MatcherAssert.assertThat(index.getJvmId(targetId), Matchers.equalTo(Optional.of("id1")));
+        MatcherAssert.assertThat(index.getServiceRef("id1"), Matchers.equalTo(Optional.of(ref)));
+        MatcherAssert.assertThat(index.getTargetIds("id1"), Matchers.equalTo(Set.of(targetId)));
+        MatcherAssert.assertThat(
+                index.getServiceRef("unknown"), Matchers.equalTo(Optional.empty()));
+    }
+
+    @Test
+    void shouldReplaceJvmIdOfRestartedTarget() {
+        String uri = "service:jmx:rmi:///jndi/rmi://a:9091/jmxrmi";
+        index.put(ref("id1", uri));
+        index.put(ref("id2", uri));
+
+        MatcherAssert.assertThat(index.getJvmId(uri), Matchers.equalTo(Optional.of("id2")));
+        MatcherAssert.assertThat(index.getServiceRef("id1"), Matchers.equalTo(Optional.empty()));
+        MatcherAssert.assertThat(index.getTargetIds("id1"), Matchers.empty());
+        MatcherAssert.assertThat(index.size(), Matchers.equalTo(1));
+    }
+
+    @Test
+    void shouldKeepOtherTargetsOfSameJvm() {
+        ServiceRef jmx = ref("id1", "service:jmx:rmi:///jndi/rmi://a:9091/jmxrmi");
+        ServiceRef agent = ref("id1", "http://a:9977/");
+        index.put(jmx);
+        index.put(agent);
+
+        index.remove(jmx.getServiceUri().toString());
+
+        MatcherAssert.assertThat(index.getServiceRef("id1"), Matchers.equalTo(Optional.of(agent)));
+        MatcherAssert.assertThat(
+                index.getTargetIds("id1"),
+                Matchers.equalTo(Set.of(agent.getServiceUri().toString())));
+    }
+
+    @Test
+    void shouldOnlyRemoveMatchingJvmId() {
+        String uri = "service:jmx:rmi:///jndi/rmi://a:9091/jmxrmi";
+        index.put(ref("id2", uri));
+
+        index.remove(uri, "id1");
+        MatcherAssert.assertThat(index.getJvmId(uri), Matchers.equalTo(Optional.of("id2")));
+
+        index.remove(uri, "id2");
+        MatcherAssert.assertThat(index.getJvmId(uri), Matchers.equalTo(Optional.empty()));
+        MatcherAssert.assertThat(index.getServiceRef("id2"), Matchers.equalTo(Optional.empty()));
+        MatcherAssert.assertThat(index.size(), Matchers.equalTo(0));
+    }
+
+    @Test
+    void shouldStayConsistentUnderConcurrentUpdates() throws Exception {
+        int targets = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < targets; i++) {
+                String uri = String.format("service:jmx:rmi:///jndi/rmi://t%d:9091/jmxrmi", i);
+                int n = i;
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    for (int restart = 0; restart < 100; restart++) {
+                                        index.put(ref("jvm-" + n + "-" + restart, uri));
+                                        if (n % 2 == 0) {
+                                            index.remove(uri);
+                                        }
+                                    }
+                                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        MatcherAssert.assertThat(index.size(), Matchers.equalTo(targets / 2));
+        for (int i = 0; i < targets; i++) {
+            String uri = String.format("service:jmx:rmi:///jndi/rmi://t%d:9091/jmxrmi", i);
+            Optional<String> expected =
+                    i % 2 == 0 ? Optional.empty() : Optional.of("jvm-" + i + "-99");
+            MatcherAssert.assertThat(index.getJvmId(uri), Matchers.equalTo(expected));
+            MatcherAssert.assertThat(
+                    index.getServiceRef("jvm-" + i + "-98"), Matchers.equalTo(Optional.empty()));
+            expected.ifPresent(
+                    id ->
+                            MatcherAssert.assertThat(
+                                    index.getTargetIds(id), Matchers.equalTo(Set.of(uri))));
+        }
+    }
+}
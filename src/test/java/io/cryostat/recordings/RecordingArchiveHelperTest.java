@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -62,6 +63,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
@@ -143,6 +145,9 @@ class RecordingArchiveHelperTest {
                         });
 
         lenient().when(vertx.fileSystem()).thenReturn(vertxFs);
+        lenient()
+                .when(platformClient.lookupServiceByConnectUrl(Mockito.any()))
+                .thenCallRealMethod();
 
         this.recordingArchiveHelper =
                 new RecordingArchiveHelper(
@@ -814,12 +819,10 @@ class RecordingArchiveHelperTest {
         Mockito.when(fs.listDirectoryChildren(tempSubdirectory))
                 .thenReturn(List.of("123recording.report.html"));
 
-        Mockito.when(fs.exists(Mockito.any(Path.class))).thenReturn(true);
         Mockito.lenient()
                 .when(fs.createDirectory(Mockito.any(Path.class)))
                 .thenReturn(tempSubdirectory);
         Mockito.when(fs.deleteIfExists(Mockito.any())).thenReturn(true);
-        ;
 
         ArchivedRecordingInfo deleted = recordingArchiveHelper.deleteRecording(recordingName).get();
 
@@ -1152,6 +1155,168 @@ class RecordingArchiveHelperTest {
                 result.get(1).getRecordings(), Matchers.equalTo(expected.get(1).getRecordings()));
     }
 
+    @Test
+    void shouldServeRecordingPathsFromCatalog(@TempDir Path tempDir) throws Exception {
+        FileSystem realFs = Mockito.spy(new FileSystem());
+        Path archives = Files.createDirectories(tempDir.resolve("archive"));
+        Path uploads = Files.createDirectories(archives.resolve("uploads"));
+        Path recording = Files.writeString(uploads.resolve("foo.jfr"), "someRecordingData");
+        RecordingArchiveHelper helper = newCatalogBackedHelper(realFs, tempDir);
+        Mockito.when(jvmIdHelper.isSpecialDirectory("uploads")).thenReturn(true);
+
+        MatcherAssert.assertThat(
+                helper.getRecordingPath("foo.jfr").get(),
+                Matchers.equalTo(recording.normalize().toAbsolutePath()));
+        MatcherAssert.assertThat(
+                helper.getRecordingPathFromPath("uploads", "foo.jfr").get(),
+                Matchers.equalTo(recording.normalize().toAbsolutePath()));
+        MatcherAssert.assertThat(
+                helper.getRecordingPath("foo.jfr").get(),
+                Matchers.equalTo(recording.normalize().toAbsolutePath()));
+
+        Mockito.verify(realFs, Mockito.times(1)).listDirectoryChildren(archives);
+        Mockito.verify(realFs, Mockito.times(1)).listDirectoryChildren(uploads);
+    }
+
+    @Test
+    void shouldNotRelistArchivesForMissingRecordings(@TempDir Path tempDir) throws Exception {
+        FileSystem realFs = Mockito.spy(new FileSystem());
+        Path archives = Files.createDirectories(tempDir.resolve("archive"));
+        Path uploads = Files.createDirectories(archives.resolve("uploads"));
+        Files.writeString(uploads.resolve("foo.jfr"), "someRecordingData");
+        RecordingArchiveHelper helper = newCatalogBackedHelper(realFs, tempDir);
+
+        for (int i = 0; i < 3; i++) {
+            ExecutionException ee =
+                    Assertions.assertThrows(
+                            ExecutionException.class,
+                            () -> helper.getRecordingPath("missing.jfr").get());
+            MatcherAssert.assertThat(
+                    ee.getCause(), Matchers.instanceOf(RecordingNotFoundException.class));
+        }
+
+        Mockito.verify(realFs, Mockito.times(1)).listDirectoryChildren(uploads);
+    }
+
+    @Test
+    void shouldFindRecordingsArchivedOutsideCatalog(@TempDir Path tempDir) throws Exception {
+        FileSystem realFs = Mockito.spy(new FileSystem());
+        Path archives = Files.createDirectories(tempDir.resolve("archive"));
+        Path uploads = Files.createDirectories(archives.resolve("uploads"));
+        RecordingArchiveHelper helper = newCatalogBackedHelper(realFs, tempDir);
+
+        MatcherAssert.assertThat(helper.getRecordings().get(), Matchers.empty());
+
+        Path recording = Files.writeString(uploads.resolve("foo.jfr"), "someRecordingData");
+
+        MatcherAssert.assertThat(
+                helper.getRecordingPath("foo.jfr").get(),
+                Matchers.equalTo(recording.normalize().toAbsolutePath()));
+        List<ArchivedRecordingInfo> recordings = helper.getRecordings().get();
+        MatcherAssert.assertThat(recordings, Matchers.hasSize(1));
+        MatcherAssert.assertThat(recordings.get(0).getName(), Matchers.equalTo("foo.jfr"));
+        MatcherAssert.assertThat(
+                recordings.get(0).getSize(), Matchers.equalTo(Files.size(recording)));
+    }
+
+    @Test
+    void shouldAddSavedRecordingToCatalog(@TempDir Path tempDir) throws Exception {
+        FileSystem realFs = Mockito.spy(new FileSystem());
+        Path archives = Files.createDirectories(tempDir.resolve("archive"));
+        RecordingArchiveHelper helper = newCatalogBackedHelper(realFs, tempDir);
+
+        Mockito.when(jvmIdHelper.getJvmId(Mockito.anyString())).thenReturn("mockId");
+        Mockito.when(
+                        targetConnectionManager.executeConnectedTask(
+                                Mockito.any(),
+                                Mockito.any(TargetConnectionManager.ConnectedTask.class)))
+                .thenAnswer(
+                        new Answer<>() {
+                            @Override
+                            public Object answer(InvocationOnMock invocation) throws Throwable {
+                                TargetConnectionManager.ConnectedTask task =
+                                        (TargetConnectionManager.ConnectedTask)
+                                                invocation.getArgument(1);
+                                return task.execute(connection);
+                            }
+                        });
+        Mockito.when(connection.getService()).thenReturn(service);
+        Mockito.when(connection.getHost()).thenReturn("some-hostname.local");
+        Mockito.when(connection.getJMXURL())
+                .thenReturn(
+                        (new JMXServiceURL("service:jmx:rmi:///jndi/rmi://cryostat:9091/jmxrmi")));
+        IRecordingDescriptor descriptor = Mockito.mock(IRecordingDescriptor.class);
+        Mockito.when(descriptor.getName()).thenReturn(recordingName);
+        Mockito.when(service.getAvailableRecordings()).thenReturn(List.of(descriptor));
+        Mockito.when(service.openStream(descriptor, false))
+                .thenReturn(new ByteArrayInputStream("someRecordingData".getBytes()));
+        Mockito.when(platformClient.listDiscoverableServices()).thenReturn(List.of());
+        Mockito.when(clock.now()).thenReturn(Instant.now());
+        Mockito.when(
+                        recordingMetadataManager.copyMetadataToArchives(
+                                Mockito.any(), Mockito.anyString(), Mockito.anyString()))
+                .thenReturn(CompletableFuture.completedFuture(new Metadata()));
+
+        MatcherAssert.assertThat(helper.getRecordings().get(), Matchers.empty());
+
+        ArchivedRecordingInfo saved =
+                helper.saveRecording(new ConnectionDescriptor(targetId), recordingName).get();
+
+        MatcherAssert.assertThat(
+                saved.getSize(), Matchers.equalTo((long) "someRecordingData".length()));
+        List<ArchivedRecordingInfo> recordings = helper.getRecordings(targetId).get();
+        MatcherAssert.assertThat(recordings, Matchers.hasSize(1));
+        MatcherAssert.assertThat(recordings.get(0).getName(), Matchers.equalTo(saved.getName()));
+        MatcherAssert.assertThat(recordings.get(0).getSize(), Matchers.equalTo(saved.getSize()));
+        MatcherAssert.assertThat(
+                helper.getRecordingPath(saved.getName()).get(),
+                Matchers.equalTo(archives.resolve("mockId").resolve(saved.getName())));
+    }
+
+    @Test
+    void shouldRemoveDeletedRecordingFromCatalog(@TempDir Path tempDir) throws Exception {
+        FileSystem realFs = Mockito.spy(new FileSystem());
+        Path archives = Files.createDirectories(tempDir.resolve("archive"));
+        Path uploads = Files.createDirectories(archives.resolve("uploads"));
+        Files.writeString(uploads.resolve("foo.jfr"), "someRecordingData");
+        Files.writeString(uploads.resolve("bar.jfr"), "someRecordingData");
+        RecordingArchiveHelper helper = newCatalogBackedHelper(realFs, tempDir);
+
+        MatcherAssert.assertThat(helper.getRecordings().get(), Matchers.hasSize(2));
+
+        ArchivedRecordingInfo deleted = helper.deleteRecording("foo.jfr").get();
+
+        MatcherAssert.assertThat(deleted.getName(), Matchers.equalTo("foo.jfr"));
+        MatcherAssert.assertThat(
+                deleted.getSize(), Matchers.equalTo((long) "someRecordingData".length()));
+        MatcherAssert.assertThat(Files.exists(uploads.resolve("foo.jfr")), Matchers.is(false));
+        List<ArchivedRecordingInfo> recordings = helper.getRecordings().get();
+        MatcherAssert.assertThat(recordings, Matchers.hasSize(1));
+        MatcherAssert.assertThat(recordings.get(0).getName(), Matchers.equalTo("bar.jfr"));
+        ExecutionException ee =
+                Assertions.assertThrows(
+                        ExecutionException.class, () -> helper.getRecordingPath("foo.jfr").get());
+        MatcherAssert.assertThat(
+                ee.getCause(), Matchers.instanceOf(RecordingNotFoundException.class));
+    }
+
+    RecordingArchiveHelper newCatalogBackedHelper(FileSystem fs, Path tempDir) {
+        return new RecordingArchiveHelper(
+                fs,
+                () -> webServer,
+                logger,
+                tempDir.resolve("archive"),
+                tempDir.resolve("reports"),
+                targetConnectionManager,
+                recordingMetadataManager,
+                clock,
+                platformClient,
+                notificationFactory,
+                jvmIdHelper,
+                null,
+                base32);
+    }
+
     @Test
     void shouldGetArchivedTimeFromTimestamp() {
         // December 19, 2019 | 8:38:34 PM UTC
@@ -20,11 +20,18 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.StringReader;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.spi.FileSystemProvider;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import javax.inject.Provider;
 
@@ -40,14 +47,21 @@ import io.cryostat.messaging.notifications.NotificationFactory;
 import io.cryostat.net.ConnectionDescriptor;
 import io.cryostat.net.TargetConnectionManager;
 import io.cryostat.net.web.http.HttpMimeType;
+import io.cryostat.net.web.http.api.v2.graph.labels.LabelSelectorMatcher;
 import io.cryostat.platform.PlatformClient;
 import io.cryostat.recordings.JvmIdHelper.JvmIdGetException;
 import io.cryostat.recordings.RecordingMetadataManager.Metadata;
 import io.cryostat.recordings.RecordingMetadataManager.StoredRecordingMetadata;
 
 import com.google.gson.Gson;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.EventBus;
 import org.apache.commons.codec.binary.Base32;
+import org.apache.commons.lang3.tuple.Pair;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -55,6 +69,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullSource;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -150,6 +165,15 @@ public class RecordingMetadataManagerTest {
         this.recordingMetadataManager.init(vertx, null);
     }
 
+    static Path mockPath() throws IOException {
+        Path path = Mockito.mock(Path.class);
+        java.nio.file.FileSystem fileSystem = Mockito.mock(java.nio.file.FileSystem.class);
+        FileSystemProvider provider = Mockito.mock(FileSystemProvider.class);
+        lenient().when(path.getFileSystem()).thenReturn(fileSystem);
+        lenient().when(fileSystem.provider()).thenReturn(provider);
+        return path;
+    }
+
     @Test
     void shouldParseAndStoreLabels() throws Exception {
         String recordingName = "someRecording";
@@ -160,7 +184,7 @@ public class RecordingMetadataManagerTest {
 
         when(jvmIdHelper.getJvmId(Mockito.any(ConnectionDescriptor.class))).thenReturn(jvmId);
         when(connectionDescriptor.getTargetId()).thenReturn("someTarget");
-        Path mockPath = Mockito.mock(Path.class);
+        Path mockPath = mockPath();
         when(recordingMetadataDir.resolve(Mockito.anyString())).thenReturn(mockPath);
         when(mockPath.resolve(Mockito.anyString())).thenReturn(mockPath);
 
@@ -175,6 +199,8 @@ public class RecordingMetadataManagerTest {
                         Mockito.any(OpenOption.class),
                         Mockito.any(OpenOption.class),
                         Mockito.any(OpenOption.class));
+        verify(mockPath.getFileSystem().provider())
+                .move(mockPath, mockPath, StandardCopyOption.ATOMIC_MOVE);
     }
 
     @ParameterizedTest
@@ -207,24 +233,25 @@ public class RecordingMetadataManagerTest {
 
         when(jvmIdHelper.getJvmId(Mockito.any(ConnectionDescriptor.class))).thenReturn(jvmId);
         when(connectionDescriptor.getTargetId()).thenReturn("someTarget");
-        Path mockPath = Mockito.mock(Path.class);
+        Path mockPath = mockPath();
         Path parentPath = Mockito.mock(Path.class);
         when(recordingMetadataDir.resolve(Mockito.anyString())).thenReturn(mockPath);
         when(mockPath.resolve(Mockito.anyString())).thenReturn(mockPath);
         when(mockPath.getParent()).thenReturn(parentPath);
 
         when(fs.deleteIfExists(mockPath)).thenReturn(true);
-        when(fs.isRegularFile(mockPath)).thenReturn(true);
-        when(fs.readFile(mockPath))
-                .thenReturn(new BufferedReader(new StringReader("{\"labels\":{}}")));
 
         recordingMetadataManager
                 .setRecordingMetadata(connectionDescriptor, recordingName, metadata)
                 .get();
 
-        recordingMetadataManager.deleteRecordingMetadataIfExists(jvmId, recordingName);
+        Metadata deleted =
+                recordingMetadataManager.deleteRecordingMetadataIfExists(jvmId, recordingName);
 
+        MatcherAssert.assertThat(deleted, Matchers.equalTo(metadata));
         verify(fs).deleteIfExists(Mockito.any(Path.class));
+        // only created by the write, not by the delete
+        verify(fs).createDirectory(mockPath);
     }
 
     @Test
@@ -244,7 +271,7 @@ public class RecordingMetadataManagerTest {
 
         when(jvmIdHelper.getJvmId(Mockito.any(ConnectionDescriptor.class))).thenReturn(jvmId);
         when(connectionDescriptor.getTargetId()).thenReturn(targetId);
-        Path mockPath = Mockito.mock(Path.class);
+        Path mockPath = mockPath();
         when(recordingMetadataDir.resolve(Mockito.anyString())).thenReturn(mockPath);
         when(mockPath.resolve(Mockito.anyString())).thenReturn(mockPath);
 
@@ -285,7 +312,7 @@ public class RecordingMetadataManagerTest {
         String filename = "archivedRecording";
         when(jvmIdHelper.getJvmId(Mockito.any(ConnectionDescriptor.class))).thenReturn(jvmId);
         when(connectionDescriptor.getTargetId()).thenReturn(targetId);
-        Path mockPath = Mockito.mock(Path.class);
+        Path mockPath = mockPath();
         when(recordingMetadataDir.resolve(Mockito.anyString())).thenReturn(mockPath);
         when(mockPath.resolve(Mockito.anyString())).thenReturn(mockPath);
 
@@ -304,4 +331,321 @@ public class RecordingMetadataManagerTest {
                         StandardOpenOption.CREATE,
                         StandardOpenOption.TRUNCATE_EXISTING);
     }
+
+    @Test
+    void shouldServeMetadataFromMemory() throws Exception {
+        String recordingName = "someRecording";
+        String jvmId = "id";
+        Metadata metadata = new Metadata(Map.of("KEY", "value"));
+        when(jvmIdHelper.getJvmId(Mockito.any(ConnectionDescriptor.class))).thenReturn(jvmId);
+        when(connectionDescriptor.getTargetId()).thenReturn("someTarget");
+        Path mockPath = mockPath();
+        when(recordingMetadataDir.resolve(Mockito.anyString())).thenReturn(mockPath);
+        when(mockPath.resolve(Mockito.anyString())).thenReturn(mockPath);
+
+        recordingMetadataManager
+                .setRecordingMetadata(connectionDescriptor, recordingName, metadata)
+                .get();
+
+        MatcherAssert.assertThat(
+                recordingMetadataManager.getMetadata(connectionDescriptor, recordingName),
+                Matchers.equalTo(metadata));
+        MatcherAssert.assertThat(
+                recordingMetadataManager.getMetadataFromPathIfExists(jvmId, "otherRecording"),
+                Matchers.equalTo(new Metadata()));
+        Mockito.verify(fs, Mockito.never()).readFile(Mockito.any());
+        Mockito.verify(fs, Mockito.never()).writeString(Mockito.any(), Mockito.anyString());
+    }
+
+    @Test
+    void shouldFindRecordingsByIndexedLabels() throws Exception {
+        String jvmId = "id";
+        when(jvmIdHelper.getJvmId(Mockito.any(ConnectionDescriptor.class))).thenReturn(jvmId);
+        when(connectionDescriptor.getTargetId()).thenReturn("someTarget");
+        Path mockPath = mockPath();
+        Path parentPath = Mockito.mock(Path.class);
+        when(recordingMetadataDir.resolve(Mockito.anyString())).thenReturn(mockPath);
+        when(mockPath.resolve(Mockito.anyString())).thenReturn(mockPath);
+        when(mockPath.getParent()).thenReturn(parentPath);
+        when(fs.deleteIfExists(mockPath)).thenReturn(true);
+
+        recordingMetadataManager
+                .setRecordingMetadata(
+                        connectionDescriptor,
+                        "payments",
+                        new Metadata(Map.of("team", "payments", "env", "prod")))
+                .get();
+        recordingMetadataManager
+                .setRecordingMetadata(
+                        connectionDescriptor,
+                        "search",
+                        new Metadata(Map.of("team", "search", "env", "prod")))
+                .get();
+        recordingMetadataManager
+                .setRecordingMetadata(
+                        connectionDescriptor,
+                        "relabelled",
+                        new Metadata(Map.of("team", "payments")))
+                .get();
+        recordingMetadataManager
+                .setRecordingMetadata(
+                        connectionDescriptor, "relabelled", new Metadata(Map.of("team", "search")))
+                .get();
+        recordingMetadataManager
+                .setRecordingMetadata(
+                        connectionDescriptor, "deleted", new Metadata(Map.of("team", "payments")))
+                .get();
+        recordingMetadataManager.deleteRecordingMetadataIfExists(jvmId, "deleted");
+
+        MatcherAssert.assertThat(
+                recordingMetadataManager.findRecordings(
+                        List.of(LabelSelectorMatcher.parse("team=payments"))),
+                Matchers.equalTo(Optional.of(Set.of(Pair.of(jvmId, "payments")))));
+        MatcherAssert.assertThat(
+                recordingMetadataManager.findRecordings(
+                        List.of(
+                                LabelSelectorMatcher.parse("team in (payments, search)"),
+                                LabelSelectorMatcher.parse("env"))),
+                Matchers.equalTo(
+                        Optional.of(Set.of(Pair.of(jvmId, "payments"), Pair.of(jvmId, "search")))));
+        MatcherAssert.assertThat(
+                recordingMetadataManager.findRecordings(
+                        List.of(
+                                LabelSelectorMatcher.parse("team=search"),
+                                LabelSelectorMatcher.parse("!env"))),
+                Matchers.equalTo(Optional.of(Set.of(Pair.of(jvmId, "relabelled")))));
+        MatcherAssert.assertThat(
+                recordingMetadataManager.findRecordings(
+                        List.of(LabelSelectorMatcher.parse("team!=payments"))),
+                Matchers.equalTo(Optional.empty()));
+    }
+
+    @Test
+    void shouldWriteOnlyLatestMetadataOfPendingUpdates() throws Exception {
+        ExecutorService executor = Mockito.mock(ExecutorService.class);
+        RecordingMetadataManager manager =
+                new RecordingMetadataManager(
+                        executor,
+                        recordingMetadataDir,
+                        archivedRecordingsPath,
+                        30,
+                        fs,
+                        archiveHelperProvider,
+                        targetConnectionManager,
+                        credentialsManager,
+                        platformClient,
+                        notificationFactory,
+                        jvmIdHelper,
+                        gson,
+                        base32,
+                        logger);
+        String recordingName = "someRecording";
+        String targetId = "someTarget";
+        String jvmId = "id";
+        Metadata metadata = new Metadata(Map.of("KEY", "value"));
+        Metadata updatedMetadata = new Metadata(Map.of("KEY", "UPDATED_VALUE"));
+        when(jvmIdHelper.getJvmId(Mockito.any(ConnectionDescriptor.class))).thenReturn(jvmId);
+        when(connectionDescriptor.getTargetId()).thenReturn(targetId);
+        Path mockPath = mockPath();
+        when(recordingMetadataDir.resolve(Mockito.anyString())).thenReturn(mockPath);
+        when(mockPath.resolve(Mockito.anyString())).thenReturn(mockPath);
+
+        manager.setRecordingMetadata(connectionDescriptor, recordingName, metadata).get();
+        manager.setRecordingMetadata(connectionDescriptor, recordingName, updatedMetadata).get();
+
+        Mockito.verifyNoInteractions(fs);
+        ArgumentCaptor<Runnable> writeBack = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(executor).execute(writeBack.capture());
+        writeBack.getValue().run();
+
+        Mockito.verify(fs)
+                .writeString(
+                        mockPath,
+                        gson.toJson(
+                                StoredRecordingMetadata.of(
+                                        targetId, jvmId, recordingName, updatedMetadata)),
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+        Mockito.verify(fs, Mockito.times(1))
+                .writeString(
+                        Mockito.any(Path.class),
+                        Mockito.anyString(),
+                        Mockito.any(OpenOption.class),
+                        Mockito.any(OpenOption.class),
+                        Mockito.any(OpenOption.class));
+    }
+
+    @Test
+    void shouldIndexUploadedAndLostMetadataOnStart() throws Exception {
+        Path metadataDir = Path.of("/metadata");
+        RecordingMetadataManager manager =
+                new RecordingMetadataManager(
+                        new DirectExecutorService(),
+                        metadataDir,
+                        archivedRecordingsPath,
+                        30,
+                        fs,
+                        archiveHelperProvider,
+                        targetConnectionManager,
+                        credentialsManager,
+                        platformClient,
+                        notificationFactory,
+                        jvmIdHelper,
+                        gson,
+                        base32,
+                        logger);
+        manager.init(vertx, null);
+        when(vertx.eventBus()).thenReturn(Mockito.mock(EventBus.class));
+
+        Path uploads = metadataDir.resolve(RecordingArchiveHelper.UPLOADED_RECORDINGS_SUBDIRECTORY);
+        Path lost = metadataDir.resolve(RecordingArchiveHelper.LOST_RECORDINGS_SUBDIRECTORY);
+        Path tempUploads = metadataDir.resolve(RecordingArchiveHelper.TEMP_UPLOADS_SUBDIRECTORY);
+        when(fs.listDirectoryChildren(metadataDir))
+                .thenReturn(
+                        List.of(
+                                RecordingArchiveHelper.UPLOADED_RECORDINGS_SUBDIRECTORY,
+                                RecordingArchiveHelper.LOST_RECORDINGS_SUBDIRECTORY,
+                                RecordingArchiveHelper.TEMP_UPLOADS_SUBDIRECTORY));
+        when(fs.isDirectory(Mockito.any(Path.class))).thenReturn(true);
+        when(fs.isRegularFile(Mockito.any(Path.class))).thenReturn(true);
+        when(jvmIdHelper.isSpecialDirectory(Mockito.anyString())).thenReturn(true);
+        when(fs.listDirectoryChildren(uploads)).thenReturn(List.of("uploaded.json"));
+        when(fs.listDirectoryChildren(lost)).thenReturn(List.of("lost.json"));
+        when(fs.readFile(uploads.resolve("uploaded.json")))
+                .thenReturn(
+                        reader(
+                                StoredRecordingMetadata.of(
+                                        "uploads",
+                                        "uploads",
+                                        "uploaded.jfr",
+                                        new Metadata(Map.of("app", "uploaded")))));
+        // lost recordings keep the metadata of the target they were archived from
+        when(fs.readFile(lost.resolve("lost.json")))
+                .thenReturn(
+                        reader(
+                                StoredRecordingMetadata.of(
+                                        "someTarget",
+                                        "someJvmId",
+                                        "lost.jfr",
+                                        new Metadata(Map.of("app", "lost")))));
+
+        manager.start(Promise.promise());
+
+        MatcherAssert.assertThat(
+                manager.getMetadataFromPathIfExists("uploads", "uploaded.jfr").getLabels(),
+                Matchers.equalTo(Map.of("app", "uploaded")));
+        MatcherAssert.assertThat(
+                manager.getMetadataFromPathIfExists("lost", "lost.jfr").getLabels(),
+                Matchers.equalTo(Map.of("app", "lost")));
+        MatcherAssert.assertThat(
+                manager.getLabelIndex().withLabel("app"),
+                Matchers.containsInAnyOrder(
+                        Pair.of("uploads", "uploaded.jfr"), Pair.of("lost", "lost.jfr")));
+        Mockito.verify(fs, Mockito.never()).listDirectoryChildren(tempUploads);
+        Mockito.verify(fs, Mockito.never()).deleteIfExists(Mockito.any(Path.class));
+    }
+
+    @Test
+    void shouldDeleteIncompleteWriteBackOnStart() throws Exception {
+        Path metadataDir = Path.of("/metadata");
+        RecordingMetadataManager manager =
+                new RecordingMetadataManager(
+                        new DirectExecutorService(),
+                        metadataDir,
+                        archivedRecordingsPath,
+                        30,
+                        fs,
+                        archiveHelperProvider,
+                        targetConnectionManager,
+                        credentialsManager,
+                        platformClient,
+                        notificationFactory,
+                        jvmIdHelper,
+                        gson,
+                        base32,
+                        logger);
+        manager.init(vertx, null);
+        when(vertx.eventBus()).thenReturn(Mockito.mock(EventBus.class));
+
+        String tmpName = "someJvmId.someRecording.json" + RecordingMetadataManager.TEMP_FILE_SUFFIX;
+        Path tmp = metadataDir.resolve(tmpName);
+        when(fs.listDirectoryChildren(metadataDir)).thenReturn(List.of(tmpName));
+        when(fs.isDirectory(tmp)).thenReturn(false);
+
+        manager.start(Promise.promise());
+
+        Mockito.verify(fs).deleteIfExists(tmp);
+        Mockito.verify(fs, Mockito.never()).readFile(Mockito.any());
+        Mockito.verify(fs, Mockito.never()).deleteIfExists(metadataDir);
+    }
+
+    @Test
+    void shouldRetryFailedWriteBack() throws Exception {
+        ExecutorService executor = Mockito.mock(ExecutorService.class);
+        RecordingMetadataManager manager =
+                new RecordingMetadataManager(
+                        executor,
+                        recordingMetadataDir,
+                        archivedRecordingsPath,
+                        30,
+                        fs,
+                        archiveHelperProvider,
+                        targetConnectionManager,
+                        credentialsManager,
+                        platformClient,
+                        notificationFactory,
+                        jvmIdHelper,
+                        gson,
+                        base32,
+                        logger);
+        manager.init(vertx, null);
+        String recordingName = "someRecording";
+        String targetId = "someTarget";
+        String jvmId = "id";
+        Metadata metadata = new Metadata(Map.of("KEY", "value"));
+        when(jvmIdHelper.getJvmId(Mockito.any(ConnectionDescriptor.class))).thenReturn(jvmId);
+        when(connectionDescriptor.getTargetId()).thenReturn(targetId);
+        Path mockPath = mockPath();
+        when(recordingMetadataDir.resolve(Mockito.anyString())).thenReturn(mockPath);
+        when(mockPath.resolve(Mockito.anyString())).thenReturn(mockPath);
+        String json =
+                gson.toJson(StoredRecordingMetadata.of(targetId, jvmId, recordingName, metadata));
+        when(fs.writeString(
+                        mockPath,
+                        json,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING))
+                .thenThrow(new IOException("disk full"))
+                .thenReturn(mockPath);
+
+        manager.setRecordingMetadata(connectionDescriptor, recordingName, metadata).get();
+
+        ArgumentCaptor<Runnable> writeBack = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(executor).execute(writeBack.capture());
+        writeBack.getValue().run();
+
+        ArgumentCaptor<Handler<Long>> retry = ArgumentCaptor.forClass(Handler.class);
+        Mockito.verify(vertx)
+                .setTimer(
+                        Mockito.eq(RecordingMetadataManager.WRITE_BACK_RETRY_MS), retry.capture());
+        retry.getValue().handle(MockVertx.TIMER_ID);
+
+        Mockito.verify(executor, Mockito.times(2)).execute(writeBack.capture());
+        writeBack.getValue().run();
+
+        Mockito.verify(fs, Mockito.times(2))
+                .writeString(
+                        mockPath,
+                        json,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+        Mockito.verify(vertx, Mockito.times(1)).setTimer(Mockito.anyLong(), Mockito.any());
+    }
+
+    private static BufferedReader reader(StoredRecordingMetadata srm) {
+        return new BufferedReader(new StringReader(new Gson().toJson(srm)));
+    }
 }
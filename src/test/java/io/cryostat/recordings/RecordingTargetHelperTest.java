@@ -952,6 +952,7 @@ public class RecordingTargetHelperTest {
         recordingTargetHelper.stopRecording(new ConnectionDescriptor("fooTarget"), "someRecording");
 
         Mockito.verify(service).stop(descriptor);
+        Mockito.verify(targetConnectionManager).invalidateRecordings("fooTarget");
 
         HyperlinkedSerializableRecordingDescriptor linkedDesc =
                 new HyperlinkedSerializableRecordingDescriptor(
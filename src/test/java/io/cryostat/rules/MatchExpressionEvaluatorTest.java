@@ -64,7 +64,7 @@ class MatchExpressionEvaluatorTest {
     void setup() throws Exception {
         this.ruleMatcher =
                 new MatchExpressionEvaluator(
-                        MainModule.provideScriptEngine(), credentials, rules, logger);
+                        MainModule.provideScriptEngine(), null, credentials, rules, logger);
 
         this.serviceUri = new URI("service:jmx:rmi:///jndi/rmi://cryostat:9091/jmxrmi");
         this.jvmId = "-some1234HashId=";
@@ -266,4 +266,132 @@ class MatchExpressionEvaluatorTest {
             Assertions.assertThrows(ScriptException.class, () -> ruleMatcher.validate(expr));
         }
     }
+
+    @Nested
+    class CompiledExpressionEvaluation {
+
+        MatchExpressionCompiler compiler;
+        MatchExpressionEvaluator compiledMatcher;
+        ServiceRef ref;
+
+        @BeforeEach
+        void setup() throws Exception {
+            this.compiler = new MatchExpressionCompiler();
+            this.compiledMatcher =
+                    new MatchExpressionEvaluator(
+                            MainModule.provideScriptEngine(), compiler, credentials, rules, logger);
+            this.ref =
+                    new ServiceRef(
+                            MatchExpressionEvaluatorTest.this.jvmId,
+                            MatchExpressionEvaluatorTest.this.serviceUri,
+                            MatchExpressionEvaluatorTest.this.alias);
+            ref.setLabels(Map.of("label1", "someLabel", "app.kubernetes.io/name", "cryostat"));
+            ref.setPlatformAnnotations(MatchExpressionEvaluatorTest.this.platformAnnotations);
+            ref.setCryostatAnnotations(
+                    Map.of(
+                            AnnotationKey.JAVA_MAIN,
+                            "io.cryostat.Cryostat",
+                            AnnotationKey.PORT,
+                            "9091"));
+        }
+
+        @ParameterizedTest
+        @ValueSource(
+                strings = {
+                    "true",
+                    "false",
+                    "target.alias == 'someAlias'",
+                    "target.alias === 'someAlias' && target.jvmId !== 'foo'",
+                    "target.alias == 'foo' || target.labels.label1 == 'someLabel'",
+                    "target.labels.label2 == null",
+                    "target.labels.label2 === null",
+                    "target.labels.label2 < 1 || target.labels.label2 >= 1",
+                    "/undefined/.test(target.labels.label2)",
+                    "target.labels['app.kubernetes.io/name'] == 'cryostat'",
+                    "target.annotations.platform.annotation1 != 'someAnnotation'",
+                    "target.annotations.cryostat.JAVA_MAIN == 'io.cryostat.Cryostat'",
+                    "target.annotations.cryostat.PORT == 9091",
+                    "target.annotations.cryostat.PORT === 9091",
+                    "target.annotations.cryostat.PORT > 9000",
+                    "target.annotations.cryostat.PORT <= '9090'",
+                    "target.annotations.cryostat.NOT_A_KEY == null",
+                    "/^some/.test(target.alias)",
+                    "/ALIAS$/i.test(target.alias)",
+                    "/cryostat:\\d+/.test(target.connectUrl)",
+                    "(target.alias ? target.labels.label1 : 'none') == 'someLabel'",
+                    "target.alias && true",
+                    "1 == '1.0'",
+                    "true == 1",
+                })
+        void shouldMatchScriptEngineResult(String expr) throws Exception {
+            Assertions.assertTrue(compiler.compile(expr).isPresent());
+            MatcherAssert.assertThat(
+                    compiledMatcher.applies(expr, ref),
+                    Matchers.equalTo(ruleMatcher.applies(expr, ref)));
+        }
+
+        @ParameterizedTest
+        @ValueSource(
+                strings = {
+                    "/foo$/.test(target.labels.newline)",
+                    "/foo$/m.test(target.labels.newline)",
+                    "/a.b/.test(target.labels.nextLine)",
+                    "/a.b/.test(target.labels.crlf)",
+                    "/\\v/.test(target.labels.newline)",
+                    "/^\\v$/.test(target.labels.verticalTab)",
+                    "/a\\sb/.test(target.labels.nbsp)",
+                    "/a[\\s]b/.test(target.labels.nbsp)",
+                    "/a\\Sb/.test(target.labels.nbsp)",
+                    "/^\\n/m.test(target.labels.crlf)",
+                    "/a$/m.test(target.labels.crlf)",
+                    "/a.$/m.test(target.labels.crlf)",
+                    "/[&&]/.test(target.labels.amp)",
+                })
+        void shouldMatchScriptEngineRegExpSemantics(String expr) throws Exception {
+            ServiceRef ref = new ServiceRef(jvmId, serviceUri, alias);
+            ref.setLabels(
+                    Map.of(
+                            "newline",
+                            "foo\n",
+                            "nextLine",
+                            "a\u0085b",
+                            "crlf",
+                            "a\r\nb",
+                            "verticalTab",
+                            "\u000B",
+                            "nbsp",
+                            "a\u00A0b",
+                            "amp",
+                            "&"));
+            Assertions.assertTrue(compiler.compile(expr).isPresent());
+            MatcherAssert.assertThat(
+                    compiledMatcher.applies(expr, ref),
+                    Matchers.equalTo(ruleMatcher.applies(expr, ref)));
+        }
+
+        @ParameterizedTest
+        @ValueSource(
+                strings = {
+                    "target.alias + 'Suffix' == 'someAliasSuffix'",
+                    "target.labels.empty == false",
+                    "/some/g.test(target.alias)",
+                    "/(some)\\1/.test(target.alias)",
+                    "/[^]/.test(target.alias)",
+                    "/\\cA/.test(target.alias)",
+                })
+        void shouldFallBackToScriptEngineIfNotCompilable(String expr) throws Exception {
+            Assertions.assertTrue(compiler.compile(expr).isEmpty());
+            MatcherAssert.assertThat(
+                    compiledMatcher.applies(expr, ref),
+                    Matchers.equalTo(ruleMatcher.applies(expr, ref)));
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"1", "null", "target.alias", "\"a string\""})
+        void shouldThrowExceptionOnNonBooleanExpressionEval(String expr) throws Exception {
+            Assertions.assertTrue(compiler.compile(expr).isPresent());
+            Assertions.assertThrows(
+                    ScriptException.class, () -> compiledMatcher.applies(expr, ref));
+        }
+    }
 }
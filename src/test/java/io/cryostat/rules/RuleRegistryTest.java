@@ -22,6 +22,7 @@ import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -63,7 +64,13 @@ class RuleRegistryTest {
     @BeforeEach
     void setup() throws Exception {
         this.registry =
-                new RuleRegistry(rulesDir, () -> matchExpressionEvaluator, fs, gson, logger);
+                new RuleRegistry(
+                        rulesDir,
+                        () -> matchExpressionEvaluator,
+                        new MatchExpressionCompiler(),
+                        fs,
+                        gson,
+                        logger);
         this.testRule =
                 new Rule.Builder()
                         .name("test rule")
@@ -222,6 +229,51 @@ class RuleRegistryTest {
                 Matchers.equalTo(Set.of(testRule)));
     }
 
+    @Test
+    void testGetRulesByServiceRefSkipsRulesRequiringOtherValues() throws Exception {
+        Path rulePath = Mockito.mock(Path.class);
+        Mockito.when(rulesDir.resolve(Mockito.anyString())).thenReturn(rulePath);
+        Rule otherRule =
+                new Rule.Builder()
+                        .name("other rule")
+                        .matchExpression(
+                                "target.labels['app'] == 'other' && /foo/.test(target.jvmId)")
+                        .eventSpecifier("template=Continuous")
+                        .build();
+        Rule unindexedRule =
+                new Rule.Builder()
+                        .name("unindexed rule")
+                        .matchExpression("target.alias != 'com.example.Other'")
+                        .eventSpecifier("template=Continuous")
+                        .build();
+        ServiceRef serviceRef =
+                new ServiceRef(
+                        "id",
+                        URI.create("service:jmx:rmi:///jndi/rmi://app:9091/jmxrmi"),
+                        "com.example.App");
+        serviceRef.setLabels(Map.of("app", "example"));
+        Mockito.when(matchExpressionEvaluator.applies(Mockito.any(), Mockito.eq(serviceRef)))
+                .thenReturn(true);
+
+        registry.addRule(testRule);
+        registry.addRule(otherRule);
+        registry.addRule(unindexedRule);
+
+        MatcherAssert.assertThat(
+                registry.getRules(serviceRef), Matchers.equalTo(Set.of(testRule, unindexedRule)));
+        Mockito.verify(matchExpressionEvaluator).applies(testRule.getMatchExpression(), serviceRef);
+        Mockito.verify(matchExpressionEvaluator)
+                .applies(unindexedRule.getMatchExpression(), serviceRef);
+        Mockito.verifyNoMoreInteractions(matchExpressionEvaluator);
+
+        registry.deleteRule(testRule);
+        MatcherAssert.assertThat(
+                registry.getRules(serviceRef), Matchers.equalTo(Set.of(unindexedRule)));
+        Mockito.verify(matchExpressionEvaluator, Mockito.times(2))
+                .applies(unindexedRule.getMatchExpression(), serviceRef);
+        Mockito.verifyNoMoreInteractions(matchExpressionEvaluator);
+    }
+
     @Test
     void testGetRulesByServiceRefIgnoresArchivers() throws Exception {
         Rule archiverRule =
@@ -0,0 +1,172 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.storage;
+
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.PersistenceException;
+
+import io.cryostat.core.log.Logger;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AbstractDaoTest {
+
+    TestDao dao;
+    @Mock EntityManagerFactory emf;
+    @Mock EntityManager entityManager;
+    @Mock EntityTransaction transaction;
+    @Mock Session session;
+    @Mock Logger logger;
+
+    @BeforeEach
+    void setup() {
+        this.dao = new TestDao(emf, logger);
+        lenient().when(emf.createEntityManager()).thenReturn(entityManager);
+    }
+
+    @Test
+    void shouldCommitSaveInItsOwnTransaction() {
+        when(entityManager.getTransaction()).thenReturn(transaction);
+        Entity entity = new Entity();
+
+        MatcherAssert.assertThat(dao.save(entity), Matchers.sameInstance(entity));
+
+        InOrder inOrder = Mockito.inOrder(transaction, entityManager);
+        inOrder.verify(transaction).begin();
+        inOrder.verify(entityManager).persist(entity);
+        inOrder.verify(transaction).commit();
+        inOrder.verify(entityManager).close();
+        Mockito.verify(transaction, Mockito.never()).rollback();
+    }
+
+    @Test
+    void shouldRollBackFailedSave() {
+        when(entityManager.getTransaction()).thenReturn(transaction);
+        when(transaction.isActive()).thenReturn(true);
+        Entity entity = new Entity();
+        Mockito.doThrow(PersistenceException.class).when(entityManager).persist(entity);
+
+        Assertions.assertThrows(PersistenceException.class, () -> dao.save(entity));
+
+        Mockito.verify(transaction).begin();
+        Mockito.verify(transaction, Mockito.never()).commit();
+        Mockito.verify(transaction).rollback();
+        Mockito.verify(entityManager).close();
+    }
+
+    @Test
+    void shouldCommitDeleteInItsOwnTransaction() {
+        when(entityManager.getTransaction()).thenReturn(transaction);
+        Entity entity = new Entity();
+        when(entityManager.find(Entity.class, 1L)).thenReturn(entity);
+
+        MatcherAssert.assertThat(dao.delete(1L), Matchers.equalTo(true));
+
+        InOrder inOrder = Mockito.inOrder(transaction, entityManager);
+        inOrder.verify(transaction).begin();
+        inOrder.verify(entityManager).remove(entity);
+        inOrder.verify(transaction).commit();
+        inOrder.verify(entityManager).close();
+        Mockito.verify(transaction, Mockito.never()).rollback();
+    }
+
+    @Test
+    void shouldRollBackFailedDelete() {
+        when(entityManager.getTransaction()).thenReturn(transaction);
+        when(transaction.isActive()).thenReturn(true);
+        when(entityManager.find(Entity.class, 1L)).thenReturn(null);
+        Mockito.doThrow(IllegalArgumentException.class).when(entityManager).remove(null);
+
+        MatcherAssert.assertThat(dao.delete(1L), Matchers.equalTo(false));
+
+        Mockito.verify(transaction, Mockito.never()).commit();
+        Mockito.verify(transaction).rollback();
+        Mockito.verify(entityManager).close();
+    }
+
+    @Test
+    void shouldUseSeparateEntityManagerForEachOperation() {
+        EntityManager other = Mockito.mock(EntityManager.class);
+        EntityTransaction otherTransaction = Mockito.mock(EntityTransaction.class);
+        when(emf.createEntityManager()).thenReturn(entityManager, other);
+        when(entityManager.getTransaction()).thenReturn(transaction);
+        when(other.getTransaction()).thenReturn(otherTransaction);
+
+        dao.save(new Entity());
+        dao.save(new Entity());
+
+        Mockito.verify(transaction).commit();
+        Mockito.verify(otherTransaction).commit();
+        Mockito.verify(entityManager).close();
+        Mockito.verify(other).close();
+    }
+
+    @Test
+    void shouldReadWithoutTransactionOrFlushing() {
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        Entity entity = new Entity();
+        when(entityManager.find(Entity.class, 1L)).thenReturn(entity);
+
+        MatcherAssert.assertThat(dao.get(1L), Matchers.equalTo(Optional.of(entity)));
+
+        InOrder inOrder = Mockito.inOrder(session, entityManager);
+        inOrder.verify(session).setDefaultReadOnly(true);
+        inOrder.verify(session).setHibernateFlushMode(FlushMode.MANUAL);
+        inOrder.verify(entityManager).find(Entity.class, 1L);
+        inOrder.verify(entityManager).close();
+        Mockito.verify(entityManager, Mockito.never()).getTransaction();
+        Mockito.verify(entityManager, Mockito.never()).flush();
+        Mockito.verify(session, Mockito.never()).flush();
+    }
+
+    @Test
+    void shouldCloseEntityManagerAfterFailedRead() {
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(entityManager.find(Entity.class, 1L)).thenThrow(PersistenceException.class);
+
+        Assertions.assertThrows(PersistenceException.class, () -> dao.get(1L));
+
+        Mockito.verify(entityManager).close();
+        Mockito.verify(entityManager, Mockito.never()).getTransaction();
+    }
+
+    static class Entity {}
+
+    static class TestDao extends AbstractDao<Long, Entity> {
+        TestDao(EntityManagerFactory emf, Logger logger) {
+            super(Entity.class, emf, logger);
+        }
+    }
+}
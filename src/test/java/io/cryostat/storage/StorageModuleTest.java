@@ -0,0 +1,89 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.storage;
+
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import io.cryostat.configuration.Variables;
+import io.cryostat.core.sys.Environment;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class StorageModuleTest {
+
+    @Mock Environment env;
+    @Mock EntityManagerFactory emf;
+
+    @BeforeEach
+    void setup() {
+        when(env.getEnv(Mockito.anyString(), Mockito.anyString()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+        when(env.getEnv(Variables.JMX_CREDENTIALS_DB_PASSWORD)).thenReturn("secret");
+    }
+
+    @Test
+    void shouldUseDefaultPoolSize() {
+        MatcherAssert.assertThat(
+                provideProperties().get("hibernate.connection.pool_size"),
+                Matchers.equalTo(StorageModule.DEFAULT_JDBC_POOL_SIZE));
+    }
+
+    @Test
+    void shouldUseConfiguredPoolSize() {
+        when(env.getEnv(Variables.JDBC_POOL_SIZE, StorageModule.DEFAULT_JDBC_POOL_SIZE))
+                .thenReturn("5");
+
+        MatcherAssert.assertThat(
+                provideProperties().get("hibernate.connection.pool_size"), Matchers.equalTo("5"));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Map<Object, Object> provideProperties() {
+        try (MockedStatic<Persistence> persistence = Mockito.mockStatic(Persistence.class)) {
+            persistence
+                    .when(
+                            () ->
+                                    Persistence.createEntityManagerFactory(
+                                            Mockito.anyString(), Mockito.anyMap()))
+                    .thenReturn(emf);
+
+            MatcherAssert.assertThat(
+                    StorageModule.provideEntityManagerFactory(env), Matchers.sameInstance(emf));
+
+            ArgumentCaptor<Map> properties = ArgumentCaptor.forClass(Map.class);
+            persistence.verify(
+                    () ->
+                            Persistence.createEntityManagerFactory(
+                                    Mockito.eq("io.cryostat"), properties.capture()));
+            return properties.getValue();
+        }
+    }
+}
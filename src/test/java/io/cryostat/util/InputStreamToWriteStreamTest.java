@@ -0,0 +1,194 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.cryostat.net.ConnectionDescriptor;
+import io.cryostat.net.TargetConnectionManager;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class InputStreamToWriteStreamTest {
+
+    @Mock Vertx vertx;
+    @Mock Context context;
+    @Mock TargetConnectionManager targetConnectionManager;
+    @Mock WriteStream<Buffer> sink;
+    ConnectionDescriptor connectionDescriptor = new ConnectionDescriptor("fooHost:1");
+    ExecutorService executor;
+
+    InputStreamToWriteStream stream;
+
+    @BeforeEach
+    void setup() {
+        this.executor = Executors.newSingleThreadExecutor();
+        Mockito.when(vertx.getOrCreateContext()).thenReturn(context);
+        Mockito.lenient()
+                .doAnswer(
+                        invocation -> {
+                            Handler<Void> action = invocation.getArgument(0);
+                            action.handle(null);
+                            return null;
+                        })
+                .when(context)
+                .runOnContext(Mockito.any(Handler.class));
+        this.stream =
+                new InputStreamToWriteStream(
+                        vertx, executor, targetConnectionManager, connectionDescriptor);
+    }
+
+    @AfterEach
+    void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldWriteSourceInLargeChunksAndEndSink() throws Exception {
+        byte[] src = new byte[1024 * 1024 + 1];
+        new Random(123456).nextBytes(src);
+        Buffer dst = Buffer.buffer(src.length);
+        Mockito.doAnswer(
+                        invocation -> {
+                            dst.appendBuffer(invocation.getArgument(0));
+                            return null;
+                        })
+                .when(sink)
+                .write(Mockito.any(Buffer.class), Mockito.any(Handler.class));
+        Mockito.doAnswer(
+                        invocation -> {
+                            Handler<AsyncResult<Void>> handler = invocation.getArgument(0);
+                            handler.handle(Future.succeededFuture());
+                            return null;
+                        })
+                .when(sink)
+                .end(Mockito.any(Handler.class));
+        Mockito.when(targetConnectionManager.markConnectionInUse(connectionDescriptor))
+                .thenReturn(true);
+
+        Future<Void> result = stream.pipe(new ByteArrayInputStream(src), sink);
+        awaitCompletion(result);
+
+        MatcherAssert.assertThat(result.succeeded(), Matchers.is(true));
+        Assertions.assertArrayEquals(src, dst.getBytes());
+        Mockito.verify(sink, Mockito.times(17))
+                .write(Mockito.any(Buffer.class), Mockito.any(Handler.class));
+        Mockito.verify(targetConnectionManager, Mockito.times(2))
+                .markConnectionInUse(connectionDescriptor);
+    }
+
+    @Test
+    void shouldWaitForDrainWhenWriteQueueFull() throws Exception {
+        byte[] src = new byte[InputStreamToWriteStream.CHUNK_SIZE * 8];
+        AtomicReference<Handler<Void>> drainHandler = new AtomicReference<>();
+        Mockito.when(sink.writeQueueFull()).thenReturn(true);
+        Mockito.doAnswer(
+                        invocation -> {
+                            drainHandler.set(invocation.getArgument(0));
+                            return null;
+                        })
+                .when(sink)
+                .drainHandler(Mockito.any(Handler.class));
+        Mockito.doAnswer(
+                        invocation -> {
+                            Handler<AsyncResult<Void>> handler = invocation.getArgument(0);
+                            handler.handle(Future.succeededFuture());
+                            return null;
+                        })
+                .when(sink)
+                .end(Mockito.any(Handler.class));
+        Mockito.when(targetConnectionManager.markConnectionInUse(connectionDescriptor))
+                .thenReturn(true);
+
+        Future<Void> result = stream.pipe(new ByteArrayInputStream(src), sink);
+
+        Mockito.verify(
+                        sink,
+                        Mockito.timeout(1_000).times(InputStreamToWriteStream.MAX_CHUNKS_IN_FLIGHT))
+                .write(Mockito.any(Buffer.class), Mockito.any(Handler.class));
+        Thread.sleep(100);
+        MatcherAssert.assertThat(result.isComplete(), Matchers.is(false));
+        Mockito.verify(sink, Mockito.times(InputStreamToWriteStream.MAX_CHUNKS_IN_FLIGHT))
+                .write(Mockito.any(Buffer.class), Mockito.any(Handler.class));
+
+        Mockito.when(sink.writeQueueFull()).thenReturn(false);
+        drainHandler.get().handle(null);
+        awaitCompletion(result);
+
+        MatcherAssert.assertThat(result.succeeded(), Matchers.is(true));
+        Mockito.verify(sink, Mockito.times(8))
+                .write(Mockito.any(Buffer.class), Mockito.any(Handler.class));
+    }
+
+    @Test
+    void shouldFailIfConnectionLost() throws Exception {
+        Mockito.when(targetConnectionManager.markConnectionInUse(connectionDescriptor))
+                .thenReturn(false);
+
+        Future<Void> result = stream.pipe(new ByteArrayInputStream(new byte[1]), sink);
+        awaitCompletion(result);
+
+        MatcherAssert.assertThat(result.failed(), Matchers.is(true));
+        MatcherAssert.assertThat(result.cause(), Matchers.instanceOf(IOException.class));
+        Mockito.verifyNoInteractions(sink);
+    }
+
+    @Test
+    void shouldFailAndCloseSourceIfExecutorRejects() throws Exception {
+        executor.shutdown();
+        InputStream source = Mockito.mock(InputStream.class);
+
+        Future<Void> result = stream.pipe(source, sink);
+
+        MatcherAssert.assertThat(result.failed(), Matchers.is(true));
+        MatcherAssert.assertThat(
+                result.cause(), Matchers.instanceOf(RejectedExecutionException.class));
+        Mockito.verify(source).close();
+        Mockito.verifyNoMoreInteractions(source);
+        Mockito.verifyNoInteractions(sink, targetConnectionManager);
+    }
+
+    private void awaitCompletion(Future<Void> result) throws Exception {
+        executor.shutdown();
+        MatcherAssert.assertThat(executor.awaitTermination(5, TimeUnit.SECONDS), Matchers.is(true));
+        MatcherAssert.assertThat(result.isComplete(), Matchers.is(true));
+    }
+}
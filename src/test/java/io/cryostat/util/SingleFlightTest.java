@@ -0,0 +1,100 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.util;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    SingleFlight<String, String> singleFlight;
+
+    @BeforeEach
+    void setup() {
+        this.singleFlight = new SingleFlight<>();
+    }
+
+    @Test
+    void shouldShareInFlightTaskForSameKey() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> task = new CompletableFuture<>();
+
+        CompletableFuture<String> f1 =
+                singleFlight.run(
+                        "foo",
+                        () -> {
+                            calls.incrementAndGet();
+                            return task;
+                        });
+        CompletableFuture<String> f2 =
+                singleFlight.run(
+                        "foo",
+                        () -> {
+                            calls.incrementAndGet();
+                            return new CompletableFuture<>();
+                        });
+        MatcherAssert.assertThat(singleFlight.size(), Matchers.equalTo(1));
+
+        task.complete("bar");
+
+        MatcherAssert.assertThat(f1.get(), Matchers.equalTo("bar"));
+        MatcherAssert.assertThat(f2.get(), Matchers.equalTo("bar"));
+        MatcherAssert.assertThat(calls.get(), Matchers.equalTo(1));
+        MatcherAssert.assertThat(singleFlight.size(), Matchers.equalTo(0));
+    }
+
+    @Test
+    void shouldRunAgainOnceTaskCompleted() throws Exception {
+        singleFlight.run("foo", () -> CompletableFuture.completedFuture("bar"));
+        CompletableFuture<String> f =
+                singleFlight.run("foo", () -> CompletableFuture.completedFuture("baz"));
+
+        MatcherAssert.assertThat(f.get(), Matchers.equalTo("baz"));
+    }
+
+    @Test
+    void shouldNotShareTasksForDifferentKeys() throws Exception {
+        CompletableFuture<String> f1 = singleFlight.run("foo", () -> new CompletableFuture<>());
+        CompletableFuture<String> f2 =
+                singleFlight.run("bar", () -> CompletableFuture.completedFuture("baz"));
+
+        MatcherAssert.assertThat(f1, Matchers.not(Matchers.sameInstance(f2)));
+        MatcherAssert.assertThat(f2.get(), Matchers.equalTo("baz"));
+        MatcherAssert.assertThat(singleFlight.size(), Matchers.equalTo(1));
+    }
+
+    @Test
+    void shouldFailIfTaskThrows() {
+        CompletableFuture<String> f =
+                singleFlight.run(
+                        "foo",
+                        () -> {
+                            throw new IOException("failed");
+                        });
+
+        ExecutionException ex = Assertions.assertThrows(ExecutionException.class, f::get);
+        MatcherAssert.assertThat(ex.getCause(), Matchers.instanceOf(IOException.class));
+        MatcherAssert.assertThat(singleFlight.size(), Matchers.equalTo(0));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright The Cryostat Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cryostat.util;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vertx.core.buffer.Buffer;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WriteStreamToInputStreamTest {
+
+    WriteStreamToInputStream stream;
+
+    @BeforeEach
+    void setup() {
+        this.stream = new WriteStreamToInputStream();
+    }
+
+    @Test
+    void shouldReadWrittenDataUntilEnd() throws Exception {
+        stream.write(Buffer.buffer("foo"));
+        stream.write(Buffer.buffer("bar"));
+        stream.end();
+
+        MatcherAssert.assertThat(stream.available(), Matchers.equalTo(6));
+        MatcherAssert.assertThat(new String(stream.readAllBytes()), Matchers.equalTo("foobar"));
+        MatcherAssert.assertThat(stream.read(), Matchers.equalTo(-1));
+    }
+
+    @Test
+    void shouldSignalDrainOnceHalfOfQueueIsRead() throws Exception {
+        AtomicInteger drains = new AtomicInteger();
+        stream.setWriteQueueMaxSize(8);
+        stream.drainHandler(v -> drains.incrementAndGet());
+
+        for (int i = 0; i < 4; i++) {
+            stream.write(Buffer.buffer(new byte[2]));
+        }
+        MatcherAssert.assertThat(stream.writeQueueFull(), Matchers.is(true));
+
+        byte[] b = new byte[2];
+        stream.read(b);
+        MatcherAssert.assertThat(drains.get(), Matchers.equalTo(0));
+        MatcherAssert.assertThat(stream.writeQueueFull(), Matchers.is(true));
+
+        stream.read(b);
+        MatcherAssert.assertThat(drains.get(), Matchers.equalTo(1));
+        MatcherAssert.assertThat(stream.writeQueueFull(), Matchers.is(false));
+    }
+
+    @Test
+    void shouldThrowOnReadAfterFailure() throws Exception {
+        stream.write(Buffer.buffer("foo"));
+        stream.fail(new IllegalStateException("connection reset"));
+        stream.end();
+
+        IOException ex = Assertions.assertThrows(IOException.class, () -> stream.read());
+        MatcherAssert.assertThat(ex.getCause(), Matchers.instanceOf(IllegalStateException.class));
+    }
+}